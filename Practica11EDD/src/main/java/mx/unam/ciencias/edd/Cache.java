@@ -0,0 +1,581 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * <p>Clase para cachés acotados. Un caché asocia llaves con valores como un
+ * {@link Diccionario}, pero tiene un peso máximo: cuando agregar una entrada
+ * lo rebasa, el caché desaloja entradas según su {@link PoliticaCache}. Por
+ * omisión cada entrada pesa 1, y el peso máximo es el número máximo de
+ * entradas.</p>
+ *
+ * <p>Las entradas se buscan en un {@link Diccionario}, y además se guardan en
+ * listas doblemente ligadas que dicen en qué orden desalojarlas, así que
+ * buscar, agregar y desalojar toman tiempo constante. El caché cuenta sus
+ * aciertos, fallos y desalojos.</p>
+ */
+public class Cache<K, V> {
+
+    /* Clase interna privada para nodos. */
+    private class Nodo {
+
+        /* La llave. */
+        private K llave;
+        /* El valor. */
+        private V valor;
+        /* La dispersión de la llave, para el bosquejo de frecuencias. */
+        private int dispersion;
+        /* El peso de la entrada. */
+        private int peso;
+        /* El nodo anterior en su fila. */
+        private Nodo anterior;
+        /* El nodo siguiente en su fila. */
+        private Nodo siguiente;
+        /* La fila en la que está el nodo, o null. */
+        private Fila fila;
+        /* El grupo de frecuencia del nodo, con LFU. */
+        private Grupo grupo;
+
+        /* Construye un nodo. */
+        private Nodo(K llave, V valor, int dispersion, int peso) {
+            this.llave = llave;
+            this.valor = valor;
+            this.dispersion = dispersion;
+            this.peso = peso;
+        }
+    }
+
+    /* Clase interna privada para filas de nodos, de la entrada usada hace más
+     * tiempo a la usada más recientemente. */
+    private class Fila {
+
+        /* El primer nodo. */
+        private Nodo cabeza;
+        /* El último nodo. */
+        private Nodo rabo;
+        /* La suma de los pesos de los nodos. */
+        private long peso;
+
+        /* Agrega el nodo al final de la fila. */
+        private void agrega(Nodo nodo) {
+            nodo.fila = this;
+            nodo.anterior = rabo;
+            nodo.siguiente = null;
+            if (rabo == null)
+                cabeza = nodo;
+            else
+                rabo.siguiente = nodo;
+            rabo = nodo;
+            peso += nodo.peso;
+        }
+
+        /* Quita el nodo de la fila. */
+        private void quita(Nodo nodo) {
+            if (nodo.anterior == null)
+                cabeza = nodo.siguiente;
+            else
+                nodo.anterior.siguiente = nodo.siguiente;
+            if (nodo.siguiente == null)
+                rabo = nodo.anterior;
+            else
+                nodo.siguiente.anterior = nodo.anterior;
+            nodo.anterior = nodo.siguiente = null;
+            nodo.fila = null;
+            peso -= nodo.peso;
+        }
+
+        /* Mueve el nodo al final de la fila. */
+        private void mueveAlFinal(Nodo nodo) {
+            quita(nodo);
+            agrega(nodo);
+        }
+    }
+
+    /* Clase interna privada para los grupos de nodos con la misma frecuencia,
+     * con LFU. Los grupos forman una lista ordenada por frecuencia. */
+    private class Grupo {
+
+        /* La frecuencia de los nodos del grupo. */
+        private long frecuencia;
+        /* Los nodos del grupo. */
+        private Fila nodos;
+        /* El grupo anterior. */
+        private Grupo anterior;
+        /* El grupo siguiente. */
+        private Grupo siguiente;
+
+        /* Construye un grupo vacío. */
+        private Grupo(long frecuencia) {
+            this.frecuencia = frecuencia;
+            this.nodos = new Fila();
+        }
+    }
+
+    /* Clase interna privada para el bosquejo de frecuencias de W-TinyLFU: un
+     * count-min sketch de cuatro renglones con contadores de 4 bits, dieciséis
+     * en cada long. Cada cierto número de accesos todos los contadores se
+     * reducen a la mitad, para que las frecuencias viejas pesen menos. */
+    private static class Bosquejo {
+
+        /* Las semillas de los renglones. */
+        private static final int[] SEMILLAS = {
+            0x97cb3127, 0xb4b82e39, 0x60f2e5a1, 0x2c5a3d6f
+        };
+
+        /* Los contadores. */
+        private long[] tabla;
+        /* Los accesos desde la última reducción. */
+        private int muestras;
+        /* Los accesos entre reducciones. */
+        private int limite;
+
+        /* Construye un bosquejo para el número de entradas dado. */
+        private Bosquejo(int entradas) {
+            int n = Integer.highestOneBit(Math.max(entradas, 16) - 1) << 1;
+            tabla = new long[n];
+            limite = 10 * n;
+        }
+
+        /* Regresa el índice del contador de la dispersión en el renglón i
+         * dentro de la tabla, en los bits bajos, y su desplazamiento dentro
+         * del long en los bits 32 a 37. */
+        private long contador(int dispersion, int i) {
+            int h = Dispersores.mezcla32(dispersion ^ SEMILLAS[i]);
+            int desplazamiento = ((h >>> 28) & 0xc) | i;
+            return ((long)(desplazamiento << 2) << 32) |
+                (h & (tabla.length - 1));
+        }
+
+        /* Regresa la frecuencia estimada de la dispersión. */
+        private int frecuencia(int dispersion) {
+            int minima = 15;
+            for (int i = 0; i < SEMILLAS.length; i++) {
+                long c = contador(dispersion, i);
+                int valor = (int)(tabla[(int)c] >>> (c >>> 32)) & 0xf;
+                minima = Math.min(minima, valor);
+            }
+            return minima;
+        }
+
+        /* Registra un acceso a la dispersión. */
+        private void incrementa(int dispersion) {
+            for (int i = 0; i < SEMILLAS.length; i++) {
+                long c = contador(dispersion, i);
+                int indice = (int)c;
+                int desplazamiento = (int)(c >>> 32);
+                if (((tabla[indice] >>> desplazamiento) & 0xf) != 0xf)
+                    tabla[indice] += 1L << desplazamiento;
+            }
+            if (++muestras == limite)
+                reduce();
+        }
+
+        /* Reduce todos los contadores a la mitad. */
+        private void reduce() {
+            for (int i = 0; i < tabla.length; i++)
+                tabla[i] = (tabla[i] >>> 1) & 0x7777777777777777L;
+            muestras /= 2;
+        }
+    }
+
+    /* Peso máximo con el que se dimensiona el bosquejo de frecuencias. */
+    private static final int MAXIMO_BOSQUEJO = 1 << 20;
+
+    /* Las entradas del caché. */
+    private Diccionario<K, Nodo> tabla;
+    /* El dispersor de las llaves. */
+    private Dispersor<K> dispersor;
+    /* La política de desalojo. */
+    private PoliticaCache politica;
+    /* El pesador de las entradas. */
+    private Pesador<K, V> pesador;
+    /* El peso máximo. */
+    private long pesoMaximo;
+    /* El peso de todas las entradas. */
+    private long peso;
+
+    /* Con LRU, todas las entradas; con W-TinyLFU, la ventana. */
+    private Fila ventana;
+    /* Con W-TinyLFU, las entradas a prueba de la parte principal. */
+    private Fila prueba;
+    /* Con W-TinyLFU, las entradas protegidas de la parte principal. */
+    private Fila protegida;
+    /* Con LFU, el grupo de menor frecuencia. */
+    private Grupo primerGrupo;
+    /* Con W-TinyLFU, el bosquejo de frecuencias. */
+    private Bosquejo bosquejo;
+    /* Con W-TinyLFU, el peso máximo de la ventana. */
+    private long maximoVentana;
+    /* Con W-TinyLFU, el peso máximo de la parte principal. */
+    private long maximoPrincipal;
+    /* Con W-TinyLFU, el peso máximo de las entradas protegidas. */
+    private long maximoProtegida;
+
+    /* Búsquedas que encontraron su llave. */
+    private long aciertos;
+    /* Búsquedas que no encontraron su llave. */
+    private long fallos;
+    /* Entradas desalojadas. */
+    private long desalojos;
+
+    /**
+     * Construye un caché con un número máximo de entradas.
+     * @param capacidad el número máximo de entradas.
+     * @param politica la política de desalojo.
+     * @throws IllegalArgumentException si la capacidad no es positiva.
+     */
+    public Cache(int capacidad, PoliticaCache politica) {
+        this(capacidad, politica, (K llave, V valor) -> 1);
+    }
+
+    /**
+     * Construye un caché con un peso máximo y un pesador para las entradas.
+     * @param pesoMaximo el peso máximo de todas las entradas.
+     * @param politica la política de desalojo.
+     * @param pesador el pesador de las entradas.
+     * @throws IllegalArgumentException si el peso máximo no es positivo.
+     */
+    public Cache(long pesoMaximo, PoliticaCache politica,
+                 Pesador<K, V> pesador) {
+        if (pesoMaximo < 1)
+            throw new IllegalArgumentException("Peso máximo inválido");
+        this.pesoMaximo = pesoMaximo;
+        this.politica = politica;
+        this.pesador = pesador;
+        this.dispersor = (K llave) -> llave.hashCode();
+        this.tabla = new Diccionario<K, Nodo>(
+            (int)Math.min(pesoMaximo, MAXIMO_BOSQUEJO), dispersor);
+        this.ventana = new Fila();
+
+        if (politica == PoliticaCache.W_TINY_LFU) {
+            prueba = new Fila();
+            protegida = new Fila();
+            maximoVentana = Math.max(1, pesoMaximo / 100);
+            maximoPrincipal = pesoMaximo - maximoVentana;
+            maximoProtegida = maximoPrincipal * 4 / 5;
+            bosquejo =
+                new Bosquejo((int)Math.min(pesoMaximo, MAXIMO_BOSQUEJO));
+        }
+    }
+
+    /**
+     * Regresa el valor asociado a la llave, o <code>null</code> si la llave no
+     * está en el caché. La búsqueda cuenta como acierto o como fallo, y marca
+     * la entrada como usada.
+     * @param llave la llave a buscar.
+     * @return el valor asociado a la llave, o <code>null</code> si no está.
+     * @throws IllegalArgumentException si la llave es nula.
+     */
+    public V get(K llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+
+        Nodo nodo = busca(llave);
+        if (bosquejo != null)
+            bosquejo.incrementa(nodo != null ?
+                                nodo.dispersion : dispersor.dispersa(llave));
+
+        if (nodo == null) {
+            fallos++;
+            return null;
+        }
+
+        aciertos++;
+        usa(nodo);
+        return nodo.valor;
+    }
+
+    /**
+     * Nos dice si la llave está en el caché, sin contar aciertos ni fallos ni
+     * marcar la entrada como usada.
+     * @param llave la llave a buscar.
+     * @return <code>true</code> si la llave está en el caché,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(K llave) {
+        return llave != null && tabla.contiene(llave);
+    }
+
+    /**
+     * Agrega un valor al caché con la llave recibida, reemplazando el que
+     * tuviera, y desaloja entradas hasta que el peso no rebase el máximo. Una
+     * entrada que por sí sola pesa más que el máximo no se guarda.
+     * @param llave la llave.
+     * @param valor el valor.
+     * @throws IllegalArgumentException si la llave o el valor son nulos, o si
+     *         el pesador regresa un peso negativo.
+     */
+    public void agrega(K llave, V valor) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+        int p = pesador.pesa(llave, valor);
+        if (p < 0)
+            throw new IllegalArgumentException("Peso negativo");
+
+        Nodo nodo = busca(llave);
+        if (p > pesoMaximo) {
+            if (nodo != null)
+                quita(nodo);
+            return;
+        }
+
+        if (nodo != null) {
+            nodo.valor = valor;
+            Fila fila = nodo.fila;
+            fila.quita(nodo);
+            peso += p - nodo.peso;
+            nodo.peso = p;
+            fila.agrega(nodo);
+            usa(nodo);
+        } else {
+            /* Con LFU el nodo nuevo tendría la frecuencia más baja y sería la
+               primera víctima, así que se le hace lugar antes de enlazarlo. */
+            if (politica == PoliticaCache.LFU)
+                while (peso + p > pesoMaximo)
+                    desaloja(victima());
+            nodo = new Nodo(llave, valor, dispersor.dispersa(llave), p);
+            tabla.agrega(llave, nodo);
+            peso += p;
+            inserta(nodo);
+        }
+
+        ajusta();
+    }
+
+    /**
+     * Elimina la entrada con la llave recibida, si está. Eliminar no cuenta
+     * como desalojo.
+     * @param llave la llave de la entrada a eliminar.
+     */
+    public void elimina(K llave) {
+        Nodo nodo = llave == null ? null : busca(llave);
+        if (nodo != null)
+            quita(nodo);
+    }
+
+    /**
+     * Regresa el número de entradas en el caché.
+     * @return el número de entradas en el caché.
+     */
+    public int getElementos() {
+        return tabla.getElementos();
+    }
+
+    /**
+     * Regresa el peso de todas las entradas del caché.
+     * @return el peso de todas las entradas del caché.
+     */
+    public long getPeso() {
+        return peso;
+    }
+
+    /**
+     * Regresa el peso máximo del caché.
+     * @return el peso máximo del caché.
+     */
+    public long getPesoMaximo() {
+        return pesoMaximo;
+    }
+
+    /**
+     * Nos dice si el caché es vacío.
+     * @return <code>true</code> si el caché es vacío, <code>false</code> en
+     *         otro caso.
+     */
+    public boolean esVacia() {
+        return tabla.esVacia();
+    }
+
+    /**
+     * Regresa el número de búsquedas que encontraron su llave.
+     * @return el número de aciertos.
+     */
+    public long getAciertos() {
+        return aciertos;
+    }
+
+    /**
+     * Regresa el número de búsquedas que no encontraron su llave.
+     * @return el número de fallos.
+     */
+    public long getFallos() {
+        return fallos;
+    }
+
+    /**
+     * Regresa el número de entradas desalojadas para no rebasar el peso
+     * máximo.
+     * @return el número de desalojos.
+     */
+    public long getDesalojos() {
+        return desalojos;
+    }
+
+    /**
+     * Regresa la fracción de las búsquedas que encontraron su llave.
+     * @return la tasa de aciertos; 0 si no ha habido búsquedas.
+     */
+    public double tasaAciertos() {
+        long busquedas = aciertos + fallos;
+        return busquedas == 0 ? 0.0 : (double)aciertos / busquedas;
+    }
+
+    /**
+     * Limpia el caché de entradas, dejándolo vacío. Los contadores no
+     * cambian.
+     */
+    public void limpia() {
+        tabla.limpia();
+        peso = 0;
+        ventana = new Fila();
+        primerGrupo = null;
+        if (politica == PoliticaCache.W_TINY_LFU) {
+            prueba = new Fila();
+            protegida = new Fila();
+        }
+    }
+
+    /* Regresa el nodo de la llave, o null. */
+    private Nodo busca(K llave) {
+        return tabla.buscaValor(llave);
+    }
+
+    /* Coloca un nodo nuevo según la política. */
+    private void inserta(Nodo nodo) {
+        switch (politica) {
+        case LFU:
+            if (primerGrupo == null || primerGrupo.frecuencia != 1) {
+                Grupo grupo = new Grupo(1);
+                grupo.siguiente = primerGrupo;
+                if (primerGrupo != null)
+                    primerGrupo.anterior = grupo;
+                primerGrupo = grupo;
+            }
+            nodo.grupo = primerGrupo;
+            primerGrupo.nodos.agrega(nodo);
+            break;
+        case W_TINY_LFU:
+            bosquejo.incrementa(nodo.dispersion);
+            ventana.agrega(nodo);
+            break;
+        default:
+            ventana.agrega(nodo);
+        }
+    }
+
+    /* Marca el nodo como usado según la política. */
+    private void usa(Nodo nodo) {
+        switch (politica) {
+        case LFU:
+            subeFrecuencia(nodo);
+            break;
+        case W_TINY_LFU:
+            if (nodo.fila == prueba) {
+                prueba.quita(nodo);
+                protegida.agrega(nodo);
+                while (protegida.peso > maximoProtegida) {
+                    Nodo degradado = protegida.cabeza;
+                    protegida.quita(degradado);
+                    prueba.agrega(degradado);
+                }
+            } else {
+                nodo.fila.mueveAlFinal(nodo);
+            }
+            break;
+        default:
+            ventana.mueveAlFinal(nodo);
+        }
+    }
+
+    /* Pasa el nodo al grupo con la frecuencia siguiente, con LFU. */
+    private void subeFrecuencia(Nodo nodo) {
+        Grupo grupo = nodo.grupo;
+        Grupo siguiente = grupo.siguiente;
+        if (siguiente == null || siguiente.frecuencia != grupo.frecuencia + 1) {
+            siguiente = new Grupo(grupo.frecuencia + 1);
+            siguiente.anterior = grupo;
+            siguiente.siguiente = grupo.siguiente;
+            if (grupo.siguiente != null)
+                grupo.siguiente.anterior = siguiente;
+            grupo.siguiente = siguiente;
+        }
+        grupo.nodos.quita(nodo);
+        siguiente.nodos.agrega(nodo);
+        nodo.grupo = siguiente;
+        if (grupo.nodos.cabeza == null)
+            quitaGrupo(grupo);
+    }
+
+    /* Quita un grupo vacío de la lista de grupos, con LFU. */
+    private void quitaGrupo(Grupo grupo) {
+        if (grupo.anterior == null)
+            primerGrupo = grupo.siguiente;
+        else
+            grupo.anterior.siguiente = grupo.siguiente;
+        if (grupo.siguiente != null)
+            grupo.siguiente.anterior = grupo.anterior;
+    }
+
+    /* Desaloja entradas hasta que el peso no rebase el máximo. */
+    private void ajusta() {
+        if (politica == PoliticaCache.W_TINY_LFU) {
+            while (ventana.peso > maximoVentana) {
+                Nodo candidato = ventana.cabeza;
+                ventana.quita(candidato);
+                admite(candidato);
+            }
+        }
+
+        while (peso > pesoMaximo)
+            desaloja(victima());
+    }
+
+    /* Decide si el candidato que sale de la ventana entra a la parte
+     * principal, desalojando a las víctimas que haga falta, o si se desaloja
+     * él mismo. */
+    private void admite(Nodo candidato) {
+        while (prueba.peso + protegida.peso + candidato.peso >
+               maximoPrincipal) {
+            Nodo victima = prueba.cabeza != null ?
+                prueba.cabeza : protegida.cabeza;
+            if (victima == null ||
+                bosquejo.frecuencia(candidato.dispersion) <=
+                bosquejo.frecuencia(victima.dispersion)) {
+                desaloja(candidato);
+                return;
+            }
+            desaloja(victima);
+        }
+        prueba.agrega(candidato);
+    }
+
+    /* Regresa la siguiente entrada a desalojar según la política. */
+    private Nodo victima() {
+        switch (politica) {
+        case LFU:
+            return primerGrupo.nodos.cabeza;
+        case W_TINY_LFU:
+            if (prueba.cabeza != null)
+                return prueba.cabeza;
+            if (protegida.cabeza != null)
+                return protegida.cabeza;
+            return ventana.cabeza;
+        default:
+            return ventana.cabeza;
+        }
+    }
+
+    /* Desaloja el nodo, contándolo. */
+    private void desaloja(Nodo nodo) {
+        quita(nodo);
+        desalojos++;
+    }
+
+    /* Quita el nodo del caché. */
+    private void quita(Nodo nodo) {
+        if (nodo.fila != null)
+            nodo.fila.quita(nodo);
+        if (nodo.grupo != null && nodo.grupo.nodos.cabeza == null)
+            quitaGrupo(nodo.grupo);
+        tabla.elimina(nodo.llave);
+        peso -= nodo.peso;
+    }
+}
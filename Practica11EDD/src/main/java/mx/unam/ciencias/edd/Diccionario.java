@@ -1,82 +1,140 @@
 package mx.unam.ciencias.edd;
 
 import java.lang.reflect.Array;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 /**
- * Clase para diccionarios (<em>hash tables</em>). Un diccionario generaliza el
- * concepto de arreglo, mapeando un conjunto de <em>llaves</em> a una colección
- * de <em>valores</em>.
+ * <p>Clase para diccionarios (<em>hash tables</em>). Un diccionario generaliza
+ * el concepto de arreglo, mapeando un conjunto de <em>llaves</em> a una
+ * colección de <em>valores</em>.</p>
+ *
+ * <p>Cada índice del arreglo guarda sus entradas en una {@link Lista}; si una
+ * lista crece más allá de un umbral (por un mal dispersor o por llaves
+ * elegidas a propósito para chocar), se convierte en un {@link
+ * ArbolRojinegro} ordenado por dispersión y luego por llave, cuando las
+ * llaves son {@link Comparable}. Así el peor caso de una búsqueda es
+ * logarítmico. Cuando el árbol se encoge lo suficiente, vuelve a ser
+ * lista.</p>
+ *
+ * <p>Además, las entradas se guardan en orden de inserción en un arreglo
+ * denso, sin huecos salvo los que dejan las eliminaciones, que se compacta
+ * cuando los huecos son más que las entradas. Crecer y compactar ese arreglo
+ * se hace poco a poco, en las inserciones y eliminaciones siguientes.
+ * Recorrer el diccionario, y con ello {@link #equals} y {@link #toString}, y
+ * reconstruir el arreglo al redimensionarlo, son recorridos lineales de ese
+ * arreglo que no dependen de la capacidad, y el orden en que se recorren las
+ * llaves es el orden en que se agregaron.</p>
  */
 public class Diccionario<K, V> implements Iterable<V> {
 
-    /* Clase interna privada para entradas. */
-    private class Entrada {
+    /* Clase interna privada para entradas. Las entradas se ordenan por
+       dispersión, luego por el nombre de la clase de la llave, luego por
+       llave si es comparable con las de su clase, luego por la dispersión de
+       identidad de la llave, y al final por el orden en que se agregaron,
+       para que dos entradas distintas nunca sean iguales en un árbol. Cada
+       criterio sólo desempata al anterior, así que el orden es transitivo
+       aunque en un mismo árbol haya llaves de clases distintas. No se usa la
+       posición en el arreglo denso, porque mientras el arreglo se muda unas
+       entradas tienen su posición vieja y otras la nueva. */
+    private class Entrada implements Comparable<Entrada> {
 
         /* La llave. */
         private K llave;
         /* El valor. */
         private V valor;
+        /* La dispersión completa de la llave. */
+        private int dispersion;
+        /* La posición de la entrada en el arreglo denso; -1 si se eliminó. */
+        private int posicion;
+        /* El número de la entrada en el orden en que se agregaron. */
+        private int orden;
 
         /* Construye una nueva entrada. */
-        private Entrada(K llave, V valor) {
+        private Entrada(K llave, V valor, int dispersion) {
             this.llave = llave;
             this.valor = valor;
+            this.dispersion = dispersion;
+        }
+
+        /* Compara la entrada con otra. */
+        @Override public int compareTo(Entrada entrada) {
+            int c = Integer.compare(dispersion, entrada.dispersion);
+            if (c == 0)
+                c = llave.getClass().getName()
+                    .compareTo(entrada.llave.getClass().getName());
+            if (c == 0)
+                c = comparaLlaves(llave, entrada.llave);
+            if (c == 0)
+                c = Integer.compare(System.identityHashCode(llave),
+                                    System.identityHashCode(entrada.llave));
+            return c != 0 ? c : Integer.compare(orden, entrada.orden);
         }
     }
 
-    /* Clase interna privada para iteradores. */
+    /* Clase interna privada para iteradores. El iterador recorre los
+       arreglos densos que había al construirse: si el arreglo se estaba
+       mudando, primero el viejo completo y luego las entradas agregadas al
+       nuevo después de empezar la mudanza. Si el diccionario vuelve a mudar
+       el arreglo, los arreglos del iterador no cambian, y las entradas que se
+       eliminen después se reconocen por su posición negativa. Así se puede
+       eliminar la entrada recién regresada sin perder el lugar. */
     private class Iterador {
 
-        /* En qué lista estamos. */
+        /* El arreglo denso viejo si el denso se estaba mudando, o null. */
+        private Entrada[] viejo;
+        /* Cuántas posiciones del arreglo viejo se recorren. */
+        private int limiteViejo;
+        /* El arreglo denso. */
+        private Entrada[] arreglo;
+        /* La primera posición que se recorre del arreglo denso. */
+        private int inicio;
+        /* Cuántas posiciones se recorren en total. */
+        private int limite;
+        /* El número de la siguiente entrada en el recorrido. */
         private int indice;
-        /* Iterador auxiliar. */
-        private Iterator<Entrada> iterador;
 
-        /* Construye un nuevo iterador, auxiliándose de las listas del
+        /* Construye un nuevo iterador, auxiliándose del arreglo denso del
          * diccionario. */
         private Iterador() {
+            viejo = densasViejas;
+            limiteViejo = viejo == null ? 0 : limiteViejas;
+            arreglo = densas;
+            inicio = viejo == null ? 0 : inicioNuevas;
+            limite = limiteViejo + ocupadas - inicio;
             indice = -1;
             mueveIterador();
         }
 
         /* Nos dice si hay una siguiente entrada. */
         public boolean hasNext() {
-            return iterador != null;
+            return indice < limite;
         }
 
         /* Regresa la siguiente entrada. */
         protected Entrada siguiente() {
-            /*if(!iterador.hasNext())
-                mueveIterador();
-
-            if (iterador != null)
-                return iterador.next();
-            else
-                throw new NoSuchElementException();
-                */
-            if (iterador == null)
+            if (!hasNext())
                 throw new NoSuchElementException("No hay siguiente elemento.");
 
-            Entrada siguienteEntrada = iterador.next();
-
-            if (!iterador.hasNext())
-                mueveIterador();
+            Entrada siguienteEntrada = entrada(indice);
+            mueveIterador();
 
             return siguienteEntrada;
         }
 
-        /* Mueve el iterador a la siguiente entrada válida. */
+        /* Regresa la i-ésima entrada del recorrido, o null si es un hueco. */
+        private Entrada entrada(int i) {
+            return i < limiteViejo ? viejo[i] : arreglo[inicio + i - limiteViejo];
+        }
+
+        /* Mueve el iterador a la siguiente entrada, saltando los huecos y las
+         * entradas eliminadas. */
         private void mueveIterador() {
-            for(int i = indice + 1; i < entradas.length; i++){
-                if(entradas[i] != null){
-                    iterador = entradas[i].iterator();
-                    indice = i;
-                    return;
-                }
-            }
-            this.iterador = null;
+            do {
+                indice++;
+            } while (indice < limite &&
+                     (entrada(indice) == null || entrada(indice).posicion < 0));
         }
     }
 
@@ -103,22 +161,106 @@ public class Diccionario<K, V> implements Iterable<V> {
     /** Máxima carga permitida por el diccionario. */
     public static final double MAXIMA_CARGA = 0.72;
 
+    /**
+     * Mínima carga permitida por el diccionario al eliminar; por debajo de
+     * ella el arreglo se encoge a la mitad, a menos que ya tenga la capacidad
+     * con la que se construyó. Es la mitad de la carga que queda después de
+     * crecer, y la carga después de encoger es la mitad de la máxima, así que
+     * agregar y eliminar alrededor de un mismo tamaño no redimensiona una y
+     * otra vez.
+     */
+    public static final double MINIMA_CARGA = 0.18;
+
+    /**
+     * Umbral predeterminado para convertir una lista en árbol: una lista con
+     * más de este número de entradas se vuelve árbol.
+     */
+    public static final int UMBRAL_ARBOL = 8;
+
     /* Capacidad mínima; decidida arbitrariamente a 2^6. */
     private static final int MINIMA_CAPACIDAD = 64;
 
+    /* Longitud mínima del arreglo denso. */
+    private static final int MINIMAS_DENSAS = 8;
+
+    /* Mínimo de listas que se migran en cada operación durante un
+       redimensionamiento incremental; no es un máximo. Al redimensionar, las
+       listas por operación se calculan para terminar de migrar las del
+       arreglo viejo antes del siguiente redimensionamiento: al duplicar un
+       arreglo de L listas faltan 0.72·L inserciones para volver a crecer y
+       0.36·L eliminaciones para encoger, así que bastan ⌈L / 0.36·L⌉ = 3 y
+       se migran 4; al encoger a L/2 faltan 0.18·L inserciones y sólo 0.09·L
+       eliminaciones, así que se migran 12. Cada operación migra entonces a
+       lo más 12 listas, y en total cada lista del arreglo viejo se migra una
+       sola vez. */
+    private static final int MIGRACIONES_POR_OPERACION = 4;
+
+    /* Posiciones del arreglo denso viejo que se revisan en cada inserción y
+       eliminación mientras se muda al nuevo. El viejo tiene a lo más el doble
+       de posiciones usadas que entradas, más MINIMAS_DENSAS (si no, ya se
+       habría compactado), y la siguiente mudanza no llega antes de agregar
+       tantas entradas como había al empezar, o de eliminar la mitad; con 8
+       se termina después de a lo más la cuarta parte de esas operaciones,
+       aunque se mezclen inserciones y eliminaciones. */
+    private static final int COPIAS_POR_OPERACION = 8;
+
     /* Dispersor. */
     private Dispersor<K> dispersor;
     /* Nuestro diccionario. */
-    private Lista<Entrada>[] entradas;
+    private Coleccion<Entrada>[] entradas;
     /* Número de valores. */
     private int elementos;
+    /* Cómo se redimensiona el arreglo. */
+    private Redimensionamiento redimensionamiento;
+    /* El arreglo viejo durante un redimensionamiento incremental, o null. */
+    private Coleccion<Entrada>[] viejas;
+    /* Cuántas listas del arreglo viejo ya se migraron. */
+    private int migradas;
+    /* Cuántas listas del arreglo viejo se migran en cada operación. */
+    private int migraciones;
+    /* La capacidad con la que se construyó el arreglo. */
+    private int capacidadInicial;
+    /* Número de entradas a partir del cual una lista se vuelve árbol. */
+    private int umbralArbol;
+    /* Número de entradas con el que un árbol vuelve a ser lista. */
+    private int umbralLista;
+    /* Las entradas en orden de inserción; las eliminadas dejan null. */
+    private Entrada[] densas;
+    /* Cuántas posiciones del arreglo denso se han usado, con huecos. */
+    private int ocupadas;
+    /* El arreglo denso viejo mientras se muda al nuevo, o null. Las entradas
+       que todavía no se copian conservan su posición en el viejo. */
+    private Entrada[] densasViejas;
+    /* Cuántas posiciones del arreglo denso viejo se usaron. */
+    private int limiteViejas;
+    /* Cuántas posiciones del arreglo denso viejo ya se revisaron. */
+    private int copiadas;
+    /* La posición del arreglo denso nuevo donde va la siguiente entrada que
+       se copia del viejo. */
+    private int destino;
+    /* La posición del arreglo denso nuevo donde empiezan las entradas
+       agregadas durante la mudanza. */
+    private int inicioNuevas;
+    /* Cuántas entradas se han numerado con su orden de inserción. */
+    private int agregadas;
+    /* Si se ignoran las dispersiones guardadas: las listas comparan llaves
+       sin ver antes su dispersión, y redimensionar vuelve a dispersar cada
+       llave. Sólo sirve para medir lo que se ahorra al guardarlas. */
+    boolean ignoraDispersiones;
 
     /* Truco para crear un arreglo genérico. Es necesario hacerlo así por cómo
        Java implementa sus genéricos; de otra forma obtenemos advertencias del
        compilador. */
     @SuppressWarnings("unchecked")
-    private Lista<Entrada>[] nuevoArreglo(int n) {
-        return (Lista<Entrada>[])Array.newInstance(Lista.class, n);
+    private Coleccion<Entrada>[] nuevoArreglo(int n) {
+        return (Coleccion<Entrada>[])Array.newInstance(Coleccion.class, n);
+    }
+
+    /* Crea un arreglo denso de entradas, con el mismo truco. */
+    @SuppressWarnings("unchecked")
+    private Entrada[] nuevasDensas(int n) {
+        return (Entrada[])Array.newInstance(Entrada.class,
+                                            Math.max(n, MINIMAS_DENSAS));
     }
 
     /**
@@ -154,12 +296,84 @@ public class Diccionario<K, V> implements Iterable<V> {
      * @param dispersor el dispersor a utilizar.
      */
     public Diccionario(int capacidad, Dispersor<K> dispersor) {
+        this(capacidad, dispersor, Redimensionamiento.COMPLETO);
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial, un método de
+     * dispersor y una forma de redimensionar definidos por el usuario. Con
+     * {@link Redimensionamiento#INCREMENTAL} ninguna operación tiene que
+     * mover todas las entradas de golpe: cada inserción o eliminación migra 4
+     * listas del arreglo viejo después de crecer y 12 después de encoger, a
+     * cambio de que las búsquedas revisen dos arreglos mientras dura la
+     * migración.
+     * @param capacidad la capacidad inicial del diccionario.
+     * @param dispersor el dispersor a utilizar.
+     * @param redimensionamiento cómo redimensionar el arreglo.
+     */
+    public Diccionario(int capacidad, Dispersor<K> dispersor,
+                       Redimensionamiento redimensionamiento) {
+        this(capacidad, dispersor, redimensionamiento, UMBRAL_ARBOL);
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial, un método de
+     * dispersor, una forma de redimensionar y un umbral para convertir listas
+     * en árboles definidos por el usuario. Una lista con más de
+     * <code>umbralArbol</code> entradas se convierte en árbol, y un árbol con
+     * tres cuartas partes del umbral o menos vuelve a ser lista; con {@link
+     * Integer#MAX_VALUE} nunca se usan árboles.
+     * @param capacidad la capacidad inicial del diccionario.
+     * @param dispersor el dispersor a utilizar.
+     * @param redimensionamiento cómo redimensionar el arreglo.
+     * @param umbralArbol el número de entradas a partir del cual una lista se
+     *        convierte en árbol.
+     * @throws IllegalArgumentException si el umbral es menor que 2.
+     */
+    public Diccionario(int capacidad, Dispersor<K> dispersor,
+                       Redimensionamiento redimensionamiento,
+                       int umbralArbol) {
+        if (umbralArbol < 2)
+            throw new IllegalArgumentException("Umbral inválido");
+        this.umbralArbol = umbralArbol;
+        this.umbralLista = (int)(umbralArbol * 3L / 4);
         capacidad =
             capacidad < MINIMA_CAPACIDAD ?
             MINIMA_CAPACIDAD :
             redondearAPotencia(capacidad * 2);
+        this.capacidadInicial = capacidad;
         this.entradas = nuevoArreglo(capacidad);
+        this.densas = nuevasDensas(capacidad / 2);
         this.dispersor = dispersor;
+        this.redimensionamiento = redimensionamiento;
+    }
+
+    /**
+     * Construye un diccionario con las llaves y valores recibidos, con un
+     * dispersor predeterminado. Es equivalente a agregar cada pareja en orden,
+     * pero el arreglo se dimensiona una sola vez.
+     * @param llaves las llaves.
+     * @param valores los valores; el i-ésimo corresponde a la i-ésima llave.
+     * @throws IllegalArgumentException si los arreglos tienen longitudes
+     *         distintas, o si alguna llave o valor es nulo.
+     */
+    public Diccionario(K[] llaves, V[] valores) {
+        this(llaves, valores, (K llave) -> llave.hashCode());
+    }
+
+    /**
+     * Construye un diccionario con las llaves y valores recibidos, y un
+     * dispersor definido por el usuario. Es equivalente a agregar cada pareja
+     * en orden, pero el arreglo se dimensiona una sola vez.
+     * @param llaves las llaves.
+     * @param valores los valores; el i-ésimo corresponde a la i-ésima llave.
+     * @param dispersor el dispersor a utilizar.
+     * @throws IllegalArgumentException si los arreglos tienen longitudes
+     *         distintas, o si alguna llave o valor es nulo.
+     */
+    public Diccionario(K[] llaves, V[] valores, Dispersor<K> dispersor) {
+        this(llaves.length, dispersor);
+        agregaTodos(llaves, valores);
     }
 
     /**
@@ -175,22 +389,90 @@ public class Diccionario<K, V> implements Iterable<V> {
         if(llave == null | valor == null)
             throw new IllegalArgumentException();
 
-        int indice = getIndice(llave);
+        migra(migraciones);
 
-        if(entradas[indice] == null)
-            entradas[indice] = new Lista<Entrada>();
-
-        Entrada coincidencia = getValor(indice, llave);
+        int dispersion = dispersor.dispersa(llave);
+        Entrada coincidencia = busca(llave, dispersion);
 
         if(coincidencia != null)
             coincidencia.valor = valor;
         else{
-            entradas[indice].agrega(new Entrada(llave, valor));
+            Entrada entrada = new Entrada(llave, valor, dispersion);
+            agregaDensa(entrada);
+            agregaEntrada(entradas, getIndice(dispersion), entrada);
             elementos++;
         }
 
         if(carga() >= MAXIMA_CARGA)
-            agrandaArreglo();
+            redimensiona(entradas.length * 2);
+    }
+
+    /**
+     * Agrega todas las parejas de llaves y valores recibidas. Es equivalente
+     * a llamar {@link #agrega} con cada pareja en orden, pero el arreglo se
+     * dimensiona una sola vez antes de empezar, y ninguna pareja revisa la
+     * carga ni migra listas de un redimensionamiento incremental.
+     * @param llaves las llaves.
+     * @param valores los valores; el i-ésimo corresponde a la i-ésima llave.
+     * @throws IllegalArgumentException si los arreglos tienen longitudes
+     *         distintas, o si alguna llave o valor es nulo; en ese caso el
+     *         diccionario no cambia.
+     */
+    public void agregaTodos(K[] llaves, V[] valores) {
+        agregaTodos(llaves, valores, false);
+    }
+
+    /**
+     * Agrega todas las parejas de llaves y valores recibidas, dispersando las
+     * llaves en paralelo si se pide. Es equivalente a llamar {@link #agrega}
+     * con cada pareja en orden, pero el arreglo se dimensiona una sola vez
+     * antes de empezar, y ninguna pareja revisa la carga ni migra listas de un
+     * redimensionamiento incremental. Para dispersar en paralelo, el
+     * dispersor debe poder usarse desde varios hilos a la vez.
+     * @param llaves las llaves.
+     * @param valores los valores; el i-ésimo corresponde a la i-ésima llave.
+     * @param paralelo si las llaves se dispersan en paralelo.
+     * @throws IllegalArgumentException si los arreglos tienen longitudes
+     *         distintas, o si alguna llave o valor es nulo; en ese caso el
+     *         diccionario no cambia.
+     */
+    public void agregaTodos(K[] llaves, V[] valores, boolean paralelo) {
+        if(llaves.length != valores.length)
+            throw new IllegalArgumentException("Longitudes distintas");
+        for(int i = 0; i < llaves.length; i++)
+            if(llaves[i] == null || valores[i] == null)
+                throw new IllegalArgumentException();
+
+        int[] dispersiones = new int[llaves.length];
+        if(paralelo)
+            Arrays.parallelSetAll(dispersiones,
+                                  i -> dispersor.dispersa(llaves[i]));
+        else
+            for(int i = 0; i < llaves.length; i++)
+                dispersiones[i] = dispersor.dispersa(llaves[i]);
+
+        migra(viejas == null ? 0 : viejas.length);
+        long total = (long)elementos + llaves.length;
+        if(total >= MAXIMA_CARGA * entradas.length)
+            reconstruye(redondearAPotencia((int)Math.min(total * 2,
+                                                         1 << 30)));
+        if(ocupadas + llaves.length > densas.length)
+            reacomoda((int)Math.min(total, Integer.MAX_VALUE - 8));
+
+        for(int i = 0; i < llaves.length; i++){
+            Entrada coincidencia = busca(llaves[i], dispersiones[i]);
+
+            if(coincidencia != null){
+                coincidencia.valor = valores[i];
+                continue;
+            }
+
+            Entrada entrada =
+                new Entrada(llaves[i], valores[i], dispersiones[i]);
+            agregaDensa(entrada);
+            agregaEntrada(entradas, getIndice(dispersiones[i]), entrada);
+            elementos++;
+        }
     }
 
     /**
@@ -204,8 +486,7 @@ public class Diccionario<K, V> implements Iterable<V> {
         if (llave == null)
             throw new IllegalArgumentException();
 
-        int indice = getIndice(llave);
-        Entrada retorno = getValor(indice, llave);
+        Entrada retorno = busca(llave, dispersor.dispersa(llave));
 
         if (retorno == null)
             throw new NoSuchElementException();
@@ -213,6 +494,19 @@ public class Diccionario<K, V> implements Iterable<V> {
         return retorno.valor;
     }
 
+    /* Regresa el valor asociado a la llave, o null si la llave es nula o no
+       está en el diccionario. Las clases del paquete que guardan valores no
+       nulos lo usan para buscar una sola vez en lugar de llamar a contiene
+       y luego a get. */
+    V buscaValor(K llave) {
+        if (llave == null)
+            return null;
+
+        Entrada entrada = busca(llave, dispersor.dispersa(llave));
+
+        return entrada == null ? null : entrada.valor;
+    }
+
     /**
      * Nos dice si una llave se encuentra en el diccionario.
      * @param llave la llave que queremos ver si está en el diccionario.
@@ -223,11 +517,13 @@ public class Diccionario<K, V> implements Iterable<V> {
         if (llave == null)
             return false;
 
-        return getValor(getIndice(llave), llave) != null;
+        return busca(llave, dispersor.dispersa(llave)) != null;
     }
 
     /**
-     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * Elimina el valor del diccionario asociado a la llave proporcionada. Si
+     * la carga queda por debajo de {@link #MINIMA_CARGA}, el arreglo se encoge
+     * a la mitad, sin bajar de la capacidad con la que se construyó.
      * @param llave la llave para buscar el valor a eliminar.
      * @throws IllegalArgumentException si la llave es nula.
      * @throws NoSuchElementException si la llave no se encuentra en
@@ -237,18 +533,99 @@ public class Diccionario<K, V> implements Iterable<V> {
         if (llave == null)
             throw new IllegalArgumentException();
 
-        int indice = getIndice(llave);
-        Entrada aEliminar = getValor(indice, llave);
+        migra(migraciones);
+
+        int dispersion = dispersor.dispersa(llave);
+        Coleccion<Entrada>[] arreglo = entradas;
+        int indice = getIndice(dispersion);
+        Entrada aEliminar = getValor(arreglo, indice, llave, dispersion);
+
+        if(aEliminar == null && viejas != null){
+            arreglo = viejas;
+            indice = getIndiceViejo(dispersion);
+            aEliminar = getValor(arreglo, indice, llave, dispersion);
+        }
 
         if(aEliminar == null)
             throw new NoSuchElementException();
 
-        entradas[indice].elimina(aEliminar);
+        arreglo[indice].elimina(aEliminar);
+
+        if(arreglo[indice].esVacia())
+            arreglo[indice] = null;
+        else if(arreglo[indice] instanceof ArbolRojinegro &&
+                arreglo[indice].getElementos() <= umbralLista)
+            arreglo[indice] = aLista(arreglo[indice]);
+
+        copiaDensas(COPIAS_POR_OPERACION);
+        int posicion = aEliminar.posicion;
+        if(posicion < densas.length && densas[posicion] == aEliminar)
+            densas[posicion] = null;
+        else
+            densasViejas[posicion] = null;
+        aEliminar.posicion = -1;
+        elementos--;
 
-        if(entradas[indice].esVacia())
-            entradas[indice] = null;
+        if(ocupadas - elementos > Math.max(elementos, MINIMAS_DENSAS))
+            mudaDensas(elementos * 2);
 
-        elementos--;
+        if(carga() < MINIMA_CARGA && entradas.length > capacidadInicial)
+            redimensiona(entradas.length / 2);
+    }
+
+    /**
+     * Encoge el arreglo del diccionario a la capacidad que elegiría el
+     * constructor para el número actual de elementos, sin importar la
+     * capacidad inicial, y quita los huecos y el espacio libre del arreglo
+     * denso de entradas. Termina cualquier redimensionamiento incremental en
+     * curso. Después de compactar, la capacidad a la que regresan {@link
+     * #limpia} y los encogimientos automáticos es a lo más la nueva.
+     */
+    public void compacta() {
+        int capacidad =
+            elementos < MINIMA_CAPACIDAD ?
+            MINIMA_CAPACIDAD :
+            redondearAPotencia(elementos * 2);
+
+        migra(viejas == null ? 0 : viejas.length);
+        if(capacidad < entradas.length)
+            reconstruye(capacidad);
+        capacidadInicial = Math.min(capacidadInicial, entradas.length);
+        reacomoda(elementos);
+    }
+
+    /**
+     * Regresa una copia inmutable del diccionario, con una función de
+     * dispersión perfecta mínima construida con el dispersor del
+     * diccionario. Los cambios posteriores al diccionario no afectan a la
+     * copia.
+     * @return una copia inmutable del diccionario.
+     */
+    public DiccionarioCongelado<K, V> congela() {
+        return congela(dispersor);
+    }
+
+    /**
+     * Regresa una copia inmutable del diccionario, con una función de
+     * dispersión perfecta mínima construida con el dispersor recibido. Con
+     * un {@link Dispersor64} la copia nunca necesita más de una comparación
+     * por búsqueda.
+     * @param dispersor el dispersor de la copia.
+     * @return una copia inmutable del diccionario.
+     */
+    @SuppressWarnings("unchecked")
+    public DiccionarioCongelado<K, V> congela(Dispersor<K> dispersor) {
+        K[] llaves = (K[])new Object[elementos];
+        V[] valores = (V[])new Object[elementos];
+        Iterador iterador = new Iterador();
+
+        for (int i = 0; iterador.hasNext(); i++) {
+            Entrada entrada = iterador.siguiente();
+            llaves[i] = entrada.llave;
+            valores[i] = entrada.valor;
+        }
+
+        return new DiccionarioCongelado<K, V>(llaves, valores, dispersor);
     }
 
     /**
@@ -256,28 +633,20 @@ public class Diccionario<K, V> implements Iterable<V> {
      * @return cuántas colisiones hay en el diccionario.
      */
     public int colisiones() {
-        int contador = 0;
-
-        for(Lista<Entrada> lista : entradas)
-            if(lista != null)
-                contador += lista.getLongitud();
+        int contador = longitudes(entradas) + longitudes(viejas);
 
         return contador == 0 ? 0 : contador - 1;
     }
 
     /**
      * Nos dice el máximo número de colisiones para una misma llave que tenemos
-     * en el diccionario.
+     * en el diccionario. Para las listas es su longitud menos uno; para las
+     * listas convertidas en árbol es la altura del árbol, que es el número de
+     * comparaciones de más que puede necesitar una búsqueda.
      * @return el máximo número de colisiones para una misma llave.
      */
     public int colisionMaxima() {
-        int maximo = 0;
-
-        for (Lista<Entrada> lista : entradas)
-            if (lista != null && lista.getLongitud() > maximo)
-                maximo = lista.getLongitud();
-
-        return maximo - 1;
+        return Math.max(colisionMaxima(entradas), colisionMaxima(viejas));
     }
 
     /**
@@ -288,6 +657,22 @@ public class Diccionario<K, V> implements Iterable<V> {
         return Double.valueOf(elementos) / entradas.length;
     }
 
+    /**
+     * Regresa cuántas referencias ocupan los arreglos del diccionario: una
+     * por índice, más una por casilla del arreglo denso de entradas (y de
+     * los arreglos viejos mientras se terminan de copiar). A diferencia de
+     * la memoria del montón, no depende del recolector de basura.
+     * @return cuántas referencias ocupan los arreglos del diccionario.
+     */
+    public int getReferencias() {
+        int referencias = entradas.length + densas.length;
+        if(viejas != null)
+            referencias += viejas.length;
+        if(densasViejas != null)
+            referencias += densasViejas.length;
+        return referencias;
+    }
+
     /**
      * Regresa el número de entradas en el diccionario.
      * @return el número de entradas en el diccionario.
@@ -306,11 +691,17 @@ public class Diccionario<K, V> implements Iterable<V> {
     }
 
     /**
-     * Limpia el diccionario de elementos, dejándolo vacío.
+     * Limpia el diccionario de elementos, dejándolo vacío y con la capacidad
+     * con la que se construyó.
      */
     public void limpia() {
         elementos = 0;
-        entradas = nuevoArreglo(entradas.length);
+        entradas = nuevoArreglo(capacidadInicial);
+        viejas = null;
+        densas = nuevasDensas(capacidadInicial / 2);
+        densasViejas = null;
+        ocupadas = 0;
+        agregadas = 0;
     }
 
     /**
@@ -363,7 +754,7 @@ public class Diccionario<K, V> implements Iterable<V> {
 
     /**
      * Regresa un iterador para iterar las llaves del diccionario. El
-     * diccionario se itera sin ningún orden específico.
+     * diccionario se itera en el orden en que se agregaron las llaves.
      * @return un iterador para iterar las llaves del diccionario.
      */
     public Iterator<K> iteradorLlaves() {
@@ -372,7 +763,7 @@ public class Diccionario<K, V> implements Iterable<V> {
 
     /**
      * Regresa un iterador para iterar los valores del diccionario. El
-     * diccionario se itera sin ningún orden específico.
+     * diccionario se itera en el orden en que se agregaron las llaves.
      * @return un iterador para iterar los valores del diccionario.
      */
     @Override public Iterator<V> iterator() {
@@ -380,39 +771,298 @@ public class Diccionario<K, V> implements Iterable<V> {
     }
 
     private int redondearAPotencia(int numero){
-        return (int) (Math.pow(2,Math.ceil(Math.log(numero)/Math.log(2))));
+        return numero <= 1 ? 1 : Integer.highestOneBit(numero - 1) << 1;
     }
 
-    private int getIndice(K llave){
-        return dispersor.dispersa(llave) & (entradas.length - 1);
+    private int getIndice(int dispersion){
+        return dispersion & (entradas.length - 1);
     }
 
-    private Entrada getValor(int indice, K llave){
-        if(entradas[indice] == null)
+    /* Busca la llave en la lista del arreglo en el índice dado; las
+       dispersiones se comparan antes que las llaves, para sólo llamar equals
+       cuando es muy probable que coincidan. */
+    private Entrada getValor(Coleccion<Entrada>[] arreglo, int indice, K llave,
+                             int dispersion){
+        if(indice == -1 || arreglo[indice] == null)
             return null;
 
-        for(Entrada entrada : entradas[indice])
-            if(entrada.llave.equals(llave))
+        if(arreglo[indice] instanceof ArbolRojinegro){
+            ArbolRojinegro<Entrada> arbol =
+                (ArbolRojinegro<Entrada>)arreglo[indice];
+            return getValor(arbol.raiz(), llave, dispersion);
+        }
+
+        for(Entrada entrada : arreglo[indice])
+            if((ignoraDispersiones || entrada.dispersion == dispersion) &&
+               entrada.llave.equals(llave))
                 return entrada;
 
         return null;
     }
 
-    private void agrandaArreglo(){
-        Lista<Entrada>[] nuevoArreglo = nuevoArreglo(entradas.length * 2);
+    /* Busca la llave en el subárbol del vértice. Se baja por el árbol con el
+       mismo orden de las entradas mientras las llaves con la misma dispersión
+       se puedan comparar; si no, la llave buscada puede estar en cualquiera
+       de los dos subárboles y hay que buscar en ambos. No se baja por el
+       nombre de la clase, porque una llave puede ser igual a otra de una
+       clase distinta. */
+    private Entrada getValor(VerticeArbolBinario<Entrada> vertice, K llave,
+                             int dispersion){
+        while(true){
+            Entrada entrada = vertice.get();
+            int c = Integer.compare(dispersion, entrada.dispersion);
+
+            if(c == 0){
+                if(entrada.llave.equals(llave))
+                    return entrada;
+                c = comparaLlaves(llave, entrada.llave);
+                if(c == 0){
+                    if(vertice.hayIzquierdo()){
+                        Entrada izquierda =
+                            getValor(vertice.izquierdo(), llave, dispersion);
+                        if(izquierda != null)
+                            return izquierda;
+                    }
+                    c = 1;
+                }
+            }
+
+            if(c < 0 && vertice.hayIzquierdo())
+                vertice = vertice.izquierdo();
+            else if(c > 0 && vertice.hayDerecho())
+                vertice = vertice.derecho();
+            else
+                return null;
+        }
+    }
+
+    /* Compara dos llaves si son comparables entre sí; si no, regresa 0. */
+    @SuppressWarnings("unchecked")
+    private static int comparaLlaves(Object a, Object b){
+        if(a instanceof Comparable && a.getClass() == b.getClass())
+            return ((Comparable<Object>)a).compareTo(b);
+
+        return 0;
+    }
+
+    /* Agrega la entrada en el índice del arreglo, convirtiendo la lista en
+       árbol si rebasa el umbral. */
+    private void agregaEntrada(Coleccion<Entrada>[] arreglo, int indice,
+                               Entrada entrada){
+        if(arreglo[indice] == null)
+            arreglo[indice] = new Lista<Entrada>();
+
+        arreglo[indice].agrega(entrada);
+
+        if(arreglo[indice] instanceof Lista &&
+           arreglo[indice].getElementos() > umbralArbol)
+            arreglo[indice] = new ArbolRojinegro<Entrada>(arreglo[indice]);
+    }
+
+    /* Regresa una lista con las entradas del árbol. */
+    private Lista<Entrada> aLista(Coleccion<Entrada> arbol){
+        Lista<Entrada> lista = new Lista<Entrada>();
+
+        for(Entrada entrada : arbol)
+            lista.agrega(entrada);
+
+        return lista;
+    }
+
+    /* Busca la llave en el arreglo y, si no está ahí, en el arreglo viejo. */
+    private Entrada busca(K llave, int dispersion){
+        Entrada entrada =
+            getValor(entradas, getIndice(dispersion), llave, dispersion);
+
+        if(entrada == null && viejas != null)
+            entrada = getValor(viejas, getIndiceViejo(dispersion), llave,
+                               dispersion);
+
+        return entrada;
+    }
+
+    /* Regresa el índice de la dispersión en el arreglo viejo, o -1 si la lista
+       que le corresponde ya se migró. */
+    private int getIndiceViejo(int dispersion){
+        if(viejas == null)
+            return -1;
+
+        int indice = dispersion & (viejas.length - 1);
+
+        return indice < migradas ? -1 : indice;
+    }
 
+    /* Migra a lo más n listas del arreglo viejo al nuevo. */
+    private void migra(int n){
+        while(viejas != null && n-- > 0){
+            Coleccion<Entrada> lista = viejas[migradas];
+            viejas[migradas++] = null;
+
+            if(lista != null)
+                for(Entrada entrada : lista)
+                    agregaEntrada(entradas, getIndice(dispersion(entrada)),
+                                  entrada);
+
+            if(migradas == viejas.length)
+                viejas = null;
+        }
+    }
+
+    /* Suma las longitudes de las listas del arreglo. */
+    private int longitudes(Coleccion<Entrada>[] arreglo){
+        int contador = 0;
+
+        if(arreglo != null)
+            for(Coleccion<Entrada> lista : arreglo)
+                if(lista != null)
+                    contador += lista.getElementos();
+
+        return contador;
+    }
+
+    /* Regresa las colisiones máximas en el arreglo: la longitud de la lista
+       más larga menos uno, o la altura del árbol más alto; -1 si el arreglo
+       es vacío. */
+    private int colisionMaxima(Coleccion<Entrada>[] arreglo){
+        int maximo = -1;
+
+        if(arreglo != null)
+            for(Coleccion<Entrada> lista : arreglo)
+                if(lista instanceof ArbolRojinegro)
+                    maximo = Math.max(maximo,
+                                      ((ArbolRojinegro<Entrada>)lista)
+                                      .altura());
+                else if(lista != null)
+                    maximo = Math.max(maximo, lista.getElementos() - 1);
+
+        return maximo;
+    }
+
+    /* Cambia el arreglo por uno de la longitud dada, de golpe o
+       incrementalmente. Incrementalmente, calcula cuántas listas migrar en
+       cada operación para terminar antes de que el número de elementos
+       llegue a cualquiera de los dos umbrales de redimensionamiento; nunca
+       menos de MIGRACIONES_POR_OPERACION. */
+    private void redimensiona(int longitud){
+        if(redimensionamiento == Redimensionamiento.INCREMENTAL){
+            migra(viejas == null ? 0 : viejas.length);
+            viejas = entradas;
+            migradas = 0;
+            entradas = nuevoArreglo(longitud);
+            int restantes = (int)Math.min(elementos - MINIMA_CARGA * longitud,
+                                          MAXIMA_CARGA * longitud - elementos);
+            migraciones =
+                Math.max(MIGRACIONES_POR_OPERACION,
+                         (viejas.length + restantes - 1) /
+                         Math.max(1, restantes));
+            return;
+        }
+
+        reconstruye(longitud);
+    }
+
+    /* Mueve de golpe todas las entradas a un arreglo de la longitud dada,
+       recorriendo el arreglo denso. */
+    private void reconstruye(int longitud){
+        Coleccion<Entrada>[] nuevoArreglo = nuevoArreglo(longitud);
         Iterador iterador = new Iterador();
 
         while(iterador.hasNext()){
             Entrada entrada = iterador.siguiente();
-            int indice = dispersor.dispersa(entrada.llave) & (nuevoArreglo.length -1);
+            agregaEntrada(nuevoArreglo,
+                          dispersion(entrada) & (nuevoArreglo.length -1),
+                          entrada);
+        }
+
+        entradas = nuevoArreglo;
+    }
+
+    /* Regresa la dispersión guardada de la entrada, o la vuelve a calcular
+       si se ignoran las dispersiones guardadas. */
+    private int dispersion(Entrada entrada){
+        return ignoraDispersiones ?
+            dispersor.dispersa(entrada.llave) : entrada.dispersion;
+    }
+
+    /* Agrega la entrada al final del arreglo denso. Si está lleno, empieza a
+       mudarlo a uno del doble de las entradas que tiene, para que ninguna
+       inserción tenga que copiar todas las entradas de golpe. */
+    private void agregaDensa(Entrada entrada){
+        copiaDensas(COPIAS_POR_OPERACION);
+        if(ocupadas == densas.length)
+            mudaDensas(elementos * 2);
+
+        if(agregadas == Integer.MAX_VALUE)
+            renumera();
+        entrada.orden = agregadas++;
+        entrada.posicion = ocupadas;
+        densas[ocupadas++] = entrada;
+    }
 
-            if(nuevoArreglo[indice] == null)
-                nuevoArreglo[indice] = new Lista<Entrada>();
+    /* Empieza a mudar el arreglo denso a uno nuevo de la longitud dada, que
+       debe ser mayor que el número de elementos. Las entradas se copian sin
+       huecos al principio del nuevo poco a poco, en las siguientes
+       inserciones y eliminaciones, y las que se agreguen mientras tanto van
+       después del espacio reservado para ellas. Si había una mudanza en curso
+       se termina primero. */
+    private void mudaDensas(int longitud){
+        copiaDensas(limiteViejas);
+        densasViejas = densas;
+        limiteViejas = ocupadas;
+        copiadas = 0;
+        destino = 0;
+        densas = nuevasDensas(longitud);
+        inicioNuevas = ocupadas = elementos;
+        copiaDensas(0);
+    }
 
-            nuevoArreglo[indice].agrega(entrada);
+    /* Revisa a lo más n posiciones del arreglo denso viejo, copiando al nuevo
+       las entradas que encuentre. */
+    private void copiaDensas(int n){
+        if(densasViejas == null)
+            return;
+
+        int fin = copiadas + Math.min(n, limiteViejas - copiadas);
+        for(int i = copiadas; i < fin; i++){
+            Entrada entrada = densasViejas[i];
+            if(entrada != null){
+                entrada.posicion = destino;
+                densas[destino++] = entrada;
+            }
         }
+        copiadas = fin;
 
-        entradas = nuevoArreglo;
+        if(copiadas == limiteViejas)
+            densasViejas = null;
+    }
+
+    /* Cambia de golpe el arreglo denso por uno sin huecos de la longitud
+       dada, que debe alcanzar para todos los elementos, y actualiza las
+       posiciones. Termina cualquier mudanza en curso. */
+    private void reacomoda(int longitud){
+        Entrada[] nuevas = nuevasDensas(longitud);
+        Iterador iterador = new Iterador();
+        int j = 0;
+
+        while(iterador.hasNext()){
+            Entrada entrada = iterador.siguiente();
+            entrada.posicion = j;
+            nuevas[j++] = entrada;
+        }
+
+        densas = nuevas;
+        densasViejas = null;
+        ocupadas = j;
+    }
+
+    /* Vuelve a numerar las entradas en orden de inserción desde 0, cuando el
+       contador llega al máximo. Como el orden relativo no cambia, los árboles
+       siguen ordenados. */
+    private void renumera(){
+        Iterador iterador = new Iterador();
+        agregadas = 0;
+
+        while(iterador.hasNext())
+            iterador.siguiente().orden = agregadas++;
     }
 }
@@ -0,0 +1,488 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para diccionarios con direccionamiento abierto. Tiene la misma
+ * interfaz pública que {@link Diccionario}, pero en lugar de guardar las
+ * entradas en listas, guarda las llaves y los valores en arreglos paralelos, y
+ * resuelve las colisiones con sondeo lineal.</p>
+ *
+ * <p>Al eliminar una llave se deja una <em>lápida</em> en su lugar, para no
+ * romper las secuencias de sondeo de las demás llaves; las lápidas se
+ * reutilizan al agregar, y se descartan cada vez que el arreglo se
+ * reconstruye.</p>
+ *
+ * <p>Si el dispersor es un {@link Dispersor64}, los 32 bits bajos de la
+ * dispersión eligen la casilla y los 32 bits altos se guardan como huella
+ * digital; al buscar, una llave sólo se compara con <code>equals</code> si
+ * coinciden los 64 bits, lo que hace muy improbable llamarlo en vano aun con
+ * muchísimas llaves.</p>
+ */
+public class DiccionarioAbierto<K, V> implements Iterable<V> {
+
+    /* Clase interna privada para iteradores. */
+    private class Iterador {
+
+        /* En qué casilla estamos. */
+        private int indice;
+
+        /* Construye un nuevo iterador. */
+        private Iterador() {
+            indice = -1;
+            mueveIterador();
+        }
+
+        /* Nos dice si hay una siguiente casilla ocupada. */
+        public boolean hasNext() {
+            return indice < llaves.length;
+        }
+
+        /* Regresa la casilla de la siguiente entrada. */
+        protected int siguiente() {
+            if (!hasNext())
+                throw new NoSuchElementException("No hay siguiente elemento.");
+
+            int casilla = indice;
+            mueveIterador();
+
+            return casilla;
+        }
+
+        /* Mueve el iterador a la siguiente casilla ocupada. */
+        private void mueveIterador() {
+            do {
+                indice++;
+            } while (indice < llaves.length && !ocupada(indice));
+        }
+    }
+
+    /* Clase interna privada para iteradores de llaves. */
+    private class IteradorLlaves extends Iterador
+        implements Iterator<K> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public K next() {
+            return llave(siguiente());
+        }
+    }
+
+    /* Clase interna privada para iteradores de valores. */
+    private class IteradorValores extends Iterador
+        implements Iterator<V> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public V next() {
+            return valor(siguiente());
+        }
+    }
+
+    /** Máxima carga permitida por el diccionario. */
+    public static final double MAXIMA_CARGA = 0.72;
+
+    /* Capacidad mínima; decidida arbitrariamente a 2^6. */
+    private static final int MINIMA_CAPACIDAD = 64;
+
+    /* Marca para las casillas de las que se eliminó una llave. */
+    private static final Object LAPIDA = new Object();
+
+    /* Dispersor. */
+    private Dispersor<K> dispersor;
+    /* El mismo dispersor, si es de 64 bits; null en otro caso. */
+    private Dispersor64<K> dispersor64;
+    /* Las llaves; null si la casilla está libre, LAPIDA si fue eliminada. */
+    private Object[] llaves;
+    /* Los valores, en la misma casilla que su llave. */
+    private Object[] valores;
+    /* La dispersión completa de cada llave, para no volver a calcularla. */
+    private int[] dispersiones;
+    /* Los 32 bits altos de la dispersión de cada llave, si el dispersor es de
+       64 bits; null en otro caso. */
+    private int[] huellas;
+    /* Número de valores. */
+    private int elementos;
+    /* Número de lápidas. */
+    private int lapidas;
+
+    /**
+     * Construye un diccionario con una capacidad inicial y dispersor
+     * predeterminados.
+     */
+    public DiccionarioAbierto() {
+        this(MINIMA_CAPACIDAD, (K llave) -> llave.hashCode());
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial definida por el
+     * usuario, y un dispersor predeterminado.
+     * @param capacidad la capacidad a utilizar.
+     */
+    public DiccionarioAbierto(int capacidad) {
+        this(capacidad, (K llave) -> llave.hashCode());
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial predeterminada, y un
+     * dispersor definido por el usuario.
+     * @param dispersor el dispersor a utilizar.
+     */
+    public DiccionarioAbierto(Dispersor<K> dispersor) {
+        this(MINIMA_CAPACIDAD, dispersor);
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial y un método de
+     * dispersor definidos por el usuario. Si el dispersor es un {@link
+     * Dispersor64}, el diccionario usa sus 64 bits.
+     * @param capacidad la capacidad inicial del diccionario.
+     * @param dispersor el dispersor a utilizar.
+     */
+    public DiccionarioAbierto(int capacidad, Dispersor<K> dispersor) {
+        capacidad =
+            capacidad < MINIMA_CAPACIDAD ?
+            MINIMA_CAPACIDAD :
+            redondearAPotencia(capacidad * 2);
+        this.dispersor = dispersor;
+        if (dispersor instanceof Dispersor64)
+            this.dispersor64 = (Dispersor64<K>)dispersor;
+        creaArreglos(capacidad);
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     */
+    public void agrega(K llave, V valor) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+
+        long completa = dispersa(llave);
+        int dispersion = (int)completa;
+        int huella = (int)(completa >>> 32);
+        int mascara = llaves.length - 1;
+        int i = dispersion & mascara;
+        int libre = -1;
+
+        while (llaves[i] != null) {
+            if (llaves[i] == LAPIDA) {
+                if (libre == -1)
+                    libre = i;
+            } else if (coincide(i, dispersion, huella) &&
+                       llaves[i].equals(llave)) {
+                valores[i] = valor;
+                return;
+            }
+            i = (i + 1) & mascara;
+        }
+
+        if (libre == -1)
+            libre = i;
+        else
+            lapidas--;
+
+        llaves[libre] = llave;
+        valores[libre] = valor;
+        dispersiones[libre] = dispersion;
+        if (huellas != null)
+            huellas[libre] = huella;
+        elementos++;
+
+        if (Double.valueOf(elementos + lapidas) / llaves.length >= MAXIMA_CARGA)
+            reconstruyeArreglos();
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public V get(K llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+
+        int casilla = busca(llave);
+
+        if (casilla == -1)
+            throw new NoSuchElementException();
+
+        return valor(casilla);
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <code>true</code> si la llave está en el diccionario,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(K llave) {
+        if (llave == null)
+            return false;
+
+        return busca(llave) != -1;
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(K llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+
+        int casilla = busca(llave);
+
+        if (casilla == -1)
+            throw new NoSuchElementException();
+
+        llaves[casilla] = LAPIDA;
+        valores[casilla] = null;
+        elementos--;
+        lapidas++;
+    }
+
+    /**
+     * Nos dice cuántas colisiones hay en el diccionario. En un diccionario con
+     * direccionamiento abierto, el número de colisiones es la suma de las
+     * distancias de cada llave a la casilla donde su dispersión la hubiera
+     * colocado; es decir, cuántos sondeos extra hacen falta para encontrar
+     * todas las llaves.
+     * @return cuántas colisiones hay en el diccionario.
+     */
+    public int colisiones() {
+        int contador = 0;
+
+        for (int i = 0; i < llaves.length; i++)
+            if (ocupada(i))
+                contador += distancia(i);
+
+        return contador;
+    }
+
+    /**
+     * Nos dice el máximo número de colisiones para una misma llave que tenemos
+     * en el diccionario; es decir, la secuencia de sondeo más larga.
+     * @return el máximo número de colisiones para una misma llave, o -1 si
+     *         el diccionario es vacío.
+     */
+    public int colisionMaxima() {
+        int maximo = -1;
+
+        for (int i = 0; i < llaves.length; i++)
+            if (ocupada(i) && distancia(i) > maximo)
+                maximo = distancia(i);
+
+        return maximo;
+    }
+
+    /**
+     * Nos dice la carga del diccionario.
+     * @return la carga del diccionario.
+     */
+    public double carga() {
+        return Double.valueOf(elementos) / llaves.length;
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacia() {
+        return elementos == 0;
+    }
+
+    /**
+     * Limpia el diccionario de elementos, dejándolo vacío.
+     */
+    public void limpia() {
+        elementos = 0;
+        lapidas = 0;
+        creaArreglos(llaves.length);
+    }
+
+    /**
+     * Regresa una representación en cadena del diccionario.
+     * @return una representación en cadena del diccionario.
+     */
+    @Override public String toString() {
+        if (elementos == 0)
+            return "{}";
+
+        String texto = "{ ";
+        Iterador iterador = new Iterador();
+
+        while (iterador.hasNext()) {
+            int i = iterador.siguiente();
+            texto += String.format("'%s': '%s', ", llaves[i], valores[i]);
+        }
+
+        return texto + "}";
+    }
+
+    /**
+     * Nos dice si el diccionario es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al diccionario.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         DiccionarioAbierto, y tiene las mismas llaves asociadas a los
+     *         mismos valores.
+     */
+    @Override public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass())
+            return false;
+        @SuppressWarnings("unchecked") DiccionarioAbierto<K, V> d =
+            (DiccionarioAbierto<K, V>)o;
+
+        if (d.elementos != elementos)
+            return false;
+
+        Iterador iterador = new Iterador();
+
+        while (iterador.hasNext()) {
+            int i = iterador.siguiente();
+            int casilla = d.busca(llave(i));
+
+            if (casilla == -1 || !d.valores[casilla].equals(valores[i]))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Regresa un iterador para iterar las llaves del diccionario. El
+     * diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar las llaves del diccionario.
+     */
+    public Iterator<K> iteradorLlaves() {
+        return new IteradorLlaves();
+    }
+
+    /**
+     * Regresa un iterador para iterar los valores del diccionario. El
+     * diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar los valores del diccionario.
+     */
+    @Override public Iterator<V> iterator() {
+        return new IteradorValores();
+    }
+
+    /* Redondea a la siguiente potencia de dos. */
+    private int redondearAPotencia(int numero) {
+        int potencia = 1;
+        while (potencia < numero)
+            potencia *= 2;
+        return potencia;
+    }
+
+    /* Crea arreglos vacíos de la capacidad recibida. */
+    private void creaArreglos(int capacidad) {
+        llaves = new Object[capacidad];
+        valores = new Object[capacidad];
+        dispersiones = new int[capacidad];
+        if (dispersor64 != null)
+            huellas = new int[capacidad];
+    }
+
+    /* Regresa la dispersión de la llave; si el dispersor no es de 64 bits,
+       los 32 bits altos son cero. */
+    private long dispersa(K llave) {
+        if (dispersor64 != null)
+            return dispersor64.dispersa64(llave);
+        return dispersor.dispersa(llave) & 0xFFFFFFFFL;
+    }
+
+    /* Nos dice si la dispersión y la huella coinciden con las de la casilla. */
+    private boolean coincide(int i, int dispersion, int huella) {
+        return dispersiones[i] == dispersion &&
+            (huellas == null || huellas[i] == huella);
+    }
+
+    /* Nos dice si la casilla tiene una entrada. */
+    private boolean ocupada(int i) {
+        return llaves[i] != null && llaves[i] != LAPIDA;
+    }
+
+    /* Regresa la llave de la casilla. */
+    @SuppressWarnings("unchecked") private K llave(int i) {
+        return (K)llaves[i];
+    }
+
+    /* Regresa el valor de la casilla. */
+    @SuppressWarnings("unchecked") private V valor(int i) {
+        return (V)valores[i];
+    }
+
+    /* Regresa la distancia de la casilla a la casilla original de su llave. */
+    private int distancia(int i) {
+        return (i - dispersiones[i]) & (llaves.length - 1);
+    }
+
+    /* Regresa la casilla de la llave, o -1 si no está en el diccionario. Las
+       dispersiones (y las huellas) se comparan antes que las llaves, para
+       sólo llamar equals cuando es muy probable que coincidan. */
+    private int busca(K llave) {
+        long completa = dispersa(llave);
+        int dispersion = (int)completa;
+        int huella = (int)(completa >>> 32);
+        int mascara = llaves.length - 1;
+        int i = dispersion & mascara;
+
+        while (llaves[i] != null) {
+            if (llaves[i] != LAPIDA && coincide(i, dispersion, huella) &&
+                llaves[i].equals(llave))
+                return i;
+            i = (i + 1) & mascara;
+        }
+
+        return -1;
+    }
+
+    /* Reconstruye los arreglos descartando las lápidas. Si las lápidas son las
+       que llenaron el diccionario, se conserva la capacidad; si no, se
+       duplica. Las dispersiones guardadas evitan volver a dispersar. */
+    private void reconstruyeArreglos() {
+        Object[] viejasLlaves = llaves;
+        Object[] viejosValores = valores;
+        int[] viejasDispersiones = dispersiones;
+        int[] viejasHuellas = huellas;
+
+        int capacidad = llaves.length;
+        if (elementos >= capacidad * MAXIMA_CARGA / 2)
+            capacidad *= 2;
+
+        creaArreglos(capacidad);
+        lapidas = 0;
+        int mascara = capacidad - 1;
+
+        for (int j = 0; j < viejasLlaves.length; j++) {
+            if (viejasLlaves[j] == null || viejasLlaves[j] == LAPIDA)
+                continue;
+            int i = viejasDispersiones[j] & mascara;
+            while (llaves[i] != null)
+                i = (i + 1) & mascara;
+            llaves[i] = viejasLlaves[j];
+            valores[i] = viejosValores[j];
+            dispersiones[i] = viejasDispersiones[j];
+            if (huellas != null)
+                huellas[i] = viejasHuellas[j];
+        }
+    }
+}
@@ -0,0 +1,518 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>Clase para diccionarios concurrentes. Tiene la misma interfaz pública que
+ * {@link Diccionario}, pero varios hilos pueden usarlo al mismo tiempo sin
+ * sincronización externa.</p>
+ *
+ * <p>Las listas del arreglo se reparten en <em>franjas</em>, cada una con su
+ * propio candado, así que dos hilos sólo compiten si modifican llaves de la
+ * misma franja. Las búsquedas no usan candados: los nodos de las listas nunca
+ * cambian de llave ni de siguiente, así que al eliminar se copian los nodos
+ * anteriores al eliminado, y al redimensionar se copian todos; un lector
+ * siempre recorre una lista consistente.</p>
+ *
+ * <p>Los iteradores son débilmente consistentes: nunca lanzan excepciones por
+ * modificaciones concurrentes, y pueden o no reflejar las modificaciones
+ * hechas después de ser creados.</p>
+ */
+public class DiccionarioConcurrente<K, V> implements Iterable<V> {
+
+    /* Clase interna privada para nodos. */
+    private class Nodo {
+
+        /* La llave. */
+        private final K llave;
+        /* La dispersión de la llave. */
+        private final int dispersion;
+        /* El valor. */
+        private volatile V valor;
+        /* El siguiente nodo. */
+        private final Nodo siguiente;
+
+        /* Construye un nuevo nodo. */
+        private Nodo(K llave, int dispersion, V valor, Nodo siguiente) {
+            this.llave = llave;
+            this.dispersion = dispersion;
+            this.valor = valor;
+            this.siguiente = siguiente;
+        }
+    }
+
+    /* Clase interna privada para iteradores. */
+    private class Iterador {
+
+        /* El arreglo que recorremos. */
+        private AtomicReferenceArray<Nodo> arreglo;
+        /* En qué lista estamos. */
+        private int indice;
+        /* El siguiente nodo. */
+        private Nodo nodo;
+
+        /* Construye un nuevo iterador sobre el arreglo actual. */
+        private Iterador() {
+            arreglo = tabla;
+            indice = -1;
+            mueveIterador();
+        }
+
+        /* Nos dice si hay una siguiente entrada. */
+        public boolean hasNext() {
+            return nodo != null;
+        }
+
+        /* Regresa el siguiente nodo. */
+        protected Nodo siguiente() {
+            if (nodo == null)
+                throw new NoSuchElementException("No hay siguiente elemento.");
+
+            Nodo siguiente = nodo;
+            nodo = nodo.siguiente;
+
+            if (nodo == null)
+                mueveIterador();
+
+            return siguiente;
+        }
+
+        /* Mueve el iterador a la siguiente lista no vacía. */
+        private void mueveIterador() {
+            while (++indice < arreglo.length()) {
+                nodo = arreglo.get(indice);
+                if (nodo != null)
+                    return;
+            }
+            nodo = null;
+        }
+    }
+
+    /* Clase interna privada para iteradores de llaves. */
+    private class IteradorLlaves extends Iterador
+        implements Iterator<K> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public K next() {
+            return siguiente().llave;
+        }
+    }
+
+    /* Clase interna privada para iteradores de valores. */
+    private class IteradorValores extends Iterador
+        implements Iterator<V> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public V next() {
+            return siguiente().valor;
+        }
+    }
+
+    /** Máxima carga permitida por el diccionario. */
+    public static final double MAXIMA_CARGA = 0.72;
+
+    /** Número de franjas predeterminado. */
+    public static final int FRANJAS = 32;
+
+    /* Capacidad mínima; decidida arbitrariamente a 2^6. */
+    private static final int MINIMA_CAPACIDAD = 64;
+
+    /* Dispersor. */
+    private final Dispersor<K> dispersor;
+    /* Un candado por franja. */
+    private final ReentrantLock[] candados;
+    /* Nuestro diccionario; se reemplaza completo al redimensionar. */
+    private volatile AtomicReferenceArray<Nodo> tabla;
+    /* Número de valores. */
+    private final AtomicInteger elementos;
+
+    /**
+     * Construye un diccionario con una capacidad inicial, dispersor y número de
+     * franjas predeterminados.
+     */
+    public DiccionarioConcurrente() {
+        this(MINIMA_CAPACIDAD, (K llave) -> llave.hashCode(), FRANJAS);
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial definida por el
+     * usuario, y un dispersor y número de franjas predeterminados.
+     * @param capacidad la capacidad a utilizar.
+     */
+    public DiccionarioConcurrente(int capacidad) {
+        this(capacidad, (K llave) -> llave.hashCode(), FRANJAS);
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial y número de franjas
+     * predeterminados, y un dispersor definido por el usuario.
+     * @param dispersor el dispersor a utilizar.
+     */
+    public DiccionarioConcurrente(Dispersor<K> dispersor) {
+        this(MINIMA_CAPACIDAD, dispersor, FRANJAS);
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial y un método de
+     * dispersor definidos por el usuario, y un número de franjas
+     * predeterminado.
+     * @param capacidad la capacidad inicial del diccionario.
+     * @param dispersor el dispersor a utilizar.
+     */
+    public DiccionarioConcurrente(int capacidad, Dispersor<K> dispersor) {
+        this(capacidad, dispersor, FRANJAS);
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial, un dispersor y un
+     * número de franjas definidos por el usuario. El número de franjas se
+     * redondea a una potencia de dos, y no puede ser mayor que la capacidad
+     * mínima, para que la franja de una llave no cambie al redimensionar.
+     * @param capacidad la capacidad inicial del diccionario.
+     * @param dispersor el dispersor a utilizar.
+     * @param franjas el número de franjas.
+     * @throws IllegalArgumentException si el número de franjas es menor que 1
+     *         o mayor que 64.
+     */
+    public DiccionarioConcurrente(int capacidad, Dispersor<K> dispersor,
+                                  int franjas) {
+        if (franjas < 1 || franjas > MINIMA_CAPACIDAD)
+            throw new IllegalArgumentException("Número de franjas inválido");
+        capacidad =
+            capacidad < MINIMA_CAPACIDAD ?
+            MINIMA_CAPACIDAD :
+            redondearAPotencia(capacidad * 2);
+        this.dispersor = dispersor;
+        this.tabla = new AtomicReferenceArray<Nodo>(capacidad);
+        this.elementos = new AtomicInteger();
+        this.candados = new ReentrantLock[redondearAPotencia(franjas)];
+        for (int i = 0; i < candados.length; i++)
+            candados[i] = new ReentrantLock();
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     */
+    public void agrega(K llave, V valor) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+
+        int dispersion = dispersor.dispersa(llave);
+        ReentrantLock candado = candado(dispersion);
+        int n;
+
+        candado.lock();
+        try {
+            AtomicReferenceArray<Nodo> arreglo = tabla;
+            int indice = dispersion & (arreglo.length() - 1);
+            Nodo cabeza = arreglo.get(indice);
+            Nodo nodo = busca(cabeza, llave, dispersion);
+
+            if (nodo != null) {
+                nodo.valor = valor;
+                return;
+            }
+
+            arreglo.set(indice, new Nodo(llave, dispersion, valor, cabeza));
+            n = elementos.incrementAndGet();
+        } finally {
+            candado.unlock();
+        }
+
+        if (n >= MAXIMA_CARGA * tabla.length())
+            agrandaArreglo();
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public V get(K llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+
+        Nodo nodo = busca(llave);
+
+        if (nodo == null)
+            throw new NoSuchElementException();
+
+        return nodo.valor;
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <code>true</code> si la llave está en el diccionario,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(K llave) {
+        if (llave == null)
+            return false;
+
+        return busca(llave) != null;
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(K llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+
+        int dispersion = dispersor.dispersa(llave);
+        ReentrantLock candado = candado(dispersion);
+
+        candado.lock();
+        try {
+            AtomicReferenceArray<Nodo> arreglo = tabla;
+            int indice = dispersion & (arreglo.length() - 1);
+            Nodo cabeza = arreglo.get(indice);
+            Nodo nodo = busca(cabeza, llave, dispersion);
+
+            if (nodo == null)
+                throw new NoSuchElementException();
+
+            Nodo nuevaCabeza = nodo.siguiente;
+            for (Nodo n = cabeza; n != nodo; n = n.siguiente)
+                nuevaCabeza = new Nodo(n.llave, n.dispersion, n.valor,
+                                       nuevaCabeza);
+
+            arreglo.set(indice, nuevaCabeza);
+            elementos.decrementAndGet();
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Nos dice cuántas colisiones hay en el diccionario.
+     * @return cuántas colisiones hay en el diccionario.
+     */
+    public int colisiones() {
+        AtomicReferenceArray<Nodo> arreglo = tabla;
+        int contador = 0;
+
+        for (int i = 0; i < arreglo.length(); i++)
+            contador += longitud(arreglo.get(i));
+
+        return contador == 0 ? 0 : contador - 1;
+    }
+
+    /**
+     * Nos dice el máximo número de colisiones para una misma llave que tenemos
+     * en el diccionario.
+     * @return el máximo número de colisiones para una misma llave.
+     */
+    public int colisionMaxima() {
+        AtomicReferenceArray<Nodo> arreglo = tabla;
+        int maximo = 0;
+
+        for (int i = 0; i < arreglo.length(); i++)
+            maximo = Math.max(maximo, longitud(arreglo.get(i)));
+
+        return maximo - 1;
+    }
+
+    /**
+     * Nos dice la carga del diccionario.
+     * @return la carga del diccionario.
+     */
+    public double carga() {
+        return Double.valueOf(elementos.get()) / tabla.length();
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return elementos.get();
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacia() {
+        return elementos.get() == 0;
+    }
+
+    /**
+     * Limpia el diccionario de elementos, dejándolo vacío.
+     */
+    public void limpia() {
+        bloqueaTodo();
+        try {
+            tabla = new AtomicReferenceArray<Nodo>(tabla.length());
+            elementos.set(0);
+        } finally {
+            desbloqueaTodo();
+        }
+    }
+
+    /**
+     * Regresa una representación en cadena del diccionario.
+     * @return una representación en cadena del diccionario.
+     */
+    @Override public String toString() {
+        Iterador iterador = new Iterador();
+
+        if (!iterador.hasNext())
+            return "{}";
+
+        String texto = "{ ";
+
+        while (iterador.hasNext()) {
+            Nodo nodo = iterador.siguiente();
+            texto += String.format("'%s': '%s', ", nodo.llave, nodo.valor);
+        }
+
+        return texto + "}";
+    }
+
+    /**
+     * Nos dice si el diccionario es igual al objeto recibido. El resultado
+     * sólo es confiable si ninguno de los dos diccionarios se modifica
+     * mientras se comparan.
+     * @param o el objeto que queremos saber si es igual al diccionario.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         DiccionarioConcurrente, y tiene las mismas llaves asociadas a
+     *         los mismos valores.
+     */
+    @Override public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass())
+            return false;
+        @SuppressWarnings("unchecked") DiccionarioConcurrente<K, V> d =
+            (DiccionarioConcurrente<K, V>)o;
+
+        if (d.getElementos() != getElementos())
+            return false;
+
+        Iterador iterador = new Iterador();
+
+        while (iterador.hasNext()) {
+            Nodo nodo = iterador.siguiente();
+            Nodo otro = d.busca(nodo.llave);
+
+            if (otro == null || !otro.valor.equals(nodo.valor))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Regresa un iterador para iterar las llaves del diccionario. El
+     * diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar las llaves del diccionario.
+     */
+    public Iterator<K> iteradorLlaves() {
+        return new IteradorLlaves();
+    }
+
+    /**
+     * Regresa un iterador para iterar los valores del diccionario. El
+     * diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar los valores del diccionario.
+     */
+    @Override public Iterator<V> iterator() {
+        return new IteradorValores();
+    }
+
+    /* Redondea a la siguiente potencia de dos. */
+    private int redondearAPotencia(int numero) {
+        int potencia = 1;
+        while (potencia < numero)
+            potencia *= 2;
+        return potencia;
+    }
+
+    /* Regresa el candado de la franja de la dispersión. Como el arreglo nunca
+       tiene menos listas que franjas, todas las llaves de una lista caen
+       siempre en la misma franja, sin importar el tamaño del arreglo. */
+    private ReentrantLock candado(int dispersion) {
+        return candados[dispersion & (candados.length - 1)];
+    }
+
+    /* Busca la llave sin usar candados. */
+    private Nodo busca(K llave) {
+        int dispersion = dispersor.dispersa(llave);
+        AtomicReferenceArray<Nodo> arreglo = tabla;
+        return busca(arreglo.get(dispersion & (arreglo.length() - 1)),
+                     llave, dispersion);
+    }
+
+    /* Busca la llave en la lista que empieza en el nodo. */
+    private Nodo busca(Nodo nodo, K llave, int dispersion) {
+        for (; nodo != null; nodo = nodo.siguiente)
+            if (nodo.dispersion == dispersion && nodo.llave.equals(llave))
+                return nodo;
+        return null;
+    }
+
+    /* Regresa la longitud de la lista que empieza en el nodo. */
+    private int longitud(Nodo nodo) {
+        int longitud = 0;
+        for (; nodo != null; nodo = nodo.siguiente)
+            longitud++;
+        return longitud;
+    }
+
+    /* Adquiere los candados de todas las franjas, siempre en el mismo orden
+       para no bloquearse con otro hilo haciendo lo mismo. */
+    private void bloqueaTodo() {
+        for (ReentrantLock candado : candados)
+            candado.lock();
+    }
+
+    /* Libera los candados de todas las franjas. */
+    private void desbloqueaTodo() {
+        for (int i = candados.length - 1; i >= 0; i--)
+            candados[i].unlock();
+    }
+
+    /* Duplica el arreglo con todas las franjas bloqueadas. Los nodos se copian
+       en lugar de moverse, para que los lectores que todavía recorren el
+       arreglo viejo no vean listas a medio construir. */
+    private void agrandaArreglo() {
+        bloqueaTodo();
+        try {
+            AtomicReferenceArray<Nodo> viejo = tabla;
+            if (elementos.get() < MAXIMA_CARGA * viejo.length())
+                return;
+
+            AtomicReferenceArray<Nodo> nuevo =
+                new AtomicReferenceArray<Nodo>(viejo.length() * 2);
+            int mascara = nuevo.length() - 1;
+
+            for (int i = 0; i < viejo.length(); i++) {
+                for (Nodo n = viejo.get(i); n != null; n = n.siguiente) {
+                    int indice = n.dispersion & mascara;
+                    nuevo.set(indice, new Nodo(n.llave, n.dispersion, n.valor,
+                                               nuevo.get(indice)));
+                }
+            }
+
+            tabla = nuevo;
+        } finally {
+            desbloqueaTodo();
+        }
+    }
+}
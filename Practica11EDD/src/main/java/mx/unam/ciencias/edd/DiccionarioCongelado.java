@@ -0,0 +1,620 @@
+package mx.unam.ciencias.edd;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para diccionarios inmutables con una función de dispersión
+ * perfecta mínima. Un diccionario congelado se construye una sola vez, por
+ * ejemplo con {@link Diccionario#congela}, y después sólo se consulta: cada
+ * llave tiene su propia casilla, así que una búsqueda calcula la casilla y
+ * compara una sola llave, sin listas ni sondeos.</p>
+ *
+ * <p>La función se construye al estilo de CHD y PTHash: las dispersiones de
+ * las llaves, mezcladas con {@link Dispersores#mezcla64} y una semilla, se
+ * reparten en cubetas de {@link #LLAVES_POR_CUBETA} llaves en promedio, con
+ * el 60% de las llaves en el 30% de las cubetas; para cada cubeta, de la más
+ * grande a la más chica, se busca un <em>piloto</em> que mande todas sus
+ * llaves a casillas libres. Las casillas son un 1% más que
+ * las llaves, y las llaves que caen en el último 1% se reasignan a las
+ * casillas que quedaron libres, para que la función sea mínima. Los pilotos
+ * se guardan como índices empaquetados en bits a una tabla de pilotos
+ * distintos, así que el índice ocupa unos pocos bits por llave; {@link
+ * #bitsPorLlave} dice cuántos.</p>
+ *
+ * <p>La función separa dispersiones, no llaves; si dos llaves distintas
+ * tienen la misma dispersión, una de ellas se guarda aparte en un {@link
+ * Diccionario} de excedentes, y buscarla cuesta una búsqueda más. Con un
+ * {@link Dispersor64} se usan los 64 bits de la dispersión y los excedentes
+ * son prácticamente imposibles; con un dispersor de 32 bits hay que esperar
+ * algunos a partir de decenas de miles de llaves.</p>
+ *
+ * <p>Un diccionario congelado se puede guardar en un archivo con {@link
+ * #guarda} y volver a abrir con {@link #carga}, que lee la función ya
+ * construida; las llaves y los valores se guardan con la serialización de
+ * Java, así que deben ser {@link java.io.Serializable}.</p>
+ */
+public class DiccionarioCongelado<K, V> implements Iterable<V> {
+
+    /* Clase interna privada para iteradores. Recorre primero las casillas y
+       después los excedentes. */
+    private class Iterador {
+
+        /* En qué casilla estamos. */
+        private int indice;
+        /* El iterador de los excedentes, una vez que se acaban las
+           casillas. */
+        private Iterator<K> excedente;
+
+        /* Construye un nuevo iterador. */
+        private Iterador() {
+            if (llaves.length == 0 && excedentes != null)
+                excedente = excedentes.iteradorLlaves();
+        }
+
+        /* Nos dice si hay una siguiente llave. */
+        public boolean hasNext() {
+            return indice < llaves.length ||
+                (excedente != null && excedente.hasNext());
+        }
+
+        /* Regresa la siguiente llave. */
+        protected K siguiente() {
+            if (!hasNext())
+                throw new NoSuchElementException("No hay siguiente elemento.");
+
+            if (indice == llaves.length)
+                return excedente.next();
+
+            K llave = llave(indice++);
+            if (indice == llaves.length && excedentes != null)
+                excedente = excedentes.iteradorLlaves();
+
+            return llave;
+        }
+    }
+
+    /* Clase interna privada para iteradores de llaves. */
+    private class IteradorLlaves extends Iterador
+        implements Iterator<K> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public K next() {
+            return siguiente();
+        }
+    }
+
+    /* Clase interna privada para iteradores de valores. */
+    private class IteradorValores extends Iterador
+        implements Iterator<V> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public V next() {
+            return get(siguiente());
+        }
+    }
+
+    /** Número promedio de llaves por cubeta. */
+    public static final int LLAVES_POR_CUBETA = 5;
+
+    /* Proporción de casillas ocupadas antes de reasignar. */
+    private static final double CARGA = 0.99;
+    /* El 60% de 2^32, para repartir las dispersiones entre las cubetas. */
+    private static final long SESGO = (long)(0.6 * (1L << 32));
+    /* Pilotos que se prueban en una cubeta antes de cambiar la semilla. */
+    private static final int MAXIMO_PILOTO = 1 << 20;
+    /* Llaves que se revisan al cargar un archivo. */
+    private static final int MUESTRA = 64;
+    /* Número mágico del archivo: "EDDC". */
+    private static final int MAGIA = 0x45444443;
+    /* Versión del formato. */
+    private static final int VERSION = 1;
+
+    /* Dispersor. */
+    private Dispersor<K> dispersor;
+    /* El mismo dispersor, si es de 64 bits; null en otro caso. */
+    private Dispersor64<K> dispersor64;
+    /* La semilla con la que se mezclan las dispersiones. */
+    private long semilla;
+    /* Número de cubetas. */
+    private int cubetas;
+    /* Número de casillas antes de reasignar; al menos el de llaves. */
+    private int casillas;
+    /* Bits del índice de piloto de cada cubeta. */
+    private int ancho;
+    /* Los índices de piloto de las cubetas, empaquetados. */
+    private long[] codigos;
+    /* Los pilotos distintos. */
+    private int[] pilotos;
+    /* La casilla final de cada casilla a partir del número de llaves. */
+    private int[] reasignadas;
+    /* Las llaves, cada una en su casilla. */
+    private Object[] llaves;
+    /* Los valores, en la misma casilla que su llave. */
+    private Object[] valores;
+    /* Las llaves cuya dispersión ya tenía otra llave, o null si no hay. */
+    private Diccionario<K, V> excedentes;
+
+    /**
+     * Construye un diccionario congelado con las llaves y valores recibidos,
+     * y un dispersor definido por el usuario. Si una llave se repite, se
+     * queda con el último de sus valores, como si las parejas se agregaran
+     * en orden a un {@link Diccionario}.
+     * @param llaves las llaves.
+     * @param valores los valores; el i-ésimo corresponde a la i-ésima llave.
+     * @param dispersor el dispersor a utilizar.
+     * @throws IllegalArgumentException si los arreglos tienen longitudes
+     *         distintas, o si alguna llave o valor es nulo.
+     */
+    public DiccionarioCongelado(K[] llaves, V[] valores,
+                                Dispersor<K> dispersor) {
+        if (llaves.length != valores.length)
+            throw new IllegalArgumentException();
+        for (int i = 0; i < llaves.length; i++)
+            if (llaves[i] == null || valores[i] == null)
+                throw new IllegalArgumentException();
+
+        asignaDispersor(dispersor);
+        DiccionarioLargoObjeto<Integer> casillasDe =
+            new DiccionarioLargoObjeto<Integer>(llaves.length);
+        Object[] distintas = new Object[llaves.length];
+        Object[] suyos = new Object[llaves.length];
+        long[] dispersiones = new long[llaves.length];
+        int n = 0;
+
+        for (int i = 0; i < llaves.length; i++) {
+            long dispersion = dispersa(llaves[i]);
+            if (!casillasDe.contiene(dispersion)) {
+                casillasDe.agrega(dispersion, n);
+                distintas[n] = llaves[i];
+                suyos[n] = valores[i];
+                dispersiones[n++] = dispersion;
+            } else {
+                int j = casillasDe.get(dispersion);
+                if (distintas[j].equals(llaves[i])) {
+                    suyos[j] = valores[i];
+                } else {
+                    if (excedentes == null)
+                        excedentes = new Diccionario<K, V>(dispersor);
+                    excedentes.agrega(llaves[i], valores[i]);
+                }
+            }
+        }
+
+        construye(Arrays.copyOf(dispersiones, n));
+        this.llaves = new Object[n];
+        this.valores = new Object[n];
+        for (int i = 0; i < n; i++) {
+            int casilla = casilla(dispersiones[i]);
+            this.llaves[casilla] = distintas[i];
+            this.valores[casilla] = suyos[i];
+        }
+    }
+
+    /* Construye un diccionario vacío, para cargarlo de un archivo. */
+    private DiccionarioCongelado(Dispersor<K> dispersor) {
+        asignaDispersor(dispersor);
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    @SuppressWarnings("unchecked") public V get(K llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+
+        if (llaves.length > 0) {
+            int casilla = casilla(dispersa(llave));
+            if (llaves[casilla].equals(llave))
+                return (V)valores[casilla];
+        }
+
+        if (excedentes == null)
+            throw new NoSuchElementException();
+
+        return excedentes.get(llave);
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <code>true</code> si la llave está en el diccionario,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(K llave) {
+        if (llave == null)
+            return false;
+
+        if (llaves.length > 0 &&
+            llaves[casilla(dispersa(llave))].equals(llave))
+            return true;
+
+        return excedentes != null && excedentes.contiene(llave);
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return llaves.length +
+            (excedentes == null ? 0 : excedentes.getElementos());
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacia() {
+        return getElementos() == 0;
+    }
+
+    /**
+     * Regresa el número de llaves que no tienen casilla propia porque su
+     * dispersión es la de otra llave.
+     * @return el número de llaves guardadas como excedentes.
+     */
+    public int getExcedentes() {
+        return excedentes == null ? 0 : excedentes.getElementos();
+    }
+
+    /**
+     * Regresa cuántos bits por llave ocupa la función de dispersión: los
+     * índices de piloto, la tabla de pilotos distintos y la tabla de
+     * reasignaciones, sin contar las llaves ni los valores.
+     * @return cuántos bits por llave ocupa la función de dispersión.
+     */
+    public double bitsPorLlave() {
+        long bits = 64L * codigos.length + 32L * pilotos.length +
+            32L * reasignadas.length;
+        return Double.valueOf(bits) / Math.max(1, llaves.length);
+    }
+
+    /**
+     * Regresa una representación en cadena del diccionario.
+     * @return una representación en cadena del diccionario.
+     */
+    @Override public String toString() {
+        if (esVacia())
+            return "{}";
+
+        String texto = "{ ";
+        Iterator<K> iterador = iteradorLlaves();
+
+        while (iterador.hasNext()) {
+            K llave = iterador.next();
+            texto += String.format("'%s': '%s', ", llave, get(llave));
+        }
+
+        return texto + "}";
+    }
+
+    /**
+     * Nos dice si el diccionario es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al diccionario.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         DiccionarioCongelado, y tiene las mismas llaves asociadas a los
+     *         mismos valores.
+     */
+    @Override public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass())
+            return false;
+        @SuppressWarnings("unchecked") DiccionarioCongelado<K, V> d =
+            (DiccionarioCongelado<K, V>)o;
+
+        if (d.getElementos() != getElementos())
+            return false;
+
+        Iterator<K> iterador = iteradorLlaves();
+
+        while (iterador.hasNext()) {
+            K llave = iterador.next();
+            if (!d.contiene(llave) || !d.get(llave).equals(get(llave)))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Regresa un iterador para iterar las llaves del diccionario. El
+     * diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar las llaves del diccionario.
+     */
+    public Iterator<K> iteradorLlaves() {
+        return new IteradorLlaves();
+    }
+
+    /**
+     * Regresa un iterador para iterar los valores del diccionario, en el
+     * mismo orden que {@link #iteradorLlaves}.
+     * @return un iterador para iterar los valores del diccionario.
+     */
+    @Override public Iterator<V> iterator() {
+        return new IteradorValores();
+    }
+
+    /**
+     * Guarda el diccionario en un archivo, con la función de dispersión ya
+     * construida.
+     * @param archivo la ruta del archivo.
+     * @throws IOException si no se puede escribir el archivo, o si alguna
+     *         llave o valor no es serializable.
+     */
+    public void guarda(Path archivo) throws IOException {
+        Object[] llavesExcedentes = new Object[getExcedentes()];
+        Object[] valoresExcedentes = new Object[getExcedentes()];
+        if (excedentes != null) {
+            Iterator<K> iterador = excedentes.iteradorLlaves();
+            for (int i = 0; iterador.hasNext(); i++) {
+                K llave = iterador.next();
+                llavesExcedentes[i] = llave;
+                valoresExcedentes[i] = excedentes.get(llave);
+            }
+        }
+
+        try (ObjectOutputStream salida = new ObjectOutputStream(
+                 new BufferedOutputStream(Files.newOutputStream(archivo)))) {
+            salida.writeInt(MAGIA);
+            salida.writeInt(VERSION);
+            salida.writeLong(semilla);
+            salida.writeInt(cubetas);
+            salida.writeInt(casillas);
+            salida.writeInt(ancho);
+            salida.writeObject(codigos);
+            salida.writeObject(pilotos);
+            salida.writeObject(reasignadas);
+            salida.writeObject(llaves);
+            salida.writeObject(valores);
+            salida.writeObject(llavesExcedentes);
+            salida.writeObject(valoresExcedentes);
+        }
+    }
+
+    /**
+     * Carga un diccionario guardado con {@link #guarda}. La función de
+     * dispersión no se vuelve a construir; sólo se revisa, con una muestra
+     * de las llaves, que el dispersor recibido sea el que se usó al
+     * construirla.
+     * @param <K> el tipo de las llaves.
+     * @param <V> el tipo de los valores.
+     * @param archivo la ruta del archivo.
+     * @param dispersor el dispersor con el que se construyó el diccionario.
+     * @return el diccionario guardado en el archivo.
+     * @throws IOException si no se puede leer el archivo, si no es un
+     *         diccionario congelado, o si el dispersor no es el mismo.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> DiccionarioCongelado<K, V>
+    carga(Path archivo, Dispersor<K> dispersor) throws IOException {
+        DiccionarioCongelado<K, V> diccionario =
+            new DiccionarioCongelado<K, V>(dispersor);
+        Object[] llavesExcedentes, valoresExcedentes;
+
+        try (ObjectInputStream entrada = new ObjectInputStream(
+                 new BufferedInputStream(Files.newInputStream(archivo)))) {
+            if (entrada.readInt() != MAGIA || entrada.readInt() != VERSION)
+                throw new IOException("El archivo no es un diccionario " +
+                                      "congelado");
+            diccionario.semilla = entrada.readLong();
+            diccionario.cubetas = entrada.readInt();
+            diccionario.casillas = entrada.readInt();
+            diccionario.ancho = entrada.readInt();
+            diccionario.codigos = (long[])entrada.readObject();
+            diccionario.pilotos = (int[])entrada.readObject();
+            diccionario.reasignadas = (int[])entrada.readObject();
+            diccionario.llaves = (Object[])entrada.readObject();
+            diccionario.valores = (Object[])entrada.readObject();
+            llavesExcedentes = (Object[])entrada.readObject();
+            valoresExcedentes = (Object[])entrada.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("El archivo no es un diccionario " +
+                                  "congelado", e);
+        }
+
+        if (llavesExcedentes.length > 0) {
+            diccionario.excedentes = new Diccionario<K, V>(dispersor);
+            for (int i = 0; i < llavesExcedentes.length; i++)
+                diccionario.excedentes.agrega((K)llavesExcedentes[i],
+                                              (V)valoresExcedentes[i]);
+        }
+
+        int n = diccionario.llaves.length;
+        for (int i = 0; i < Math.min(n, MUESTRA); i++) {
+            int casilla = (int)((long)i * n / Math.min(n, MUESTRA));
+            K llave = diccionario.llave(casilla);
+            if (diccionario.casilla(diccionario.dispersa(llave)) != casilla)
+                throw new IOException("El dispersor no es el del " +
+                                      "diccionario guardado");
+        }
+
+        return diccionario;
+    }
+
+    /* Asigna el dispersor, reconociendo si es de 64 bits. */
+    private void asignaDispersor(Dispersor<K> dispersor) {
+        this.dispersor = dispersor;
+        if (dispersor instanceof Dispersor64)
+            this.dispersor64 = (Dispersor64<K>)dispersor;
+    }
+
+    /* Regresa la llave de la casilla. */
+    @SuppressWarnings("unchecked") private K llave(int casilla) {
+        return (K)llaves[casilla];
+    }
+
+    /* Regresa la dispersión de la llave; si el dispersor no es de 64 bits,
+       los 32 bits altos son cero. */
+    private long dispersa(K llave) {
+        if (dispersor64 != null)
+            return dispersor64.dispersa64(llave);
+        return dispersor.dispersa(llave) & 0xFFFFFFFFL;
+    }
+
+    /* Regresa la casilla de la dispersión. */
+    private int casilla(long dispersion) {
+        long h = Dispersores.mezcla64(dispersion ^ semilla);
+        int piloto = pilotos[codigo(cubeta(h))];
+        int casilla = posicion(h, piloto);
+        return casilla < llaves.length ?
+            casilla : reasignadas[casilla - llaves.length];
+    }
+
+    /* Regresa la cubeta de la dispersión mezclada. El 60% de las
+     * dispersiones va al primer 30% de las cubetas, para que las cubetas
+     * grandes se acomoden cuando todavía hay muchas casillas libres. */
+    private int cubeta(long h) {
+        int densas = (int)(cubetas * 0.3);
+        long bajos = h & 0xFFFFFFFFL;
+        if ((h >>> 32) < SESGO)
+            return (int)((bajos * densas) >>> 32);
+        return densas + (int)((bajos * (cubetas - densas)) >>> 32);
+    }
+
+    /* Regresa la casilla, antes de reasignar, de la dispersión mezclada con
+     * el piloto. */
+    private int posicion(long h, int piloto) {
+        long x = Dispersores.mezcla64(h ^ Dispersores.mezcla64(piloto));
+        return (int)(((x & 0xFFFFFFFFL) * casillas) >>> 32);
+    }
+
+    /* Regresa el índice de piloto de la cubeta. */
+    private int codigo(int cubeta) {
+        long bit = (long)cubeta * ancho;
+        int i = (int)(bit >>> 6), desplazamiento = (int)(bit & 63);
+        long palabra = codigos[i] >>> desplazamiento;
+        if (desplazamiento + ancho > 64)
+            palabra |= codigos[i + 1] << (64 - desplazamiento);
+        return (int)(palabra & ((1L << ancho) - 1));
+    }
+
+    /* Construye la función para las dispersiones recibidas, que son todas
+     * distintas; si alguna cubeta no encuentra piloto, vuelve a empezar con
+     * otra semilla. */
+    private void construye(long[] dispersiones) {
+        int n = dispersiones.length;
+        cubetas = Math.max(1, (n + LLAVES_POR_CUBETA - 1) / LLAVES_POR_CUBETA);
+        casillas = Math.max(n, (int)Math.ceil(n / CARGA));
+        int[] elegidos;
+
+        semilla = 0;
+        while ((elegidos = buscaPilotos(dispersiones)) == null)
+            semilla++;
+
+        empaqueta(elegidos);
+
+        boolean[] ocupadas = new boolean[casillas];
+        for (long dispersion : dispersiones) {
+            long h = Dispersores.mezcla64(dispersion ^ semilla);
+            ocupadas[posicion(h, elegidos[cubeta(h)])] = true;
+        }
+        reasignadas = new int[casillas - n];
+        int libre = 0;
+        for (int i = n; i < casillas; i++) {
+            if (!ocupadas[i])
+                continue;
+            while (ocupadas[libre])
+                libre++;
+            reasignadas[i - n] = libre++;
+        }
+    }
+
+    /* Busca un piloto para cada cubeta con la semilla actual, de la cubeta
+     * más grande a la más chica; regresa null si alguna no lo encuentra. */
+    private int[] buscaPilotos(long[] dispersiones) {
+        int n = dispersiones.length;
+        int[] tamanos = new int[cubetas + 1];
+        long[] mezcladas = new long[n];
+        for (int i = 0; i < n; i++) {
+            mezcladas[i] = Dispersores.mezcla64(dispersiones[i] ^ semilla);
+            tamanos[cubeta(mezcladas[i]) + 1]++;
+        }
+
+        /* Agrupa las dispersiones por cubeta. */
+        int[] inicios = new int[cubetas + 1];
+        for (int i = 0; i < cubetas; i++)
+            inicios[i + 1] = inicios[i] + tamanos[i + 1];
+        int[] llenas = Arrays.copyOf(inicios, cubetas);
+        long[] agrupadas = new long[n];
+        for (long h : mezcladas)
+            agrupadas[llenas[cubeta(h)]++] = h;
+
+        /* Ordena las cubetas por tamaño, de mayor a menor. */
+        int maximo = 0;
+        for (int i = 0; i < cubetas; i++)
+            maximo = Math.max(maximo, tamanos[i + 1]);
+        int[] porTamano = new int[maximo + 2];
+        for (int i = 0; i < cubetas; i++)
+            porTamano[maximo - tamanos[i + 1] + 1]++;
+        for (int i = 0; i <= maximo; i++)
+            porTamano[i + 1] += porTamano[i];
+        int[] orden = new int[cubetas];
+        for (int i = 0; i < cubetas; i++)
+            orden[porTamano[maximo - tamanos[i + 1]]++] = i;
+
+        int[] elegidos = new int[cubetas];
+        boolean[] ocupadas = new boolean[casillas];
+        int[] posiciones = new int[maximo];
+        for (int cubeta : orden) {
+            int inicio = inicios[cubeta], fin = inicios[cubeta + 1];
+            if (inicio == fin)
+                break;
+            int piloto = 0;
+            while (!prueba(agrupadas, inicio, fin, piloto, ocupadas,
+                           posiciones))
+                if (++piloto == MAXIMO_PILOTO)
+                    return null;
+            elegidos[cubeta] = piloto;
+        }
+
+        return elegidos;
+    }
+
+    /* Prueba el piloto con las dispersiones de una cubeta; si todas caen en
+     * casillas libres y distintas, las ocupa. */
+    private boolean prueba(long[] agrupadas, int inicio, int fin, int piloto,
+                           boolean[] ocupadas, int[] posiciones) {
+        int k = 0;
+        for (int i = inicio; i < fin; i++) {
+            int posicion = posicion(agrupadas[i], piloto);
+            if (ocupadas[posicion]) {
+                for (int j = 0; j < k; j++)
+                    ocupadas[posiciones[j]] = false;
+                return false;
+            }
+            ocupadas[posicion] = true;
+            posiciones[k++] = posicion;
+        }
+        return true;
+    }
+
+    /* Guarda los pilotos como índices a la tabla de pilotos distintos,
+     * empaquetados en el mínimo de bits. */
+    private void empaqueta(int[] elegidos) {
+        pilotos = Arrays.stream(elegidos).distinct().sorted().toArray();
+        ancho = Math.max(1, 32 - Integer.numberOfLeadingZeros(
+                                 pilotos.length - 1));
+        codigos = new long[(int)(((long)cubetas * ancho + 63) >>> 6)];
+        for (int i = 0; i < cubetas; i++) {
+            long codigo = Arrays.binarySearch(pilotos, elegidos[i]);
+            long bit = (long)i * ancho;
+            int j = (int)(bit >>> 6), desplazamiento = (int)(bit & 63);
+            codigos[j] |= codigo << desplazamiento;
+            if (desplazamiento + ancho > 64)
+                codigos[j + 1] |= codigo >>> (64 - desplazamiento);
+        }
+    }
+}
@@ -0,0 +1,533 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para diccionarios con dispersión de cuco (<em>cuckoo
+ * hashing</em>). Tiene la misma interfaz pública que {@link Diccionario},
+ * pero cada llave sólo puede estar en una de dos cubetas de {@link #CUBETA}
+ * casillas, elegidas por dos dispersores distintos, o en un pequeño
+ * <em>escondite</em> aparte. Así, buscar una llave revisa a lo más dos
+ * cubetas y el escondite, sin importar cuántas llaves haya ni cómo
+ * choquen.</p>
+ *
+ * <p>Al agregar, si las dos cubetas de la llave están llenas, la llave
+ * desaloja a otra elegida al azar, que se mueve a su otra cubeta y puede a
+ * su vez desalojar a otra, hasta encontrar una casilla libre o rendirse
+ * después de {@link #MAXIMOS_DESALOJOS} desalojos; en ese caso la última
+ * llave desalojada va al escondite. Si el escondite está lleno, el arreglo
+ * se duplica. Con cubetas de cuatro casillas esto permite cargas de hasta
+ * {@link #MAXIMA_CARGA}.</p>
+ *
+ * <p>Si los dos dispersores dan las mismas dispersiones para muchas llaves,
+ * ningún tamaño de arreglo las separa; cuando el escondite se llena con el
+ * arreglo a menos de la mitad, lo que crece es el escondite, y las búsquedas
+ * dejan de ser de tiempo constante. Por eso no hay dispersores
+ * predeterminados: dos dispersores derivados del <code>hashCode</code>
+ * mandarían a las mismas dos cubetas a todas las llaves con el mismo
+ * <code>hashCode</code>, y siempre hay que dar dos dispersores de algoritmos
+ * distintos, como los de {@link FabricaDispersores}.</p>
+ */
+public class DiccionarioCuco<K, V> implements Iterable<V> {
+
+    /* Clase interna privada para iteradores. */
+    private class Iterador {
+
+        /* En qué casilla estamos. */
+        private int indice;
+
+        /* Construye un nuevo iterador. */
+        private Iterador() {
+            indice = -1;
+            mueveIterador();
+        }
+
+        /* Nos dice si hay una siguiente casilla ocupada. */
+        public boolean hasNext() {
+            return indice < llaves.length;
+        }
+
+        /* Regresa la casilla de la siguiente entrada. */
+        protected int siguiente() {
+            if (!hasNext())
+                throw new NoSuchElementException("No hay siguiente elemento.");
+
+            int casilla = indice;
+            mueveIterador();
+
+            return casilla;
+        }
+
+        /* Mueve el iterador a la siguiente casilla ocupada. */
+        private void mueveIterador() {
+            do {
+                indice++;
+            } while (indice < llaves.length && llaves[indice] == null);
+        }
+    }
+
+    /* Clase interna privada para iteradores de llaves. */
+    private class IteradorLlaves extends Iterador
+        implements Iterator<K> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public K next() {
+            return llave(siguiente());
+        }
+    }
+
+    /* Clase interna privada para iteradores de valores. */
+    private class IteradorValores extends Iterador
+        implements Iterator<V> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public V next() {
+            return valor(siguiente());
+        }
+    }
+
+    /** Máxima carga permitida por el diccionario. */
+    public static final double MAXIMA_CARGA = 0.95;
+
+    /** Casillas por cubeta. */
+    public static final int CUBETA = 4;
+
+    /** Desalojos antes de mandar una llave al escondite. */
+    public static final int MAXIMOS_DESALOJOS = 500;
+
+    /* Capacidad mínima; decidida arbitrariamente a 2^6. */
+    private static final int MINIMA_CAPACIDAD = 64;
+
+    /* Casillas iniciales del escondite. */
+    private static final int ESCONDITE = 4;
+
+    /* El primer dispersor. */
+    private Dispersor<K> primero;
+    /* El segundo dispersor. */
+    private Dispersor<K> segundo;
+    /* Las llaves: primero las cubetas y al final el escondite; null si la
+       casilla está libre. */
+    private Object[] llaves;
+    /* Los valores, en la misma casilla que su llave. */
+    private Object[] valores;
+    /* La primera dispersión de cada llave. */
+    private int[] primeras;
+    /* La segunda dispersión de cada llave. */
+    private int[] segundas;
+    /* Número de cubetas. */
+    private int cubetas;
+    /* Número de llaves en el escondite, que siempre están al principio de
+       él. */
+    private int escondidas;
+    /* Número de valores. */
+    private int elementos;
+    /* Estado del generador que elige a quién desalojar. */
+    private int estado;
+
+    /**
+     * Construye un diccionario con una capacidad inicial predeterminada, y
+     * dos dispersores definidos por el usuario, que deberían ser de
+     * algoritmos distintos.
+     * @param primero el primer dispersor.
+     * @param segundo el segundo dispersor.
+     */
+    public DiccionarioCuco(Dispersor<K> primero, Dispersor<K> segundo) {
+        this(MINIMA_CAPACIDAD, primero, segundo);
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial y dos dispersores
+     * definidos por el usuario. Se pueden agregar tantas llaves como la
+     * capacidad sin que el arreglo crezca.
+     * @param capacidad la capacidad inicial del diccionario.
+     * @param primero el primer dispersor.
+     * @param segundo el segundo dispersor.
+     */
+    public DiccionarioCuco(int capacidad, Dispersor<K> primero,
+                           Dispersor<K> segundo) {
+        int casillas = (int)Math.ceil(capacidad / MAXIMA_CARGA);
+        casillas =
+            casillas < MINIMA_CAPACIDAD ?
+            MINIMA_CAPACIDAD :
+            redondearAPotencia(casillas);
+        this.primero = primero;
+        this.segundo = segundo;
+        estado = 0x9e3779b9;
+        creaArreglos(casillas / CUBETA, ESCONDITE);
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     */
+    public void agrega(K llave, V valor) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+
+        int primera = primero.dispersa(llave);
+        int segunda = segundo.dispersa(llave);
+        int casilla = busca(llave, primera, segunda);
+
+        if (casilla != -1) {
+            valores[casilla] = valor;
+            return;
+        }
+
+        if (elementos + 1 > (long)cubetas * CUBETA * MAXIMA_CARGA)
+            reconstruye(2 * cubetas, llaves.length - cubetas * CUBETA);
+        inserta(llave, valor, primera, segunda);
+        elementos++;
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public V get(K llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+
+        int casilla = busca(llave);
+
+        if (casilla == -1)
+            throw new NoSuchElementException();
+
+        return valor(casilla);
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <code>true</code> si la llave está en el diccionario,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(K llave) {
+        if (llave == null)
+            return false;
+
+        return busca(llave) != -1;
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada. Si
+     * la casilla que se libera es de una cubeta, y alguna llave del escondite
+     * puede ir en esa cubeta, la llave sale del escondite.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(K llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+
+        int casilla = busca(llave);
+
+        if (casilla == -1)
+            throw new NoSuchElementException();
+
+        int inicio = cubetas * CUBETA;
+        elementos--;
+
+        if (casilla >= inicio) {
+            mueve(inicio + --escondidas, casilla);
+            return;
+        }
+
+        llaves[casilla] = null;
+        valores[casilla] = null;
+        int cubeta = casilla / CUBETA;
+        for (int i = inicio; i < inicio + escondidas; i++) {
+            if (cubeta(primeras[i]) == cubeta ||
+                cubeta(segundas[i]) == cubeta) {
+                mueve(i, casilla);
+                mueve(inicio + --escondidas, i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Nos dice la carga del diccionario.
+     * @return la carga del diccionario.
+     */
+    public double carga() {
+        return Double.valueOf(elementos) / (cubetas * CUBETA);
+    }
+
+    /**
+     * Regresa el número de llaves en el escondite.
+     * @return el número de llaves en el escondite.
+     */
+    public int getEscondidas() {
+        return escondidas;
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacia() {
+        return elementos == 0;
+    }
+
+    /**
+     * Limpia el diccionario de elementos, dejándolo vacío.
+     */
+    public void limpia() {
+        elementos = 0;
+        escondidas = 0;
+        creaArreglos(cubetas, llaves.length - cubetas * CUBETA);
+    }
+
+    /**
+     * Regresa una representación en cadena del diccionario.
+     * @return una representación en cadena del diccionario.
+     */
+    @Override public String toString() {
+        if (elementos == 0)
+            return "{}";
+
+        String texto = "{ ";
+        Iterador iterador = new Iterador();
+
+        while (iterador.hasNext()) {
+            int i = iterador.siguiente();
+            texto += String.format("'%s': '%s', ", llaves[i], valores[i]);
+        }
+
+        return texto + "}";
+    }
+
+    /**
+     * Nos dice si el diccionario es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al diccionario.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         DiccionarioCuco, y tiene las mismas llaves asociadas a los
+     *         mismos valores.
+     */
+    @Override public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass())
+            return false;
+        @SuppressWarnings("unchecked") DiccionarioCuco<K, V> d =
+            (DiccionarioCuco<K, V>)o;
+
+        if (d.elementos != elementos)
+            return false;
+
+        Iterador iterador = new Iterador();
+
+        while (iterador.hasNext()) {
+            int i = iterador.siguiente();
+            int casilla = d.busca(llave(i));
+
+            if (casilla == -1 || !d.valores[casilla].equals(valores[i]))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Regresa un iterador para iterar las llaves del diccionario. El
+     * diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar las llaves del diccionario.
+     */
+    public Iterator<K> iteradorLlaves() {
+        return new IteradorLlaves();
+    }
+
+    /**
+     * Regresa un iterador para iterar los valores del diccionario. El
+     * diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar los valores del diccionario.
+     */
+    @Override public Iterator<V> iterator() {
+        return new IteradorValores();
+    }
+
+    /* Redondea a la siguiente potencia de dos. */
+    private int redondearAPotencia(int numero) {
+        int potencia = 1;
+        while (potencia < numero)
+            potencia *= 2;
+        return potencia;
+    }
+
+    /* Crea arreglos vacíos con las cubetas y el escondite recibidos. */
+    private void creaArreglos(int cubetas, int escondite) {
+        this.cubetas = cubetas;
+        int casillas = cubetas * CUBETA + escondite;
+        llaves = new Object[casillas];
+        valores = new Object[casillas];
+        primeras = new int[casillas];
+        segundas = new int[casillas];
+    }
+
+    /* Regresa la llave de la casilla. */
+    @SuppressWarnings("unchecked") private K llave(int i) {
+        return (K)llaves[i];
+    }
+
+    /* Regresa el valor de la casilla. */
+    @SuppressWarnings("unchecked") private V valor(int i) {
+        return (V)valores[i];
+    }
+
+    /* Regresa la cubeta de una dispersión. */
+    private int cubeta(int dispersion) {
+        return dispersion & (cubetas - 1);
+    }
+
+    /* Regresa la casilla de la llave, o -1 si no está en el diccionario. */
+    private int busca(K llave) {
+        return busca(llave, primero.dispersa(llave), segundo.dispersa(llave));
+    }
+
+    /* Regresa la casilla de la llave con las dispersiones recibidas, o -1 si
+       no está en el diccionario. Revisa sus dos cubetas y el escondite; las
+       dispersiones se comparan antes que las llaves, para sólo llamar equals
+       cuando es muy probable que coincidan. */
+    private int busca(K llave, int primera, int segunda) {
+        int i = cubeta(primera) * CUBETA;
+        for (int j = i; j < i + CUBETA; j++)
+            if (coincide(j, llave, primera, segunda))
+                return j;
+
+        i = cubeta(segunda) * CUBETA;
+        for (int j = i; j < i + CUBETA; j++)
+            if (coincide(j, llave, primera, segunda))
+                return j;
+
+        i = cubetas * CUBETA;
+        for (int j = i; j < i + escondidas; j++)
+            if (coincide(j, llave, primera, segunda))
+                return j;
+
+        return -1;
+    }
+
+    /* Nos dice si la casilla tiene la llave con las dispersiones
+       recibidas. */
+    private boolean coincide(int i, K llave, int primera, int segunda) {
+        return llaves[i] != null && primeras[i] == primera &&
+            segundas[i] == segunda && llaves[i].equals(llave);
+    }
+
+    /* Regresa una casilla libre de la cubeta, o -1 si está llena. */
+    private int libre(int cubeta) {
+        int i = cubeta * CUBETA;
+        for (int j = i; j < i + CUBETA; j++)
+            if (llaves[j] == null)
+                return j;
+        return -1;
+    }
+
+    /* Pone una entrada en la casilla. */
+    private void pon(int i, Object llave, Object valor,
+                     int primera, int segunda) {
+        llaves[i] = llave;
+        valores[i] = valor;
+        primeras[i] = primera;
+        segundas[i] = segunda;
+    }
+
+    /* Mueve la entrada de una casilla a otra, y vacía la original. */
+    private void mueve(int origen, int destino) {
+        pon(destino, llaves[origen], valores[origen],
+            primeras[origen], segundas[origen]);
+        llaves[origen] = null;
+        valores[origen] = null;
+    }
+
+    /* Regresa un número pseudoaleatorio entre 0 y n - 1, con xorshift. */
+    private int aleatorio(int n) {
+        estado ^= estado << 13;
+        estado ^= estado >>> 17;
+        estado ^= estado << 5;
+        return (estado >>> 1) % n;
+    }
+
+    /* Inserta una entrada que no está en el diccionario, desalojando a otras
+       si sus dos cubetas están llenas. */
+    private void inserta(Object llave, Object valor,
+                         int primera, int segunda) {
+        int cubeta = cubeta(primera);
+        int i = libre(cubeta);
+        if (i == -1) {
+            cubeta = cubeta(segunda);
+            i = libre(cubeta);
+        }
+        if (i != -1) {
+            pon(i, llave, valor, primera, segunda);
+            return;
+        }
+
+        for (int d = 0; d < MAXIMOS_DESALOJOS; d++) {
+            i = cubeta * CUBETA + aleatorio(CUBETA);
+            Object desalojada = llaves[i], suValor = valores[i];
+            int suPrimera = primeras[i], suSegunda = segundas[i];
+            pon(i, llave, valor, primera, segunda);
+            llave = desalojada;
+            valor = suValor;
+            primera = suPrimera;
+            segunda = suSegunda;
+
+            cubeta = cubeta(primera) == cubeta ?
+                cubeta(segunda) : cubeta(primera);
+            i = libre(cubeta);
+            if (i != -1) {
+                pon(i, llave, valor, primera, segunda);
+                return;
+            }
+        }
+
+        int escondite = llaves.length - cubetas * CUBETA;
+        if (escondidas < escondite) {
+            pon(cubetas * CUBETA + escondidas++, llave, valor,
+                primera, segunda);
+            return;
+        }
+
+        if (elementos >= cubetas * CUBETA / 2)
+            reconstruye(2 * cubetas, escondite);
+        else
+            reconstruye(cubetas, 2 * escondite);
+        inserta(llave, valor, primera, segunda);
+    }
+
+    /* Reconstruye los arreglos con las cubetas y el escondite recibidos,
+       volviendo a insertar todas las entradas con sus dispersiones
+       guardadas. */
+    private void reconstruye(int cubetas, int escondite) {
+        Object[] viejasLlaves = llaves;
+        Object[] viejosValores = valores;
+        int[] viejasPrimeras = primeras;
+        int[] viejasSegundas = segundas;
+
+        creaArreglos(cubetas, escondite);
+        escondidas = 0;
+
+        for (int j = 0; j < viejasLlaves.length; j++)
+            if (viejasLlaves[j] != null)
+                inserta(viejasLlaves[j], viejosValores[j],
+                        viejasPrimeras[j], viejasSegundas[j]);
+    }
+}
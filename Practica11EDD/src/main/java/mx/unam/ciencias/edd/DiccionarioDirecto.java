@@ -0,0 +1,575 @@
+package mx.unam.ciencias.edd;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para diccionarios de arreglos de bytes que guardan todo fuera del
+ * montón. Las llaves y los valores se copian a <em>losas</em>: buffers
+ * directos de {@link ByteBuffer} que se llenan uno tras otro, y el índice es
+ * otro buffer directo con direccionamiento abierto y sondeo lineal. Así, sin
+ * importar cuántas entradas tenga el diccionario, el recolector de basura
+ * sólo ve unos cuantos objetos, y no tiene que recorrer ninguna entrada.</p>
+ *
+ * <p>Cada casilla del índice guarda la dispersión completa de su llave y la
+ * posición de su entrada en las losas; una llave sólo se compara byte por
+ * byte si coinciden la dispersión y la longitud. Al eliminar se recorren
+ * hacia atrás las casillas siguientes, por lo que no hacen falta lápidas.</p>
+ *
+ * <p>El espacio de las losas nunca se reutiliza: al reemplazar un valor por
+ * otro más largo y al eliminar, el espacio anterior se vuelve basura, que
+ * {@link #compacta} elimina. Las llaves y los valores se copian al agregar y
+ * al leer, así que modificar los arreglos después no afecta al
+ * diccionario.</p>
+ */
+public class DiccionarioDirecto implements Iterable<byte[]> {
+
+    /* Clase interna privada para iteradores. */
+    private class Iterador {
+
+        /* En qué casilla estamos. */
+        private int indice;
+
+        /* Construye un nuevo iterador. */
+        private Iterador() {
+            indice = siguienteOcupada(-1);
+        }
+
+        /* Nos dice si hay una siguiente casilla ocupada. */
+        public boolean hasNext() {
+            return indice < casillas;
+        }
+
+        /* Regresa la posición de la siguiente entrada. */
+        protected long siguiente() {
+            if (!hasNext())
+                throw new NoSuchElementException("No hay siguiente elemento.");
+
+            long posicion = posicion(indice);
+            indice = siguienteOcupada(indice);
+
+            return posicion;
+        }
+    }
+
+    /* Clase interna privada para iteradores de llaves. */
+    private class IteradorLlaves extends Iterador
+        implements Iterator<byte[]> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public byte[] next() {
+            return llave(siguiente());
+        }
+    }
+
+    /* Clase interna privada para iteradores de valores. */
+    private class IteradorValores extends Iterador
+        implements Iterator<byte[]> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public byte[] next() {
+            return valor(siguiente());
+        }
+    }
+
+    /** Máxima carga permitida por el diccionario. */
+    public static final double MAXIMA_CARGA = 0.72;
+
+    /* Capacidad mínima; decidida arbitrariamente a 2^6. */
+    private static final int MINIMA_CAPACIDAD = 64;
+    /* Capacidad máxima, para que el índice quepa en un buffer. */
+    private static final int MAXIMA_CAPACIDAD = 1 << 27;
+    /* Tamaño de la primera losa; cada losa nueva es del doble. */
+    private static final int LOSA_INICIAL = 1 << 12;
+    /* Tamaño máximo de una losa, salvo si una entrada no cabe. */
+    private static final int LOSA_MAXIMA = 1 << 26;
+
+    /* Bytes estimados en el montón del diccionario y de cada objeto de un
+       buffer directo, y del encabezado de un arreglo y de cada referencia. */
+    private static final int BYTES_OBJETO = 64;
+    private static final int BYTES_BUFFER = 64;
+    private static final int ENCABEZADO_ARREGLO = 16;
+    private static final int REFERENCIA = 8;
+
+    /* Bytes de una casilla del índice: la dispersión y la posición. */
+    private static final int CASILLA = 12;
+
+    /* Posiciones de los campos de una entrada. */
+    private static final int BYTES_LLAVE = 0;
+    private static final int BYTES_VALOR = 4;
+    private static final int CAPACIDAD_VALOR = 8;
+    private static final int DATOS = 12;
+
+    /* Dispersor. */
+    private Dispersor<byte[]> dispersor;
+    /* El índice; una posición 0 marca una casilla libre. */
+    private ByteBuffer indice;
+    /* Número de casillas del índice. */
+    private int casillas;
+    /* Las losas. */
+    private ByteBuffer[] losas;
+    /* Número de losas usadas. */
+    private int numeroLosas;
+    /* Número de valores. */
+    private int elementos;
+    /* Bytes de las losas que ya no se usan. */
+    private long basura;
+
+    /**
+     * Construye un diccionario con una capacidad inicial predeterminada, que
+     * dispersa con el algoritmo de Bob Jenkins.
+     */
+    public DiccionarioDirecto() {
+        this(MINIMA_CAPACIDAD, b -> Dispersores.dispersaBJ(b));
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial definida por el
+     * usuario, que dispersa con el algoritmo de Bob Jenkins.
+     * @param capacidad la capacidad a utilizar.
+     */
+    public DiccionarioDirecto(int capacidad) {
+        this(capacidad, b -> Dispersores.dispersaBJ(b));
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial predeterminada, y un
+     * dispersor definido por el usuario.
+     * @param dispersor el dispersor a utilizar.
+     */
+    public DiccionarioDirecto(Dispersor<byte[]> dispersor) {
+        this(MINIMA_CAPACIDAD, dispersor);
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial y un dispersor
+     * definidos por el usuario.
+     * @param capacidad la capacidad inicial del diccionario.
+     * @param dispersor el dispersor a utilizar.
+     * @throws IllegalArgumentException si la capacidad no cabe en el índice.
+     */
+    public DiccionarioDirecto(int capacidad, Dispersor<byte[]> dispersor) {
+        if (capacidad > MAXIMA_CAPACIDAD / 2)
+            throw new IllegalArgumentException("Capacidad inválida");
+        capacidad =
+            capacidad < MINIMA_CAPACIDAD ?
+            MINIMA_CAPACIDAD :
+            redondearAPotencia(capacidad * 2);
+        this.dispersor = dispersor;
+        creaIndice(capacidad);
+        creaLosas();
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí; si el nuevo valor
+     * cabe en el lugar del anterior, se escribe encima.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     * @throws IllegalStateException si el índice ya no puede crecer.
+     */
+    public void agrega(byte[] llave, byte[] valor) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+
+        int dispersion = dispersor.dispersa(llave);
+        int casilla = busca(llave, dispersion);
+
+        if (casilla != -1) {
+            long anterior = posicion(casilla);
+            ByteBuffer losa = losa(anterior);
+            int desplazamiento = desplazamiento(anterior);
+            if (valor.length <= losa.getInt(desplazamiento + CAPACIDAD_VALOR)) {
+                escribe(losa, desplazamiento + DATOS + llave.length, valor);
+                losa.putInt(desplazamiento + BYTES_VALOR, valor.length);
+                return;
+            }
+            basura += tamano(anterior);
+            indice.putLong(CASILLA * casilla + 4,
+                           nuevaEntrada(llave, valor));
+            return;
+        }
+
+        if (elementos + 1 > casillas * MAXIMA_CARGA)
+            agrandaIndice();
+        liga(dispersion, nuevaEntrada(llave, valor));
+        elementos++;
+    }
+
+    /**
+     * Regresa una copia del valor del diccionario asociado a la llave
+     * proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public byte[] get(byte[] llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+
+        int casilla = busca(llave, dispersor.dispersa(llave));
+
+        if (casilla == -1)
+            throw new NoSuchElementException();
+
+        return valor(posicion(casilla));
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <code>true</code> si la llave está en el diccionario,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(byte[] llave) {
+        if (llave == null)
+            return false;
+
+        return busca(llave, dispersor.dispersa(llave)) != -1;
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(byte[] llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+
+        int casilla = busca(llave, dispersor.dispersa(llave));
+
+        if (casilla == -1)
+            throw new NoSuchElementException();
+
+        basura += tamano(posicion(casilla));
+        recorre(casilla);
+        elementos--;
+    }
+
+    /**
+     * Nos dice la carga del diccionario.
+     * @return la carga del diccionario.
+     */
+    public double carga() {
+        return Double.valueOf(elementos) / casillas;
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacia() {
+        return elementos == 0;
+    }
+
+    /**
+     * Limpia el diccionario de elementos, dejándolo vacío. El índice conserva
+     * su tamaño, pero las losas se liberan.
+     */
+    public void limpia() {
+        elementos = 0;
+        basura = 0;
+        creaIndice(casillas);
+        creaLosas();
+    }
+
+    /**
+     * Regresa el número de bytes fuera del montón que ocupan el índice y las
+     * losas del diccionario.
+     * @return el número de bytes fuera del montón que ocupa el diccionario.
+     */
+    public long memoria() {
+        long memoria = indice.capacity();
+        for (int i = 0; i < numeroLosas; i++)
+            memoria += losas[i].capacity();
+        return memoria;
+    }
+
+    /**
+     * Regresa una estimación de los bytes del montón que ocupan los objetos
+     * del diccionario: el diccionario mismo, los objetos de los buffers del
+     * índice y de las losas, y el arreglo de losas. Los bytes de los buffers
+     * están fuera del montón, y los cuenta {@link #memoria}.
+     * @return una estimación de los bytes del montón que ocupa el
+     *         diccionario.
+     */
+    public long memoriaMonton() {
+        return BYTES_OBJETO + BYTES_BUFFER * (1L + numeroLosas) +
+            ENCABEZADO_ARREGLO + (long)REFERENCIA * losas.length;
+    }
+
+    /**
+     * Regresa el número de bytes de las losas que ya no se usan, y que
+     * {@link #compacta} liberaría.
+     * @return el número de bytes de las losas que ya no se usan.
+     */
+    public long getBasura() {
+        return basura;
+    }
+
+    /**
+     * Copia las entradas a losas nuevas sin basura, y libera las anteriores.
+     * Las casillas del índice no cambian; sólo las posiciones de sus
+     * entradas.
+     */
+    public void compacta() {
+        ByteBuffer[] viejas = losas;
+        creaLosas();
+        basura = 0;
+
+        for (int i = 0; i < casillas; i++) {
+            long posicion = posicion(i);
+            if (posicion == 0)
+                continue;
+            ByteBuffer losa = viejas[(int)(posicion >>> 32) - 1];
+            int desplazamiento = desplazamiento(posicion);
+            int bytesLlave = losa.getInt(desplazamiento + BYTES_LLAVE);
+            int bytesValor = losa.getInt(desplazamiento + BYTES_VALOR);
+            long nueva = reserva(DATOS + bytesLlave + bytesValor);
+            ByteBuffer destino = losa(nueva).duplicate();
+            destino.position(desplazamiento(nueva));
+            ByteBuffer origen = losa.duplicate();
+            origen.position(desplazamiento)
+                .limit(desplazamiento + DATOS + bytesLlave + bytesValor);
+            destino.put(origen);
+            losa(nueva).putInt(desplazamiento(nueva) + CAPACIDAD_VALOR,
+                               bytesValor);
+            indice.putLong(CASILLA * i + 4, nueva);
+        }
+    }
+
+    /**
+     * Regresa un iterador para iterar copias de las llaves del diccionario.
+     * El diccionario se itera sin ningún orden específico, y no debe
+     * modificarse mientras se itera.
+     * @return un iterador para iterar las llaves del diccionario.
+     */
+    public Iterator<byte[]> iteradorLlaves() {
+        return new IteradorLlaves();
+    }
+
+    /**
+     * Regresa un iterador para iterar copias de los valores del diccionario,
+     * en el mismo orden que {@link #iteradorLlaves}.
+     * @return un iterador para iterar los valores del diccionario.
+     */
+    @Override public Iterator<byte[]> iterator() {
+        return new IteradorValores();
+    }
+
+    /* Redondea a la siguiente potencia de dos. */
+    private int redondearAPotencia(int numero) {
+        int potencia = 1;
+        while (potencia < numero)
+            potencia *= 2;
+        return potencia;
+    }
+
+    /* Crea un índice vacío con las casillas recibidas. */
+    private void creaIndice(int casillas) {
+        this.casillas = casillas;
+        indice = ByteBuffer.allocateDirect(CASILLA * casillas);
+    }
+
+    /* Descarta las losas y crea la primera. */
+    private void creaLosas() {
+        losas = new ByteBuffer[4];
+        losas[0] = ByteBuffer.allocateDirect(LOSA_INICIAL);
+        numeroLosas = 1;
+    }
+
+    /* Regresa la dispersión guardada en la casilla. */
+    private int dispersion(int casilla) {
+        return indice.getInt(CASILLA * casilla);
+    }
+
+    /* Regresa la posición de la entrada de la casilla, o 0 si está libre. La
+     * posición tiene el número de losa más uno en los 32 bits altos, y el
+     * desplazamiento dentro de la losa en los 32 bits bajos. */
+    private long posicion(int casilla) {
+        return indice.getLong(CASILLA * casilla + 4);
+    }
+
+    /* Regresa la losa de la posición. */
+    private ByteBuffer losa(long posicion) {
+        return losas[(int)(posicion >>> 32) - 1];
+    }
+
+    /* Regresa el desplazamiento de la posición dentro de su losa. */
+    private static int desplazamiento(long posicion) {
+        return (int)posicion;
+    }
+
+    /* Regresa los bytes que ocupa la entrada en su losa. */
+    private int tamano(long posicion) {
+        ByteBuffer losa = losa(posicion);
+        int desplazamiento = desplazamiento(posicion);
+        return DATOS + losa.getInt(desplazamiento + BYTES_LLAVE) +
+            losa.getInt(desplazamiento + CAPACIDAD_VALOR);
+    }
+
+    /* Regresa la casilla de la llave con la dispersión recibida, o -1 si no
+     * está. */
+    private int busca(byte[] llave, int dispersion) {
+        int mascara = casillas - 1;
+        int i = dispersion & mascara;
+        long posicion;
+
+        while ((posicion = posicion(i)) != 0) {
+            if (dispersion(i) == dispersion && iguales(posicion, llave))
+                return i;
+            i = (i + 1) & mascara;
+        }
+
+        return -1;
+    }
+
+    /* Nos dice si la llave de la entrada es la recibida. */
+    private boolean iguales(long posicion, byte[] llave) {
+        ByteBuffer losa = losa(posicion);
+        int desplazamiento = desplazamiento(posicion);
+        if (losa.getInt(desplazamiento + BYTES_LLAVE) != llave.length)
+            return false;
+        desplazamiento += DATOS;
+        for (int i = 0; i < llave.length; i++)
+            if (losa.get(desplazamiento + i) != llave[i])
+                return false;
+        return true;
+    }
+
+    /* Pone la entrada en la primera casilla libre a partir de la de su
+     * dispersión. */
+    private void liga(int dispersion, long posicion) {
+        int mascara = casillas - 1;
+        int i = dispersion & mascara;
+        while (posicion(i) != 0)
+            i = (i + 1) & mascara;
+        indice.putInt(CASILLA * i, dispersion);
+        indice.putLong(CASILLA * i + 4, posicion);
+    }
+
+    /* Vacía la casilla y recorre hacia atrás las casillas siguientes que
+       quedarían inalcanzables. */
+    private void recorre(int libre) {
+        int mascara = casillas - 1;
+        int i = (libre + 1) & mascara;
+
+        while (posicion(i) != 0) {
+            int original = dispersion(i) & mascara;
+            if (((i - original) & mascara) >= ((i - libre) & mascara)) {
+                indice.putInt(CASILLA * libre, dispersion(i));
+                indice.putLong(CASILLA * libre + 4, posicion(i));
+                libre = i;
+            }
+            i = (i + 1) & mascara;
+        }
+
+        indice.putLong(CASILLA * libre + 4, 0);
+    }
+
+    /* Duplica el tamaño del índice; las entradas no se mueven. */
+    private void agrandaIndice() {
+        if (casillas >= MAXIMA_CAPACIDAD)
+            throw new IllegalStateException("El diccionario está lleno");
+        ByteBuffer viejo = indice;
+        int viejas = casillas;
+        creaIndice(2 * casillas);
+
+        for (int j = 0; j < viejas; j++) {
+            long posicion = viejo.getLong(CASILLA * j + 4);
+            if (posicion != 0)
+                liga(viejo.getInt(CASILLA * j), posicion);
+        }
+    }
+
+    /* Escribe una entrada nueva en las losas y regresa su posición. */
+    private long nuevaEntrada(byte[] llave, byte[] valor) {
+        long posicion = reserva(DATOS + llave.length + valor.length);
+        ByteBuffer losa = losa(posicion);
+        int desplazamiento = desplazamiento(posicion);
+        losa.putInt(desplazamiento + BYTES_LLAVE, llave.length);
+        losa.putInt(desplazamiento + BYTES_VALOR, valor.length);
+        losa.putInt(desplazamiento + CAPACIDAD_VALOR, valor.length);
+        escribe(losa, desplazamiento + DATOS, llave);
+        escribe(losa, desplazamiento + DATOS + llave.length, valor);
+        return posicion;
+    }
+
+    /* Reserva bytes al final de la última losa y regresa su posición; si no
+     * caben, crea una losa nueva del doble de la anterior, o del tamaño de
+     * la entrada si es más grande. */
+    private long reserva(int bytes) {
+        if (bytes < 0)
+            throw new IllegalArgumentException("Entrada demasiado grande");
+        ByteBuffer ultima = losas[numeroLosas - 1];
+        if (ultima.remaining() < bytes) {
+            int tamano = Math.min(LOSA_MAXIMA, 2 * ultima.capacity());
+            ultima = ByteBuffer.allocateDirect(Math.max(tamano, bytes));
+            if (numeroLosas == losas.length) {
+                ByteBuffer[] nuevas = new ByteBuffer[2 * losas.length];
+                System.arraycopy(losas, 0, nuevas, 0, numeroLosas);
+                losas = nuevas;
+            }
+            losas[numeroLosas++] = ultima;
+        }
+        int desplazamiento = ultima.position();
+        ultima.position(desplazamiento + bytes);
+        return ((long)numeroLosas << 32) | desplazamiento;
+    }
+
+    /* Escribe los bytes en la losa a partir del desplazamiento. */
+    private static void escribe(ByteBuffer losa, int desplazamiento,
+                                byte[] bytes) {
+        ByteBuffer destino = losa.duplicate();
+        destino.position(desplazamiento);
+        destino.put(bytes);
+    }
+
+    /* Lee bytes de una entrada. */
+    private byte[] lee(long posicion, int desplazamiento, int longitud) {
+        byte[] bytes = new byte[longitud];
+        ByteBuffer origen = losa(posicion).duplicate();
+        origen.position(desplazamiento(posicion) + desplazamiento);
+        origen.get(bytes);
+        return bytes;
+    }
+
+    /* Regresa una copia de la llave de la entrada. */
+    private byte[] llave(long posicion) {
+        return lee(posicion, DATOS,
+                   losa(posicion).getInt(desplazamiento(posicion) +
+                                         BYTES_LLAVE));
+    }
+
+    /* Regresa una copia del valor de la entrada. */
+    private byte[] valor(long posicion) {
+        ByteBuffer losa = losa(posicion);
+        int desplazamiento = desplazamiento(posicion);
+        return lee(posicion, DATOS + losa.getInt(desplazamiento + BYTES_LLAVE),
+                   losa.getInt(desplazamiento + BYTES_VALOR));
+    }
+
+    /* Regresa la siguiente casilla ocupada después de la recibida. */
+    private int siguienteOcupada(int i) {
+        do {
+            i++;
+        } while (i < casillas && posicion(i) == 0);
+        return i;
+    }
+}
@@ -0,0 +1,441 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * <p>Clase para diccionarios de enteros a objetos. A diferencia de {@link
+ * Diccionario}, las llaves se guardan como <code>int</code> en un arreglo
+ * paralelo al de los valores, por lo que agregar, buscar o eliminar nunca
+ * envuelve las llaves en objetos ni crea entradas.</p>
+ *
+ * <p>Las colisiones se resuelven con sondeo lineal. La llave 0 marca las
+ * casillas libres, así que su valor se guarda aparte; al eliminar se recorren
+ * hacia atrás las llaves siguientes, por lo que no hacen falta lápidas.</p>
+ */
+public class DiccionarioEnteroObjeto<V> implements Iterable<V> {
+
+    /* Clase interna privada para iteradores. */
+    private class Iterador {
+
+        /* En qué casilla estamos; -1 representa la llave 0. */
+        private int indice;
+
+        /* Construye un nuevo iterador. */
+        private Iterador() {
+            indice = hayCero ? -1 : siguienteOcupada(-1);
+        }
+
+        /* Nos dice si hay una siguiente casilla ocupada. */
+        public boolean hasNext() {
+            return indice < llaves.length;
+        }
+
+        /* Regresa la casilla de la siguiente entrada. */
+        protected int siguiente() {
+            if (!hasNext())
+                throw new NoSuchElementException("No hay siguiente elemento.");
+
+            int casilla = indice;
+            indice = siguienteOcupada(indice);
+
+            return casilla;
+        }
+    }
+
+    /* Clase interna privada para iteradores de llaves. */
+    private class IteradorLlaves extends Iterador
+        implements PrimitiveIterator.OfInt {
+
+        /* Regresa el siguiente elemento. */
+        @Override public int nextInt() {
+            int i = siguiente();
+            return i == -1 ? 0 : llaves[i];
+        }
+    }
+
+    /* Clase interna privada para iteradores de valores. */
+    private class IteradorValores extends Iterador
+        implements Iterator<V> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public V next() {
+            int i = siguiente();
+            return i == -1 ? valorCero : valor(i);
+        }
+    }
+
+    /** Máxima carga permitida por el diccionario. */
+    public static final double MAXIMA_CARGA = 0.72;
+
+    /* Capacidad mínima; decidida arbitrariamente a 2^6. */
+    private static final int MINIMA_CAPACIDAD = 64;
+    /* Capacidad máxima: la mayor potencia de dos que cabe en un arreglo. */
+    private static final int MAXIMA_CAPACIDAD = 1 << 30;
+
+    /* Las llaves; 0 si la casilla está libre. */
+    private int[] llaves;
+    /* Los valores, en la misma casilla que su llave. */
+    private Object[] valores;
+    /* Si la llave 0 está en el diccionario. */
+    private boolean hayCero;
+    /* El valor de la llave 0. */
+    private V valorCero;
+    /* Número de valores. */
+    private int elementos;
+
+    /**
+     * Construye un diccionario con una capacidad inicial predeterminada.
+     */
+    public DiccionarioEnteroObjeto() {
+        this(MINIMA_CAPACIDAD);
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial definida por el
+     * usuario.
+     * @param capacidad la capacidad inicial del diccionario.
+     * @throws IllegalArgumentException si la capacidad no cabe en un arreglo.
+     */
+    public DiccionarioEnteroObjeto(int capacidad) {
+        if (capacidad > MAXIMA_CAPACIDAD / 2)
+            throw new IllegalArgumentException("Capacidad inválida");
+        capacidad =
+            capacidad < MINIMA_CAPACIDAD ?
+            MINIMA_CAPACIDAD :
+            redondearAPotencia(capacidad * 2);
+        llaves = new int[capacidad];
+        valores = new Object[capacidad];
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si el valor es nulo.
+     * @throws IllegalStateException si el diccionario ya no puede crecer.
+     */
+    public void agrega(int llave, V valor) {
+        if (valor == null)
+            throw new IllegalArgumentException();
+
+        if (llave == 0) {
+            if (!hayCero)
+                elementos++;
+            hayCero = true;
+            valorCero = valor;
+            return;
+        }
+
+        int mascara = llaves.length - 1;
+        int i = mezcla(llave) & mascara;
+
+        while (llaves[i] != 0) {
+            if (llaves[i] == llave) {
+                valores[i] = valor;
+                return;
+            }
+            i = (i + 1) & mascara;
+        }
+
+        /* Siempre queda una casilla libre, para que las búsquedas terminen. */
+        if (elementos + 1 >= llaves.length)
+            throw new IllegalStateException("El diccionario está lleno");
+        llaves[i] = llave;
+        valores[i] = valor;
+        elementos++;
+
+        if (carga() >= MAXIMA_CARGA)
+            agrandaArreglos();
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public V get(int llave) {
+        if (llave == 0) {
+            if (!hayCero)
+                throw new NoSuchElementException();
+            return valorCero;
+        }
+
+        int i = busca(llave);
+
+        if (i == -1)
+            throw new NoSuchElementException();
+
+        return valor(i);
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <code>true</code> si la llave está en el diccionario,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(int llave) {
+        return llave == 0 ? hayCero : busca(llave) != -1;
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(int llave) {
+        if (llave == 0) {
+            if (!hayCero)
+                throw new NoSuchElementException();
+            hayCero = false;
+            valorCero = null;
+            elementos--;
+            return;
+        }
+
+        int i = busca(llave);
+
+        if (i == -1)
+            throw new NoSuchElementException();
+
+        recorre(i);
+        elementos--;
+    }
+
+    /**
+     * Nos dice cuántas colisiones hay en el diccionario; es decir, la suma de
+     * las distancias de cada llave a la casilla donde su dispersión la hubiera
+     * colocado.
+     * @return cuántas colisiones hay en el diccionario.
+     */
+    public int colisiones() {
+        int contador = 0;
+
+        for (int i = 0; i < llaves.length; i++)
+            if (llaves[i] != 0)
+                contador += distancia(i);
+
+        return contador;
+    }
+
+    /**
+     * Nos dice el máximo número de colisiones para una misma llave que tenemos
+     * en el diccionario; es decir, la secuencia de sondeo más larga.
+     * @return el máximo número de colisiones para una misma llave, o -1 si
+     *         el diccionario es vacío.
+     */
+    public int colisionMaxima() {
+        int maximo = hayCero ? 0 : -1;
+
+        for (int i = 0; i < llaves.length; i++)
+            if (llaves[i] != 0 && distancia(i) > maximo)
+                maximo = distancia(i);
+
+        return maximo;
+    }
+
+    /**
+     * Nos dice la carga del diccionario.
+     * @return la carga del diccionario.
+     */
+    public double carga() {
+        return Double.valueOf(elementos) / llaves.length;
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacia() {
+        return elementos == 0;
+    }
+
+    /**
+     * Limpia el diccionario de elementos, dejándolo vacío.
+     */
+    public void limpia() {
+        elementos = 0;
+        hayCero = false;
+        valorCero = null;
+        llaves = new int[llaves.length];
+        valores = new Object[valores.length];
+    }
+
+    /**
+     * Regresa una representación en cadena del diccionario.
+     * @return una representación en cadena del diccionario.
+     */
+    @Override public String toString() {
+        if (elementos == 0)
+            return "{}";
+
+        String texto = "{ ";
+        PrimitiveIterator.OfInt l = iteradorLlaves();
+        Iterator<V> v = iterator();
+
+        while (l.hasNext())
+            texto += String.format("'%d': '%s', ", l.nextInt(), v.next());
+
+        return texto + "}";
+    }
+
+    /**
+     * Nos dice si el diccionario es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al diccionario.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         DiccionarioEnteroObjeto, y tiene las mismas llaves asociadas a
+     *         los mismos valores.
+     */
+    @Override public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass())
+            return false;
+        @SuppressWarnings("unchecked") DiccionarioEnteroObjeto<V> d =
+            (DiccionarioEnteroObjeto<V>)o;
+
+        if (d.elementos != elementos)
+            return false;
+
+        PrimitiveIterator.OfInt l = iteradorLlaves();
+        Iterator<V> v = iterator();
+
+        while (l.hasNext()) {
+            int llave = l.nextInt();
+            V valor = v.next();
+            if (!d.contiene(llave) || !d.get(llave).equals(valor))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Regresa un iterador para iterar las llaves del diccionario sin envolver
+     * los enteros. El diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar las llaves del diccionario.
+     */
+    public PrimitiveIterator.OfInt iteradorLlaves() {
+        return new IteradorLlaves();
+    }
+
+    /**
+     * Regresa un iterador para iterar los valores del diccionario. Los valores
+     * se iteran en el mismo orden que las llaves de {@link #iteradorLlaves}.
+     * @return un iterador para iterar los valores del diccionario.
+     */
+    @Override public Iterator<V> iterator() {
+        return new IteradorValores();
+    }
+
+    /**
+     * Regresa el número de bytes que ocupan los arreglos del diccionario, sin
+     * contar los valores a los que hacen referencia. Se suponen referencias
+     * comprimidas de 4 bytes.
+     * @return el número de bytes que ocupan los arreglos del diccionario.
+     */
+    public long memoria() {
+        return 8L * llaves.length;
+    }
+
+    /* Regresa el valor de la casilla. */
+    @SuppressWarnings("unchecked") private V valor(int i) {
+        return (V)valores[i];
+    }
+
+    /* Redondea a la siguiente potencia de dos. */
+    private int redondearAPotencia(int numero) {
+        int potencia = 1;
+        while (potencia < numero)
+            potencia *= 2;
+        return potencia;
+    }
+
+    /* Mezcla los bits del entero, para que llaves consecutivas no caigan en
+       casillas consecutivas. */
+    private static int mezcla(int h) {
+        return Dispersores.mezcla32(h);
+    }
+
+    /* Regresa la casilla de la llave distinta de 0, o -1 si no está. */
+    private int busca(int llave) {
+        int mascara = llaves.length - 1;
+        int i = mezcla(llave) & mascara;
+
+        while (llaves[i] != 0) {
+            if (llaves[i] == llave)
+                return i;
+            i = (i + 1) & mascara;
+        }
+
+        return -1;
+    }
+
+    /* Regresa la siguiente casilla ocupada después de la recibida. */
+    private int siguienteOcupada(int i) {
+        do {
+            i++;
+        } while (i < llaves.length && llaves[i] == 0);
+        return i;
+    }
+
+    /* Regresa la distancia de la casilla a la casilla original de su llave. */
+    private int distancia(int i) {
+        return (i - mezcla(llaves[i])) & (llaves.length - 1);
+    }
+
+    /* Vacía la casilla y recorre hacia atrás las llaves siguientes que
+       quedarían inalcanzables. */
+    private void recorre(int libre) {
+        int mascara = llaves.length - 1;
+        int i = (libre + 1) & mascara;
+
+        while (llaves[i] != 0) {
+            int original = mezcla(llaves[i]) & mascara;
+            if (((i - original) & mascara) >= ((i - libre) & mascara)) {
+                llaves[libre] = llaves[i];
+                valores[libre] = valores[i];
+                libre = i;
+            }
+            i = (i + 1) & mascara;
+        }
+
+        llaves[libre] = 0;
+        valores[libre] = null;
+    }
+
+    /* Duplica el tamaño de los arreglos, si no tienen ya la capacidad
+       máxima; entonces la carga sigue subiendo hasta llenarlos. */
+    private void agrandaArreglos() {
+        if (llaves.length >= MAXIMA_CAPACIDAD)
+            return;
+        int[] viejasLlaves = llaves;
+        Object[] viejosValores = valores;
+        llaves = new int[viejasLlaves.length * 2];
+        valores = new Object[viejasLlaves.length * 2];
+        int mascara = llaves.length - 1;
+
+        for (int j = 0; j < viejasLlaves.length; j++) {
+            if (viejasLlaves[j] == 0)
+                continue;
+            int i = mezcla(viejasLlaves[j]) & mascara;
+            while (llaves[i] != 0)
+                i = (i + 1) & mascara;
+            llaves[i] = viejasLlaves[j];
+            valores[i] = viejosValores[j];
+        }
+    }
+}
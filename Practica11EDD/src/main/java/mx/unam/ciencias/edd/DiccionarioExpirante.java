@@ -0,0 +1,351 @@
+package mx.unam.ciencias.edd;
+
+import java.lang.reflect.Array;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para diccionarios cuyas entradas vencen. Cada entrada se agrega
+ * con un tiempo de vida, y deja de estar en el diccionario cuando su reloj
+ * llega al vencimiento.</p>
+ *
+ * <p>Las entradas se buscan en un {@link Diccionario}, y además se guardan en
+ * una rueda jerárquica de tiempos: {@link #NIVELES} ruedas de {@link
+ * #RANURAS} ranuras, donde cada ranura de un nivel abarca tantos
+ * <em>tics</em> como una vuelta completa del nivel anterior. Una entrada va
+ * en el nivel más bajo que alcanza su vencimiento, y cuando el tiempo pasa
+ * por su ranura, o vence o baja a un nivel más fino. Cada operación avanza la
+ * rueda hasta el tiempo actual, revisando sólo las ranuras por las que pasó
+ * el tiempo, así que eliminar las entradas vencidas cuesta tiempo constante
+ * amortizado por entrada, y no un recorrido de todo el diccionario.</p>
+ *
+ * <p>Las búsquedas revisan además el vencimiento exacto de la entrada, así
+ * que una entrada vencida nunca se encuentra, aunque su ranura todavía no se
+ * haya revisado.</p>
+ */
+public class DiccionarioExpirante<K, V> {
+
+    /* Clase interna privada para entradas. Las entradas de una ranura forman
+     * una lista circular doblemente ligada alrededor de un centinela. */
+    private class Entrada {
+
+        /* La llave; null en los centinelas. */
+        private K llave;
+        /* El valor. */
+        private V valor;
+        /* El vencimiento en milisegundos. */
+        private long vencimiento;
+        /* La entrada anterior en la ranura. */
+        private Entrada anterior;
+        /* La entrada siguiente en la ranura. */
+        private Entrada siguiente;
+
+        /* Construye un centinela. */
+        private Entrada() {
+            anterior = siguiente = this;
+        }
+
+        /* Construye una entrada. */
+        private Entrada(K llave, V valor, long vencimiento) {
+            this.llave = llave;
+            this.valor = valor;
+            this.vencimiento = vencimiento;
+        }
+    }
+
+    /** Número de niveles de la rueda de tiempos. */
+    public static final int NIVELES = 5;
+
+    /** Número de ranuras en cada nivel de la rueda de tiempos. */
+    public static final int RANURAS = 64;
+
+    /* Bits de tics que abarca una vuelta de cada nivel. */
+    private static final int BITS_NIVEL = 6;
+
+    /* Las entradas. */
+    private Diccionario<K, Entrada> tabla;
+    /* El reloj. */
+    private Reloj reloj;
+    /* Los milisegundos de cada tic. */
+    private long resolucion;
+    /* Los centinelas de las ranuras de cada nivel. */
+    private Entrada[][] rueda;
+    /* El tic hasta el que se ha avanzado la rueda. */
+    private long tic;
+
+    /* Crea el arreglo de ranuras de la rueda. Es necesario hacerlo así por
+       cómo Java implementa sus genéricos; de otra forma obtenemos
+       advertencias del compilador. */
+    @SuppressWarnings("unchecked")
+    private Entrada[][] nuevaRueda() {
+        return (Entrada[][])Array.newInstance(Entrada.class, NIVELES, RANURAS);
+    }
+
+    /**
+     * Construye un diccionario que usa el reloj del sistema, con tics de un
+     * milisegundo.
+     */
+    public DiccionarioExpirante() {
+        this(() -> System.currentTimeMillis(), 1);
+    }
+
+    /**
+     * Construye un diccionario con el reloj y la resolución recibidos. Una
+     * vuelta completa de la rueda abarca
+     * <code>resolucion</code>·2<sup>30</sup> milisegundos; las entradas que
+     * vencen después dan vueltas en el último nivel hasta que les toca.
+     * @param reloj el reloj del diccionario.
+     * @param resolucion los milisegundos de cada tic de la rueda.
+     * @throws IllegalArgumentException si la resolución no es positiva.
+     */
+    public DiccionarioExpirante(Reloj reloj, long resolucion) {
+        if (resolucion < 1)
+            throw new IllegalArgumentException("Resolución inválida");
+        this.reloj = reloj;
+        this.resolucion = resolucion;
+        this.tabla = new Diccionario<K, Entrada>();
+        this.rueda = nuevaRueda();
+        for (int i = 0; i < NIVELES; i++)
+            for (int j = 0; j < RANURAS; j++)
+                rueda[i][j] = new Entrada();
+        this.tic = reloj.ahora() / resolucion;
+    }
+
+    /**
+     * Agrega un valor al diccionario con la llave y el tiempo de vida
+     * recibidos, reemplazando el valor y el vencimiento que tuviera la
+     * llave. Con vida 0 la entrada vence de inmediato, así que sólo se
+     * elimina la que tuviera la llave.
+     * @param llave la llave.
+     * @param valor el valor.
+     * @param vida los milisegundos que la entrada estará en el diccionario.
+     * @throws IllegalArgumentException si la llave o el valor son nulos, o si
+     *         la vida es negativa.
+     */
+    public void agrega(K llave, V valor, long vida) {
+        if (llave == null || valor == null || vida < 0)
+            throw new IllegalArgumentException();
+
+        long ahora = avanza();
+        long vencimiento = vida > Long.MAX_VALUE - ahora ?
+            Long.MAX_VALUE : ahora + vida;
+        Entrada entrada = tabla.buscaValor(llave);
+
+        if (vencimiento <= ahora) {
+            if (entrada != null)
+                quita(entrada);
+            return;
+        }
+
+        if (entrada == null) {
+            entrada = new Entrada(llave, valor, vencimiento);
+            tabla.agrega(llave, entrada);
+        } else {
+            desliga(entrada);
+            entrada.valor = valor;
+            entrada.vencimiento = vencimiento;
+        }
+
+        programa(entrada);
+    }
+
+    /**
+     * Regresa el valor asociado a la llave, si no ha vencido.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no está en el diccionario o
+     *         ya venció.
+     */
+    public V get(K llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+
+        Entrada entrada = busca(llave);
+        if (entrada == null)
+            throw new NoSuchElementException();
+
+        return entrada.valor;
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario y no ha vencido.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <code>true</code> si la llave está en el diccionario y no ha
+     *         vencido, <code>false</code> en otro caso.
+     */
+    public boolean contiene(K llave) {
+        return llave != null && busca(llave) != null;
+    }
+
+    /**
+     * Regresa los milisegundos que le quedan a la entrada de la llave.
+     * @param llave la llave de la entrada.
+     * @return los milisegundos que le quedan a la entrada.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no está en el diccionario o
+     *         ya venció.
+     */
+    public long getVida(K llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+
+        Entrada entrada = busca(llave);
+        if (entrada == null)
+            throw new NoSuchElementException();
+
+        return entrada.vencimiento - reloj.ahora();
+    }
+
+    /**
+     * Elimina la entrada asociada a la llave proporcionada.
+     * @param llave la llave para buscar la entrada a eliminar.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no se encuentra en el
+     *         diccionario o ya venció.
+     */
+    public void elimina(K llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+
+        Entrada entrada = busca(llave);
+        if (entrada == null)
+            throw new NoSuchElementException();
+
+        quita(entrada);
+    }
+
+    /**
+     * Avanza la rueda hasta el tiempo actual, eliminando las entradas cuyas
+     * ranuras ya pasaron. Todas las demás operaciones lo hacen; sirve para
+     * liberar la memoria de las entradas vencidas cuando el diccionario no se
+     * usa.
+     */
+    public void expira() {
+        avanza();
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario. Con tics de más de un
+     * milisegundo puede contar entradas que vencieron en el tic actual y cuya
+     * ranura todavía no se revisa.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        avanza();
+        return tabla.getElementos();
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacia() {
+        return getElementos() == 0;
+    }
+
+    /**
+     * Limpia el diccionario de entradas, dejándolo vacío.
+     */
+    public void limpia() {
+        tabla.limpia();
+        for (int i = 0; i < NIVELES; i++)
+            for (int j = 0; j < RANURAS; j++)
+                rueda[i][j] = new Entrada();
+    }
+
+    /* Busca la entrada de la llave; si ya venció la elimina y regresa
+     * null. */
+    private Entrada busca(K llave) {
+        long ahora = avanza();
+        if (!tabla.contiene(llave))
+            return null;
+
+        Entrada entrada = tabla.get(llave);
+        if (entrada.vencimiento <= ahora) {
+            quita(entrada);
+            return null;
+        }
+
+        return entrada;
+    }
+
+    /* Avanza la rueda hasta el tiempo actual y lo regresa. En cada nivel se
+     * revisan las ranuras de los tics por los que pasó el tiempo, y se deja de
+     * subir cuando un nivel no cambió. */
+    private long avanza() {
+        long ahora = reloj.ahora();
+        long nuevo = ahora / resolucion;
+        long viejo = tic;
+        if (nuevo <= viejo)
+            return ahora;
+
+        tic = nuevo;
+        for (int i = 0; i < NIVELES; i++) {
+            int bits = BITS_NIVEL * i;
+            long anterior = viejo >>> bits;
+            long actual = nuevo >>> bits;
+            if (actual == anterior)
+                break;
+            long ranuras = Math.min(actual - anterior, RANURAS);
+            for (long t = actual - ranuras + 1; t <= actual; t++)
+                revisa(rueda[i][(int)(t & (RANURAS - 1))], ahora);
+        }
+
+        return ahora;
+    }
+
+    /* Revisa las entradas de una ranura: las vencidas se eliminan y las demás
+     * se vuelven a programar, en un nivel más fino. */
+    private void revisa(Entrada centinela, long ahora) {
+        Entrada entrada = centinela.siguiente;
+        centinela.anterior = centinela.siguiente = centinela;
+
+        while (entrada != centinela) {
+            Entrada siguiente = entrada.siguiente;
+            entrada.anterior = entrada.siguiente = null;
+            if (entrada.vencimiento <= ahora)
+                tabla.elimina(entrada.llave);
+            else
+                programa(entrada);
+            entrada = siguiente;
+        }
+    }
+
+    /* Pone la entrada en la ranura del primer tic que empieza después de su
+     * vencimiento. Una entrada que vence en el tic actual o antes va en la
+     * ranura del tic siguiente. */
+    private void programa(Entrada entrada) {
+        long vence = entrada.vencimiento / resolucion;
+        if (entrada.vencimiento % resolucion != 0)
+            vence++;
+        vence = Math.max(vence, tic + 1);
+        long diferencia = vence - tic;
+        int nivel = 0;
+        while (nivel < NIVELES - 1 &&
+               (diferencia >>> (BITS_NIVEL * (nivel + 1))) != 0)
+            nivel++;
+        if ((diferencia >>> (BITS_NIVEL * NIVELES)) != 0)
+            vence = tic + (1L << (BITS_NIVEL * NIVELES)) - 1;
+
+        int ranura = (int)((vence >>> (BITS_NIVEL * nivel)) & (RANURAS - 1));
+        Entrada centinela = rueda[nivel][ranura];
+        entrada.anterior = centinela.anterior;
+        entrada.siguiente = centinela;
+        centinela.anterior.siguiente = entrada;
+        centinela.anterior = entrada;
+    }
+
+    /* Quita la entrada de su ranura. */
+    private void desliga(Entrada entrada) {
+        entrada.anterior.siguiente = entrada.siguiente;
+        entrada.siguiente.anterior = entrada.anterior;
+        entrada.anterior = entrada.siguiente = null;
+    }
+
+    /* Quita la entrada del diccionario. */
+    private void quita(Entrada entrada) {
+        desliga(entrada);
+        tabla.elimina(entrada.llave);
+    }
+}
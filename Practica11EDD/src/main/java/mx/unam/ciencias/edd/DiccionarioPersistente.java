@@ -0,0 +1,827 @@
+package mx.unam.ciencias.edd;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+/**
+ * <p>Clase para diccionarios de cadenas que viven en un archivo. El archivo
+ * completo se mapea a memoria con {@link FileChannel#map}, y el arreglo de
+ * cubetas y las entradas se leen y se escriben directamente en el mapa, así
+ * que abrir un diccionario no requiere reconstruirlo ni deserializarlo: sólo
+ * se valida el encabezado.</p>
+ *
+ * <p>El archivo empieza con un encabezado de {@link #ENCABEZADO} bytes, y
+ * después es un registro de entradas, entradas borradas y arreglos de
+ * cubetas en el orden en que se agregaron. Cada cubeta guarda la posición de
+ * la primera entrada de su lista, y cada entrada la posición de la
+ * siguiente, su dispersión, las longitudes de su llave y de su valor, una
+ * suma de verificación CRC-32, y los bytes UTF-8 de la llave y el valor. Las
+ * llaves se dispersan con un algoritmo de {@link Dispersores} que queda
+ * guardado en el encabezado; para SipHash también se guarda su llave
+ * secreta, de forma que las llaves caen en las mismas cubetas cada vez que
+ * se abre el archivo.</p>
+ *
+ * <p>El espacio nunca se reutiliza ni se sobreescribe: al reemplazar un
+ * valor se agrega una entrada nueva, al eliminar se agrega una entrada
+ * borrada, y al crecer el arreglo de cubetas se agrega uno nuevo; el espacio
+ * anterior se vuelve basura, que {@link #compacta} elimina. Todo el archivo
+ * debe caber en 2 GB.</p>
+ *
+ * <p>Las modificaciones se ven en el archivo en cuanto se hacen, pero el
+ * sistema operativo decide cuándo llegan al disco; {@link #sincroniza} las
+ * obliga a llegar. La primera modificación después de sincronizar marca el
+ * archivo como sucio, y si el programa termina sin volver a sincronizar, el
+ * archivo ya no puede abrirse directamente, porque sus cubetas podrían estar
+ * a medio escribir. Como las entradas nunca se sobreescriben, {@link
+ * #recupera} puede reconstruirlo repasando el registro hasta la primera
+ * entrada incompleta: se recupera al menos lo que había al sincronizar por
+ * última vez.</p>
+ */
+public class DiccionarioPersistente implements Iterable<String>, Closeable {
+
+    /* Clase interna privada para iteradores. */
+    private class Iterador {
+
+        /* La cubeta en la que estamos. */
+        private int cubeta;
+        /* La posición de la siguiente entrada, o 0 si no hay. */
+        private int entrada;
+
+        /* Construye un nuevo iterador. */
+        private Iterador() {
+            abierto();
+            cubeta = -1;
+            mueveIterador();
+        }
+
+        /* Nos dice si hay una siguiente entrada. */
+        public boolean hasNext() {
+            return entrada != 0;
+        }
+
+        /* Regresa la posición de la siguiente entrada. */
+        protected int siguiente() {
+            if (!hasNext())
+                throw new NoSuchElementException("No hay siguiente elemento.");
+
+            int posicion = entrada;
+            entrada = mapa.getInt(posicion + SIGUIENTE);
+            if (entrada == 0)
+                mueveIterador();
+
+            return posicion;
+        }
+
+        /* Mueve el iterador a la primera entrada de la siguiente cubeta no
+         * vacía. */
+        private void mueveIterador() {
+            int cubetas = mapa.getInt(CUBETAS);
+            int longitud = mapa.getInt(LONGITUD);
+            while (entrada == 0 && ++cubeta < longitud)
+                entrada = mapa.getInt(cubetas + 4 * cubeta);
+        }
+    }
+
+    /* Clase interna privada para iteradores de llaves. */
+    private class IteradorLlaves extends Iterador
+        implements Iterator<String> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public String next() {
+            return llave(siguiente());
+        }
+    }
+
+    /* Clase interna privada para iteradores de valores. */
+    private class IteradorValores extends Iterador
+        implements Iterator<String> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public String next() {
+            return valor(siguiente());
+        }
+    }
+
+    /** Bytes del encabezado del archivo. */
+    public static final int ENCABEZADO = 64;
+
+    /* Número mágico del archivo: "EDDP". */
+    private static final int MAGIA = 0x45444450;
+    /* Versión del formato. */
+    private static final int VERSION = 2;
+    /* Cubetas iniciales. */
+    private static final int CUBETAS_INICIALES = 64;
+    /* Tamaño mínimo del mapa. */
+    private static final int MAPA_MINIMO = 1 << 12;
+
+    /* Posiciones de los campos del encabezado. */
+    private static final int POS_MAGIA = 0;
+    private static final int POS_VERSION = 4;
+    private static final int POS_ALGORITMO = 8;
+    private static final int POS_ESTADO = 12;
+    private static final int POS_K0 = 16;
+    private static final int POS_K1 = 24;
+    private static final int CUBETAS = 32;
+    private static final int LONGITUD = 36;
+    private static final int ELEMENTOS = 40;
+    private static final int FIN = 44;
+    private static final int BASURA = 48;
+
+    /* Posiciones de los campos de un registro. Todos empiezan con su tipo;
+       los arreglos de cubetas siguen con su número de bytes, y las entradas
+       con los demás campos. La suma de verificación cubre todo menos la
+       siguiente entrada, que es lo único que cambia después de escribir la
+       entrada. */
+    private static final int TIPO = 0;
+    private static final int BYTES_CUBETAS = 4;
+    private static final int ARREGLO = 8;
+    private static final int SIGUIENTE = 4;
+    private static final int DISPERSION = 8;
+    private static final int BYTES_LLAVE = 12;
+    private static final int BYTES_VALOR = 16;
+    private static final int SUMA = 20;
+    private static final int DATOS = 24;
+
+    /* Tipos de registro; un tipo 0 es espacio que nunca se escribió. */
+    private static final int TIPO_ENTRADA = 1;
+    private static final int TIPO_BORRADA = 2;
+    private static final int TIPO_CUBETAS = 3;
+
+    /* Estados del archivo. */
+    private static final int LIMPIO = 0;
+    private static final int SUCIO = 1;
+
+    /* Los algoritmos de dispersión, indexados por el código con el que se
+       guardan en el encabezado. El código no depende del orden de la
+       enumeración; los algoritmos nuevos se agregan al final. */
+    private static final AlgoritmoDispersor[] ALGORITMOS = {
+        AlgoritmoDispersor.XOR_STRING,
+        AlgoritmoDispersor.BJ_STRING,
+        AlgoritmoDispersor.DJB_STRING,
+        AlgoritmoDispersor.MURMUR3_STRING,
+        AlgoritmoDispersor.XXHASH32_STRING,
+        AlgoritmoDispersor.XXHASH64_STRING,
+        AlgoritmoDispersor.WYHASH_STRING,
+        AlgoritmoDispersor.SIPHASH24_STRING,
+        AlgoritmoDispersor.SIPHASH13_STRING
+    };
+
+    /* Generador de las llaves secretas de SipHash. */
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+
+    /* La ruta del archivo. */
+    private Path archivo;
+    /* El canal del archivo. */
+    private FileChannel canal;
+    /* El mapa del archivo. */
+    private MappedByteBuffer mapa;
+    /* El dispersor de las llaves. */
+    private Dispersor<byte[]> dispersor;
+
+    /**
+     * Abre el diccionario del archivo recibido, o lo crea con el algoritmo
+     * MurmurHash3 si el archivo no existe o es vacío.
+     * @param archivo la ruta del archivo.
+     * @throws IOException si no se puede abrir el archivo, si no es un
+     *         diccionario, o si no se sincronizó después de modificarlo.
+     */
+    public DiccionarioPersistente(Path archivo) throws IOException {
+        this(archivo, AlgoritmoDispersor.MURMUR3_STRING);
+    }
+
+    /**
+     * Abre el diccionario del archivo recibido, o lo crea con el algoritmo
+     * recibido si el archivo no existe o es vacío. Si el archivo ya es un
+     * diccionario, se usa el algoritmo con el que se creó.
+     * @param archivo la ruta del archivo.
+     * @param algoritmo el algoritmo de dispersión para un archivo nuevo.
+     * @throws IOException si no se puede abrir el archivo, si no es un
+     *         diccionario, o si no se sincronizó después de modificarlo.
+     */
+    public DiccionarioPersistente(Path archivo, AlgoritmoDispersor algoritmo)
+        throws IOException {
+        this(archivo, algoritmo, false, CUBETAS_INICIALES);
+    }
+
+    /* Abre o crea el diccionario del archivo, con el número de cubetas
+     * recibido si lo crea; si se pide, recupera un archivo sucio en lugar de
+     * rechazarlo. */
+    private DiccionarioPersistente(Path archivo, AlgoritmoDispersor algoritmo,
+                                   boolean recuperar, int cubetas)
+        throws IOException {
+        this.archivo = archivo;
+        canal = recuperar ?
+            FileChannel.open(archivo, StandardOpenOption.READ,
+                             StandardOpenOption.WRITE) :
+            FileChannel.open(archivo, StandardOpenOption.CREATE,
+                             StandardOpenOption.READ,
+                             StandardOpenOption.WRITE);
+        try {
+            if (canal.size() == 0 && !recuperar)
+                crea(algoritmo, cubetas);
+            else
+                valida(recuperar);
+        } catch (IOException | RuntimeException e) {
+            mapa = null;
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Abre el diccionario del archivo recibido aunque no se haya sincronizado
+     * después de modificarlo. Si el archivo está sucio, se reconstruye
+     * repasando sus entradas en orden hasta la primera que esté incompleta,
+     * y se reescribe sin basura; el diccionario recuperado tiene al menos las
+     * entradas que había al sincronizar por última vez, y las modificaciones
+     * posteriores que alcanzaron a llegar completas al disco. Si el archivo
+     * está limpio, sólo se abre.
+     * @param archivo la ruta del archivo.
+     * @return el diccionario recuperado.
+     * @throws IOException si no se puede abrir o reescribir el archivo, o si
+     *         no es un diccionario.
+     */
+    public static DiccionarioPersistente recupera(Path archivo)
+        throws IOException {
+        return new DiccionarioPersistente(archivo, null, true,
+                                          CUBETAS_INICIALES);
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí; la entrada
+     * anterior no se sobreescribe, sino que se vuelve basura.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     * @throws IllegalStateException si el diccionario está cerrado, o si el
+     *         archivo ya no cabe en 2 GB.
+     * @throws UncheckedIOException si no se puede hacer crecer el archivo.
+     */
+    public void agrega(String llave, String valor) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+        abierto();
+
+        byte[] bytesLlave = llave.getBytes(StandardCharsets.UTF_8);
+        byte[] bytesValor = valor.getBytes(StandardCharsets.UTF_8);
+        int dispersion = dispersor.dispersa(bytesLlave);
+        int anterior = busca(bytesLlave, dispersion);
+        ensucia();
+
+        if (anterior != 0)
+            desliga(anterior);
+        else if (mapa.getInt(ELEMENTOS) + 1 > mapa.getInt(LONGITUD) / 4 * 3)
+            crece();
+
+        int entrada = escribeEntrada(TIPO_ENTRADA, dispersion,
+                                     bytesLlave, bytesValor);
+        liga(entrada, dispersion);
+        if (anterior == 0)
+            mapa.putInt(ELEMENTOS, mapa.getInt(ELEMENTOS) + 1);
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     * @throws IllegalStateException si el diccionario está cerrado.
+     */
+    public String get(String llave) {
+        int entrada = busca(llave);
+        if (entrada == 0)
+            throw new NoSuchElementException();
+        return valor(entrada);
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <code>true</code> si la llave está en el diccionario,
+     *         <code>false</code> en otro caso.
+     * @throws IllegalStateException si el diccionario está cerrado.
+     */
+    public boolean contiene(String llave) {
+        return llave != null && busca(llave) != 0;
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     * @throws IllegalStateException si el diccionario está cerrado.
+     */
+    public void elimina(String llave) {
+        int entrada = busca(llave);
+        if (entrada == 0)
+            throw new NoSuchElementException();
+        ensucia();
+        desliga(entrada);
+        byte[] bytesLlave = llave.getBytes(StandardCharsets.UTF_8);
+        int borrada = escribeEntrada(TIPO_BORRADA,
+                                     mapa.getInt(entrada + DISPERSION),
+                                     bytesLlave, new byte[0]);
+        mapa.putInt(BASURA, mapa.getInt(BASURA) + tamano(borrada));
+        mapa.putInt(ELEMENTOS, mapa.getInt(ELEMENTOS) - 1);
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     * @throws IllegalStateException si el diccionario está cerrado.
+     */
+    public int getElementos() {
+        abierto();
+        return mapa.getInt(ELEMENTOS);
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario no tiene elementos,
+     *         <code>false</code> en otro caso.
+     * @throws IllegalStateException si el diccionario está cerrado.
+     */
+    public boolean esVacia() {
+        return getElementos() == 0;
+    }
+
+    /**
+     * Regresa el número de bytes usados del archivo.
+     * @return el número de bytes usados del archivo.
+     * @throws IllegalStateException si el diccionario está cerrado.
+     */
+    public int getBytes() {
+        abierto();
+        return mapa.getInt(FIN);
+    }
+
+    /**
+     * Regresa el número de bytes del archivo que ya no se usan, y que
+     * {@link #compacta} eliminaría.
+     * @return el número de bytes del archivo que ya no se usan.
+     * @throws IllegalStateException si el diccionario está cerrado.
+     */
+    public int getBasura() {
+        abierto();
+        return mapa.getInt(BASURA);
+    }
+
+    /**
+     * Obliga a que todas las modificaciones lleguen al disco, y marca el
+     * archivo como limpio. Las entradas se escriben antes que la marca, así
+     * que un archivo marcado como limpio siempre está completo, y un archivo
+     * sucio siempre se puede recuperar al menos hasta aquí con {@link
+     * #recupera}.
+     * @throws IllegalStateException si el diccionario está cerrado.
+     */
+    public void sincroniza() {
+        abierto();
+        if (mapa.getInt(POS_ESTADO) == LIMPIO)
+            return;
+        mapa.force();
+        mapa.putInt(POS_ESTADO, LIMPIO);
+        mapa.force();
+    }
+
+    /**
+     * Reescribe el diccionario en un archivo nuevo sin basura, con el
+     * arreglo de cubetas justo del tamaño necesario, y lo pone en lugar del
+     * archivo original. El archivo original se sincroniza y no cambia hasta
+     * que el nuevo está sincronizado; si no se puede poner el nuevo en su
+     * lugar, el diccionario vuelve a abrir el original y sigue como estaba.
+     * @throws IOException si no se puede escribir el archivo nuevo, o si no
+     *         se puede volver a abrir el archivo.
+     * @throws IllegalStateException si el diccionario está cerrado.
+     */
+    public void compacta() throws IOException {
+        abierto();
+        int[] entradas = new int[getElementos()];
+        Iterador iterador = new Iterador();
+        for (int i = 0; iterador.hasNext(); i++)
+            entradas[i] = iterador.siguiente();
+        Path temporal = reescribe(entradas);
+        sincroniza();
+        reemplaza(temporal, true);
+    }
+
+    /**
+     * Sincroniza y cierra el diccionario. Cerrar un diccionario cerrado no
+     * hace nada.
+     * @throws IOException si no se puede cerrar el archivo.
+     */
+    @Override public void close() throws IOException {
+        if (mapa == null)
+            return;
+        sincroniza();
+        mapa = null;
+        canal.close();
+    }
+
+    /**
+     * Regresa un iterador para iterar las llaves del diccionario. El
+     * diccionario no debe modificarse mientras se itera.
+     * @return un iterador para iterar las llaves del diccionario.
+     * @throws IllegalStateException si el diccionario está cerrado.
+     */
+    public Iterator<String> iteradorLlaves() {
+        return new IteradorLlaves();
+    }
+
+    /**
+     * Regresa un iterador para iterar los valores del diccionario. El
+     * diccionario no debe modificarse mientras se itera.
+     * @return un iterador para iterar los valores del diccionario.
+     * @throws IllegalStateException si el diccionario está cerrado.
+     */
+    @Override public Iterator<String> iterator() {
+        return new IteradorValores();
+    }
+
+    /* Escribe el encabezado y el arreglo de cubetas de un archivo nuevo, con
+     * el número de cubetas recibido. */
+    private void crea(AlgoritmoDispersor algoritmo, int cubetas)
+        throws IOException {
+        mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, MAPA_MINIMO);
+        long k0 = ALEATORIO.nextLong(), k1 = ALEATORIO.nextLong();
+        mapa.putInt(POS_MAGIA, MAGIA);
+        mapa.putInt(POS_VERSION, VERSION);
+        mapa.putInt(POS_ALGORITMO, codigo(algoritmo));
+        mapa.putInt(POS_ESTADO, SUCIO);
+        mapa.putLong(POS_K0, k0);
+        mapa.putLong(POS_K1, k1);
+        mapa.putInt(FIN, ENCABEZADO);
+        mapa.putInt(CUBETAS, reservaCubetas(cubetas));
+        mapa.putInt(LONGITUD, cubetas);
+        dispersor = dispersor(algoritmo, k0, k1);
+        sincroniza();
+    }
+
+    /* Mapea un archivo existente y valida su encabezado. Un archivo sucio se
+     * recupera si se pide, y si no se rechaza. */
+    private void valida(boolean recuperar) throws IOException {
+        long tamano = canal.size();
+        if (tamano < ENCABEZADO || tamano > Integer.MAX_VALUE)
+            throw new IOException("El archivo no es un diccionario");
+        mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+        int algoritmo = mapa.getInt(POS_ALGORITMO);
+        if (mapa.getInt(POS_MAGIA) != MAGIA ||
+            mapa.getInt(POS_VERSION) != VERSION ||
+            algoritmo < 0 || algoritmo >= ALGORITMOS.length) {
+            mapa = null;
+            throw new IOException("El archivo no es un diccionario");
+        }
+        dispersor = dispersor(ALGORITMOS[algoritmo],
+                              mapa.getLong(POS_K0), mapa.getLong(POS_K1));
+        if (mapa.getInt(POS_ESTADO) != LIMPIO) {
+            if (recuperar) {
+                reemplaza(reescribe(repasa()), false);
+                return;
+            }
+            mapa = null;
+            throw new IOException("El archivo no se sincronizó después de " +
+                                  "modificarlo; puede recuperarse con " +
+                                  "recupera");
+        }
+        if (mapa.getInt(FIN) > tamano) {
+            mapa = null;
+            throw new IOException("El archivo no es un diccionario");
+        }
+    }
+
+    /* Regresa el código con el que se guarda el algoritmo. */
+    private static int codigo(AlgoritmoDispersor algoritmo) {
+        for (int i = 0; i < ALGORITMOS.length; i++)
+            if (ALGORITMOS[i] == algoritmo)
+                return i;
+        throw new IllegalArgumentException("Algoritmo sin código");
+    }
+
+    /* Repasa el registro del archivo desde el principio hasta el primer
+     * registro incompleto, y regresa las posiciones de las entradas que
+     * siguen vivas, en el orden en que se agregaron sus llaves. Los arreglos
+     * de cubetas se saltan; pueden estar a medio escribir, pero su tipo y su
+     * tamaño se escriben una sola vez. */
+    private int[] repasa() {
+        Diccionario<String, Integer> vivas = new Diccionario<String, Integer>();
+        int limite = mapa.capacity();
+        int posicion = ENCABEZADO;
+        while (posicion <= limite - DATOS) {
+            int tipo = mapa.getInt(posicion + TIPO);
+            long fin;
+            if (tipo == TIPO_CUBETAS) {
+                fin = (long)posicion + ARREGLO +
+                    mapa.getInt(posicion + BYTES_CUBETAS);
+                if (mapa.getInt(posicion + BYTES_CUBETAS) < 0 || fin > limite)
+                    break;
+                posicion = (int)fin;
+                continue;
+            }
+            int bytesLlave = mapa.getInt(posicion + BYTES_LLAVE);
+            int bytesValor = mapa.getInt(posicion + BYTES_VALOR);
+            fin = (long)posicion + DATOS + bytesLlave + bytesValor;
+            if ((tipo != TIPO_ENTRADA && tipo != TIPO_BORRADA) ||
+                bytesLlave < 0 || bytesValor < 0 || fin > limite ||
+                mapa.getInt(posicion + SUMA) != suma(posicion))
+                break;
+            String llave = llave(posicion);
+            if (tipo == TIPO_ENTRADA)
+                vivas.agrega(llave, posicion);
+            else if (vivas.contiene(llave))
+                vivas.elimina(llave);
+            posicion = (int)fin;
+        }
+        int[] entradas = new int[vivas.getElementos()];
+        int i = 0;
+        for (Integer entrada : vivas)
+            entradas[i++] = entrada;
+        return entradas;
+    }
+
+    /* Escribe las entradas recibidas en un archivo temporal nuevo, limpio,
+     * con el mismo dispersor, y regresa su ruta. El arreglo de cubetas se
+     * reserva una sola vez, ya del tamaño final, para que el archivo nuevo
+     * no tenga arreglos viejos como basura. */
+    private Path reescribe(int[] entradas) throws IOException {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() +
+                                               ".compacta");
+        Files.deleteIfExists(temporal);
+        int necesarias = entradas.length / 3 * 4 + 1;
+        int cubetas = CUBETAS_INICIALES;
+        while (cubetas < necesarias)
+            cubetas *= 2;
+        try (DiccionarioPersistente nuevo =
+             new DiccionarioPersistente(
+                 temporal, ALGORITMOS[mapa.getInt(POS_ALGORITMO)], false,
+                 cubetas)) {
+            nuevo.ensucia();
+            nuevo.mapa.putLong(POS_K0, mapa.getLong(POS_K0));
+            nuevo.mapa.putLong(POS_K1, mapa.getLong(POS_K1));
+            nuevo.dispersor = dispersor;
+            for (int entrada : entradas)
+                nuevo.copia(this, entrada);
+        }
+        return temporal;
+    }
+
+    /* Pone el archivo temporal en lugar del archivo y lo abre. Si no se
+     * puede mover, borra el temporal y, si se pide, vuelve a abrir el
+     * archivo original, que no cambió. */
+    private void reemplaza(Path temporal, boolean reabrir) throws IOException {
+        mapa = null;
+        canal.close();
+        try {
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ioe) {
+            Files.deleteIfExists(temporal);
+            if (reabrir) {
+                canal = FileChannel.open(archivo, StandardOpenOption.READ,
+                                         StandardOpenOption.WRITE);
+                valida(false);
+            }
+            throw ioe;
+        }
+        canal = FileChannel.open(archivo, StandardOpenOption.READ,
+                                 StandardOpenOption.WRITE);
+        valida(false);
+    }
+
+    /* Regresa el dispersor de arreglos del algoritmo, usando la llave
+     * secreta recibida si es SipHash. */
+    private static Dispersor<byte[]> dispersor(AlgoritmoDispersor algoritmo,
+                                               long k0, long k1) {
+        switch (algoritmo) {
+        case SIPHASH24_STRING:
+            return b -> pliega(Dispersores.dispersaSip24(b, k0, k1));
+        case SIPHASH13_STRING:
+            return b -> pliega(Dispersores.dispersaSip13(b, k0, k1));
+        default:
+            return FabricaDispersores.dispersorArreglo(algoritmo);
+        }
+    }
+
+    /* Pliega una dispersión de 64 bits a 32 bits. */
+    private static int pliega(long h) {
+        return (int)(h ^ (h >>> 32));
+    }
+
+    /* Lanza una excepción si el diccionario está cerrado. */
+    private void abierto() {
+        if (mapa == null)
+            throw new IllegalStateException("El diccionario está cerrado");
+    }
+
+    /* Marca el archivo como sucio antes de la primera modificación después
+     * de sincronizar; la marca llega al disco antes que la modificación. */
+    private void ensucia() {
+        if (mapa.getInt(POS_ESTADO) == SUCIO)
+            return;
+        mapa.putInt(POS_ESTADO, SUCIO);
+        mapa.force();
+    }
+
+    /* Busca la entrada de la llave, o regresa 0 si no está. */
+    private int busca(String llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        abierto();
+        byte[] bytes = llave.getBytes(StandardCharsets.UTF_8);
+        return busca(bytes, dispersor.dispersa(bytes));
+    }
+
+    /* Busca la entrada con los bytes y la dispersión recibidos, o regresa 0
+     * si no está. Los bytes sólo se comparan si coinciden la dispersión y la
+     * longitud. */
+    private int busca(byte[] llave, int dispersion) {
+        int entrada = mapa.getInt(cubeta(dispersion));
+        while (entrada != 0) {
+            if (mapa.getInt(entrada + DISPERSION) == dispersion &&
+                mapa.getInt(entrada + BYTES_LLAVE) == llave.length &&
+                iguales(entrada + DATOS, llave))
+                return entrada;
+            entrada = mapa.getInt(entrada + SIGUIENTE);
+        }
+        return 0;
+    }
+
+    /* Nos dice si los bytes del mapa a partir de la posición son los
+     * recibidos. */
+    private boolean iguales(int posicion, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++)
+            if (mapa.get(posicion + i) != bytes[i])
+                return false;
+        return true;
+    }
+
+    /* Regresa la posición de la cubeta de la dispersión. */
+    private int cubeta(int dispersion) {
+        int indice = dispersion & (mapa.getInt(LONGITUD) - 1);
+        return mapa.getInt(CUBETAS) + 4 * indice;
+    }
+
+    /* Pone la entrada al inicio de la lista de su cubeta. */
+    private void liga(int entrada, int dispersion) {
+        int cubeta = cubeta(dispersion);
+        mapa.putInt(entrada + SIGUIENTE, mapa.getInt(cubeta));
+        mapa.putInt(cubeta, entrada);
+    }
+
+    /* Quita la entrada de la lista de su cubeta, y cuenta su espacio como
+     * basura. */
+    private void desliga(int entrada) {
+        int anterior = cubeta(mapa.getInt(entrada + DISPERSION));
+        int actual = mapa.getInt(anterior);
+        while (actual != entrada) {
+            anterior = actual + SIGUIENTE;
+            actual = mapa.getInt(anterior);
+        }
+        mapa.putInt(anterior, mapa.getInt(entrada + SIGUIENTE));
+        mapa.putInt(BASURA, mapa.getInt(BASURA) + tamano(entrada));
+    }
+
+    /* Regresa el número de bytes de la entrada. */
+    private int tamano(int entrada) {
+        return DATOS + mapa.getInt(entrada + BYTES_LLAVE) +
+            mapa.getInt(entrada + BYTES_VALOR);
+    }
+
+    /* Escribe una entrada del tipo recibido al final del archivo, con su
+     * suma de verificación, y regresa su posición. */
+    private int escribeEntrada(int tipo, int dispersion,
+                               byte[] llave, byte[] valor) {
+        int entrada = reserva(DATOS + llave.length + valor.length);
+        mapa.putInt(entrada + TIPO, tipo);
+        mapa.putInt(entrada + DISPERSION, dispersion);
+        mapa.putInt(entrada + BYTES_LLAVE, llave.length);
+        mapa.putInt(entrada + BYTES_VALOR, valor.length);
+        escribe(entrada + DATOS, llave);
+        escribe(entrada + DATOS + llave.length, valor);
+        mapa.putInt(entrada + SUMA, suma(entrada));
+        return entrada;
+    }
+
+    /* Regresa la suma de verificación de la entrada: el CRC-32 de su tipo,
+     * su dispersión, sus longitudes y sus datos. */
+    private int suma(int entrada) {
+        CRC32 crc = new CRC32();
+        ByteBuffer bytes = mapa.duplicate();
+        bytes.position(entrada + TIPO).limit(entrada + TIPO + 4);
+        crc.update(bytes);
+        bytes.limit(entrada + SUMA).position(entrada + DISPERSION);
+        crc.update(bytes);
+        bytes.limit(entrada + tamano(entrada)).position(entrada + DATOS);
+        crc.update(bytes);
+        return (int)crc.getValue();
+    }
+
+    /* Duplica el arreglo de cubetas, poniendo el nuevo al final del archivo
+     * y volviendo a ligar las entradas. */
+    private void crece() {
+        int viejas = mapa.getInt(CUBETAS);
+        int longitud = mapa.getInt(LONGITUD);
+        if (longitud > Integer.MAX_VALUE / 8)
+            throw new IllegalStateException("El archivo está lleno");
+        int nuevas = reservaCubetas(2 * longitud);
+        mapa.putInt(CUBETAS, nuevas);
+        mapa.putInt(LONGITUD, 2 * longitud);
+        for (int i = 0; i < longitud; i++) {
+            int entrada = mapa.getInt(viejas + 4 * i);
+            while (entrada != 0) {
+                int siguiente = mapa.getInt(entrada + SIGUIENTE);
+                liga(entrada, mapa.getInt(entrada + DISPERSION));
+                entrada = siguiente;
+            }
+        }
+        mapa.putInt(BASURA, mapa.getInt(BASURA) + ARREGLO + 4 * longitud);
+    }
+
+    /* Reserva un arreglo de cubetas vacías al final del archivo y regresa su
+     * posición. */
+    private int reservaCubetas(int longitud) {
+        int registro = reserva(ARREGLO + 4 * longitud);
+        mapa.putInt(registro + TIPO, TIPO_CUBETAS);
+        mapa.putInt(registro + BYTES_CUBETAS, 4 * longitud);
+        for (int i = 0; i < longitud; i++)
+            mapa.putInt(registro + ARREGLO + 4 * i, 0);
+        return registro + ARREGLO;
+    }
+
+    /* Reserva bytes al final del archivo y regresa su posición; si no caben
+     * en el mapa, hace crecer el archivo al doble y lo vuelve a mapear. */
+    private int reserva(int bytes) {
+        int fin = mapa.getInt(FIN);
+        long nuevoFin = (long)fin + bytes;
+        if (nuevoFin > Integer.MAX_VALUE)
+            throw new IllegalStateException("El archivo está lleno");
+        if (nuevoFin > mapa.capacity()) {
+            long tamano = Math.min(Integer.MAX_VALUE,
+                                   Math.max(nuevoFin, 2L * mapa.capacity()));
+            try {
+                mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        }
+        mapa.putInt(FIN, (int)nuevoFin);
+        return fin;
+    }
+
+    /* Agrega una copia de la entrada de otro diccionario con el mismo
+     * dispersor, sin volver a dispersar la llave. */
+    private void copia(DiccionarioPersistente otro, int entrada) {
+        int bytes = otro.tamano(entrada);
+        int copia = reserva(bytes);
+        ByteBuffer origen = otro.mapa.duplicate();
+        origen.position(entrada).limit(entrada + bytes);
+        ByteBuffer destino = mapa.duplicate();
+        destino.position(copia);
+        destino.put(origen);
+        liga(copia, mapa.getInt(copia + DISPERSION));
+        mapa.putInt(ELEMENTOS, mapa.getInt(ELEMENTOS) + 1);
+    }
+
+    /* Escribe los bytes en el mapa a partir de la posición. */
+    private void escribe(int posicion, byte[] bytes) {
+        ByteBuffer destino = mapa.duplicate();
+        destino.position(posicion);
+        destino.put(bytes);
+    }
+
+    /* Lee una cadena UTF-8 del mapa. */
+    private String lee(int posicion, int longitud) {
+        byte[] bytes = new byte[longitud];
+        ByteBuffer origen = mapa.duplicate();
+        origen.position(posicion);
+        origen.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /* Regresa la llave de la entrada. */
+    private String llave(int entrada) {
+        return lee(entrada + DATOS, mapa.getInt(entrada + BYTES_LLAVE));
+    }
+
+    /* Regresa el valor de la entrada. */
+    private String valor(int entrada) {
+        return lee(entrada + DATOS + mapa.getInt(entrada + BYTES_LLAVE),
+                   mapa.getInt(entrada + BYTES_VALOR));
+    }
+}
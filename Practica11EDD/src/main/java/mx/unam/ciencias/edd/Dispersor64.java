@@ -0,0 +1,29 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Interfaz genérica para dispersores de 64 bits. Un dispersor de 64 bits
+ * también es un {@link Dispersor}: su dispersión de 32 bits es la de 64 bits
+ * plegada con XOR. Las estructuras que lo reconocen, como {@link
+ * DiccionarioAbierto}, pueden usar los 64 bits completos.
+ */
+@FunctionalInterface
+public interface Dispersor64<T> extends Dispersor<T> {
+
+    /**
+     * Calcula la función de dispersión de 64 bits del objeto recibido.
+     * @param objeto el objeto que queremos dispersar.
+     * @return el resultado de dispersar del objeto recibido.
+     */
+    public long dispersa64(T objeto);
+
+    /**
+     * Calcula la función de dispersión del objeto recibido, plegando a 32
+     * bits su dispersión de 64 bits.
+     * @param objeto el objeto que queremos dispersar.
+     * @return el resultado de dispersar del objeto recibido.
+     */
+    @Override public default int dispersa(T objeto) {
+        long h = dispersa64(objeto);
+        return (int)(h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,35 @@
+package mx.unam.ciencias.edd;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Interfaz para dispersores incrementales: la llave se recibe en pedazos, y
+ * al terminar se obtiene la misma dispersión que daría el dispersor de un
+ * solo golpe sobre todos los pedazos concatenados. Así se pueden dispersar
+ * llaves que no caben en memoria.
+ */
+public interface DispersorIncremental {
+
+    /**
+     * Agrega un pedazo de la llave.
+     * @param bytes el arreglo con el pedazo.
+     * @param inicio el índice del primer byte del pedazo.
+     * @param longitud el número de bytes del pedazo.
+     * @throws IndexOutOfBoundsException si el pedazo se sale del arreglo.
+     */
+    public void actualiza(byte[] bytes, int inicio, int longitud);
+
+    /**
+     * Agrega como pedazo de la llave los bytes restantes del búfer; al
+     * terminar, la posición del búfer es su límite.
+     * @param bufer el búfer con el pedazo.
+     */
+    public void actualiza(ByteBuffer bufer);
+
+    /**
+     * Regresa la dispersión de todos los pedazos agregados, y deja al
+     * dispersor listo para una nueva llave.
+     * @return la dispersión de la llave.
+     */
+    public int termina();
+}
@@ -0,0 +1,190 @@
+package mx.unam.ciencias.edd;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * <p>Clase para dispersar en paralelo arreglos y búferes grandes. Los datos se
+ * parten en pedazos de tamaño fijo que forman las hojas de un árbol binario;
+ * cada hoja se dispersa con un {@link DispersorIncremental}, y cada nodo
+ * interno dispersa las dispersiones de sus dos hijos. Las hojas y los nodos
+ * internos llevan bytes iniciales distintos, para que una hoja no pueda
+ * hacerse pasar por un nodo.</p>
+ *
+ * <p>La forma del árbol sólo depende de la longitud de los datos y del tamaño
+ * de los pedazos, así que el resultado es el mismo sin importar cuántos hilos
+ * se usen. No es el mismo que el de dispersar los datos de un solo golpe, y
+ * cambia si cambia el tamaño de los pedazos.</p>
+ */
+public class DispersorParalelo {
+
+    /* Tarea para dispersar los pedazos en [primero, ultimo). */
+    private class Tarea extends RecursiveTask<Integer> {
+
+        /* Versión para serializar; las tareas nunca se serializan. */
+        private static final long serialVersionUID = 1L;
+
+        /* Los datos, si son un arreglo. */
+        private byte[] arreglo;
+        /* Los datos, si son un búfer. */
+        private ByteBuffer bufer;
+        /* El índice del primer byte de los datos. */
+        private int inicio;
+        /* El número de bytes de los datos. */
+        private int longitud;
+        /* El primer pedazo de la tarea. */
+        private int primero;
+        /* El pedazo siguiente al último de la tarea. */
+        private int ultimo;
+
+        /* Construye una tarea. */
+        private Tarea(byte[] arreglo, ByteBuffer bufer, int inicio,
+                      int longitud, int primero, int ultimo) {
+            this.arreglo = arreglo;
+            this.bufer = bufer;
+            this.inicio = inicio;
+            this.longitud = longitud;
+            this.primero = primero;
+            this.ultimo = ultimo;
+        }
+
+        /* Dispersa los pedazos de la tarea. */
+        @Override protected Integer compute() {
+            if (ultimo - primero == 1)
+                return hoja(primero);
+
+            int mitad = (primero + ultimo) >>> 1;
+            Tarea izquierda = new Tarea(arreglo, bufer, inicio, longitud,
+                                        primero, mitad);
+            Tarea derecha = new Tarea(arreglo, bufer, inicio, longitud,
+                                      mitad, ultimo);
+            izquierda.fork();
+            int d = derecha.compute();
+            int i = izquierda.join();
+
+            return nodo(i, d);
+        }
+
+        /* Dispersa el pedazo i. */
+        private int hoja(int i) {
+            int desde = i * tamanoPedazo;
+            int n = Math.min(tamanoPedazo, longitud - desde);
+            DispersorIncremental dispersor =
+                FabricaDispersores.dispersorIncremental(algoritmo);
+            dispersor.actualiza(HOJA, 0, 1);
+            if (arreglo != null) {
+                dispersor.actualiza(arreglo, inicio + desde, n);
+            } else {
+                ByteBuffer pedazo = bufer.duplicate();
+                pedazo.limit(inicio + desde + n);
+                pedazo.position(inicio + desde);
+                dispersor.actualiza(pedazo);
+            }
+            return dispersor.termina();
+        }
+
+        /* Dispersa las dispersiones de dos hijos. */
+        private int nodo(int izquierda, int derecha) {
+            byte[] bytes = {
+                NODO,
+                (byte)izquierda, (byte)(izquierda >>> 8),
+                (byte)(izquierda >>> 16), (byte)(izquierda >>> 24),
+                (byte)derecha, (byte)(derecha >>> 8),
+                (byte)(derecha >>> 16), (byte)(derecha >>> 24)
+            };
+            DispersorIncremental dispersor =
+                FabricaDispersores.dispersorIncremental(algoritmo);
+            dispersor.actualiza(bytes, 0, bytes.length);
+            return dispersor.termina();
+        }
+    }
+
+    /** Tamaño predeterminado de los pedazos: 1 MB. */
+    public static final int TAMANO_PEDAZO = 1 << 20;
+
+    /* Byte inicial de las hojas. */
+    private static final byte[] HOJA = { 0 };
+    /* Byte inicial de los nodos internos. */
+    private static final byte NODO = 1;
+
+    /* El algoritmo de dispersión. */
+    private AlgoritmoDispersor algoritmo;
+    /* El tamaño de los pedazos. */
+    private int tamanoPedazo;
+
+    /**
+     * Construye un dispersor paralelo con el tamaño de pedazo predeterminado.
+     * @param algoritmo el algoritmo de dispersión; debe tener versión
+     *        incremental.
+     * @throws IllegalArgumentException si el algoritmo no tiene versión
+     *         incremental.
+     */
+    public DispersorParalelo(AlgoritmoDispersor algoritmo) {
+        this(algoritmo, TAMANO_PEDAZO);
+    }
+
+    /**
+     * Construye un dispersor paralelo con el tamaño de pedazo recibido.
+     * @param algoritmo el algoritmo de dispersión; debe tener versión
+     *        incremental.
+     * @param tamanoPedazo el tamaño de los pedazos.
+     * @throws IllegalArgumentException si el algoritmo no tiene versión
+     *         incremental, o si el tamaño de los pedazos no es positivo.
+     */
+    public DispersorParalelo(AlgoritmoDispersor algoritmo, int tamanoPedazo) {
+        if (tamanoPedazo < 1)
+            throw new IllegalArgumentException("Tamaño de pedazo inválido");
+        FabricaDispersores.dispersorIncremental(algoritmo);
+        this.algoritmo = algoritmo;
+        this.tamanoPedazo = tamanoPedazo;
+    }
+
+    /**
+     * Dispersa un arreglo usando la alberca común de hilos.
+     * @param datos el arreglo a dispersar.
+     * @return la dispersión del arreglo.
+     */
+    public int dispersa(byte[] datos) {
+        return dispersa(datos, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Dispersa un arreglo usando la alberca de hilos recibida.
+     * @param datos el arreglo a dispersar.
+     * @param alberca la alberca de hilos.
+     * @return la dispersión del arreglo.
+     */
+    public int dispersa(byte[] datos, ForkJoinPool alberca) {
+        return alberca.invoke(new Tarea(datos, null, 0, datos.length, 0,
+                                        pedazos(datos.length)));
+    }
+
+    /**
+     * Dispersa los bytes restantes de un búfer usando la alberca común de
+     * hilos. La posición del búfer no cambia.
+     * @param datos el búfer a dispersar.
+     * @return la dispersión de los bytes restantes del búfer.
+     */
+    public int dispersa(ByteBuffer datos) {
+        return dispersa(datos, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Dispersa los bytes restantes de un búfer usando la alberca de hilos
+     * recibida. La posición del búfer no cambia.
+     * @param datos el búfer a dispersar.
+     * @param alberca la alberca de hilos.
+     * @return la dispersión de los bytes restantes del búfer.
+     */
+    public int dispersa(ByteBuffer datos, ForkJoinPool alberca) {
+        return alberca.invoke(new Tarea(null, datos, datos.position(),
+                                        datos.remaining(), 0,
+                                        pedazos(datos.remaining())));
+    }
+
+    /* Regresa el número de pedazos para n bytes; al menos uno. */
+    private int pedazos(int n) {
+        return Math.max(1, (int)((n + (long)tamanoPedazo - 1) / tamanoPedazo));
+    }
+}
@@ -1,11 +1,290 @@
 package mx.unam.ciencias.edd;
 
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Clase para métodos estáticos con dispersores de bytes.
  */
 public class Dispersores {
 
+    /* Clase abstracta para los dispersores incrementales. Las subclases
+       procesan los bytes sueltos uno por uno, y pueden procesar palabras
+       completas de golpe cuando el pedazo va alineado con ellas. */
+    abstract static class Incremental implements DispersorIncremental {
+
+        /* Procesa un byte suelto. */
+        protected abstract void procesa(int b);
+
+        /* Procesa palabras completas del arreglo a partir de i, sin pasar de
+           n bytes, y regresa cuántos bytes procesó; 0 si en este punto no
+           hay palabras alineadas. */
+        protected abstract int palabras(byte[] bytes, int i, int n);
+
+        /* Igual que la anterior, para búferes big endian. */
+        protected abstract int palabras(ByteBuffer bufer, int i, int n);
+
+        /* Agrega un pedazo de la llave. */
+        @Override public void actualiza(byte[] bytes, int inicio,
+                                        int longitud) {
+            if (inicio < 0 || longitud < 0 || inicio + longitud > bytes.length)
+                throw new IndexOutOfBoundsException();
+            int fin = inicio + longitud;
+            int i = inicio;
+            while (i < fin) {
+                int k = palabras(bytes, i, fin - i);
+                if (k > 0)
+                    i += k;
+                else
+                    procesa(bytes[i++] & 0xFF);
+            }
+        }
+
+        /* Agrega los bytes restantes del búfer. */
+        @Override public void actualiza(ByteBuffer bufer) {
+            if (bufer.hasArray()) {
+                actualiza(bufer.array(), bufer.arrayOffset() +
+                          bufer.position(), bufer.remaining());
+                bufer.position(bufer.limit());
+                return;
+            }
+            ByteBuffer vista = bufer.duplicate().order(ByteOrder.BIG_ENDIAN);
+            int fin = bufer.limit();
+            int i = bufer.position();
+            while (i < fin) {
+                int k = palabras(vista, i, fin - i);
+                if (k > 0)
+                    i += k;
+                else
+                    procesa(vista.get(i++) & 0xFF);
+            }
+            bufer.position(fin);
+        }
+    }
+
+    /* Dispersor incremental XOR. */
+    static final class IncrementalXOR extends Incremental {
+
+        /* El resultado de las palabras completas. */
+        private int resultado;
+        /* La palabra en curso. */
+        private int palabra;
+        /* Cuántos bytes lleva la palabra en curso. */
+        private int bytes;
+
+        @Override protected void procesa(int b) {
+            palabra = (palabra << 8) | b;
+            if (++bytes == 4) {
+                resultado ^= palabra;
+                palabra = 0;
+                bytes = 0;
+            }
+        }
+
+        @Override protected int palabras(byte[] arreglo, int i, int n) {
+            if (bytes != 0)
+                return 0;
+            int k = 0;
+            for (; k + 4 <= n; k += 4)
+                resultado ^= (int)ENTERO_BE.get(arreglo, i + k);
+            return k;
+        }
+
+        @Override protected int palabras(ByteBuffer bufer, int i, int n) {
+            if (bytes != 0)
+                return 0;
+            int k = 0;
+            for (; k + 4 <= n; k += 4)
+                resultado ^= bufer.getInt(i + k);
+            return k;
+        }
+
+        @Override public int termina() {
+            int r = resultado;
+            if (bytes > 0)
+                r ^= palabra << (8 * (4 - bytes));
+            resultado = palabra = bytes = 0;
+            return r;
+        }
+    }
+
+    /* Dispersor incremental de Bob Jenkins. */
+    static final class IncrementalBJ extends Incremental {
+
+        /* El estado de la mezcla. */
+        private int a = 0x9E3779B9, b = 0x9E3779B9, c = 0xFFFFFFFF;
+        /* Las tres palabras del bloque de 12 bytes en curso. */
+        private int pa, pb, pc;
+        /* Cuántos bytes lleva el bloque en curso. */
+        private int enBloque;
+        /* Cuántos bytes se han procesado. */
+        private int total;
+
+        @Override protected void procesa(int dato) {
+            dato <<= 8 * (enBloque & 3);
+            if (enBloque < 4)
+                pa |= dato;
+            else if (enBloque < 8)
+                pb |= dato;
+            else
+                pc |= dato;
+            total++;
+            if (++enBloque == 12) {
+                mezcla(pa, pb, pc);
+                pa = pb = pc = 0;
+                enBloque = 0;
+            }
+        }
+
+        @Override protected int palabras(byte[] arreglo, int i, int n) {
+            if (enBloque != 0)
+                return 0;
+            int k = 0;
+            for (; k + 12 <= n; k += 12)
+                mezcla((int)ENTERO_LE.get(arreglo, i + k),
+                       (int)ENTERO_LE.get(arreglo, i + k + 4),
+                       (int)ENTERO_LE.get(arreglo, i + k + 8));
+            total += k;
+            return k;
+        }
+
+        @Override protected int palabras(ByteBuffer bufer, int i, int n) {
+            if (enBloque != 0)
+                return 0;
+            int k = 0;
+            for (; k + 12 <= n; k += 12)
+                mezcla(Integer.reverseBytes(bufer.getInt(i + k)),
+                       Integer.reverseBytes(bufer.getInt(i + k + 4)),
+                       Integer.reverseBytes(bufer.getInt(i + k + 8)));
+            total += k;
+            return k;
+        }
+
+        /* Suma un bloque al estado y lo mezcla. */
+        private void mezcla(int x, int y, int z) {
+            a += x;
+            b += y;
+            c += z;
+
+            a -= b + c; a ^= (c >>> 13);
+            b -= c + a; b ^= (a << 8);
+            c -= a + b; c ^= (b >>> 13);
+            a -= b + c; a ^= (c >>> 12);
+            b -= c + a; b ^= (a << 16);
+            c -= a + b; c ^= (b >>> 5);
+            a -= b + c; a ^= (c >>> 3);
+            b -= c + a; b ^= (a << 10);
+            c -= a + b; c ^= (b >>> 15);
+        }
+
+        @Override public int termina() {
+            /* La longitud ocupa el byte menos significativo de la tercera
+               palabra del último bloque. */
+            mezcla(pa, pb, total + (pc << 8));
+            int r = c;
+            a = b = 0x9E3779B9;
+            c = 0xFFFFFFFF;
+            pa = pb = pc = enBloque = total = 0;
+            return r;
+        }
+    }
+
+    /* Dispersor incremental de Daniel J. Bernstein. */
+    static final class IncrementalDJB extends Incremental {
+
+        /* El estado de la dispersión. */
+        private int h = 5381;
+
+        @Override protected void procesa(int b) {
+            h += (h << 5) + b;
+        }
+
+        @Override protected int palabras(byte[] arreglo, int i, int n) {
+            for (int k = 0; k < n; k++)
+                h += (h << 5) + (arreglo[i + k] & 0xFF);
+            return n;
+        }
+
+        @Override protected int palabras(ByteBuffer bufer, int i, int n) {
+            for (int k = 0; k < n; k++)
+                h += (h << 5) + (bufer.get(i + k) & 0xFF);
+            return n;
+        }
+
+        @Override public int termina() {
+            int r = h;
+            h = 5381;
+            return r;
+        }
+    }
+
+    /* Vista de un arreglo de bytes como enteros big endian. */
+    private static final VarHandle ENTERO_BE =
+        MethodHandles.byteArrayViewVarHandle(int[].class,
+                                             ByteOrder.BIG_ENDIAN);
+    /* Vista de un arreglo de bytes como enteros little endian. */
+    private static final VarHandle ENTERO_LE =
+        MethodHandles.byteArrayViewVarHandle(int[].class,
+                                             ByteOrder.LITTLE_ENDIAN);
+    /* Vista de un arreglo de bytes como largos big endian. */
+    private static final VarHandle LARGO_BE =
+        MethodHandles.byteArrayViewVarHandle(long[].class,
+                                             ByteOrder.BIG_ENDIAN);
+    /* Vista de un arreglo de bytes como largos little endian. */
+    private static final VarHandle LARGO_LE =
+        MethodHandles.byteArrayViewVarHandle(long[].class,
+                                             ByteOrder.LITTLE_ENDIAN);
+
+    /* Tamaño de las ventanas con que se mapean los archivos; múltiplo de 12
+       para que los bloques de Bob Jenkins queden alineados. */
+    private static final long VENTANA = 12L << 26;
+
+    /* Constantes de MurmurHash3. */
+    private static final int MURMUR_C1 = 0xcc9e2d51;
+    private static final int MURMUR_C2 = 0x1b873593;
+
+    /* Primos de xxHash32. */
+    private static final int XXH32_P1 = 0x9E3779B1;
+    private static final int XXH32_P2 = 0x85EBCA77;
+    private static final int XXH32_P3 = 0xC2B2AE3D;
+    private static final int XXH32_P4 = 0x27D4EB2F;
+    private static final int XXH32_P5 = 0x165667B1;
+
+    /* Primos de xxHash64. */
+    private static final long XXH64_P1 = 0x9E3779B185EBCA87L;
+    private static final long XXH64_P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long XXH64_P3 = 0x165667B19E3779F9L;
+    private static final long XXH64_P4 = 0x85EBCA77C2B2AE63L;
+    private static final long XXH64_P5 = 0x27D4EB2F165667C5L;
+
+    /* Secreto predeterminado de wyhash. */
+    private static final long WY_S0 = 0x2d358dccaa6c78a5L;
+    private static final long WY_S1 = 0x8bb84b93962eacc9L;
+    private static final long WY_S2 = 0x4b33a62ed433d4a3L;
+    private static final long WY_S3 = 0x4d5a2da51de1aa47L;
+
+    /* Constantes de inicialización de SipHash. */
+    private static final long SIP_V0 = 0x736f6d6570736575L;
+    private static final long SIP_V1 = 0x646f72616e646f6dL;
+    private static final long SIP_V2 = 0x6c7967656e657261L;
+    private static final long SIP_V3 = 0x7465646279746573L;
+
+    /* Arreglo por hilo donde se codifican las cadenas para los dispersores
+       que necesitan conocer de antemano la longitud de la llave. */
+    private static final ThreadLocal<byte[]> BUFER =
+        ThreadLocal.withInitial(() -> new byte[256]);
+
+    /* Longitud máxima del arreglo que se guarda por hilo; para cadenas más
+       largas se usa un arreglo nuevo que no se guarda, para que una sola
+       cadena enorme no deje ocupada su memoria mientras viva el hilo. */
+    private static final int MAXIMO_BUFER = 1 << 16;
+
     /* Constructor privado para evitar instanciación. */
     private Dispersores() {}
 
@@ -18,12 +297,11 @@ public class Dispersores {
         int resultado = 0;
 
         int i = 0;
-        while(i < llave.length)
-            resultado ^= combina("BIG ENDIAN",
-                                 getByte(llave, i++),
-                                 getByte(llave, i++),
-                                 getByte(llave, i++),
-                                 getByte(llave, i++));
+        for (; i + 4 <= llave.length; i += 4)
+            resultado ^= (int)ENTERO_BE.get(llave, i);
+
+        if (i < llave.length)
+            resultado ^= colaBE(llave, i);
 
         return resultado;
     }
@@ -39,61 +317,99 @@ public class Dispersores {
         int c = 0xFFFFFFFF;
 
         int i = 0;
-        boolean ejecucion = true;
-
-        while (ejecucion) {
-            a += combina("LITTLE ENDIAN",
-                         getByte(llave, i++),
-                         getByte(llave, i++),
-                         getByte(llave, i++),
-                         getByte(llave, i++));
-            b += combina("LITTLE ENDIAN",
-                         getByte(llave, i++),
-                         getByte(llave, i++),
-                         getByte(llave, i++),
-                         getByte(llave, i++));
-            if (llave.length - i >= 4) {
-                c += combina("LITTLE ENDIAN",
-                        getByte(llave, i++),
-                        getByte(llave, i++),
-                        getByte(llave, i++),
-                        getByte(llave, i++));
-            } else {
-                ejecucion = false;
-                c += llave.length;
-                c += combina("LITTLE ENDIAN",
-                        getByte(llave, llave.length),
-                        getByte(llave, i++),
-                        getByte(llave, i++),
-                        getByte(llave, i++));
-            }
-
-            // Mezcla de los valores para dispersión
-            a -= b + c;
-            a ^= (c >>> 13);
-            b -= c + a;
-            b ^= (a << 8);
-            c -= a + b;
-            c ^= (b >>> 13);
-
-            a -= b + c;
-            a ^= (c >>> 12);
-            b -= c + a;
-            b ^= (a << 16);
-            c -= a + b;
-            c ^= (b >>> 5);
-
-            a -= b + c;
-            a ^= (c >>> 3);
-            b -= c + a;
-            b ^= (a << 10);
-            c -= a + b;
-            c ^= (b >>> 15);
+        for (; llave.length - i >= 12; i += 12) {
+            a += (int)ENTERO_LE.get(llave, i);
+            b += (int)ENTERO_LE.get(llave, i + 4);
+            c += (int)ENTERO_LE.get(llave, i + 8);
+
+            a -= b + c; a ^= (c >>> 13);
+            b -= c + a; b ^= (a << 8);
+            c -= a + b; c ^= (b >>> 13);
+            a -= b + c; a ^= (c >>> 12);
+            b -= c + a; b ^= (a << 16);
+            c -= a + b; c ^= (b >>> 5);
+            a -= b + c; a ^= (c >>> 3);
+            b -= c + a; b ^= (a << 10);
+            c -= a + b; c ^= (b >>> 15);
         }
 
+        /* El último bloque tiene menos de 12 bytes; la longitud ocupa el byte
+           menos significativo de la tercera palabra. */
+        a += colaLE(llave, i);
+        b += colaLE(llave, i + 4);
+        c += llave.length + (colaLE(llave, i + 8) << 8);
+
+        a -= b + c; a ^= (c >>> 13);
+        b -= c + a; b ^= (a << 8);
+        c -= a + b; c ^= (b >>> 13);
+        a -= b + c; a ^= (c >>> 12);
+        b -= c + a; b ^= (a << 16);
+        c -= a + b; c ^= (b >>> 5);
+        a -= b + c; a ^= (c >>> 3);
+        b -= c + a; b ^= (a << 10);
+        c -= a + b; c ^= (b >>> 15);
+
         return c;
     }
 
+    /**
+     * Mezcla los bits de un entero con el finalizador de MurmurHash3
+     * (fmix32): cada bit de la entrada afecta a todos los de la salida, así
+     * que enteros consecutivos o que sólo difieren en sus bits altos quedan
+     * repartidos en los bits bajos. Es una biyección, por lo que enteros
+     * distintos nunca chocan.
+     * @param h el entero a mezclar.
+     * @return el entero mezclado.
+     */
+    public static int mezcla32(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Mezcla los bits de un entero largo con el finalizador de MurmurHash3
+     * (fmix64). Es una biyección, por lo que enteros largos distintos nunca
+     * chocan.
+     * @param h el entero largo a mezclar.
+     * @return el entero largo mezclado.
+     */
+    public static long mezcla64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Dispersa el contenido de un archivo con un dispersor incremental. El
+     * archivo se mapea a memoria por ventanas, así que sus bytes nunca se
+     * copian a un arreglo.
+     * @param archivo la ruta del archivo.
+     * @param dispersor el dispersor incremental a usar.
+     * @return la dispersión del contenido del archivo.
+     * @throws IOException si no se puede leer el archivo.
+     */
+    public static int dispersaArchivo(Path archivo,
+                                      DispersorIncremental dispersor)
+        throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo,
+                                                  StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            for (long p = 0; p < tamano; p += VENTANA) {
+                long n = Math.min(VENTANA, tamano - p);
+                dispersor.actualiza(canal.map(FileChannel.MapMode.READ_ONLY,
+                                              p, n));
+            }
+        }
+        return dispersor.termina();
+    }
+
     /**
      * Función de dispersión Daniel J. Bernstein.
      * @param llave la llave a dispersar.
@@ -103,46 +419,812 @@ public class Dispersores {
         int h = 5381;
 
         for(int i = 0; i < llave.length ; i++){
-            h += (h << 5) + enmascara(llave[i]);
+            h += (h << 5) + (llave[i] & 0xFF);
         }
 
         return h;
     }
 
     /**
-     * Combina cuatro bytes en un entero.
-     * @param modo para determinar el modo de combinar los bytes, b para big endian, l para little endian
-     * @param a b c d los bytes a combinar
-     *
-    */
-    private static int combina(String modo, int a, int b, int c, int d){
-        switch(modo){
-            case "BIG ENDIAN":
-                return (((a & 0xFF) << 24) | ((b & 0xFF) << 16) | ((c & 0xFF) << 8) | (d & 0xFF));
-            case "LITTLE ENDIAN":
-                return (((d & 0xFF) << 24) | ((c & 0xFF) << 16) | ((b & 0xFF) << 8) | (a & 0xFF));
-            default:
-                return 0;
+     * Función de dispersión XOR sobre la codificación UTF-8 de una secuencia
+     * de caracteres. Regresa lo mismo que {@link #dispersaXOR(byte[])} sobre
+     * los bytes UTF-8 de la secuencia, pero los codifica al vuelo, sin crear
+     * ningún arreglo.
+     * @param llave la llave a dispersar.
+     * @return la dispersión de XOR de la llave.
+     */
+    public static int dispersaXOR(CharSequence llave) {
+        int resultado = 0;
+        int palabra = 0;
+        int bytes = 0;
+
+        int i = 0;
+        while (i < llave.length()) {
+            long codigo = codificaUTF8(llave, i);
+            i += caracteres(codigo);
+            for (int j = 0; j < longitud(codigo); j++) {
+                palabra = (palabra << 8) | byteUTF8(codigo, j);
+                if (++bytes == 4) {
+                    resultado ^= palabra;
+                    palabra = 0;
+                    bytes = 0;
+                }
+            }
+        }
+
+        if (bytes > 0)
+            resultado ^= palabra << (8 * (4 - bytes));
+
+        return resultado;
+    }
+
+    /**
+     * Función de dispersión de Bob Jenkins sobre la codificación UTF-8 de una
+     * secuencia de caracteres. Regresa lo mismo que {@link
+     * #dispersaBJ(byte[])} sobre los bytes UTF-8 de la secuencia, pero los
+     * codifica al vuelo, sin crear ningún arreglo.
+     * @param llave la llave a dispersar.
+     * @return la dispersión de Bob Jenkins de la llave.
+     */
+    public static int dispersaBJ(CharSequence llave) {
+        int a = 0x9E3779B9;
+        int b = 0x9E3779B9;
+        int c = 0xFFFFFFFF;
+        /* Las tres palabras del bloque de 12 bytes en curso. */
+        int pa = 0, pb = 0, pc = 0;
+        int enBloque = 0;
+        int total = 0;
+
+        int i = 0;
+        while (i < llave.length()) {
+            long codigo = codificaUTF8(llave, i);
+            i += caracteres(codigo);
+            for (int j = 0; j < longitud(codigo); j++) {
+                int dato = byteUTF8(codigo, j) << (8 * (enBloque & 3));
+                if (enBloque < 4)
+                    pa |= dato;
+                else if (enBloque < 8)
+                    pb |= dato;
+                else
+                    pc |= dato;
+                total++;
+
+                if (++enBloque < 12)
+                    continue;
+
+                a += pa;
+                b += pb;
+                c += pc;
+                pa = pb = pc = 0;
+                enBloque = 0;
+
+                a -= b + c; a ^= (c >>> 13);
+                b -= c + a; b ^= (a << 8);
+                c -= a + b; c ^= (b >>> 13);
+                a -= b + c; a ^= (c >>> 12);
+                b -= c + a; b ^= (a << 16);
+                c -= a + b; c ^= (b >>> 5);
+                a -= b + c; a ^= (c >>> 3);
+                b -= c + a; b ^= (a << 10);
+                c -= a + b; c ^= (b >>> 15);
+            }
+        }
+
+        /* El último bloque tiene menos de 12 bytes; la longitud ocupa el byte
+           menos significativo de la tercera palabra. */
+        a += pa;
+        b += pb;
+        c += total + (pc << 8);
+
+        a -= b + c; a ^= (c >>> 13);
+        b -= c + a; b ^= (a << 8);
+        c -= a + b; c ^= (b >>> 13);
+        a -= b + c; a ^= (c >>> 12);
+        b -= c + a; b ^= (a << 16);
+        c -= a + b; c ^= (b >>> 5);
+        a -= b + c; a ^= (c >>> 3);
+        b -= c + a; b ^= (a << 10);
+        c -= a + b; c ^= (b >>> 15);
+
+        return c;
+    }
+
+    /**
+     * Función de dispersión Daniel J. Bernstein sobre la codificación UTF-8
+     * de una secuencia de caracteres. Regresa lo mismo que {@link
+     * #dispersaDJB(byte[])} sobre los bytes UTF-8 de la secuencia, pero los
+     * codifica al vuelo, sin crear ningún arreglo.
+     * @param llave la llave a dispersar.
+     * @return la dispersión de Daniel Bernstein de la llave.
+     */
+    public static int dispersaDJB(CharSequence llave) {
+        int h = 5381;
+
+        int i = 0;
+        while (i < llave.length()) {
+            long codigo = codificaUTF8(llave, i);
+            i += caracteres(codigo);
+            for (int j = 0; j < longitud(codigo); j++)
+                h += (h << 5) + byteUTF8(codigo, j);
+        }
+
+        return h;
+    }
+
+    /**
+     * Función de dispersión XOR de 64 bits: combina con XOR las palabras de
+     * ocho bytes big endian de la llave.
+     * @param llave la llave a dispersar.
+     * @return la dispersión de XOR de 64 bits de la llave.
+     */
+    public static long dispersaXOR64(byte[] llave) {
+        return xor64(llave, llave.length);
+    }
+
+    /**
+     * Función de dispersión XOR de 64 bits sobre la codificación UTF-8 de una
+     * secuencia de caracteres.
+     * @param llave la llave a dispersar.
+     * @return la dispersión de XOR de 64 bits de la llave.
+     */
+    public static long dispersaXOR64(CharSequence llave) {
+        byte[] bufer = bufer(llave);
+        return xor64(bufer, codifica(llave, bufer));
+    }
+
+    /**
+     * Función de dispersión de Bob Jenkins de 64 bits (lookup8): bloques de
+     * 24 bytes en tres palabras de 64 bits, con la longitud en el byte menos
+     * significativo de la tercera palabra del último bloque.
+     * @param llave la llave a dispersar.
+     * @return la dispersión de Bob Jenkins de 64 bits de la llave.
+     */
+    public static long dispersaBJ64(byte[] llave) {
+        return bj64(llave, llave.length);
+    }
+
+    /**
+     * Función de dispersión de Bob Jenkins de 64 bits sobre la codificación
+     * UTF-8 de una secuencia de caracteres.
+     * @param llave la llave a dispersar.
+     * @return la dispersión de Bob Jenkins de 64 bits de la llave.
+     */
+    public static long dispersaBJ64(CharSequence llave) {
+        byte[] bufer = bufer(llave);
+        return bj64(bufer, codifica(llave, bufer));
+    }
+
+    /**
+     * Función de dispersión Daniel J. Bernstein de 64 bits.
+     * @param llave la llave a dispersar.
+     * @return la dispersión de Daniel Bernstein de 64 bits de la llave.
+     */
+    public static long dispersaDJB64(byte[] llave) {
+        long h = 5381;
+
+        for (int i = 0; i < llave.length; i++)
+            h += (h << 5) + (llave[i] & 0xFF);
+
+        return h;
+    }
+
+    /**
+     * Función de dispersión Daniel J. Bernstein de 64 bits sobre la
+     * codificación UTF-8 de una secuencia de caracteres.
+     * @param llave la llave a dispersar.
+     * @return la dispersión de Daniel Bernstein de 64 bits de la llave.
+     */
+    public static long dispersaDJB64(CharSequence llave) {
+        long h = 5381;
+
+        int i = 0;
+        while (i < llave.length()) {
+            long codigo = codificaUTF8(llave, i);
+            i += caracteres(codigo);
+            for (int j = 0; j < longitud(codigo); j++)
+                h += (h << 5) + byteUTF8(codigo, j);
         }
+
+        return h;
+    }
+
+    /**
+     * Función de dispersión MurmurHash3 (versión x86 de 32 bits, con semilla
+     * 0).
+     * @param llave la llave a dispersar.
+     * @return la dispersión MurmurHash3 de la llave.
+     */
+    public static int dispersaMurmur3(byte[] llave) {
+        return murmur3(llave, llave.length);
+    }
+
+    /**
+     * Función de dispersión MurmurHash3 sobre la codificación UTF-8 de una
+     * secuencia de caracteres. Regresa lo mismo que {@link
+     * #dispersaMurmur3(byte[])} sobre los bytes UTF-8 de la secuencia.
+     * @param llave la llave a dispersar.
+     * @return la dispersión MurmurHash3 de la llave.
+     */
+    public static int dispersaMurmur3(CharSequence llave) {
+        byte[] bufer = bufer(llave);
+        return murmur3(bufer, codifica(llave, bufer));
+    }
+
+    /**
+     * Función de dispersión xxHash32 (con semilla 0).
+     * @param llave la llave a dispersar.
+     * @return la dispersión xxHash32 de la llave.
+     */
+    public static int dispersaXXH32(byte[] llave) {
+        return xxh32(llave, llave.length);
     }
 
     /**
-     *  Obtiene los bytes de un arreglo
-     *
-     *  Si el indice a obtener es mayor a la longitud del arreglo, retorna el byte 0. Para facilitar
-     *  la disperson XOR y BobJenkins
-     *  */
-    private static int getByte(byte[] array, int index){
-        if(index >= array.length)
-            return 0x00;
+     * Función de dispersión xxHash32 sobre la codificación UTF-8 de una
+     * secuencia de caracteres. Regresa lo mismo que {@link
+     * #dispersaXXH32(byte[])} sobre los bytes UTF-8 de la secuencia.
+     * @param llave la llave a dispersar.
+     * @return la dispersión xxHash32 de la llave.
+     */
+    public static int dispersaXXH32(CharSequence llave) {
+        byte[] bufer = bufer(llave);
+        return xxh32(bufer, codifica(llave, bufer));
+    }
 
-        return (array[index]);
+    /**
+     * Función de dispersión xxHash64 (con semilla 0).
+     * @param llave la llave a dispersar.
+     * @return la dispersión xxHash64 de la llave.
+     */
+    public static long dispersaXXH64(byte[] llave) {
+        return xxh64(llave, llave.length);
+    }
+
+    /**
+     * Función de dispersión xxHash64 sobre la codificación UTF-8 de una
+     * secuencia de caracteres. Regresa lo mismo que {@link
+     * #dispersaXXH64(byte[])} sobre los bytes UTF-8 de la secuencia.
+     * @param llave la llave a dispersar.
+     * @return la dispersión xxHash64 de la llave.
+     */
+    public static long dispersaXXH64(CharSequence llave) {
+        byte[] bufer = bufer(llave);
+        return xxh64(bufer, codifica(llave, bufer));
     }
 
     /**
-     *  Aplica la mascara correspondiente al byte, para evitar conflictos en su inevitable casteo a entero
-     *  */
-    private static int enmascara(byte a){
-        return (a & 0xFF);
+     * Función de dispersión al estilo de wyhash (versión final 4, con semilla
+     * 0 y el secreto predeterminado): lee la llave en palabras de 64 bits y
+     * las mezcla con multiplicaciones de 64×64 a 128 bits.
+     * @param llave la llave a dispersar.
+     * @return la dispersión wyhash de la llave.
+     */
+    public static long dispersaWY(byte[] llave) {
+        return wy(llave, llave.length, 0);
+    }
+
+    /**
+     * Función de dispersión al estilo de wyhash con una semilla dada.
+     * @param llave la llave a dispersar.
+     * @param semilla la semilla de la dispersión.
+     * @return la dispersión wyhash de la llave.
+     */
+    public static long dispersaWY(byte[] llave, long semilla) {
+        return wy(llave, llave.length, semilla);
+    }
+
+    /**
+     * Función de dispersión al estilo de wyhash sobre la codificación UTF-8
+     * de una secuencia de caracteres. Regresa lo mismo que {@link
+     * #dispersaWY(byte[])} sobre los bytes UTF-8 de la secuencia.
+     * @param llave la llave a dispersar.
+     * @return la dispersión wyhash de la llave.
+     */
+    public static long dispersaWY(CharSequence llave) {
+        byte[] bufer = bufer(llave);
+        return wy(bufer, codifica(llave, bufer), 0);
+    }
+
+    /**
+     * Función de dispersión SipHash-2-4 con una llave secreta de 128 bits.
+     * Sin conocer la llave no es posible construir entradas que choquen, por
+     * lo que protege a los diccionarios de ataques por inundación.
+     * @param llave la llave a dispersar.
+     * @param k0 los 64 bits bajos de la llave secreta.
+     * @param k1 los 64 bits altos de la llave secreta.
+     * @return la dispersión SipHash-2-4 de la llave.
+     */
+    public static long dispersaSip24(byte[] llave, long k0, long k1) {
+        return sip(llave, llave.length, k0, k1, 2, 4);
+    }
+
+    /**
+     * Función de dispersión SipHash-2-4 sobre la codificación UTF-8 de una
+     * secuencia de caracteres. Regresa lo mismo que {@link
+     * #dispersaSip24(byte[],long,long)} sobre los bytes UTF-8 de la
+     * secuencia.
+     * @param llave la llave a dispersar.
+     * @param k0 los 64 bits bajos de la llave secreta.
+     * @param k1 los 64 bits altos de la llave secreta.
+     * @return la dispersión SipHash-2-4 de la llave.
+     */
+    public static long dispersaSip24(CharSequence llave, long k0, long k1) {
+        byte[] bufer = bufer(llave);
+        return sip(bufer, codifica(llave, bufer), k0, k1, 2, 4);
+    }
+
+    /**
+     * Función de dispersión SipHash-1-3 con una llave secreta de 128 bits. Es
+     * más rápida que SipHash-2-4, con un margen de seguridad menor pero
+     * suficiente para tablas de dispersión.
+     * @param llave la llave a dispersar.
+     * @param k0 los 64 bits bajos de la llave secreta.
+     * @param k1 los 64 bits altos de la llave secreta.
+     * @return la dispersión SipHash-1-3 de la llave.
+     */
+    public static long dispersaSip13(byte[] llave, long k0, long k1) {
+        return sip(llave, llave.length, k0, k1, 1, 3);
+    }
+
+    /**
+     * Función de dispersión SipHash-1-3 sobre la codificación UTF-8 de una
+     * secuencia de caracteres. Regresa lo mismo que {@link
+     * #dispersaSip13(byte[],long,long)} sobre los bytes UTF-8 de la
+     * secuencia.
+     * @param llave la llave a dispersar.
+     * @param k0 los 64 bits bajos de la llave secreta.
+     * @param k1 los 64 bits altos de la llave secreta.
+     * @return la dispersión SipHash-1-3 de la llave.
+     */
+    public static long dispersaSip13(CharSequence llave, long k0, long k1) {
+        byte[] bufer = bufer(llave);
+        return sip(bufer, codifica(llave, bufer), k0, k1, 1, 3);
+    }
+
+    /* XOR de 64 bits de los primeros n bytes del arreglo. */
+    private static long xor64(byte[] llave, int n) {
+        long resultado = 0;
+
+        int i = 0;
+        for (; i + 8 <= n; i += 8)
+            resultado ^= (long)LARGO_BE.get(llave, i);
+
+        if (i < n) {
+            long palabra = 0;
+            for (int j = 0; j < 8; j++) {
+                palabra <<= 8;
+                if (i + j < n)
+                    palabra |= llave[i + j] & 0xFF;
+            }
+            resultado ^= palabra;
+        }
+
+        return resultado;
+    }
+
+    /* Bob Jenkins de 64 bits de los primeros n bytes del arreglo. */
+    private static long bj64(byte[] llave, int n) {
+        long a = 0xFFFFFFFFFFFFFFFFL;
+        long b = 0xFFFFFFFFFFFFFFFFL;
+        long c = 0x9E3779B97F4A7C13L;
+
+        int i = 0;
+        for (; n - i >= 24; i += 24) {
+            a += (long)LARGO_LE.get(llave, i);
+            b += (long)LARGO_LE.get(llave, i + 8);
+            c += (long)LARGO_LE.get(llave, i + 16);
+
+            a -= b; a -= c; a ^= (c >>> 43);
+            b -= c; b -= a; b ^= (a << 9);
+            c -= a; c -= b; c ^= (b >>> 8);
+            a -= b; a -= c; a ^= (c >>> 38);
+            b -= c; b -= a; b ^= (a << 23);
+            c -= a; c -= b; c ^= (b >>> 5);
+            a -= b; a -= c; a ^= (c >>> 35);
+            b -= c; b -= a; b ^= (a << 49);
+            c -= a; c -= b; c ^= (b >>> 11);
+            a -= b; a -= c; a ^= (c >>> 12);
+            b -= c; b -= a; b ^= (a << 18);
+            c -= a; c -= b; c ^= (b >>> 22);
+        }
+
+        a += colaLE64(llave, i, n);
+        b += colaLE64(llave, i + 8, n);
+        c += n + (colaLE64(llave, i + 16, n) << 8);
+
+        a -= b; a -= c; a ^= (c >>> 43);
+        b -= c; b -= a; b ^= (a << 9);
+        c -= a; c -= b; c ^= (b >>> 8);
+        a -= b; a -= c; a ^= (c >>> 38);
+        b -= c; b -= a; b ^= (a << 23);
+        c -= a; c -= b; c ^= (b >>> 5);
+        a -= b; a -= c; a ^= (c >>> 35);
+        b -= c; b -= a; b ^= (a << 49);
+        c -= a; c -= b; c ^= (b >>> 11);
+        a -= b; a -= c; a ^= (c >>> 12);
+        b -= c; b -= a; b ^= (a << 18);
+        c -= a; c -= b; c ^= (b >>> 22);
+
+        return c;
+    }
+
+    /* Lee hasta ocho bytes a partir del índice como largo little endian,
+       rellenando con ceros los que falten antes del byte n. */
+    private static long colaLE64(byte[] arreglo, int i, int n) {
+        if (i + 8 <= n)
+            return (long)LARGO_LE.get(arreglo, i);
+        long palabra = 0;
+        for (int j = 0; j < 8 && i + j < n; j++)
+            palabra |= (arreglo[i + j] & 0xFFL) << (8 * j);
+        return palabra;
+    }
+
+    /* SipHash-c-d de los primeros n bytes del arreglo. */
+    private static long sip(byte[] llave, int n, long k0, long k1,
+                            int c, int d) {
+        long v0 = k0 ^ SIP_V0;
+        long v1 = k1 ^ SIP_V1;
+        long v2 = k0 ^ SIP_V2;
+        long v3 = k1 ^ SIP_V3;
+
+        int i = 0;
+        boolean ultimo = false;
+        while (!ultimo) {
+            long m;
+            if (i + 8 <= n) {
+                m = (long)LARGO_LE.get(llave, i);
+                i += 8;
+            } else {
+                /* El último bloque lleva la longitud en el byte más
+                   significativo. */
+                m = (long)n << 56;
+                for (int j = 0; i + j < n; j++)
+                    m |= (llave[i + j] & 0xFFL) << (8 * j);
+                ultimo = true;
+            }
+
+            v3 ^= m;
+            for (int r = 0; r < c; r++) {
+                v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0;
+                v0 = Long.rotateLeft(v0, 32);
+                v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+                v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+                v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2;
+                v2 = Long.rotateLeft(v2, 32);
+            }
+            v0 ^= m;
+        }
+
+        v2 ^= 0xFF;
+        for (int r = 0; r < d; r++) {
+            v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0;
+            v0 = Long.rotateLeft(v0, 32);
+            v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+            v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+            v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2;
+            v2 = Long.rotateLeft(v2, 32);
+        }
+
+        return v0 ^ v1 ^ v2 ^ v3;
+    }
+
+    /* MurmurHash3 de los primeros n bytes del arreglo. */
+    private static int murmur3(byte[] llave, int n) {
+        int h = 0;
+
+        int i = 0;
+        for (; i + 4 <= n; i += 4) {
+            int k = (int)ENTERO_LE.get(llave, i);
+            k *= MURMUR_C1;
+            k = Integer.rotateLeft(k, 15);
+            k *= MURMUR_C2;
+            h ^= k;
+            h = Integer.rotateLeft(h, 13);
+            h = h * 5 + 0xe6546b64;
+        }
+
+        if (i < n) {
+            int k = 0;
+            for (int j = n - 1; j >= i; j--)
+                k = (k << 8) | (llave[j] & 0xFF);
+            k *= MURMUR_C1;
+            k = Integer.rotateLeft(k, 15);
+            k *= MURMUR_C2;
+            h ^= k;
+        }
+
+        return mezcla32(h ^ n);
+    }
+
+    /* Una ronda de xxHash32. */
+    private static int rondaXXH32(int acumulador, int dato) {
+        acumulador += dato * XXH32_P2;
+        acumulador = Integer.rotateLeft(acumulador, 13);
+        return acumulador * XXH32_P1;
+    }
+
+    /* xxHash32 de los primeros n bytes del arreglo. */
+    private static int xxh32(byte[] llave, int n) {
+        int h;
+
+        int i = 0;
+        if (n >= 16) {
+            int v1 = XXH32_P1 + XXH32_P2;
+            int v2 = XXH32_P2;
+            int v3 = 0;
+            int v4 = -XXH32_P1;
+            for (; i + 16 <= n; i += 16) {
+                v1 = rondaXXH32(v1, (int)ENTERO_LE.get(llave, i));
+                v2 = rondaXXH32(v2, (int)ENTERO_LE.get(llave, i + 4));
+                v3 = rondaXXH32(v3, (int)ENTERO_LE.get(llave, i + 8));
+                v4 = rondaXXH32(v4, (int)ENTERO_LE.get(llave, i + 12));
+            }
+            h = Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7) +
+                Integer.rotateLeft(v3, 12) + Integer.rotateLeft(v4, 18);
+        } else {
+            h = XXH32_P5;
+        }
+
+        h += n;
+
+        for (; i + 4 <= n; i += 4) {
+            h += (int)ENTERO_LE.get(llave, i) * XXH32_P3;
+            h = Integer.rotateLeft(h, 17) * XXH32_P4;
+        }
+        for (; i < n; i++) {
+            h += (llave[i] & 0xFF) * XXH32_P5;
+            h = Integer.rotateLeft(h, 11) * XXH32_P1;
+        }
+
+        h ^= h >>> 15;
+        h *= XXH32_P2;
+        h ^= h >>> 13;
+        h *= XXH32_P3;
+        h ^= h >>> 16;
+
+        return h;
+    }
+
+    /* Una ronda de xxHash64. */
+    private static long rondaXXH64(long acumulador, long dato) {
+        acumulador += dato * XXH64_P2;
+        acumulador = Long.rotateLeft(acumulador, 31);
+        return acumulador * XXH64_P1;
+    }
+
+    /* Mezcla un acumulador de xxHash64 con el resultado. */
+    private static long combinaXXH64(long h, long acumulador) {
+        h ^= rondaXXH64(0, acumulador);
+        return h * XXH64_P1 + XXH64_P4;
+    }
+
+    /* xxHash64 de los primeros n bytes del arreglo. */
+    private static long xxh64(byte[] llave, int n) {
+        long h;
+
+        int i = 0;
+        if (n >= 32) {
+            long v1 = XXH64_P1 + XXH64_P2;
+            long v2 = XXH64_P2;
+            long v3 = 0;
+            long v4 = -XXH64_P1;
+            for (; i + 32 <= n; i += 32) {
+                v1 = rondaXXH64(v1, (long)LARGO_LE.get(llave, i));
+                v2 = rondaXXH64(v2, (long)LARGO_LE.get(llave, i + 8));
+                v3 = rondaXXH64(v3, (long)LARGO_LE.get(llave, i + 16));
+                v4 = rondaXXH64(v4, (long)LARGO_LE.get(llave, i + 24));
+            }
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) +
+                Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = combinaXXH64(h, v1);
+            h = combinaXXH64(h, v2);
+            h = combinaXXH64(h, v3);
+            h = combinaXXH64(h, v4);
+        } else {
+            h = XXH64_P5;
+        }
+
+        h += n;
+
+        for (; i + 8 <= n; i += 8) {
+            h ^= rondaXXH64(0, (long)LARGO_LE.get(llave, i));
+            h = Long.rotateLeft(h, 27) * XXH64_P1 + XXH64_P4;
+        }
+        if (i + 4 <= n) {
+            h ^= ((int)ENTERO_LE.get(llave, i) & 0xFFFFFFFFL) * XXH64_P1;
+            h = Long.rotateLeft(h, 23) * XXH64_P2 + XXH64_P3;
+            i += 4;
+        }
+        for (; i < n; i++) {
+            h ^= (llave[i] & 0xFF) * XXH64_P5;
+            h = Long.rotateLeft(h, 11) * XXH64_P1;
+        }
+
+        h ^= h >>> 33;
+        h *= XXH64_P2;
+        h ^= h >>> 29;
+        h *= XXH64_P3;
+        h ^= h >>> 32;
+
+        return h;
+    }
+
+    /* Los 64 bits altos del producto sin signo de a y b. */
+    private static long altoSinSigno(long a, long b) {
+        return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+    }
+
+    /* Multiplica a y b a 128 bits y combina con XOR las dos mitades. */
+    private static long mezclaWY(long a, long b) {
+        return (a * b) ^ altoSinSigno(a, b);
+    }
+
+    /* Lee cuatro bytes little endian sin signo. */
+    private static long leeWY4(byte[] llave, int i) {
+        return (int)ENTERO_LE.get(llave, i) & 0xFFFFFFFFL;
+    }
+
+    /* wyhash de los primeros n bytes del arreglo con la semilla dada. */
+    private static long wy(byte[] llave, int n, long semilla) {
+        semilla ^= mezclaWY(semilla ^ WY_S0, WY_S1);
+        long a, b;
+
+        if (n <= 16) {
+            if (n >= 4) {
+                int d = (n >>> 3) << 2;
+                a = (leeWY4(llave, 0) << 32) | leeWY4(llave, d);
+                b = (leeWY4(llave, n - 4) << 32) | leeWY4(llave, n - 4 - d);
+            } else if (n > 0) {
+                a = ((llave[0] & 0xFFL) << 16) |
+                    ((llave[n >>> 1] & 0xFFL) << 8) | (llave[n - 1] & 0xFFL);
+                b = 0;
+            } else {
+                a = b = 0;
+            }
+        } else {
+            int i = 0;
+            int resto = n;
+            if (resto > 48) {
+                long semilla1 = semilla, semilla2 = semilla;
+                do {
+                    semilla = mezclaWY((long)LARGO_LE.get(llave, i) ^ WY_S1,
+                                       (long)LARGO_LE.get(llave, i + 8) ^
+                                       semilla);
+                    semilla1 = mezclaWY((long)LARGO_LE.get(llave, i + 16) ^
+                                        WY_S2,
+                                        (long)LARGO_LE.get(llave, i + 24) ^
+                                        semilla1);
+                    semilla2 = mezclaWY((long)LARGO_LE.get(llave, i + 32) ^
+                                        WY_S3,
+                                        (long)LARGO_LE.get(llave, i + 40) ^
+                                        semilla2);
+                    i += 48;
+                    resto -= 48;
+                } while (resto > 48);
+                semilla ^= semilla1 ^ semilla2;
+            }
+            while (resto > 16) {
+                semilla = mezclaWY((long)LARGO_LE.get(llave, i) ^ WY_S1,
+                                   (long)LARGO_LE.get(llave, i + 8) ^ semilla);
+                i += 16;
+                resto -= 16;
+            }
+            a = (long)LARGO_LE.get(llave, i + resto - 16);
+            b = (long)LARGO_LE.get(llave, i + resto - 8);
+        }
+
+        a ^= WY_S1;
+        b ^= semilla;
+        long bajo = a * b;
+        long alto = altoSinSigno(a, b);
+        return mezclaWY(bajo ^ WY_S0 ^ n, alto ^ WY_S1);
+    }
+
+    /* Regresa el arreglo del hilo actual, con espacio suficiente para la
+       codificación UTF-8 de la secuencia; si no cabe en MAXIMO_BUFER bytes,
+       regresa un arreglo nuevo. */
+    private static byte[] bufer(CharSequence s) {
+        byte[] bufer = BUFER.get();
+        int longitud = 3 * s.length();
+        if (bufer.length < longitud) {
+            if (longitud > MAXIMO_BUFER)
+                return new byte[longitud];
+            bufer = new byte[Math.min(MAXIMO_BUFER,
+                                      Math.max(longitud, 2 * bufer.length))];
+            BUFER.set(bufer);
+        }
+        return bufer;
+    }
+
+    /* Codifica la secuencia en UTF-8 en el arreglo y regresa cuántos bytes
+       ocupó. */
+    private static int codifica(CharSequence s, byte[] destino) {
+        int n = 0;
+        int i = 0;
+        while (i < s.length()) {
+            long codigo = codificaUTF8(s, i);
+            i += caracteres(codigo);
+            for (int j = 0; j < longitud(codigo); j++)
+                destino[n++] = (byte)byteUTF8(codigo, j);
+        }
+        return n;
+    }
+
+    /**
+     * Codifica en UTF-8 el carácter de la secuencia en el índice dado. El
+     * resultado empaca en un <code>long</code> los bytes de la codificación
+     * (el primero en los 8 bits menos significativos), cuántos bytes son (bits
+     * 32 a 34) y cuántos caracteres de la secuencia se consumieron (bits 35 y
+     * 36), para no tener que crear ningún objeto. Un sustituto sin pareja se
+     * codifica como <code>'?'</code>, igual que hace {@link
+     * String#getBytes(java.nio.charset.Charset)}.
+     */
+    private static long codificaUTF8(CharSequence s, int i) {
+        char c = s.charAt(i);
+
+        if (c < 0x80)
+            return empaca(c, 1, 1);
+        if (c < 0x800)
+            return empaca((0xC0 | (c >>> 6)) |
+                          ((0x80 | (c & 0x3F)) << 8), 2, 1);
+        if (!Character.isSurrogate(c))
+            return empaca((0xE0 | (c >>> 12)) |
+                          ((0x80 | ((c >>> 6) & 0x3F)) << 8) |
+                          ((0x80 | (c & 0x3F)) << 16), 3, 1);
+        if (Character.isHighSurrogate(c) && i + 1 < s.length() &&
+            Character.isLowSurrogate(s.charAt(i + 1))) {
+            int p = Character.toCodePoint(c, s.charAt(i + 1));
+            return empaca((0xF0 | (p >>> 18)) |
+                          ((0x80 | ((p >>> 12) & 0x3F)) << 8) |
+                          ((0x80 | ((p >>> 6) & 0x3F)) << 16) |
+                          ((0x80 | (p & 0x3F)) << 24), 4, 2);
+        }
+        return empaca('?', 1, 1);
+    }
+
+    /* Empaca una codificación UTF-8. */
+    private static long empaca(int bytes, int longitud, int caracteres) {
+        return (bytes & 0xFFFFFFFFL) | ((long)longitud << 32) |
+            ((long)caracteres << 35);
+    }
+
+    /* Regresa el j-ésimo byte de una codificación empacada. */
+    private static int byteUTF8(long codigo, int j) {
+        return (int)(codigo >>> (8 * j)) & 0xFF;
+    }
+
+    /* Regresa el número de bytes de una codificación empacada. */
+    private static int longitud(long codigo) {
+        return (int)(codigo >>> 32) & 0x7;
+    }
+
+    /* Regresa el número de caracteres de una codificación empacada. */
+    private static int caracteres(long codigo) {
+        return (int)(codigo >>> 35) & 0x3;
+    }
+
+    /* Lee hasta cuatro bytes a partir del índice como entero big endian,
+       rellenando con ceros los que falten al final del arreglo. */
+    private static int colaBE(byte[] arreglo, int i) {
+        if (i + 4 <= arreglo.length)
+            return (int)ENTERO_BE.get(arreglo, i);
+        int palabra = 0;
+        for (int j = 0; j < 4; j++) {
+            palabra <<= 8;
+            if (i + j < arreglo.length)
+                palabra |= arreglo[i + j] & 0xFF;
+        }
+        return palabra;
+    }
+
+    /* Lee hasta cuatro bytes a partir del índice como entero little endian,
+       rellenando con ceros los que falten al final del arreglo. */
+    private static int colaLE(byte[] arreglo, int i) {
+        if (i + 4 <= arreglo.length)
+            return (int)ENTERO_LE.get(arreglo, i);
+        int palabra = 0;
+        for (int j = 0; j < 4 && i + j < arreglo.length; j++)
+            palabra |= (arreglo[i + j] & 0xFF) << (8 * j);
+        return palabra;
     }
 }
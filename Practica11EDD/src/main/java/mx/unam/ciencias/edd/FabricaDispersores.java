@@ -1,15 +1,24 @@
 package mx.unam.ciencias.edd;
 
+import java.security.SecureRandom;
+
 /**
- * Clase para fabricar dispersores.
+ * Clase para fabricar dispersores. Los dispersores de SipHash reciben una
+ * llave secreta aleatoria al fabricarse, así que dos dispersores del mismo
+ * algoritmo dispersan distinto.
  */
 public class FabricaDispersores {
 
+    /* Generador de las llaves secretas de SipHash. */
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+
     /* Constructor privado para evitar instanciación. */
     private FabricaDispersores() {}
 
     /**
-     * Regresa una instancia de {@link Dispersor} para cadenas.
+     * Regresa una instancia de {@link Dispersor} para cadenas. Las cadenas se
+     * dispersan sobre su codificación UTF-8, que se calcula al vuelo sin crear
+     * ningún arreglo.
      * @param algoritmo el algoritmo de dispersor que se desea.
      * @return una instancia de {@link Dispersor} para cadenas.
      * @throws IllegalArgumentException si recibe un identificador no
@@ -17,14 +26,232 @@ public class FabricaDispersores {
      */
     public static Dispersor<String>
     dispersorCadena(AlgoritmoDispersor algoritmo) {
+        return dispersorCaracteres(algoritmo);
+    }
+
+    /**
+     * Regresa una instancia de {@link Dispersor} para secuencias de
+     * caracteres. Una secuencia se dispersa igual que la cadena con los mismos
+     * caracteres.
+     * @param algoritmo el algoritmo de dispersor que se desea.
+     * @return una instancia de {@link Dispersor} para secuencias de
+     *         caracteres.
+     * @throws IllegalArgumentException si recibe un identificador no
+     *         reconocido.
+     */
+    public static Dispersor<CharSequence>
+    dispersorSecuencia(AlgoritmoDispersor algoritmo) {
+        return dispersorCaracteres(algoritmo);
+    }
+
+    /* Regresa el dispersor del algoritmo para cualquier tipo de secuencia de
+     * caracteres; las cadenas y las demás secuencias comparten los mismos
+     * dispersores. */
+    private static <T extends CharSequence> Dispersor<T>
+    dispersorCaracteres(AlgoritmoDispersor algoritmo) {
+        switch (algoritmo) {
+        case XOR_STRING:
+            return c -> Dispersores.dispersaXOR(c);
+        case BJ_STRING:
+            return c -> Dispersores.dispersaBJ(c);
+        case DJB_STRING:
+            return c -> Dispersores.dispersaDJB(c);
+        case MURMUR3_STRING:
+            return c -> Dispersores.dispersaMurmur3(c);
+        case XXHASH32_STRING:
+            return c -> Dispersores.dispersaXXH32(c);
+        case XXHASH64_STRING:
+            return c -> pliega(Dispersores.dispersaXXH64(c));
+        case WYHASH_STRING:
+            return c -> pliega(Dispersores.dispersaWY(c));
+        case SIPHASH24_STRING: {
+            long k0 = ALEATORIO.nextLong(), k1 = ALEATORIO.nextLong();
+            return c -> pliega(Dispersores.dispersaSip24(c, k0, k1));
+        }
+        case SIPHASH13_STRING: {
+            long k0 = ALEATORIO.nextLong(), k1 = ALEATORIO.nextLong();
+            return c -> pliega(Dispersores.dispersaSip13(c, k0, k1));
+        }
+        default: throw new IllegalArgumentException("Algoritmo inválido");
+        }
+    }
+
+    /**
+     * Regresa una instancia de {@link Dispersor} para arreglos de bytes.
+     * @param algoritmo el algoritmo de dispersor que se desea.
+     * @return una instancia de {@link Dispersor} para arreglos de bytes.
+     * @throws IllegalArgumentException si recibe un identificador no
+     *         reconocido.
+     */
+    public static Dispersor<byte[]>
+    dispersorArreglo(AlgoritmoDispersor algoritmo) {
         switch (algoritmo) {
         case XOR_STRING:
-            return c -> Dispersores.dispersaXOR(c.getBytes());
+            return b -> Dispersores.dispersaXOR(b);
         case BJ_STRING:
-            return c -> Dispersores.dispersaBJ(c.getBytes());
+            return b -> Dispersores.dispersaBJ(b);
         case DJB_STRING:
-            return c -> Dispersores.dispersaDJB(c.getBytes());
+            return b -> Dispersores.dispersaDJB(b);
+        case MURMUR3_STRING:
+            return b -> Dispersores.dispersaMurmur3(b);
+        case XXHASH32_STRING:
+            return b -> Dispersores.dispersaXXH32(b);
+        case XXHASH64_STRING:
+            return b -> pliega(Dispersores.dispersaXXH64(b));
+        case WYHASH_STRING:
+            return b -> pliega(Dispersores.dispersaWY(b));
+        case SIPHASH24_STRING: {
+            long k0 = ALEATORIO.nextLong(), k1 = ALEATORIO.nextLong();
+            return b -> pliega(Dispersores.dispersaSip24(b, k0, k1));
+        }
+        case SIPHASH13_STRING: {
+            long k0 = ALEATORIO.nextLong(), k1 = ALEATORIO.nextLong();
+            return b -> pliega(Dispersores.dispersaSip13(b, k0, k1));
+        }
+        default: throw new IllegalArgumentException("Algoritmo inválido");
+        }
+    }
+
+    /**
+     * Regresa una instancia de {@link Dispersor64} para cadenas. MurmurHash3
+     * y xxHash32 sólo tienen versión de 32 bits.
+     * @param algoritmo el algoritmo de dispersor que se desea.
+     * @return una instancia de {@link Dispersor64} para cadenas.
+     * @throws IllegalArgumentException si recibe un identificador no
+     *         reconocido, o de un algoritmo sin versión de 64 bits.
+     */
+    public static Dispersor64<String>
+    dispersor64Cadena(AlgoritmoDispersor algoritmo) {
+        switch (algoritmo) {
+        case XOR_STRING:
+            return c -> Dispersores.dispersaXOR64(c);
+        case BJ_STRING:
+            return c -> Dispersores.dispersaBJ64(c);
+        case DJB_STRING:
+            return c -> Dispersores.dispersaDJB64(c);
+        case XXHASH64_STRING:
+            return c -> Dispersores.dispersaXXH64(c);
+        case WYHASH_STRING:
+            return c -> Dispersores.dispersaWY(c);
+        case SIPHASH24_STRING: {
+            long k0 = ALEATORIO.nextLong(), k1 = ALEATORIO.nextLong();
+            return c -> Dispersores.dispersaSip24(c, k0, k1);
+        }
+        case SIPHASH13_STRING: {
+            long k0 = ALEATORIO.nextLong(), k1 = ALEATORIO.nextLong();
+            return c -> Dispersores.dispersaSip13(c, k0, k1);
+        }
         default: throw new IllegalArgumentException("Algoritmo inválido");
         }
     }
+
+    /**
+     * Regresa una instancia de {@link Dispersor64} para arreglos de bytes.
+     * MurmurHash3 y xxHash32 sólo tienen versión de 32 bits.
+     * @param algoritmo el algoritmo de dispersor que se desea.
+     * @return una instancia de {@link Dispersor64} para arreglos de bytes.
+     * @throws IllegalArgumentException si recibe un identificador no
+     *         reconocido, o de un algoritmo sin versión de 64 bits.
+     */
+    public static Dispersor64<byte[]>
+    dispersor64Arreglo(AlgoritmoDispersor algoritmo) {
+        switch (algoritmo) {
+        case XOR_STRING:
+            return b -> Dispersores.dispersaXOR64(b);
+        case BJ_STRING:
+            return b -> Dispersores.dispersaBJ64(b);
+        case DJB_STRING:
+            return b -> Dispersores.dispersaDJB64(b);
+        case XXHASH64_STRING:
+            return b -> Dispersores.dispersaXXH64(b);
+        case WYHASH_STRING:
+            return b -> Dispersores.dispersaWY(b);
+        case SIPHASH24_STRING: {
+            long k0 = ALEATORIO.nextLong(), k1 = ALEATORIO.nextLong();
+            return b -> Dispersores.dispersaSip24(b, k0, k1);
+        }
+        case SIPHASH13_STRING: {
+            long k0 = ALEATORIO.nextLong(), k1 = ALEATORIO.nextLong();
+            return b -> Dispersores.dispersaSip13(b, k0, k1);
+        }
+        default: throw new IllegalArgumentException("Algoritmo inválido");
+        }
+    }
+
+    /**
+     * Regresa un {@link DispersorIncremental} nuevo, que da las mismas
+     * dispersiones que los dispersores de arreglos de bytes del mismo
+     * algoritmo. Sólo XOR, Bob Jenkins y Daniel J. Bernstein tienen versión
+     * incremental.
+     * @param algoritmo el algoritmo de dispersor que se desea.
+     * @return un {@link DispersorIncremental} nuevo.
+     * @throws IllegalArgumentException si recibe un identificador no
+     *         reconocido, o de un algoritmo sin versión incremental.
+     */
+    public static DispersorIncremental
+    dispersorIncremental(AlgoritmoDispersor algoritmo) {
+        switch (algoritmo) {
+        case XOR_STRING:
+            return new Dispersores.IncrementalXOR();
+        case BJ_STRING:
+            return new Dispersores.IncrementalBJ();
+        case DJB_STRING:
+            return new Dispersores.IncrementalDJB();
+        default: throw new IllegalArgumentException("Algoritmo inválido");
+        }
+    }
+
+    /**
+     * Regresa un {@link Dispersor} para enteros que mezcla sus bits con
+     * {@link Dispersores#mezcla32}. El dispersor predeterminado de {@link
+     * Diccionario} usa <code>hashCode()</code>, que para enteros es la
+     * identidad: llaves consecutivas caen en listas consecutivas y las que
+     * sólo difieren en sus bits altos caen en la misma lista.
+     * @return un {@link Dispersor} para enteros.
+     */
+    public static Dispersor<Integer> dispersorEntero() {
+        return i -> Dispersores.mezcla32(i);
+    }
+
+    /**
+     * Regresa un {@link Dispersor64} para enteros largos que mezcla sus bits
+     * con {@link Dispersores#mezcla64}.
+     * @return un {@link Dispersor64} para enteros largos.
+     */
+    public static Dispersor64<Long> dispersorLargo() {
+        return l -> Dispersores.mezcla64(l);
+    }
+
+    /**
+     * Regresa un {@link Dispersor} para llaves compuestas de varios campos.
+     * Cada componente dispersa un campo de la llave (por ejemplo,
+     * <code>p -&gt; p.getX()</code>), y las dispersiones de los componentes se
+     * combinan en orden y se mezclan con {@link Dispersores#mezcla64}, así
+     * que intercambiar los valores de dos campos cambia la dispersión.
+     * @param <K> el tipo de las llaves.
+     * @param componentes los dispersores de cada campo.
+     * @return un {@link Dispersor} para las llaves compuestas.
+     */
+    @SafeVarargs
+    public static <K> Dispersor<K> dispersorCompuesto(Dispersor<K>...
+                                                      componentes) {
+        /* Los componentes se encadenan en lugar de copiarse a un arreglo
+         * genérico; así el arreglo de argumentos sólo se lee. */
+        long n = componentes.length;
+        Dispersor64<K> acumulado = llave -> n;
+        for (Dispersor<K> componente : componentes) {
+            Dispersor64<K> anterior = acumulado;
+            acumulado = llave -> (anterior.dispersa64(llave) +
+                                  componente.dispersa(llave)) *
+                0x9E3779B97F4A7C15L;
+        }
+        Dispersor64<K> combinado = acumulado;
+        return llave -> pliega(Dispersores.mezcla64(
+                                   combinado.dispersa64(llave)));
+    }
+
+    /* Pliega una dispersión de 64 bits a 32 bits. */
+    private static int pliega(long h) {
+        return (int)(h ^ (h >>> 32));
+    }
 }
@@ -0,0 +1,40 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * <p>Interfaz genérica para filtros probabilísticos de pertenencia. Un filtro
+ * recuerda qué elementos se le agregaron sin guardarlos: si dice que un
+ * elemento no está, seguro no está, pero si dice que está, puede ser un
+ * <em>falso positivo</em>, con una probabilidad que se elige al construir el
+ * filtro.</p>
+ *
+ * <p>Sirven para evitar búsquedas caras de elementos que no están, por
+ * ejemplo en un diccionario grande o en disco.</p>
+ */
+public interface Filtro<T> {
+
+    /**
+     * Agrega un elemento al filtro.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si el elemento es nulo.
+     */
+    public void agrega(T elemento);
+
+    /**
+     * Nos dice si un elemento pudo haberse agregado al filtro.
+     * @param elemento el elemento a buscar.
+     * @return <code>false</code> si el elemento seguro no se agregó,
+     *         <code>true</code> si probablemente se agregó.
+     */
+    public boolean contiene(T elemento);
+
+    /**
+     * Limpia el filtro, dejándolo como recién construido.
+     */
+    public void limpia();
+
+    /**
+     * Regresa el número de bits que ocupa el filtro.
+     * @return el número de bits que ocupa el filtro.
+     */
+    public long getBits();
+}
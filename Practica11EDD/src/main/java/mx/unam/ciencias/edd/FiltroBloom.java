@@ -0,0 +1,144 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * <p>Clase para filtros de Bloom. El filtro es un arreglo de bits
+ * empaquetado en <code>long</code>; agregar un elemento prende
+ * <em>k</em> bits, y un elemento puede estar si sus <em>k</em> bits están
+ * prendidos.</p>
+ *
+ * <p>Los <em>k</em> bits salen de sólo dos dispersiones, con la técnica de
+ * Kirsch y Mitzenmacher: el i-ésimo bit es <em>h1 + i·h2</em> módulo el
+ * número de bits, donde <em>h1</em> y <em>h2</em> salen de las dispersiones
+ * de dos dispersores distintos; <em>h2</em> nunca es cero, para que los
+ * <em>k</em> bits no sean todos el mismo. El número de bits y de funciones
+ * se calculan con las fórmulas usuales a partir del número de elementos
+ * esperado y la probabilidad de falso positivo deseada. Un filtro de Bloom no
+ * permite eliminar elementos.</p>
+ */
+public class FiltroBloom<T> implements Filtro<T> {
+
+    /* El primer dispersor. */
+    private Dispersor<T> primero;
+    /* El segundo dispersor. */
+    private Dispersor<T> segundo;
+    /* Los bits. */
+    private long[] bits;
+    /* El número de bits usados. */
+    private long m;
+    /* El número de funciones. */
+    private int k;
+    /* El número de elementos agregados. */
+    private int elementos;
+
+    /**
+     * Construye un filtro para el número de elementos y la probabilidad de
+     * falso positivo recibidos, con dos dispersores definidos por el
+     * usuario, que deberían ser de algoritmos distintos.
+     * @param elementos el número de elementos esperado.
+     * @param probabilidad la probabilidad de falso positivo deseada con ese
+     *        número de elementos.
+     * @param primero el primer dispersor.
+     * @param segundo el segundo dispersor.
+     * @throws IllegalArgumentException si el número de elementos no es
+     *         positivo, o si la probabilidad no está entre 0 y 1.
+     */
+    public FiltroBloom(int elementos, double probabilidad,
+                       Dispersor<T> primero, Dispersor<T> segundo) {
+        if (elementos < 1 || !(probabilidad > 0.0 && probabilidad < 1.0))
+            throw new IllegalArgumentException();
+        double ln2 = Math.log(2);
+        m = Math.max(64, (long)Math.ceil(-elementos * Math.log(probabilidad) /
+                                         (ln2 * ln2)));
+        k = Math.max(1, (int)Math.round((double)m / elementos * ln2));
+        bits = new long[(int)((m + 63) >>> 6)];
+        this.primero = primero;
+        this.segundo = segundo;
+    }
+
+    /* Regresa el paso entre los bits de un elemento, entre 1 y m - 1. */
+    private long paso(T elemento) {
+        return Integer.toUnsignedLong(segundo.dispersa(elemento)) % (m - 1) + 1;
+    }
+
+    /**
+     * Agrega un elemento al filtro.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si el elemento es nulo.
+     */
+    @Override public void agrega(T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        long posicion = Integer.toUnsignedLong(primero.dispersa(elemento)) % m;
+        long paso = paso(elemento);
+        for (int i = 0; i < k; i++) {
+            bits[(int)(posicion >>> 6)] |= 1L << posicion;
+            posicion += paso;
+            if (posicion >= m)
+                posicion -= m;
+        }
+        elementos++;
+    }
+
+    /**
+     * Nos dice si un elemento pudo haberse agregado al filtro.
+     * @param elemento el elemento a buscar.
+     * @return <code>false</code> si el elemento seguro no se agregó,
+     *         <code>true</code> si probablemente se agregó.
+     */
+    @Override public boolean contiene(T elemento) {
+        if (elemento == null)
+            return false;
+        long posicion = Integer.toUnsignedLong(primero.dispersa(elemento)) % m;
+        long paso = paso(elemento);
+        for (int i = 0; i < k; i++) {
+            if ((bits[(int)(posicion >>> 6)] & (1L << posicion)) == 0)
+                return false;
+            posicion += paso;
+            if (posicion >= m)
+                posicion -= m;
+        }
+        return true;
+    }
+
+    /**
+     * Limpia el filtro, dejándolo como recién construido.
+     */
+    @Override public void limpia() {
+        bits = new long[bits.length];
+        elementos = 0;
+    }
+
+    /**
+     * Regresa el número de bits que ocupa el filtro.
+     * @return el número de bits que ocupa el filtro.
+     */
+    @Override public long getBits() {
+        return m;
+    }
+
+    /**
+     * Regresa el número de funciones; es decir, cuántos bits prende cada
+     * elemento.
+     * @return el número de funciones.
+     */
+    public int getFunciones() {
+        return k;
+    }
+
+    /**
+     * Regresa el número de veces que se ha agregado un elemento.
+     * @return el número de veces que se ha agregado un elemento.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Regresa la probabilidad de falso positivo esperada con los elementos
+     * agregados hasta ahora, suponiendo que son distintos.
+     * @return la probabilidad de falso positivo esperada.
+     */
+    public double probabilidad() {
+        return Math.pow(1.0 - Math.exp(-(double)k * elementos / m), k);
+    }
+}
@@ -0,0 +1,192 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * <p>Clase para filtros de Bloom por bloques. Los bits se dividen en bloques
+ * de {@link #BLOQUE} bits, del tamaño de una línea de caché; la dispersión
+ * del primer dispersor elige el bloque, y los <em>k</em> bits del elemento
+ * quedan todos dentro de él. Así, agregar o buscar un elemento toca una sola
+ * línea de caché, en lugar de <em>k</em> líneas al azar como en un {@link
+ * FiltroBloom}.</p>
+ *
+ * <p>Los bits dentro del bloque salen de mezclar las dos dispersiones con
+ * {@link Dispersores#mezcla64}: cada bit usa sus propios nueve bits de la
+ * mezcla, y cuando se acaban se vuelve a mezclar. No se usa doble
+ * dispersión porque dentro de un bloque sólo da 2<sup>17</sup> patrones
+ * distintos, y con probabilidades pequeñas los choques entre patrones
+ * dominarían los falsos positivos. Como los bloques no se
+ * llenan parejo, con el mismo número de bits la probabilidad de falso
+ * positivo es mayor que la de un filtro de Bloom normal, y la diferencia
+ * crece mientras menor es la probabilidad pedida. Por eso el filtro se
+ * dimensiona con el modelo de un filtro por bloques: el número de elementos
+ * de cada bloque sigue una distribución de Poisson, y la probabilidad de
+ * falso positivo es el promedio, pesado por esa distribución, de la de un
+ * bloque con cada número de elementos. Se agregan bloques, escogiendo cada
+ * vez el mejor número de funciones, hasta que esa probabilidad no pasa de la
+ * pedida.</p>
+ */
+public class FiltroBloomBloques<T> implements Filtro<T> {
+
+    /** Bits por bloque: 64 bytes. */
+    public static final int BLOQUE = 512;
+
+    /* Palabras de 64 bits por bloque. */
+    private static final int PALABRAS = BLOQUE / 64;
+    /* Bits de dispersión que se usan para escoger un bit del bloque. */
+    private static final int BITS_BLOQUE = Integer.numberOfTrailingZeros(BLOQUE);
+    /* Bits del bloque que se escogen con cada mezcla de 64 bits. */
+    private static final int BITS_POR_MEZCLA = 64 / BITS_BLOQUE;
+    /* Constante que se suma a la semilla antes de volver a mezclarla. */
+    private static final long DORADO = 0x9e3779b97f4a7c15L;
+
+    /* El primer dispersor. */
+    private Dispersor<T> primero;
+    /* El segundo dispersor. */
+    private Dispersor<T> segundo;
+    /* Los bits. */
+    private long[] bits;
+    /* El número de bloques. */
+    private int bloques;
+    /* El número de funciones. */
+    private int k;
+
+    /**
+     * Construye un filtro para el número de elementos y la probabilidad de
+     * falso positivo recibidos, con dos dispersores definidos por el
+     * usuario, que deberían ser de algoritmos distintos.
+     * @param elementos el número de elementos esperado.
+     * @param probabilidad la probabilidad de falso positivo deseada con ese
+     *        número de elementos.
+     * @param primero el primer dispersor.
+     * @param segundo el segundo dispersor.
+     * @throws IllegalArgumentException si el número de elementos no es
+     *         positivo, o si la probabilidad no está entre 0 y 1.
+     */
+    public FiltroBloomBloques(int elementos, double probabilidad,
+                              Dispersor<T> primero, Dispersor<T> segundo) {
+        if (elementos < 1 || !(probabilidad > 0.0 && probabilidad < 1.0))
+            throw new IllegalArgumentException();
+        double ln2 = Math.log(2);
+        double m = -elementos * Math.log(probabilidad) / (ln2 * ln2);
+        bloques = Math.max(1, (int)Math.ceil(m / BLOQUE));
+        while (!dimensiona(elementos, probabilidad))
+            bloques = Math.max(bloques + 1, (int)Math.ceil(bloques * 1.02));
+        bits = new long[bloques * PALABRAS];
+        this.primero = primero;
+        this.segundo = segundo;
+    }
+
+    /**
+     * Agrega un elemento al filtro.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si el elemento es nulo.
+     */
+    @Override public void agrega(T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        int primera = primero.dispersa(elemento);
+        int inicio = bloque(primera);
+        long semilla = mezcla(primera, segundo.dispersa(elemento));
+        long h = semilla;
+        for (int i = 0; i < k; i++) {
+            if (i > 0 && i % BITS_POR_MEZCLA == 0)
+                h = semilla = Dispersores.mezcla64(semilla + DORADO);
+            int bit = (int)h & (BLOQUE - 1);
+            bits[inicio + (bit >>> 6)] |= 1L << bit;
+            h >>>= BITS_BLOQUE;
+        }
+    }
+
+    /**
+     * Nos dice si un elemento pudo haberse agregado al filtro.
+     * @param elemento el elemento a buscar.
+     * @return <code>false</code> si el elemento seguro no se agregó,
+     *         <code>true</code> si probablemente se agregó.
+     */
+    @Override public boolean contiene(T elemento) {
+        if (elemento == null)
+            return false;
+        int primera = primero.dispersa(elemento);
+        int inicio = bloque(primera);
+        long semilla = mezcla(primera, segundo.dispersa(elemento));
+        long h = semilla;
+        for (int i = 0; i < k; i++) {
+            if (i > 0 && i % BITS_POR_MEZCLA == 0)
+                h = semilla = Dispersores.mezcla64(semilla + DORADO);
+            int bit = (int)h & (BLOQUE - 1);
+            if ((bits[inicio + (bit >>> 6)] & (1L << bit)) == 0)
+                return false;
+            h >>>= BITS_BLOQUE;
+        }
+        return true;
+    }
+
+    /**
+     * Limpia el filtro, dejándolo como recién construido.
+     */
+    @Override public void limpia() {
+        bits = new long[bits.length];
+    }
+
+    /**
+     * Regresa el número de bits que ocupa el filtro.
+     * @return el número de bits que ocupa el filtro.
+     */
+    @Override public long getBits() {
+        return 64L * bits.length;
+    }
+
+    /**
+     * Regresa el número de funciones; es decir, cuántos bits prende cada
+     * elemento dentro de su bloque.
+     * @return el número de funciones.
+     */
+    public int getFunciones() {
+        return k;
+    }
+
+    /* Escoge el número de funciones con la menor probabilidad de falso
+       positivo para el número de bloques actual, y nos dice si esa
+       probabilidad no pasa de la pedida. */
+    private boolean dimensiona(int elementos, double probabilidad) {
+        double lambda = (double)elementos / bloques;
+        double minima = 2.0;
+        for (int f = 1; f <= BLOQUE / 2; f++) {
+            double p = falsoPositivo(lambda, f);
+            if (p >= minima)
+                break;
+            minima = p;
+            k = f;
+        }
+        return minima <= probabilidad;
+    }
+
+    /* Regresa la probabilidad de falso positivo con f funciones, si los
+       bloques tienen en promedio lambda elementos. Con j elementos, cada
+       uno prende f bits al azar del bloque, así que un bit dado sigue
+       apagado con probabilidad (1 - 1/BLOQUE)^(f·j), y hay falso positivo
+       si los f bits de la búsqueda están prendidos. */
+    private static double falsoPositivo(double lambda, int f) {
+        double apagado = f * Math.log1p(-1.0 / BLOQUE);
+        int fin = (int)Math.ceil(lambda + 12.0 * Math.sqrt(lambda) + 20.0);
+        double logPoisson = -lambda, suma = 0.0;
+        for (int j = 0; j <= fin; j++) {
+            if (j > 0)
+                logPoisson += Math.log(lambda) - Math.log(j);
+            double bloque = Math.pow(-Math.expm1(j * apagado), f);
+            suma += Math.exp(logPoisson) * bloque;
+        }
+        return suma;
+    }
+
+    /* Regresa la primera palabra del bloque de la dispersión. */
+    private int bloque(int dispersion) {
+        long indice = (Integer.toUnsignedLong(dispersion) * bloques) >>> 32;
+        return (int)indice * PALABRAS;
+    }
+
+    /* Mezcla las dos dispersiones en una de 64 bits. */
+    private static long mezcla(int primera, int segunda) {
+        return Dispersores.mezcla64(((long)primera << 32) |
+                                    Integer.toUnsignedLong(segunda));
+    }
+}
@@ -0,0 +1,301 @@
+package mx.unam.ciencias.edd;
+
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para filtros de cuco (<em>cuckoo filters</em>). En lugar de
+ * prender bits, el filtro guarda una <em>huella</em> de pocos bits de cada
+ * elemento en una de dos cubetas de {@link #CUBETA} casillas, como un {@link
+ * DiccionarioCuco} que sólo guardara huellas. Un elemento puede estar si su
+ * huella está en alguna de sus dos cubetas; a diferencia de un {@link
+ * FiltroBloom}, esto permite eliminar elementos quitando su huella.</p>
+ *
+ * <p>La primera cubeta sale del primer dispersor y la huella del segundo;
+ * la otra cubeta se calcula sólo a partir de la primera y de la huella, así
+ * que al desalojar una huella se puede mover a su otra cubeta sin conocer el
+ * elemento. Las huellas se guardan empaquetadas en un arreglo de
+ * <code>long</code>, y su tamaño se elige para la probabilidad de falso
+ * positivo deseada.</p>
+ *
+ * <p>Si después de {@link #MAXIMOS_DESALOJOS} desalojos una huella no
+ * encuentra lugar, se guarda en una única casilla de <em>víctima</em>; con la
+ * víctima ocupada el filtro está lleno y no admite más elementos. Como en
+ * cualquier filtro de cuco, sólo deben eliminarse elementos que se hayan
+ * agregado, y un mismo elemento no puede agregarse más de 2·{@link #CUBETA}
+ * veces.</p>
+ */
+public class FiltroCuco<T> implements Filtro<T> {
+
+    /** Casillas por cubeta. */
+    public static final int CUBETA = 4;
+
+    /** Máximo número de desalojos antes de usar la víctima. */
+    public static final int MAXIMOS_DESALOJOS = 500;
+
+    /** Carga máxima con la que se dimensiona el filtro. */
+    public static final double MAXIMA_CARGA = 0.95;
+
+    /* El primer dispersor. */
+    private Dispersor<T> primero;
+    /* El segundo dispersor. */
+    private Dispersor<T> segundo;
+    /* Las huellas empaquetadas; una huella 0 es una casilla vacía. */
+    private long[] huellas;
+    /* Los bits por huella. */
+    private int f;
+    /* La máscara de las huellas. */
+    private long mascara;
+    /* El número de cubetas. */
+    private int cubetas;
+    /* El número de huellas guardadas, sin contar la víctima. */
+    private int elementos;
+    /* Si la víctima está ocupada. */
+    private boolean hayVictima;
+    /* La huella de la víctima. */
+    private int victima;
+    /* Una de las dos cubetas de la víctima. */
+    private int cubetaVictima;
+    /* El estado del generador pseudoaleatorio. */
+    private int estado;
+
+    /**
+     * Construye un filtro para el número de elementos y la probabilidad de
+     * falso positivo recibidos, con dos dispersores definidos por el
+     * usuario, que deberían ser de algoritmos distintos.
+     * @param elementos el número de elementos esperado.
+     * @param probabilidad la probabilidad de falso positivo deseada con ese
+     *        número de elementos.
+     * @param primero el primer dispersor.
+     * @param segundo el segundo dispersor.
+     * @throws IllegalArgumentException si el número de elementos no es
+     *         positivo, o si la probabilidad no está entre 0 y 1.
+     */
+    public FiltroCuco(int elementos, double probabilidad,
+                      Dispersor<T> primero, Dispersor<T> segundo) {
+        if (elementos < 1 || !(probabilidad > 0.0 && probabilidad < 1.0))
+            throw new IllegalArgumentException();
+        /* Una búsqueda compara 2·CUBETA huellas, y cada una coincide con
+           probabilidad 1/2^f. */
+        double bits = Math.log(2.0 * CUBETA / probabilidad) / Math.log(2);
+        f = Math.min(32, Math.max(4, (int)Math.ceil(bits)));
+        mascara = (1L << f) - 1;
+        cubetas = (int)Math.ceil(elementos / (CUBETA * MAXIMA_CARGA));
+        huellas = new long[(int)(((long)cubetas * CUBETA * f + 63) >>> 6) + 1];
+        this.primero = primero;
+        this.segundo = segundo;
+        estado = 0x9e3779b9;
+    }
+
+    /**
+     * Agrega un elemento al filtro.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si el elemento es nulo.
+     * @throws IllegalStateException si el filtro está lleno.
+     */
+    @Override public void agrega(T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        if (hayVictima)
+            throw new IllegalStateException("El filtro está lleno.");
+        int huella = huella(elemento);
+        int cubeta = cubeta(elemento);
+        if (pon(cubeta, huella) || pon(otra(cubeta, huella), huella)) {
+            elementos++;
+            return;
+        }
+
+        for (int d = 0; d < MAXIMOS_DESALOJOS; d++) {
+            int i = cubeta * CUBETA + aleatorio(CUBETA);
+            int desalojada = casilla(i);
+            asigna(i, huella);
+            huella = desalojada;
+            cubeta = otra(cubeta, huella);
+            if (pon(cubeta, huella)) {
+                elementos++;
+                return;
+            }
+        }
+
+        hayVictima = true;
+        victima = huella;
+        cubetaVictima = cubeta;
+    }
+
+    /**
+     * Nos dice si un elemento pudo haberse agregado al filtro.
+     * @param elemento el elemento a buscar.
+     * @return <code>false</code> si el elemento seguro no se agregó,
+     *         <code>true</code> si probablemente se agregó.
+     */
+    @Override public boolean contiene(T elemento) {
+        if (elemento == null)
+            return false;
+        int huella = huella(elemento);
+        int cubeta = cubeta(elemento);
+        int otra = otra(cubeta, huella);
+        if (hayVictima && huella == victima &&
+            (cubetaVictima == cubeta || cubetaVictima == otra))
+            return true;
+        return busca(cubeta, huella) != -1 || busca(otra, huella) != -1;
+    }
+
+    /**
+     * Elimina un elemento del filtro, quitando una de sus huellas. El
+     * elemento debe haberse agregado antes; si no, puede quitarse la huella
+     * de otro elemento que coincida con la suya.
+     * @param elemento el elemento a eliminar.
+     * @throws IllegalArgumentException si el elemento es nulo.
+     * @throws NoSuchElementException si la huella del elemento no está en el
+     *         filtro.
+     */
+    public void elimina(T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        int huella = huella(elemento);
+        int cubeta = cubeta(elemento);
+        int otra = otra(cubeta, huella);
+        if (hayVictima && huella == victima &&
+            (cubetaVictima == cubeta || cubetaVictima == otra)) {
+            hayVictima = false;
+            return;
+        }
+        int i = busca(cubeta, huella);
+        if (i == -1)
+            i = busca(otra, huella);
+        if (i == -1)
+            throw new NoSuchElementException("El elemento no está en el filtro.");
+        asigna(i, 0);
+        elementos--;
+        if (hayVictima) {
+            /* La casilla liberada puede recibir a la víctima. */
+            hayVictima = false;
+            int c = cubetaVictima;
+            if (pon(c, victima) || pon(otra(c, victima), victima))
+                elementos++;
+            else
+                hayVictima = true;
+        }
+    }
+
+    /**
+     * Limpia el filtro, dejándolo como recién construido.
+     */
+    @Override public void limpia() {
+        huellas = new long[huellas.length];
+        elementos = 0;
+        hayVictima = false;
+    }
+
+    /**
+     * Regresa el número de bits que ocupa el filtro.
+     * @return el número de bits que ocupa el filtro.
+     */
+    @Override public long getBits() {
+        return (long)cubetas * CUBETA * f;
+    }
+
+    /**
+     * Regresa el número de bits por huella.
+     * @return el número de bits por huella.
+     */
+    public int getBitsHuella() {
+        return f;
+    }
+
+    /**
+     * Regresa el número de huellas en el filtro.
+     * @return el número de huellas en el filtro.
+     */
+    public int getElementos() {
+        return elementos + (hayVictima ? 1 : 0);
+    }
+
+    /**
+     * Nos dice si el filtro está lleno; es decir, si la víctima está
+     * ocupada.
+     * @return <code>true</code> si el filtro está lleno, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean estaLleno() {
+        return hayVictima;
+    }
+
+    /**
+     * Regresa la carga del filtro: huellas entre casillas.
+     * @return la carga del filtro.
+     */
+    public double carga() {
+        return (double)elementos / ((long)cubetas * CUBETA);
+    }
+
+    /* Regresa la huella de un elemento, que nunca es 0. */
+    private int huella(T elemento) {
+        int huella = (int)(Dispersores.mezcla32(segundo.dispersa(elemento))
+                           & mascara);
+        return huella == 0 ? 1 : huella;
+    }
+
+    /* Regresa la primera cubeta de un elemento. */
+    private int cubeta(T elemento) {
+        long dispersion = Integer.toUnsignedLong(primero.dispersa(elemento));
+        return (int)((dispersion * cubetas) >>> 32);
+    }
+
+    /* Regresa la otra cubeta de una huella, a partir de una de ellas. La
+       función es su propia inversa para cualquier número de cubetas: si c'
+       es h - c módulo el número de cubetas, entonces c es h - c'. */
+    private int otra(int cubeta, int huella) {
+        int h = Integer.remainderUnsigned(Dispersores.mezcla32(huella), cubetas);
+        int otra = h - cubeta;
+        return otra < 0 ? otra + cubetas : otra;
+    }
+
+    /* Regresa la huella en la casilla i. */
+    private int casilla(int i) {
+        long bit = (long)i * f;
+        int palabra = (int)(bit >>> 6), desplazamiento = (int)(bit & 63);
+        long valor = huellas[palabra] >>> desplazamiento;
+        if (desplazamiento + f > 64)
+            valor |= huellas[palabra + 1] << (64 - desplazamiento);
+        return (int)(valor & mascara);
+    }
+
+    /* Asigna la huella a la casilla i. */
+    private void asigna(int i, int huella) {
+        long bit = (long)i * f;
+        int palabra = (int)(bit >>> 6), desplazamiento = (int)(bit & 63);
+        long valor = huella & mascara;
+        huellas[palabra] = (huellas[palabra] & ~(mascara << desplazamiento))
+                           | (valor << desplazamiento);
+        if (desplazamiento + f > 64) {
+            int resto = 64 - desplazamiento;
+            huellas[palabra + 1] = (huellas[palabra + 1] & ~(mascara >>> resto))
+                                   | (valor >>> resto);
+        }
+    }
+
+    /* Regresa la casilla de la huella en la cubeta, o -1 si no está. */
+    private int busca(int cubeta, int huella) {
+        for (int i = cubeta * CUBETA; i < (cubeta + 1) * CUBETA; i++)
+            if (casilla(i) == huella)
+                return i;
+        return -1;
+    }
+
+    /* Pone la huella en una casilla vacía de la cubeta, si la hay. */
+    private boolean pon(int cubeta, int huella) {
+        int i = busca(cubeta, 0);
+        if (i == -1)
+            return false;
+        asigna(i, huella);
+        return true;
+    }
+
+    /* Regresa un número pseudoaleatorio entre 0 y n - 1, con xorshift. */
+    private int aleatorio(int n) {
+        estado ^= estado << 13;
+        estado ^= estado >>> 17;
+        estado ^= estado << 5;
+        return (estado >>> 1) % n;
+    }
+}
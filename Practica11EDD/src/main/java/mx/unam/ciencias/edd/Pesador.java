@@ -0,0 +1,17 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Interfaz genérica para pesadores: funciones que dicen cuánto pesa una
+ * entrada de un {@link Cache}.
+ */
+@FunctionalInterface
+public interface Pesador<K, V> {
+
+    /**
+     * Calcula el peso de la entrada con la llave y el valor recibidos.
+     * @param llave la llave de la entrada.
+     * @param valor el valor de la entrada.
+     * @return el peso de la entrada; no debe ser negativo.
+     */
+    public int pesa(K llave, V valor);
+}
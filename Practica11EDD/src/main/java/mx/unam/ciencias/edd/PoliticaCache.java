@@ -0,0 +1,23 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Enumeración para las políticas con las que un {@link Cache} decide qué
+ * entradas desalojar.
+ */
+public enum PoliticaCache {
+    /** Se desaloja la entrada usada hace más tiempo. */
+    LRU,
+    /**
+     * Se desaloja la entrada usada menos veces; entre las que se han usado
+     * las mismas veces, la usada hace más tiempo.
+     */
+    LFU,
+    /**
+     * Las entradas nuevas entran a una ventana LRU pequeña, y al salir de ella
+     * sólo se admiten en la parte principal (una LRU segmentada en prueba y
+     * protegida) si se han pedido más veces que la entrada que desalojarían,
+     * según un bosquejo de frecuencias aproximadas que se reduce a la mitad
+     * cada cierto número de accesos.
+     */
+    W_TINY_LFU;
+}
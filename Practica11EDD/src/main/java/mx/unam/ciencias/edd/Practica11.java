@@ -1,7 +1,19 @@
 package mx.unam.ciencias.edd;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Práctica 11: Uso de diccionarios.
@@ -10,12 +22,1127 @@ public class Practica11 {
 
     private static String cadena;
 
+    /* Acumula resultados de las mediciones, para que no se optimicen. */
+    private static volatile int sumidero;
+
+    /* Bytes por referencia, con los apuntadores comprimidos que usa la JVM
+     * con montones de menos de 32 GB. */
+    private static final int BYTES_REFERENCIA = 4;
+
     /* Imprime el uso del programa y lo termina. */
     private static void uso() {
         System.err.println("Uso: java -jar practica11.jar N");
         System.exit(1);
     }
 
+    /* Regresa la memoria ocupada en el montón, después de recolectar basura. */
+    private static long memoriaUsada() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /* Compara un diccionario de enteros envueltos con uno de enteros
+     * primitivos, en tiempo y en memoria por entrada. */
+    private static void diccionariosEnteros(int N, Integer[] arreglo,
+                                            NumberFormat nf) {
+        long tiempoInicial, tiempoTotal, memoriaInicial;
+
+        memoriaInicial = memoriaUsada();
+        Diccionario<Integer, Integer> diccionario =
+            new Diccionario<Integer, Integer>(N);
+        tiempoInicial = System.nanoTime();
+        for (int i = 0; i < N; i++) {
+            int n = arreglo[i];
+            diccionario.agrega(n, n);
+        }
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        long memoria = memoriaUsada() - memoriaInicial;
+        System.out.printf("%2.9f segundos en llenar un diccionario " +
+                          "con %s elementos (%d bytes por entrada).\n",
+                          (tiempoTotal/1000000000.0), nf.format(N),
+                          memoria / Math.max(1, diccionario.getElementos()));
+
+        memoriaInicial = memoriaUsada();
+        DiccionarioEntero enteros = new DiccionarioEntero(N);
+        tiempoInicial = System.nanoTime();
+        for (int i = 0; i < N; i++) {
+            int n = arreglo[i];
+            enteros.agrega(n, n);
+        }
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        memoria = memoriaUsada() - memoriaInicial;
+        System.out.printf("%2.9f segundos en llenar un diccionario " +
+                          "de enteros con %s elementos (%d bytes por " +
+                          "entrada; %d en sus arreglos).\n",
+                          (tiempoTotal/1000000000.0), nf.format(N),
+                          memoria / Math.max(1, enteros.getElementos()),
+                          enteros.memoria() /
+                          Math.max(1, enteros.getElementos()));
+
+        tiempoInicial = System.nanoTime();
+        for (int i = 0; i < N; i++)
+            diccionario.contiene(arreglo[i]);
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en buscar %s veces en un " +
+                          "diccionario.\n",
+                          (tiempoTotal/1000000000.0), nf.format(N));
+
+        tiempoInicial = System.nanoTime();
+        for (int i = 0; i < N; i++)
+            enteros.contiene(arreglo[i]);
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en buscar %s veces en un " +
+                          "diccionario de enteros.\n",
+                          (tiempoTotal/1000000000.0), nf.format(N));
+    }
+
+    /* Mide la latencia de cada inserción en un diccionario que empieza con
+     * capacidad mínima, y reporta sus percentiles. */
+    private static void latenciasRedimensionamiento(int N,
+                                                    Redimensionamiento r) {
+        if (N == 0)
+            return;
+        Diccionario<Integer, Integer> diccionario =
+            new Diccionario<Integer, Integer>(0, n -> n, r);
+        long[] latencias = new long[N];
+        for (int i = 0; i < N; i++) {
+            long tiempoInicial = System.nanoTime();
+            diccionario.agrega(i, i);
+            latencias[i] = System.nanoTime() - tiempoInicial;
+        }
+        Arrays.sort(latencias);
+        System.out.printf("Redimensionamiento %s: p50 %d ns, p99 %d ns, " +
+                          "p99.9 %d ns, máximo %d ns por inserción.\n", r,
+                          latencias[N / 2], latencias[(int)(N * 0.99)],
+                          latencias[(int)(N * 0.999)], latencias[N - 1]);
+    }
+
+    /* Interfaz para las operaciones que hace cada hilo en concurrencia. */
+    @FunctionalInterface
+    private interface Operacion {
+        public void opera(Integer llave, boolean escritura);
+    }
+
+    /* Corre N operaciones (una de cada cuatro es una escritura) repartidas
+     * en varios hilos, y regresa cuántos nanosegundos tardaron. */
+    private static long corre(int hilos, Integer[] arreglo,
+                              Operacion operacion) {
+        int N = arreglo.length;
+        Thread[] corredores = new Thread[hilos];
+        for (int h = 0; h < hilos; h++) {
+            int inicio = h * N / hilos, fin = (h + 1) * N / hilos;
+            corredores[h] = new Thread(() -> {
+                    for (int i = inicio; i < fin; i++)
+                        operacion.opera(arreglo[i], i % 4 == 0);
+                });
+        }
+        long tiempoInicial = System.nanoTime();
+        for (Thread corredor : corredores)
+            corredor.start();
+        try {
+            for (Thread corredor : corredores)
+                corredor.join();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        return System.nanoTime() - tiempoInicial;
+    }
+
+    /* Compara el rendimiento de un diccionario sincronizado con un candado
+     * global contra un diccionario concurrente, con todos los núcleos. */
+    private static void concurrencia(int N, Integer[] arreglo,
+                                     NumberFormat nf) {
+        int hilos = Runtime.getRuntime().availableProcessors();
+
+        Diccionario<Integer, Integer> sincronizado =
+            new Diccionario<Integer, Integer>();
+        long tiempoTotal = corre(hilos, arreglo, (llave, escritura) -> {
+                synchronized (sincronizado) {
+                    if (escritura)
+                        sincronizado.agrega(llave, llave);
+                    else
+                        sincronizado.contiene(llave);
+                }
+            });
+        System.out.printf("%2.9f segundos (%s operaciones por segundo) en " +
+                          "%s operaciones con %d hilos en un diccionario " +
+                          "sincronizado.\n", (tiempoTotal/1000000000.0),
+                          nf.format(N * 1000000000L / Math.max(1, tiempoTotal)),
+                          nf.format(N), hilos);
+
+        DiccionarioConcurrente<Integer, Integer> concurrente =
+            new DiccionarioConcurrente<Integer, Integer>();
+        tiempoTotal = corre(hilos, arreglo, (llave, escritura) -> {
+                if (escritura)
+                    concurrente.agrega(llave, llave);
+                else
+                    concurrente.contiene(llave);
+            });
+        System.out.printf("%2.9f segundos (%s operaciones por segundo) en " +
+                          "%s operaciones con %d hilos en un diccionario " +
+                          "concurrente.\n", (tiempoTotal/1000000000.0),
+                          nf.format(N * 1000000000L / Math.max(1, tiempoTotal)),
+                          nf.format(N), hilos);
+    }
+
+    /* Mide lo que las entradas se ahorran al guardar su dispersión: el mismo
+     * redimensionamiento volviendo a dispersar cada llave y usando las
+     * dispersiones guardadas, y las mismas búsquedas de llaves ausentes
+     * llamando a equals en cada entrada de la lista y descartando antes las
+     * de dispersión distinta. */
+    private static void dispersionesGuardadas(int N, NumberFormat nf) {
+        Dispersor<String> dispersor =
+            FabricaDispersores.dispersorCadena(AlgoritmoDispersor.BJ_STRING);
+        String[] llaves = new String[N];
+        String[] ausentes = new String[N];
+        for (int i = 0; i < N; i++) {
+            llaves[i] = "llave-" + i;
+            ausentes[i] = "ausente-" + i;
+        }
+
+        int longitud = 64;
+        while (2 * longitud * Diccionario.MAXIMA_CARGA <= N)
+            longitud *= 2;
+        int umbral = 1;
+        while ((double)umbral / longitud < Diccionario.MAXIMA_CARGA)
+            umbral++;
+        long[] mejores = { Long.MAX_VALUE, Long.MAX_VALUE };
+        for (int r = 0; r < 6; r++) {
+            for (int modo = 0; modo < 2; modo++) {
+                Diccionario<String, String> diccionario =
+                    new Diccionario<String, String>(
+                        longitud / 2, dispersor, Redimensionamiento.COMPLETO);
+                diccionario.ignoraDispersiones = modo == 0;
+                for (int i = 0; i < umbral - 1; i++)
+                    diccionario.agrega(llaves[i], llaves[i]);
+                long tiempoInicial = System.nanoTime();
+                diccionario.agrega(llaves[umbral - 1], llaves[umbral - 1]);
+                long tiempoTotal = System.nanoTime() - tiempoInicial;
+                /* La primera vuelta sólo calienta. */
+                if (r > 0)
+                    mejores[modo] = Math.min(mejores[modo], tiempoTotal);
+                sumidero += diccionario.getReferencias();
+            }
+        }
+        System.out.printf("%2.9f segundos en redimensionar un diccionario " +
+                          "con %s cadenas volviendo a dispersarlas, y " +
+                          "%2.9f con sus dispersiones guardadas.\n",
+                          (mejores[0]/1000000000.0), nf.format(umbral),
+                          (mejores[1]/1000000000.0));
+
+        Diccionario<String, String> diccionario =
+            new Diccionario<String, String>(dispersor);
+        for (int i = 0; i < N; i++)
+            diccionario.agrega(llaves[i], llaves[i]);
+        mejores[0] = mejores[1] = Long.MAX_VALUE;
+        for (int r = 0; r < 6; r++) {
+            for (int modo = 0; modo < 2; modo++) {
+                diccionario.ignoraDispersiones = modo == 0;
+                long tiempoInicial = System.nanoTime();
+                for (int i = 0; i < N; i++)
+                    if (diccionario.contiene(ausentes[i]))
+                        sumidero++;
+                long tiempoTotal = System.nanoTime() - tiempoInicial;
+                if (r > 0)
+                    mejores[modo] = Math.min(mejores[modo], tiempoTotal);
+            }
+        }
+        diccionario.ignoraDispersiones = false;
+        System.out.printf("%2.9f segundos en buscar %s cadenas ausentes " +
+                          "llamando a equals en cada entrada de la lista, " +
+                          "y %2.9f descartando antes las de dispersión " +
+                          "distinta.\n",
+                          (mejores[0]/1000000000.0), nf.format(N),
+                          (mejores[1]/1000000000.0));
+    }
+
+    /* Regresa cuántos bytes ha reservado el hilo actual, o -1 si la máquina
+     * virtual no lo sabe. */
+    private static long bytesReservados() {
+        ThreadMXBean hilos = ManagementFactory.getThreadMXBean();
+        if (!(hilos instanceof com.sun.management.ThreadMXBean))
+            return -1;
+        return ((com.sun.management.ThreadMXBean)hilos)
+            .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /* Compara dispersar cadenas convirtiéndolas a bytes contra dispersarlas
+     * directamente, en tiempo y en basura generada por dispersión. */
+    private static void dispersionSinBasura(int N, NumberFormat nf) {
+        String[] cadenas = new String[N];
+        for (int i = 0; i < N; i++)
+            cadenas[i] = "cadena-número-" + i;
+
+        long bytesIniciales = bytesReservados();
+        long tiempoInicial = System.nanoTime();
+        for (int i = 0; i < N; i++)
+            sumidero += Dispersores.dispersaBJ(
+                cadenas[i].getBytes(StandardCharsets.UTF_8));
+        long tiempoTotal = System.nanoTime() - tiempoInicial;
+        long bytes = bytesReservados() - bytesIniciales;
+        System.out.printf("%2.9f segundos en dispersar %s cadenas con " +
+                          "getBytes() (%d bytes de basura por cadena).\n",
+                          (tiempoTotal/1000000000.0), nf.format(N),
+                          bytes / Math.max(1, N));
+
+        bytesIniciales = bytesReservados();
+        tiempoInicial = System.nanoTime();
+        for (int i = 0; i < N; i++)
+            sumidero += Dispersores.dispersaBJ(cadenas[i]);
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        bytes = bytesReservados() - bytesIniciales;
+        System.out.printf("%2.9f segundos en dispersar %s cadenas " +
+                          "directamente (%d bytes de basura por cadena).\n",
+                          (tiempoTotal/1000000000.0), nf.format(N),
+                          bytes / Math.max(1, N));
+    }
+
+    /* Mide en MB/s un dispersor sobre llaves de la longitud dada. */
+    private static void rendimiento(AlgoritmoDispersor algoritmo,
+                                    int longitud, int N) {
+        Dispersor<byte[]> dispersor =
+            FabricaDispersores.dispersorArreglo(algoritmo);
+        Random random = new Random(longitud);
+        byte[][] llaves = new byte[64][longitud];
+        for (byte[] llave : llaves)
+            random.nextBytes(llave);
+        long total = Math.max(N, 1L << 20) * 64L;
+        int veces = Math.max(1, (int)(total / longitud));
+
+        long tiempoInicial = System.nanoTime();
+        for (int i = 0; i < veces; i++)
+            sumidero += dispersor.dispersa(llaves[i & 63]);
+        long tiempoTotal = System.nanoTime() - tiempoInicial;
+
+        double megabytes = (double)veces * longitud / (1024 * 1024);
+        System.out.printf("%10.2f MB/s con %s sobre llaves de %d bytes.\n",
+                          megabytes / (tiempoTotal/1000000000.0),
+                          algoritmo, longitud);
+    }
+
+    /* Mide el rendimiento de los dispersores sobre llaves cortas y largas. */
+    private static void rendimientoDispersores(int N) {
+        int[] longitudes = { 16, 1024 };
+        for (int longitud : longitudes)
+            for (AlgoritmoDispersor algoritmo : AlgoritmoDispersor.values())
+                rendimiento(algoritmo, longitud, N);
+    }
+
+    /* Compara cómo reparte cada algoritmo llaves con un sufijo común entre
+     * las listas de un diccionario. */
+    private static void distribucionDispersores(int N, NumberFormat nf) {
+        String[] llaves = new String[N];
+        for (int i = 0; i < N; i++)
+            llaves[i] = String.format("usuario%07d@ciencias.unam.mx", i);
+
+        for (AlgoritmoDispersor algoritmo : AlgoritmoDispersor.values()) {
+            Diccionario<String, String> diccionario =
+                new Diccionario<String, String>(
+                    N, FabricaDispersores.dispersorCadena(algoritmo));
+            long tiempoInicial = System.nanoTime();
+            for (String llave : llaves)
+                diccionario.agrega(llave, llave);
+            long tiempoTotal = System.nanoTime() - tiempoInicial;
+            System.out.printf("%2.9f segundos en llenar un diccionario con " +
+                              "%s llaves usando %s (%d colisiones, %d " +
+                              "colisiones máximas).\n",
+                              (tiempoTotal/1000000000.0), nf.format(N),
+                              algoritmo, diccionario.colisiones(),
+                              diccionario.colisionMaxima());
+        }
+    }
+
+    /* Llena diccionarios con llaves que chocan todas con Daniel J. Bernstein
+     * ("aZ" y "b9" dispersan igual, y también cualquier concatenación de
+     * ellas con la misma longitud), y compara contra SipHash. */
+    private static void inundacion(int N, NumberFormat nf) {
+        int n = Math.min(N, 1 << 14);
+        int bloques = 32 - Integer.numberOfLeadingZeros(n);
+        String[] llaves = new String[n];
+        for (int i = 0; i < n; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = 0; j < bloques; j++)
+                sb.append((i & (1 << j)) == 0 ? "aZ" : "b9");
+            llaves[i] = sb.toString();
+        }
+
+        AlgoritmoDispersor[] algoritmos = {
+            AlgoritmoDispersor.DJB_STRING,
+            AlgoritmoDispersor.SIPHASH24_STRING,
+            AlgoritmoDispersor.SIPHASH13_STRING
+        };
+        for (AlgoritmoDispersor algoritmo : algoritmos) {
+            Diccionario<String, String> diccionario =
+                new Diccionario<String, String>(
+                    n, FabricaDispersores.dispersorCadena(algoritmo));
+            long tiempoInicial = System.nanoTime();
+            for (String llave : llaves)
+                diccionario.agrega(llave, llave);
+            for (String llave : llaves)
+                sumidero += diccionario.get(llave).length();
+            long tiempoTotal = System.nanoTime() - tiempoInicial;
+            System.out.printf("%2.9f segundos en llenar y buscar %s llaves " +
+                              "adversarias usando %s (%d colisiones " +
+                              "máximas).\n",
+                              (tiempoTotal/1000000000.0), nf.format(n),
+                              algoritmo, diccionario.colisionMaxima());
+        }
+    }
+
+    /* Busca llaves presentes y ausentes en un diccionario abierto con el
+     * dispersor dado. */
+    private static void buscaEnAbierto(String bits, Dispersor<String> dispersor,
+                                       String[] presentes, String[] ausentes,
+                                       NumberFormat nf) {
+        DiccionarioAbierto<String, String> diccionario =
+            new DiccionarioAbierto<String, String>(presentes.length,
+                                                   dispersor);
+        for (String llave : presentes)
+            diccionario.agrega(llave, llave);
+
+        long tiempoInicial = System.nanoTime();
+        for (String llave : presentes)
+            sumidero += diccionario.get(llave).length();
+        for (String llave : ausentes)
+            if (diccionario.contiene(llave))
+                sumidero++;
+        long tiempoTotal = System.nanoTime() - tiempoInicial;
+
+        System.out.printf("%2.9f segundos en buscar %s llaves presentes y %s " +
+                          "ausentes en un diccionario abierto con dispersor " +
+                          "de %s bits.\n",
+                          (tiempoTotal/1000000000.0),
+                          nf.format(presentes.length),
+                          nf.format(ausentes.length), bits);
+    }
+
+    /* Compara un diccionario abierto con un dispersor de 32 bits contra uno
+     * con el mismo algoritmo de 64 bits, que guarda huellas. */
+    private static void dispersiones64(int N, NumberFormat nf) {
+        String[] presentes = new String[N];
+        String[] ausentes = new String[N];
+        for (int i = 0; i < N; i++) {
+            presentes[i] = "llave-" + i;
+            ausentes[i] = "otra-" + i;
+        }
+
+        Dispersor64<String> d64 = FabricaDispersores.dispersor64Cadena(
+            AlgoritmoDispersor.XXHASH64_STRING);
+        buscaEnAbierto("32", c -> d64.dispersa(c), presentes, ausentes, nf);
+        buscaEnAbierto("64", d64, presentes, ausentes, nf);
+    }
+
+    /* Dispersa un archivo temporal mapeado a memoria con los dispersores
+     * incrementales, y reporta los GB/s de una segunda vuelta. */
+    private static void dispersionArchivos(int N) {
+        long tamano = Math.max(1L << 24, Math.min(N * 64L, 1L << 30));
+        Path archivo = null;
+        try {
+            archivo = Files.createTempFile("practica11", ".bin");
+            Random random = new Random();
+            byte[] bloque = new byte[1 << 20];
+            try (OutputStream salida = Files.newOutputStream(archivo)) {
+                for (long escritos = 0; escritos < tamano;
+                     escritos += bloque.length) {
+                    random.nextBytes(bloque);
+                    salida.write(bloque, 0, (int)Math.min(bloque.length,
+                                                          tamano - escritos));
+                }
+            }
+
+            AlgoritmoDispersor[] algoritmos = {
+                AlgoritmoDispersor.XOR_STRING,
+                AlgoritmoDispersor.BJ_STRING,
+                AlgoritmoDispersor.DJB_STRING
+            };
+            /* Una vuelta sin medir con cada algoritmo, para que el archivo
+             * ya esté en el caché de páginas y el código ya esté compilado
+             * cuando se mida. */
+            for (AlgoritmoDispersor algoritmo : algoritmos)
+                sumidero += Dispersores.dispersaArchivo(
+                    archivo, FabricaDispersores.dispersorIncremental(algoritmo));
+
+            for (AlgoritmoDispersor algoritmo : algoritmos) {
+                DispersorIncremental dispersor =
+                    FabricaDispersores.dispersorIncremental(algoritmo);
+                long tiempoInicial = System.nanoTime();
+                sumidero += Dispersores.dispersaArchivo(archivo, dispersor);
+                long tiempoTotal = System.nanoTime() - tiempoInicial;
+                double segundos = tiempoTotal/1000000000.0;
+                System.out.printf("%2.9f segundos (%.2f GB/s) en dispersar " +
+                                  "un archivo de %d MB con %s.\n",
+                                  segundos,
+                                  tamano / (1024.0 * 1024 * 1024) / segundos,
+                                  tamano >> 20, algoritmo);
+            }
+        } catch (IOException ioe) {
+            System.err.println("No se pudo crear el archivo temporal.");
+        } finally {
+            try {
+                if (archivo != null)
+                    Files.delete(archivo);
+            } catch (IOException ioe) {}
+        }
+    }
+
+    /* Dispersa un arreglo grande por pedazos con 1, 2, 4, … hilos, hasta el
+     * número de procesadores, y reporta los GB/s. */
+    private static void dispersionParalela(int N) {
+        byte[] datos = new byte[(int)Math.max(1L << 24,
+                                              Math.min(N * 64L, 1L << 29))];
+        new Random().nextBytes(datos);
+        DispersorParalelo dispersor =
+            new DispersorParalelo(AlgoritmoDispersor.BJ_STRING);
+        int procesadores = Runtime.getRuntime().availableProcessors();
+
+        for (int hilos = 1; ; hilos = Math.min(hilos * 2, procesadores)) {
+            ForkJoinPool alberca = new ForkJoinPool(hilos);
+            sumidero += dispersor.dispersa(datos, alberca);
+            long tiempoInicial = System.nanoTime();
+            sumidero += dispersor.dispersa(datos, alberca);
+            long tiempoTotal = System.nanoTime() - tiempoInicial;
+            alberca.shutdown();
+            double segundos = tiempoTotal/1000000000.0;
+            System.out.printf("%2.9f segundos (%.2f GB/s) en dispersar %d MB " +
+                              "por pedazos con %d hilos.\n",
+                              segundos,
+                              datos.length / (1024.0 * 1024 * 1024) / segundos,
+                              datos.length >> 20, hilos);
+            if (hilos == procesadores)
+                break;
+        }
+    }
+
+    /* Llena un diccionario de enteros con llaves separadas por el paso dado,
+     * y reporta el tiempo y las colisiones máximas. */
+    private static void llenaEnteros(String nombre,
+                                     Dispersor<Integer> dispersor,
+                                     int n, int paso, NumberFormat nf) {
+        Diccionario<Integer, Integer> diccionario =
+            new Diccionario<Integer, Integer>(n, dispersor);
+        long tiempoInicial = System.nanoTime();
+        for (int i = 0; i < n; i++)
+            diccionario.agrega(i * paso, i);
+        long tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en llenar un diccionario con %s " +
+                          "enteros de paso %d usando %s (%d colisiones " +
+                          "máximas).\n",
+                          (tiempoTotal/1000000000.0), nf.format(n), paso,
+                          nombre, diccionario.colisionMaxima());
+    }
+
+    /* Llena y vacía un diccionario en el que todas las llaves chocan, con
+     * las listas largas convertidas en árboles y sin convertirlas. */
+    private static void arbolesEnListas(int N, NumberFormat nf) {
+        int n = Math.min(N, 1 << 13);
+        int[] umbrales = { Integer.MAX_VALUE, Diccionario.UMBRAL_ARBOL };
+        for (int umbral : umbrales) {
+            Diccionario<Integer, Integer> diccionario =
+                new Diccionario<Integer, Integer>(
+                    n, i -> 0, Redimensionamiento.COMPLETO, umbral);
+            long tiempoInicial = System.nanoTime();
+            for (int i = 0; i < n; i++)
+                diccionario.agrega(i, i);
+            for (int i = 0; i < n; i++)
+                sumidero += diccionario.get(i);
+            int colisiones = diccionario.colisionMaxima();
+            for (int i = 0; i < n; i++)
+                diccionario.elimina(i);
+            long tiempoTotal = System.nanoTime() - tiempoInicial;
+            System.out.printf("%2.9f segundos en llenar, buscar y vaciar %s " +
+                              "llaves que chocan %s (%d colisiones " +
+                              "máximas).\n",
+                              (tiempoTotal/1000000000.0), nf.format(n),
+                              umbral == Integer.MAX_VALUE ?
+                              "en una lista" : "en un árbol",
+                              colisiones);
+        }
+    }
+
+    /* Mide recorrer y comparar diccionarios con las mismas llaves agregadas
+     * en órdenes distintos. */
+    private static void recorridos(int N, NumberFormat nf) {
+        Diccionario<Integer, Integer> a = new Diccionario<Integer, Integer>();
+        Diccionario<Integer, Integer> b = new Diccionario<Integer, Integer>();
+        for (int i = 0; i < N; i++) {
+            a.agrega(i, i);
+            b.agrega(N - i - 1, N - i - 1);
+        }
+
+        long tiempoInicial = System.nanoTime();
+        for (Integer valor : a)
+            sumidero += valor;
+        long tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en recorrer un diccionario con %s " +
+                          "elementos.\n",
+                          (tiempoTotal/1000000000.0), nf.format(N));
+
+        tiempoInicial = System.nanoTime();
+        if (a.equals(b))
+            sumidero++;
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en comparar dos diccionarios con %s " +
+                          "elementos.\n",
+                          (tiempoTotal/1000000000.0), nf.format(N));
+    }
+
+    /* Compara llenar un diccionario con N llamadas a agrega contra cargarlo
+     * de un solo golpe, dispersando en serie y en paralelo. */
+    private static void cargaMasiva(int N, NumberFormat nf) {
+        String[] llaves = new String[N];
+        String[] valores = new String[N];
+        for (int i = 0; i < N; i++)
+            llaves[i] = valores[i] = String.valueOf(i);
+        Dispersor<String> dispersor =
+            FabricaDispersores.dispersorCadena(
+                AlgoritmoDispersor.XXHASH32_STRING);
+
+        long tiempoInicial = System.nanoTime();
+        Diccionario<String, String> diccionario =
+            new Diccionario<String, String>(dispersor);
+        for (int i = 0; i < N; i++)
+            diccionario.agrega(llaves[i], valores[i]);
+        long tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en llenar un diccionario con %s " +
+                          "llamadas a agrega.\n",
+                          (tiempoTotal/1000000000.0), nf.format(N));
+
+        boolean[] paralelos = { false, true };
+        for (boolean paralelo : paralelos) {
+            tiempoInicial = System.nanoTime();
+            diccionario = new Diccionario<String, String>(dispersor);
+            diccionario.agregaTodos(llaves, valores, paralelo);
+            tiempoTotal = System.nanoTime() - tiempoInicial;
+            System.out.printf("%2.9f segundos en llenar un diccionario con %s " +
+                              "elementos con agregaTodos, dispersando en " +
+                              "%s.\n",
+                              (tiempoTotal/1000000000.0), nf.format(N),
+                              paralelo ? "paralelo" : "serie");
+        }
+        sumidero += diccionario.getElementos();
+    }
+
+    /* Regresa una traza de n accesos a llaves en [0, universo) con
+     * distribución de Zipf de exponente s: la llave k se pide con
+     * probabilidad proporcional a 1/(k+1)^s. */
+    private static int[] trazaZipf(int n, int universo, double s,
+                                   Random random) {
+        double[] acumulada = new double[universo];
+        double suma = 0.0;
+        for (int k = 0; k < universo; k++)
+            acumulada[k] = suma += 1.0 / Math.pow(k + 1, s);
+        int[] traza = new int[n];
+        for (int i = 0; i < n; i++) {
+            int k = Arrays.binarySearch(acumulada,
+                                        random.nextDouble() * suma);
+            traza[i] = Math.min(k < 0 ? -k - 1 : k, universo - 1);
+        }
+        return traza;
+    }
+
+    /* Reproduce una traza de Zipf sobre cachés con cada política, y reporta
+     * la tasa de aciertos y las operaciones por segundo. */
+    private static void caches(int N, NumberFormat nf) {
+        int universo = Math.max(1000, N / 4);
+        int capacidad = universo / 100;
+        int[] traza = trazaZipf(N, universo, 0.99, new Random(N));
+        for (PoliticaCache politica : PoliticaCache.values()) {
+            Cache<Integer, Integer> cache =
+                new Cache<Integer, Integer>(capacidad, politica);
+            long tiempoInicial = System.nanoTime();
+            for (int llave : traza)
+                if (cache.get(llave) == null)
+                    cache.agrega(llave, llave);
+            long tiempoTotal = System.nanoTime() - tiempoInicial;
+            System.out.printf("%2.9f segundos en reproducir %s accesos de " +
+                              "Zipf en un caché %s de %s entradas " +
+                              "(%.2f%% de aciertos, %s operaciones por " +
+                              "segundo).\n",
+                              (tiempoTotal/1000000000.0), nf.format(N),
+                              politica, nf.format(capacidad),
+                              100 * cache.tasaAciertos(),
+                              nf.format((long)(N / (tiempoTotal /
+                                                    1000000000.0))));
+        }
+    }
+
+    /* Tiempo del reloj simulado de expiracion(). */
+    private static long ahora;
+
+    /* Compara el costo de barrer las entradas vencidas recorriendo todo un
+     * diccionario de vencimientos contra el de avanzar la rueda de tiempos de
+     * un diccionario expirante, con vidas de hasta un minuto y un barrido por
+     * segundo de reloj simulado. Las entradas vencidas se vuelven a agregar,
+     * fuera de la medición, para que las tablas no se vacíen. */
+    private static void expiracion(int N, NumberFormat nf) {
+        Random random = new Random(N);
+        for (int n = 1000; n <= Math.max(1000, Math.min(N, 1000000));
+             n *= 10) {
+            ahora = 0;
+            DiccionarioExpirante<Integer, Integer> expirante =
+                new DiccionarioExpirante<Integer, Integer>(() -> ahora, 1);
+            Diccionario<Integer, Long> vencimientos =
+                new Diccionario<Integer, Long>(n);
+            for (int i = 0; i < n; i++) {
+                int vida = 1 + random.nextInt(60000);
+                expirante.agrega(i, i, vida);
+                vencimientos.agrega(i, (long)vida);
+            }
+            int barridos = 60;
+            long tiempoBarrido = 0, tiempoRueda = 0;
+            int[] vencidas = new int[n];
+            for (int b = 0; b < barridos; b++) {
+                ahora += 1000;
+                long tiempoInicial = System.nanoTime();
+                expirante.expira();
+                tiempoRueda += System.nanoTime() - tiempoInicial;
+
+                int m = 0;
+                tiempoInicial = System.nanoTime();
+                Iterator<Integer> iterador = vencimientos.iteradorLlaves();
+                while (iterador.hasNext()) {
+                    Integer llave = iterador.next();
+                    if (vencimientos.get(llave) <= ahora) {
+                        vencimientos.elimina(llave);
+                        vencidas[m++] = llave;
+                    }
+                }
+                tiempoBarrido += System.nanoTime() - tiempoInicial;
+
+                for (int i = 0; i < m; i++) {
+                    int vida = 1 + random.nextInt(60000);
+                    expirante.agrega(vencidas[i], vencidas[i], vida);
+                    vencimientos.agrega(vencidas[i], ahora + vida);
+                }
+            }
+            sumidero += expirante.getElementos();
+            System.out.printf("%2.9f segundos por barrido recorriendo un " +
+                              "diccionario con %s entradas, y %2.9f " +
+                              "segundos avanzando la rueda de tiempos.\n",
+                              (tiempoBarrido/1000000000.0/barridos),
+                              nf.format(n),
+                              (tiempoRueda/1000000000.0/barridos));
+        }
+    }
+
+    /* Compara el arranque de una tabla de búsqueda que se reconstruye
+     * leyendo un archivo de texto con llaves y valores, contra el de abrir un
+     * diccionario persistente con las mismas entradas; en ambos casos el
+     * arranque incluye las primeras búsquedas. */
+    private static void persistencia(int N, NumberFormat nf) {
+        int n = Math.max(1, Math.min(N, 1000000));
+        int busquedas = Math.max(1, n / 100);
+        Random random = new Random(N);
+        Path texto = null, mapa = null;
+        try {
+            texto = Files.createTempFile("practica11", ".txt");
+            mapa = Files.createTempFile("practica11", ".edd");
+            Files.delete(mapa);
+            long tiempoInicial = System.nanoTime();
+            try (OutputStream salida = Files.newOutputStream(texto);
+                 DiccionarioPersistente persistente =
+                 new DiccionarioPersistente(mapa)) {
+                for (int i = 0; i < n; i++) {
+                    String llave = "llave" + i, valor = "valor" + (7L * i);
+                    salida.write((llave + "\t" + valor + "\n")
+                                 .getBytes(StandardCharsets.UTF_8));
+                    persistente.agrega(llave, valor);
+                }
+            }
+            long tiempoTotal = System.nanoTime() - tiempoInicial;
+            System.out.printf("%2.9f segundos en escribir %s entradas en un " +
+                              "archivo de texto y en un diccionario " +
+                              "persistente de %s bytes.\n",
+                              (tiempoTotal/1000000000.0), nf.format(n),
+                              nf.format(Files.size(mapa)));
+
+            tiempoInicial = System.nanoTime();
+            Diccionario<String, String> diccionario =
+                new Diccionario<String, String>();
+            for (String renglon :
+                     Files.readAllLines(texto, StandardCharsets.UTF_8)) {
+                int tabulador = renglon.indexOf('\t');
+                diccionario.agrega(renglon.substring(0, tabulador),
+                                   renglon.substring(tabulador + 1));
+            }
+            for (int i = 0; i < busquedas; i++)
+                sumidero += diccionario.get("llave" + random.nextInt(n))
+                    .length();
+            tiempoTotal = System.nanoTime() - tiempoInicial;
+            System.out.printf("%2.9f segundos en reconstruir un diccionario " +
+                              "con %s entradas y buscar %s llaves.\n",
+                              (tiempoTotal/1000000000.0), nf.format(n),
+                              nf.format(busquedas));
+            diccionario = null;
+
+            tiempoInicial = System.nanoTime();
+            try (DiccionarioPersistente persistente =
+                 new DiccionarioPersistente(mapa)) {
+                for (int i = 0; i < busquedas; i++)
+                    sumidero += persistente.get("llave" + random.nextInt(n))
+                        .length();
+            }
+            tiempoTotal = System.nanoTime() - tiempoInicial;
+            System.out.printf("%2.9f segundos en abrir un diccionario " +
+                              "persistente con %s entradas y buscar %s " +
+                              "llaves.\n",
+                              (tiempoTotal/1000000000.0), nf.format(n),
+                              nf.format(busquedas));
+        } catch (IOException ioe) {
+            System.err.println("No se pudieron crear los archivos " +
+                               "temporales.");
+        } finally {
+            try {
+                if (texto != null)
+                    Files.deleteIfExists(texto);
+                if (mapa != null)
+                    Files.deleteIfExists(mapa);
+            } catch (IOException ioe) {}
+        }
+    }
+
+    /* Regresa los milisegundos que ha pasado la máquina virtual recolectando
+     * basura. */
+    private static long tiempoRecoleccion() {
+        long tiempo = 0;
+        for (GarbageCollectorMXBean recolector :
+                 ManagementFactory.getGarbageCollectorMXBeans())
+            tiempo += Math.max(0, recolector.getCollectionTime());
+        return tiempo;
+    }
+
+    /* Regresa los milisegundos promedio de una recolección completa. */
+    private static double pausaRecoleccion() {
+        int recolecciones = 5;
+        long tiempoInicial = tiempoRecoleccion();
+        for (int i = 0; i < recolecciones; i++)
+            System.gc();
+        return (tiempoRecoleccion() - tiempoInicial) /
+            (double)recolecciones;
+    }
+
+    /* Regresa la memoria ocupada en el montón, después de recolectar basura
+     * hasta que deja de bajar. */
+    private static long memoriaEstable() {
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long usada = memoria.getHeapMemoryUsage().getUsed();
+        for (int i = 0; i < 20; i++) {
+            System.gc();
+            long nueva = memoria.getHeapMemoryUsage().getUsed();
+            if (nueva >= usada)
+                break;
+            usada = nueva;
+        }
+        return usada;
+    }
+
+    /* Compara un diccionario de cadenas con un diccionario directo con los
+     * mismos bytes, en memoria del montón, memoria fuera del montón y pausa
+     * de las recolecciones completas mientras el diccionario está vivo. Los
+     * dos se miden contra la misma memoria inicial, tomada antes de crear
+     * cualquiera de ellos. */
+    private static void fueraDelMonton(int N, NumberFormat nf) {
+        int n = Math.max(1, Math.min(N, 2000000));
+        double pausaInicial = pausaRecoleccion();
+        long memoriaInicial = memoriaEstable();
+
+        long tiempoInicial = System.nanoTime();
+        Diccionario<String, String> diccionario =
+            new Diccionario<String, String>(n);
+        for (int i = 0; i < n; i++)
+            diccionario.agrega("llave" + i, "valor" + (7L * i));
+        long tiempoTotal = System.nanoTime() - tiempoInicial;
+        long memoria = memoriaEstable() - memoriaInicial;
+        double pausa = pausaRecoleccion();
+        System.out.printf("%2.9f segundos en llenar un diccionario de " +
+                          "cadenas con %s entradas (%s bytes en el montón; " +
+                          "%.1f ms por recolección, %.1f ms sin él).\n",
+                          (tiempoTotal/1000000000.0), nf.format(n),
+                          nf.format(memoria), pausa, pausaInicial);
+        sumidero += diccionario.getElementos();
+        diccionario = null;
+
+        tiempoInicial = System.nanoTime();
+        DiccionarioDirecto directo = new DiccionarioDirecto(n);
+        for (int i = 0; i < n; i++)
+            directo.agrega(("llave" + i).getBytes(StandardCharsets.UTF_8),
+                           ("valor" + (7L * i))
+                           .getBytes(StandardCharsets.UTF_8));
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        memoria = memoriaEstable() - memoriaInicial;
+        /* El diccionario directo ocupa tan poco del montón que la medición
+         * puede quedar por debajo de su ruido; se vuelve a medir, y si sigue
+         * negativa se reporta como no concluyente. */
+        for (int i = 0; i < 3 && memoria < 0; i++)
+            memoria = memoriaEstable() - memoriaInicial;
+        String medicion = memoria < 0 ?
+            "medición no concluyente" :
+            nf.format(memoria) + " bytes";
+        pausa = pausaRecoleccion();
+        System.out.printf("%2.9f segundos en llenar un diccionario directo " +
+                          "con %s entradas (%s en el montón y %s bytes " +
+                          "fuera; %.1f ms por recolección).\n",
+                          (tiempoTotal/1000000000.0), nf.format(n),
+                          medicion, nf.format(directo.memoria()), pausa);
+        System.out.printf("Estimación, no medida, de los objetos del " +
+                          "diccionario directo en el montón: %s bytes.\n",
+                          nf.format(directo.memoriaMonton()));
+        sumidero += directo.getElementos();
+    }
+
+    /* Compara buscar en un diccionario contra buscar en su copia congelada,
+     * ambos con el mismo dispersor, y reporta cuánto tarda congelarlo,
+     * cuánto ocupa la función de dispersión, y cuánto tarda cargar la copia
+     * guardada en un archivo. */
+    private static void congelados(int N, NumberFormat nf) {
+        int n = Math.max(1, Math.min(N, 1000000));
+        Dispersor64<String> dispersor =
+            FabricaDispersores.dispersor64Cadena(
+                AlgoritmoDispersor.XXHASH64_STRING);
+        String[] llaves = new String[n];
+        Diccionario<String, Integer> diccionario =
+            new Diccionario<String, Integer>(n, dispersor);
+        for (int i = 0; i < n; i++) {
+            llaves[i] = "llave" + i;
+            diccionario.agrega(llaves[i], i);
+        }
+
+        long tiempoInicial = System.nanoTime();
+        DiccionarioCongelado<String, Integer> congelado =
+            diccionario.congela(dispersor);
+        long tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en congelar un diccionario con %s " +
+                          "elementos (%.2f bits por llave).\n",
+                          (tiempoTotal/1000000000.0), nf.format(n),
+                          congelado.bitsPorLlave());
+
+        tiempoInicial = System.nanoTime();
+        for (int i = 0; i < n; i++)
+            sumidero += diccionario.get(llaves[i]);
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en buscar %s llaves en un " +
+                          "diccionario.\n",
+                          (tiempoTotal/1000000000.0), nf.format(n));
+
+        tiempoInicial = System.nanoTime();
+        for (int i = 0; i < n; i++)
+            sumidero += congelado.get(llaves[i]);
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en buscar %s llaves en un " +
+                          "diccionario congelado.\n",
+                          (tiempoTotal/1000000000.0), nf.format(n));
+
+        Path archivo = null;
+        try {
+            archivo = Files.createTempFile("practica11", ".congelado");
+            congelado.guarda(archivo);
+            tiempoInicial = System.nanoTime();
+            congelado = DiccionarioCongelado.carga(archivo, dispersor);
+            tiempoTotal = System.nanoTime() - tiempoInicial;
+            System.out.printf("%2.9f segundos en cargar un diccionario " +
+                              "congelado con %s elementos de un archivo " +
+                              "de %s bytes.\n",
+                              (tiempoTotal/1000000000.0), nf.format(n),
+                              nf.format(Files.size(archivo)));
+            sumidero += congelado.getElementos();
+        } catch (IOException ioe) {
+            System.err.println("No se pudo guardar el diccionario " +
+                               "congelado.");
+        } finally {
+            try {
+                if (archivo != null)
+                    Files.deleteIfExists(archivo);
+            } catch (IOException ioe) {}
+        }
+    }
+
+    /* Mide la latencia de cada búsqueda en un diccionario y en un
+     * diccionario de cuco con las mismas llaves, y reporta sus
+     * percentiles. Hace una primera pasada sin medir sobre la misma traza,
+     * para que la carga de clases y la compilación no caigan en las
+     * latencias altas. */
+    private static void cucos(int N, NumberFormat nf) {
+        int n = Math.max(1, Math.min(N, 1000000));
+        Dispersor<String> primero =
+            FabricaDispersores.dispersorCadena(
+                AlgoritmoDispersor.MURMUR3_STRING);
+        Dispersor<String> segundo =
+            FabricaDispersores.dispersorCadena(
+                AlgoritmoDispersor.XXHASH32_STRING);
+        Diccionario<String, Integer> diccionario =
+            new Diccionario<String, Integer>(primero);
+        DiccionarioCuco<String, Integer> cuco =
+            new DiccionarioCuco<String, Integer>(primero, segundo);
+        String[] llaves = new String[n];
+        double carga = 0.0;
+        for (int i = 0; i < n; i++) {
+            llaves[i] = "llave" + i;
+            diccionario.agrega(llaves[i], i);
+            cuco.agrega(llaves[i], i);
+            carga = Math.max(carga, cuco.carga());
+        }
+        System.out.printf("Diccionario de cuco con %s elementos: carga " +
+                          "%.3f, carga máxima alcanzada %.3f, %d llaves en " +
+                          "el escondite.\n", nf.format(n), cuco.carga(),
+                          carga, cuco.getEscondidas());
+
+        Random random = new Random(N);
+        String[] traza = new String[n];
+        for (int i = 0; i < n; i++)
+            traza[i] = llaves[random.nextInt(n)];
+        for (String llave : traza) {
+            sumidero += diccionario.get(llave);
+            sumidero += cuco.get(llave);
+        }
+        long[] latencias = new long[n];
+        long[] latenciasCuco = new long[n];
+        for (int i = 0; i < n; i++) {
+            String llave = traza[i];
+            long tiempoInicial = System.nanoTime();
+            sumidero += diccionario.get(llave);
+            latencias[i] = System.nanoTime() - tiempoInicial;
+            tiempoInicial = System.nanoTime();
+            sumidero += cuco.get(llave);
+            latenciasCuco[i] = System.nanoTime() - tiempoInicial;
+        }
+        Arrays.sort(latencias);
+        Arrays.sort(latenciasCuco);
+        System.out.printf("Diccionario: p50 %d ns, p99 %d ns, p99.9 %d ns, " +
+                          "máximo %d ns por búsqueda.\n",
+                          latencias[n / 2], latencias[(int)(n * 0.99)],
+                          latencias[(int)(n * 0.999)], latencias[n - 1]);
+        System.out.printf("Diccionario de cuco: p50 %d ns, p99 %d ns, " +
+                          "p99.9 %d ns, máximo %d ns por búsqueda.\n",
+                          latenciasCuco[n / 2],
+                          latenciasCuco[(int)(n * 0.99)],
+                          latenciasCuco[(int)(n * 0.999)],
+                          latenciasCuco[n - 1]);
+    }
+
+    /* Mide el tiempo por búsqueda y la proporción de falsos positivos de un
+     * filtro con n elementos, buscando elementos que no se agregaron. Hace
+     * una primera pasada sin medir, para que las búsquedas medidas ya estén
+     * compiladas. */
+    private static void filtro(String nombre, Filtro<String> filtro, int n,
+                               String[] ausentes) {
+        for (String ausente : ausentes)
+            if (filtro.contiene(ausente))
+                sumidero++;
+        int falsos = 0;
+        long tiempoInicial = System.nanoTime();
+        for (String ausente : ausentes)
+            if (filtro.contiene(ausente))
+                falsos++;
+        long tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%s: %.1f ns por búsqueda, %.4f%% de falsos " +
+                          "positivos, %.2f bits por elemento.\n", nombre,
+                          (double)tiempoTotal / ausentes.length,
+                          100.0 * falsos / ausentes.length,
+                          (double)filtro.getBits() / n);
+        sumidero += falsos;
+    }
+
+    /* Llena un filtro de Bloom, uno de Bloom por bloques y uno de cuco con
+     * la misma probabilidad de falso positivo, y compara sus tiempos de
+     * búsqueda y los falsos positivos medidos. */
+    private static void filtros(int N, NumberFormat nf) {
+        int n = Math.max(1, Math.min(N, 1000000));
+        double probabilidad = 0.01;
+        Dispersor<String> primero =
+            FabricaDispersores.dispersorCadena(
+                AlgoritmoDispersor.MURMUR3_STRING);
+        Dispersor<String> segundo =
+            FabricaDispersores.dispersorCadena(
+                AlgoritmoDispersor.XXHASH32_STRING);
+        FiltroBloom<String> bloom =
+            new FiltroBloom<String>(n, probabilidad, primero, segundo);
+        FiltroBloomBloques<String> bloques =
+            new FiltroBloomBloques<String>(n, probabilidad, primero, segundo);
+        FiltroCuco<String> cuco =
+            new FiltroCuco<String>(n, probabilidad, primero, segundo);
+        for (int i = 0; i < n; i++) {
+            String elemento = "elemento" + i;
+            bloom.agrega(elemento);
+            bloques.agrega(elemento);
+            cuco.agrega(elemento);
+        }
+        String[] ausentes = new String[n];
+        for (int i = 0; i < n; i++)
+            ausentes[i] = "ausente" + i;
+        System.out.printf("Filtros con %s elementos y %.2f%% de falsos " +
+                          "positivos pedidos:\n", nf.format(n),
+                          100.0 * probabilidad);
+        filtro("Filtro de Bloom", bloom, n, ausentes);
+        filtro("Filtro de Bloom por bloques", bloques, n, ausentes);
+        filtro("Filtro de cuco", cuco, n, ausentes);
+    }
+
+    /* Recorre el diccionario, reporta el tiempo y regresa los bytes que
+     * ocupan sus arreglos. */
+    private static long recorre(String estado,
+                                Diccionario<Integer, Integer> diccionario,
+                                NumberFormat nf) {
+        long tiempoInicial = System.nanoTime();
+        for (Integer valor : diccionario)
+            sumidero += valor;
+        long tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en recorrer un diccionario con %s " +
+                          "elementos %s.\n",
+                          (tiempoTotal/1000000000.0),
+                          nf.format(diccionario.getElementos()), estado);
+        return (long)diccionario.getReferencias() * BYTES_REFERENCIA;
+    }
+
+    /* Llena un diccionario y elimina casi todo, para medir cómo se encoge el
+     * arreglo al eliminar y al compactar. Se reportan los bytes de los
+     * arreglos (el de índices y el denso de entradas), que no dependen de
+     * cuándo recoja la basura la JVM; las entradas mismas ocupan lo mismo en
+     * los cuatro casos. */
+    private static void encogimiento(int N, NumberFormat nf) {
+        Diccionario<Integer, Integer> diccionario =
+            new Diccionario<Integer, Integer>(N);
+        for (int i = 0; i < N; i++)
+            diccionario.agrega(i, i);
+        long lleno = recorre("lleno", diccionario, nf);
+        for (int i = N / 100; i < N; i++)
+            diccionario.elimina(i);
+        long sinEncoger =
+            recorre("después de eliminar el 99% sin encoger por su " +
+                    "capacidad inicial", diccionario, nf);
+        diccionario.compacta();
+        long compactado = recorre("compactado", diccionario, nf);
+
+        diccionario = new Diccionario<Integer, Integer>();
+        for (int i = 0; i < N; i++)
+            diccionario.agrega(i, i);
+        for (int i = N / 100; i < N; i++)
+            diccionario.elimina(i);
+        long encogido = recorre("después de eliminar el 99% encogiendo",
+                                diccionario, nf);
+
+        System.out.printf("Bytes de los arreglos del diccionario, con " +
+                          "referencias de %d bytes: %s lleno, %s sin " +
+                          "encoger, %s compactado y %s encogido.\n",
+                          BYTES_REFERENCIA, nf.format(lleno),
+                          nf.format(sinEncoger), nf.format(compactado),
+                          nf.format(encogido));
+    }
+
+    /* Compara hashCode() contra el dispersor de enteros de la fábrica con
+     * llaves consecutivas y con llaves separadas por un paso. */
+    private static void dispersionEnteros(int N, NumberFormat nf) {
+        int n = Math.min(N, 1 << 16);
+        int[] pasos = { 1, 1 << 10 };
+        for (int paso : pasos) {
+            llenaEnteros("hashCode()", i -> i.hashCode(), n, paso, nf);
+            llenaEnteros("mezcla32", FabricaDispersores.dispersorEntero(),
+                         n, paso, nf);
+        }
+    }
+
     public static void main(String[] args) {
         if (args.length != 1)
             uso();
@@ -77,6 +1204,16 @@ public class Practica11 {
                           "con %s elementos.\n",
                           (tiempoTotal/1000000000.0), nf.format(N));
 
+        DiccionarioAbierto<Integer, Integer> abierto =
+            new DiccionarioAbierto<Integer, Integer>(N);
+        tiempoInicial = System.nanoTime();
+        for (int i = 0; i < N; i++)
+            abierto.agrega(arreglo[i], arreglo[i]);
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en llenar un diccionario " +
+                          "abierto con %s elementos.\n",
+                          (tiempoTotal/1000000000.0), nf.format(N));
+
         Conjunto<Integer> conjunto = new Conjunto<Integer>(N);
         tiempoInicial = System.nanoTime();
         for (int i = 0; i < N; i++)
@@ -113,6 +1250,31 @@ public class Practica11 {
                           "diccionario con %s elementos.\n",
                           (tiempoTotal/1000000000.0), nf.format(N));
 
+        tiempoInicial = System.nanoTime();
+        abierto.contiene(b);
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en buscar en un diccionario " +
+                          "abierto con %s elementos.\n",
+                          (tiempoTotal/1000000000.0), nf.format(N));
+
+        tiempoInicial = System.nanoTime();
+        for (int i = 0; i < N; i++)
+            diccionario.contiene(arreglo[i]);
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en buscar %s veces en un " +
+                          "diccionario (%d colisiones máximas).\n",
+                          (tiempoTotal/1000000000.0), nf.format(N),
+                          diccionario.colisionMaxima());
+
+        tiempoInicial = System.nanoTime();
+        for (int i = 0; i < N; i++)
+            abierto.contiene(arreglo[i]);
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en buscar %s veces en un " +
+                          "diccionario abierto (%d colisiones máximas).\n",
+                          (tiempoTotal/1000000000.0), nf.format(N),
+                          abierto.colisionMaxima());
+
         tiempoInicial = System.nanoTime();
         conjunto.contiene(b);
         tiempoTotal = System.nanoTime() - tiempoInicial;
@@ -120,6 +1282,31 @@ public class Practica11 {
                           "conjunto con %s elementos.\n",
                           (tiempoTotal/1000000000.0), nf.format(N));
 
+        diccionariosEnteros(N, arreglo, nf);
+        latenciasRedimensionamiento(N, Redimensionamiento.COMPLETO);
+        latenciasRedimensionamiento(N, Redimensionamiento.INCREMENTAL);
+        concurrencia(N, arreglo, nf);
+        dispersionesGuardadas(N, nf);
+        dispersionSinBasura(N, nf);
+        rendimientoDispersores(N);
+        distribucionDispersores(N, nf);
+        inundacion(N, nf);
+        dispersiones64(N, nf);
+        dispersionArchivos(N);
+        dispersionParalela(N);
+        dispersionEnteros(N, nf);
+        arbolesEnListas(N, nf);
+        encogimiento(N, nf);
+        recorridos(N, nf);
+        cargaMasiva(N, nf);
+        caches(N, nf);
+        expiracion(N, nf);
+        persistencia(N, nf);
+        fueraDelMonton(N, nf);
+        congelados(N, nf);
+        cucos(N, nf);
+        filtros(N, nf);
+
         /*       3
          *    b─────d
          *  1╱│╲    │╲1
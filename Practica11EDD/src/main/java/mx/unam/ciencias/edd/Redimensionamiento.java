@@ -0,0 +1,17 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Enumeración para las formas en que un {@link Diccionario} puede cambiar el
+ * tamaño de su arreglo.
+ */
+public enum Redimensionamiento {
+    /** Todas las entradas se mueven al nuevo arreglo en una sola operación. */
+    COMPLETO,
+    /**
+     * Los arreglos viejo y nuevo conviven, y cada operación que modifica el
+     * diccionario mueve un número acotado de listas del viejo al nuevo: 4
+     * después de crecer y 12 después de encoger, para terminar antes del
+     * siguiente redimensionamiento.
+     */
+    INCREMENTAL;
+}
@@ -0,0 +1,16 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Interfaz para relojes. Permite que las estructuras que dependen del tiempo
+ * se prueben con un reloj controlado en lugar del reloj del sistema.
+ */
+@FunctionalInterface
+public interface Reloj {
+
+    /**
+     * Regresa el tiempo actual en milisegundos. El tiempo nunca debe
+     * retroceder.
+     * @return el tiempo actual en milisegundos.
+     */
+    public long ahora();
+}
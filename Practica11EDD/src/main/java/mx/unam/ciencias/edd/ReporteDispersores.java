@@ -0,0 +1,285 @@
+package mx.unam.ciencias.edd;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * <p>Reporte de la calidad de los dispersores. Para cada {@link
+ * AlgoritmoDispersor} y cada corpus de llaves se reporta:</p>
+ *
+ * <ul>
+ *   <li>el rendimiento en MB/s;</li>
+ *   <li>el sesgo de avalancha: al cambiar un bit de la llave, cada bit de la
+ *       dispersión debería cambiar con probabilidad 1/2; se reporta la mayor
+ *       desviación de cualquier bit de salida, y la fracción promedio de bits
+ *       que cambian;</li>
+ *   <li>la uniformidad sobre 2<sup>8</sup>, 2<sup>12</sup> y 2<sup>16</sup>
+ *       listas, como la χ² normalizada (cercana a 0 si la distribución es
+ *       uniforme, y muy positiva si no lo es);</li>
+ *   <li>la lista más larga que tendría un {@link Diccionario} con las llaves
+ *       del corpus, usando la misma máscara <code>&amp; (longitud -
+ *       1)</code> para obtener el índice.</li>
+ * </ul>
+ *
+ * <p>Los corpus disponibles son <code>enteros</code> (enteros consecutivos en
+ * decimal), <code>uuids</code>, <code>urls</code> y <code>palabras</code>
+ * (palabras inventadas con sílabas del español); cualquier otro argumento se
+ * toma como la ruta de un archivo con una llave por renglón, del que se usan
+ * los primeros N renglones.</p>
+ */
+public class ReporteDispersores {
+
+    /* Los corpus predeterminados. */
+    private static final String[] CORPUS = {
+        "enteros", "uuids", "urls", "palabras"
+    };
+
+    /* Sílabas para inventar palabras; todas tienen dos letras, para que cada
+     * palabra se pueda separar en sílabas de una sola forma. */
+    private static final String[] SILABAS = {
+        "ba", "be", "bi", "bo", "bu", "ca", "ce", "ci", "co", "cu", "da",
+        "de", "di", "do", "du", "fa", "fe", "fi", "fo", "fu", "ga", "go",
+        "gu", "ja", "je", "ji", "jo", "ju", "la", "le", "li", "lo", "lu",
+        "ma", "me", "mi", "mo", "mu", "na", "ne", "ni", "no", "nu", "pa",
+        "pe", "pi", "po", "pu", "ra", "re", "ri", "ro", "ru", "sa", "se",
+        "si", "so", "su", "ta", "te", "ti", "to", "tu", "va", "ve", "vi",
+        "vo", "za", "zo", "zu"
+    };
+
+    /* Secciones para inventar URLs. */
+    private static final String[] SECCIONES = {
+        "noticias", "usuarios", "cursos", "docs", "api/v1", "imagenes"
+    };
+
+    /* Número máximo de llaves con las que se mide la avalancha. */
+    private static final int MUESTRAS_AVALANCHA = 500;
+
+    /* Número máximo de bytes por llave que se cambian al medir avalancha. */
+    private static final int BYTES_AVALANCHA = 64;
+
+    /* Acumula resultados de las mediciones, para que no se optimicen. */
+    private static volatile int sumidero;
+
+    /* Imprime el uso del programa y lo termina. */
+    private static void uso() {
+        System.err.println("Uso: java -cp practica11.jar " +
+                           "mx.unam.ciencias.edd.ReporteDispersores " +
+                           "N [corpus...]\n" +
+                           "Corpus: enteros, uuids, urls, palabras o la " +
+                           "ruta de un archivo con una llave por renglón.");
+        System.exit(1);
+    }
+
+    /* Inventa la i-ésima palabra: i escrito en base SILABAS.length, con una
+     * sílaba por dígito; como las sílabas tienen la misma longitud y la
+     * escritura de i no tiene ceros a la izquierda, palabras distintas para
+     * cada i. */
+    private static String palabra(int i) {
+        StringBuilder sb = new StringBuilder();
+        do {
+            sb.append(SILABAS[i % SILABAS.length]);
+            i /= SILABAS.length;
+        } while (i > 0);
+        return sb.toString();
+    }
+
+    /**
+     * Regresa las llaves del corpus con el nombre dado. Los corpus
+     * predeterminados tienen exactamente n llaves distintas; de un archivo se
+     * toman los primeros n renglones, o todos si tiene menos.
+     * @param nombre el nombre del corpus, o la ruta de un archivo con una
+     *               llave por renglón.
+     * @param n el número de llaves.
+     * @return las llaves del corpus.
+     * @throws IOException si no se puede leer el archivo.
+     */
+    public static String[] corpus(String nombre, int n) throws IOException {
+        String[] llaves = new String[n];
+        Random random = new Random(n);
+
+        switch (nombre) {
+        case "enteros":
+            for (int i = 0; i < n; i++)
+                llaves[i] = String.valueOf(i);
+            return llaves;
+        case "uuids":
+            for (int i = 0; i < n; i++)
+                llaves[i] = new UUID(random.nextLong(),
+                                     random.nextLong()).toString();
+            return llaves;
+        case "urls":
+            for (int i = 0; i < n; i++)
+                llaves[i] = String.format("https://www.ciencias.unam.mx/" +
+                                          "%s/%s?id=%d",
+                                          SECCIONES[i % SECCIONES.length],
+                                          palabra(random.nextInt(n)), i);
+            return llaves;
+        case "palabras":
+            for (int i = 0; i < n; i++)
+                llaves[i] = palabra(i);
+            return llaves;
+        default:
+            try (Stream<String> renglones =
+                 Files.lines(Paths.get(nombre), StandardCharsets.UTF_8)) {
+                return renglones.limit(n).toArray(String[]::new);
+            } catch (UncheckedIOException uioe) {
+                throw uioe.getCause();
+            }
+        }
+    }
+
+    /* Mide en MB/s el dispersor sobre las llaves. */
+    private static double rendimiento(Dispersor<String> dispersor,
+                                      String[] llaves, long bytes) {
+        long mejor = Long.MAX_VALUE;
+        for (int vuelta = 0; vuelta < 5; vuelta++) {
+            long tiempoInicial = System.nanoTime();
+            for (String llave : llaves)
+                sumidero += dispersor.dispersa(llave);
+            mejor = Math.min(mejor, System.nanoTime() - tiempoInicial);
+        }
+        return bytes / (1024.0 * 1024.0) / (mejor / 1000000000.0);
+    }
+
+    /* Mide la avalancha del dispersor; regresa en la primera casilla el
+     * mayor sesgo de un bit de salida y en la segunda la fracción promedio
+     * de bits que cambian al cambiar un bit de la llave. */
+    private static double[] avalancha(Dispersor<byte[]> dispersor,
+                                      byte[][] llaves) {
+        long[] cambios = new long[32];
+        long pruebas = 0;
+        int n = Math.min(llaves.length, MUESTRAS_AVALANCHA);
+
+        for (int i = 0; i < n; i++) {
+            byte[] llave = llaves[i].clone();
+            int h = dispersor.dispersa(llave);
+            int bytes = Math.min(llave.length, BYTES_AVALANCHA);
+            for (int b = 0; b < 8 * bytes; b++) {
+                llave[b >>> 3] ^= 1 << (b & 7);
+                int diferencia = h ^ dispersor.dispersa(llave);
+                llave[b >>> 3] ^= 1 << (b & 7);
+                for (int j = 0; j < 32; j++)
+                    cambios[j] += (diferencia >>> j) & 1;
+                pruebas++;
+            }
+        }
+
+        double sesgo = 0.0, promedio = 0.0;
+        for (int j = 0; j < 32; j++) {
+            double p = pruebas == 0 ? 0.5 : (double)cambios[j] / pruebas;
+            sesgo = Math.max(sesgo, Math.abs(2.0 * p - 1.0));
+            promedio += p / 32;
+        }
+        return new double[] { sesgo, promedio };
+    }
+
+    /* Regresa cuántas dispersiones caen en cada una de las m listas, usando
+     * la misma máscara que Diccionario. */
+    private static int[] listas(int[] dispersiones, int m) {
+        int[] cuentas = new int[m];
+        for (int h : dispersiones)
+            cuentas[h & (m - 1)]++;
+        return cuentas;
+    }
+
+    /* Regresa la χ² de las dispersiones sobre m listas, normalizada para que
+     * una distribución uniforme tenga media 0 y desviación estándar 1. */
+    private static double chiCuadrada(int[] dispersiones, int m) {
+        double esperado = (double)dispersiones.length / m;
+        double chi = 0.0;
+        for (int c : listas(dispersiones, m))
+            chi += (c - esperado) * (c - esperado) / esperado;
+        return (chi - (m - 1)) / Math.sqrt(2.0 * (m - 1));
+    }
+
+    /* Regresa la longitud de la lista más larga menos uno (lo mismo que
+     * Diccionario.colisionMaxima), con la capacidad que el diccionario
+     * elegiría para n elementos. */
+    private static int listaMaxima(int[] dispersiones) {
+        int m = 64;
+        while (m < dispersiones.length * 2)
+            m *= 2;
+        int maxima = 0;
+        for (int c : listas(dispersiones, m))
+            maxima = Math.max(maxima, c);
+        return Math.max(0, maxima - 1);
+    }
+
+    /* Reporta todos los algoritmos sobre un corpus. */
+    private static void reporta(String nombre, String[] llaves) {
+        byte[][] bytes = new byte[llaves.length][];
+        long total = 0;
+        for (int i = 0; i < llaves.length; i++) {
+            bytes[i] = llaves[i].getBytes(StandardCharsets.UTF_8);
+            total += bytes[i].length;
+        }
+
+        System.out.printf("Corpus %s: %d llaves, %d bytes.\n",
+                          nombre, llaves.length, total);
+        System.out.printf("%-18s %10s %10s %9s %9s %9s %9s %6s\n",
+                          "algoritmo", "MB/s", "sesgo", "cambio",
+                          "χ² 2^8", "χ² 2^12", "χ² 2^16", "lista");
+
+        for (AlgoritmoDispersor algoritmo : AlgoritmoDispersor.values()) {
+            Dispersor<String> dispersor =
+                FabricaDispersores.dispersorCadena(algoritmo);
+            int[] dispersiones = new int[llaves.length];
+            for (int i = 0; i < llaves.length; i++)
+                dispersiones[i] = dispersor.dispersa(llaves[i]);
+
+            double mbs = rendimiento(dispersor, llaves, total);
+            double[] av =
+                avalancha(FabricaDispersores.dispersorArreglo(algoritmo),
+                          bytes);
+
+            System.out.printf("%-18s %10.2f %10.4f %9.4f %9.2f %9.2f " +
+                              "%9.2f %6d\n",
+                              algoritmo, mbs, av[0], av[1],
+                              chiCuadrada(dispersiones, 1 << 8),
+                              chiCuadrada(dispersiones, 1 << 12),
+                              chiCuadrada(dispersiones, 1 << 16),
+                              listaMaxima(dispersiones));
+        }
+        System.out.println();
+    }
+
+    /**
+     * Función principal.
+     * @param args los argumentos del programa: el número de llaves por
+     *             corpus y, opcionalmente, los corpus a usar.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1)
+            uso();
+
+        int N = -1;
+        try {
+            N = Integer.parseInt(args[0]);
+        } catch (NumberFormatException nfe) {
+            uso();
+        }
+
+        if (N < 1)
+            uso();
+
+        String[] nombres = CORPUS;
+        if (args.length > 1) {
+            nombres = new String[args.length - 1];
+            System.arraycopy(args, 1, nombres, 0, nombres.length);
+        }
+
+        for (String nombre : nombres) {
+            try {
+                reporta(nombre, corpus(nombre, N));
+            } catch (IOException ioe) {
+                System.err.printf("No se pudo leer el corpus %s.\n", nombre);
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Random;
+import mx.unam.ciencias.edd.Cache;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.PoliticaCache;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link Cache}.
+ */
+public class TestCache {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+
+    /**
+     * Crea un generador de números aleatorios para cada prueba.
+     */
+    public TestCache() {
+        int N = 64;
+        random = new Random();
+        total = N + random.nextInt(N);
+    }
+
+    /**
+     * Prueba unitaria para {@link Cache#agrega} y {@link Cache#get}: con
+     * cualquier política el caché nunca rebasa su capacidad, y lo que regresa
+     * es lo último que se agregó con cada llave.
+     */
+    @Test public void testAgregaGet() {
+        for (PoliticaCache politica : PoliticaCache.values()) {
+            Cache<Integer, Integer> cache =
+                new Cache<Integer, Integer>(total, politica);
+            Diccionario<Integer, Integer> referencia =
+                new Diccionario<Integer, Integer>();
+            for (int i = 0; i < total * 50; i++) {
+                int llave = random.nextInt(total * 4);
+                if (random.nextBoolean()) {
+                    cache.agrega(llave, i);
+                    referencia.agrega(llave, i);
+                    Assert.assertTrue(cache.contiene(llave));
+                } else if (random.nextInt(8) == 0) {
+                    cache.elimina(llave);
+                    if (referencia.contiene(llave))
+                        referencia.elimina(llave);
+                    Assert.assertFalse(cache.contiene(llave));
+                } else {
+                    Integer valor = cache.get(llave);
+                    if (valor != null)
+                        Assert.assertTrue(valor.equals(referencia.get(llave)));
+                }
+                Assert.assertTrue(cache.getElementos() <= total);
+                Assert.assertTrue(cache.getPeso() == cache.getElementos());
+            }
+            Assert.assertTrue(cache.getAciertos() + cache.getFallos() > 0);
+            Assert.assertTrue(cache.getDesalojos() > 0);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link PoliticaCache#LRU}.
+     */
+    @Test public void testLRU() {
+        Cache<Integer, Integer> cache =
+            new Cache<Integer, Integer>(total, PoliticaCache.LRU);
+        for (int i = 0; i < total; i++)
+            cache.agrega(i, i);
+        Assert.assertTrue(cache.get(0) == 0);
+        cache.agrega(total, total);
+        Assert.assertTrue(cache.contiene(0));
+        Assert.assertFalse(cache.contiene(1));
+        Assert.assertTrue(cache.getDesalojos() == 1);
+        for (int i = 2; i <= total; i++)
+            Assert.assertTrue(cache.get(i) == i);
+        Assert.assertTrue(cache.getAciertos() == total);
+    }
+
+    /**
+     * Prueba unitaria para {@link PoliticaCache#LFU}.
+     */
+    @Test public void testLFU() {
+        Cache<Integer, Integer> cache =
+            new Cache<Integer, Integer>(total, PoliticaCache.LFU);
+        for (int i = 0; i < total; i++)
+            cache.agrega(i, i);
+        for (int i = 0; i < total; i++)
+            if (i != total / 2)
+                for (int j = 0; j <= i % 3; j++)
+                    cache.get(i);
+        cache.agrega(total, total);
+        Assert.assertFalse(cache.contiene(total / 2));
+        cache.agrega(total + 1, total + 1);
+        Assert.assertFalse(cache.contiene(total));
+        Assert.assertTrue(cache.getElementos() == total);
+    }
+
+    /**
+     * Prueba unitaria para {@link PoliticaCache#LFU} cuando todas las
+     * entradas se han usado más de una vez: una llave nueva desaloja a la de
+     * menor frecuencia en lugar de desalojarse a sí misma.
+     */
+    @Test public void testLFUAdmiteNuevas() {
+        Cache<String, Integer> cache =
+            new Cache<String, Integer>(2, PoliticaCache.LFU);
+        cache.agrega("a", 1);
+        cache.get("a");
+        cache.agrega("b", 2);
+        cache.get("b");
+        cache.get("b");
+        cache.agrega("c", 3);
+        Assert.assertTrue(cache.contiene("c"));
+        Assert.assertFalse(cache.contiene("a"));
+        Assert.assertTrue(cache.contiene("b"));
+        Assert.assertTrue(cache.getDesalojos() == 1);
+        for (int i = 0; i < total; i++) {
+            cache.agrega("n" + i, i);
+            Assert.assertTrue(cache.contiene("n" + i));
+            Assert.assertTrue(cache.getElementos() == 2);
+        }
+        Assert.assertTrue(cache.contiene("b"));
+    }
+
+    /**
+     * Prueba unitaria para {@link PoliticaCache#W_TINY_LFU}: un recorrido de
+     * llaves que sólo se piden una vez no desaloja a las llaves que se piden
+     * seguido, a diferencia de lo que pasa con {@link PoliticaCache#LRU}.
+     */
+    @Test public void testWTinyLFU() {
+        int n = total * 10;
+        Cache<Integer, Integer> tiny =
+            new Cache<Integer, Integer>(n, PoliticaCache.W_TINY_LFU);
+        Cache<Integer, Integer> lru =
+            new Cache<Integer, Integer>(n, PoliticaCache.LRU);
+        for (int vuelta = 0; vuelta < 4; vuelta++) {
+            for (int i = 0; i < n / 2; i++) {
+                if (tiny.get(i) == null)
+                    tiny.agrega(i, i);
+                if (lru.get(i) == null)
+                    lru.agrega(i, i);
+            }
+        }
+        for (int i = n; i < n * 4; i++) {
+            if (tiny.get(i) == null)
+                tiny.agrega(i, i);
+            if (lru.get(i) == null)
+                lru.agrega(i, i);
+        }
+        int enTiny = 0, enLru = 0;
+        for (int i = 0; i < n / 2; i++) {
+            if (tiny.contiene(i))
+                enTiny++;
+            if (lru.contiene(i))
+                enLru++;
+        }
+        Assert.assertTrue(enLru == 0);
+        Assert.assertTrue(enTiny > n / 4);
+        Assert.assertTrue(tiny.getElementos() <= n);
+    }
+
+    /**
+     * Prueba unitaria para {@link Cache#Cache(long,PoliticaCache,Pesador)}.
+     */
+    @Test public void testPeso() {
+        for (PoliticaCache politica : PoliticaCache.values()) {
+            Cache<String, String> cache =
+                new Cache<String, String>(100, politica,
+                                          (llave, valor) -> valor.length());
+            for (int i = 0; i < total * 4; i++) {
+                String valor = "x".repeat(random.nextInt(30));
+                cache.agrega(String.valueOf(i), valor);
+                Assert.assertTrue(cache.getPeso() <= 100);
+            }
+            cache.agrega("grande", "x".repeat(101));
+            Assert.assertFalse(cache.contiene("grande"));
+            cache.agrega("a", "x".repeat(10));
+            cache.agrega("a", "x".repeat(101));
+            Assert.assertFalse(cache.contiene("a"));
+            Assert.assertTrue(cache.getPeso() <= 100);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Cache#tasaAciertos} y {@link Cache#limpia}.
+     */
+    @Test public void testContadores() {
+        Cache<Integer, Integer> cache =
+            new Cache<Integer, Integer>(total, PoliticaCache.LRU);
+        Assert.assertTrue(cache.tasaAciertos() == 0.0);
+        cache.agrega(1, 1);
+        cache.get(1);
+        cache.get(2);
+        Assert.assertTrue(cache.getAciertos() == 1);
+        Assert.assertTrue(cache.getFallos() == 1);
+        Assert.assertTrue(cache.tasaAciertos() == 0.5);
+        cache.limpia();
+        Assert.assertTrue(cache.esVacia());
+        Assert.assertTrue(cache.getPeso() == 0);
+        Assert.assertTrue(cache.get(1) == null);
+        Assert.assertTrue(cache.getFallos() == 2);
+        try {
+            new Cache<Integer, Integer>(0, PoliticaCache.LFU);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+}
@@ -9,6 +9,7 @@ import mx.unam.ciencias.edd.Diccionario;
 import mx.unam.ciencias.edd.Dispersor;
 import mx.unam.ciencias.edd.FabricaDispersores;
 import mx.unam.ciencias.edd.Lista;
+import mx.unam.ciencias.edd.Redimensionamiento;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -19,6 +20,56 @@ import org.junit.rules.Timeout;
  */
 public class TestDiccionario {
 
+    /* Llave que no implementa Comparable, para los árboles. */
+    private static class LlaveIncomparable {
+
+        /* El valor de la llave. */
+        private int valor;
+
+        /* Construye una llave. */
+        public LlaveIncomparable(int valor) {
+            this.valor = valor;
+        }
+
+        /* Nos dice si la llave es igual al objeto. */
+        @Override public boolean equals(Object objeto) {
+            return objeto instanceof LlaveIncomparable &&
+                ((LlaveIncomparable)objeto).valor == valor;
+        }
+
+        /* Regresa la dispersión de la llave. */
+        @Override public int hashCode() {
+            return valor;
+        }
+    }
+
+    /* Llave que cuenta cuántas veces se llama su equals. */
+    private static class LlaveContada {
+
+        /* El valor de la llave. */
+        private int valor;
+        /* El contador compartido de llamadas a equals. */
+        private int[] comparaciones;
+
+        /* Construye una llave. */
+        public LlaveContada(int valor, int[] comparaciones) {
+            this.valor = valor;
+            this.comparaciones = comparaciones;
+        }
+
+        /* Nos dice si la llave es igual al objeto. */
+        @Override public boolean equals(Object objeto) {
+            comparaciones[0]++;
+            return objeto instanceof LlaveContada &&
+                ((LlaveContada)objeto).valor == valor;
+        }
+
+        /* Regresa la dispersión de la llave. */
+        @Override public int hashCode() {
+            return valor;
+        }
+    }
+
     /** Expiración para que ninguna prueba tarde más de 5 segundos. */
     @Rule public Timeout expiracion = Timeout.seconds(5);
 
@@ -106,6 +157,53 @@ public class TestDiccionario {
         } catch (IllegalArgumentException iae) {}
     }
 
+    /**
+     * Prueba unitaria para {@link Diccionario#agregaTodos} y el constructor
+     * con arreglos, comparando contra agregar cada pareja con {@link
+     * Diccionario#agrega}.
+     */
+    @Test public void testAgregaTodos() {
+        int n = total * 8;
+        Integer[] llaves = new Integer[n];
+        Integer[] valores = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            llaves[i] = random.nextInt(n);
+            valores[i] = i;
+        }
+        Diccionario<Integer, Integer> uno = new Diccionario<Integer, Integer>();
+        for (int i = 0; i < total; i++)
+            uno.agrega(-i - 1, i);
+        for (int i = 0; i < n; i++)
+            uno.agrega(llaves[i], valores[i]);
+
+        Diccionario<Integer, Integer> todos =
+            new Diccionario<Integer, Integer>();
+        for (int i = 0; i < total; i++)
+            todos.agrega(-i - 1, i);
+        todos.agregaTodos(llaves, valores, random.nextBoolean());
+        Assert.assertTrue(todos.equals(uno));
+        Assert.assertTrue(todos.toString().equals(uno.toString()));
+        Assert.assertTrue(todos.carga() < Diccionario.MAXIMA_CARGA);
+
+        Diccionario<Integer, Integer> construido =
+            new Diccionario<Integer, Integer>(llaves, valores);
+        for (int i = 0; i < total; i++)
+            construido.agrega(-i - 1, i);
+        Assert.assertTrue(construido.equals(uno));
+
+        try {
+            todos.agregaTodos(new Integer[] { 1, 2 }, new Integer[] { 1 });
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            todos.agregaTodos(new Integer[] { -1, null },
+                              new Integer[] { 1, 2 });
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        Assert.assertTrue(todos.equals(uno));
+        Assert.assertTrue(todos.get(-2) == 1);
+    }
+
     /**
      * Prueba unitaria para {@link Diccionario#get}.
      */
@@ -281,6 +379,66 @@ public class TestDiccionario {
         Assert.assertTrue(contador == 0);
     }
 
+    /**
+     * Prueba unitaria para {@link Diccionario#elimina} cuando la carga baja de
+     * {@link Diccionario#MINIMA_CARGA}.
+     */
+    @Test public void testEncoge() {
+        Redimensionamiento[] formas = Redimensionamiento.values();
+        for (Redimensionamiento forma : formas) {
+            Diccionario<Integer, Integer> d =
+                new Diccionario<Integer, Integer>(0, n -> n, forma);
+            int n = total * 16;
+            for (int i = 0; i < n; i++)
+                d.agrega(i, i);
+            for (int i = 0; i < n - 1; i++) {
+                d.elimina(i);
+                int capacidad = (int)Math.round(d.getElementos() / d.carga());
+                Assert.assertTrue(capacidad == 64 ||
+                                  d.carga() >= Diccionario.MINIMA_CARGA);
+                Assert.assertTrue(d.carga() < Diccionario.MAXIMA_CARGA);
+                Assert.assertTrue(d.contiene(i + 1));
+            }
+            Assert.assertTrue(d.carga() == 1.0 / 64);
+            Assert.assertTrue(d.get(n - 1) == n - 1);
+        }
+        for (int i = 0; i < total * 4; i++)
+            diccionario.agrega(String.valueOf(i), String.valueOf(i));
+        for (int i = 0; i < total * 4; i++)
+            diccionario.elimina(String.valueOf(i));
+        diccionario.agrega("a", "a");
+        Assert.assertTrue(diccionario.carga() == 1.0 / calculaCapacidad(total));
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#compacta}.
+     */
+    @Test public void testCompacta() {
+        diccionario = new Diccionario<String, String>(total * 64);
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(String.valueOf(i), String.valueOf(i));
+        double carga = diccionario.carga();
+        int referencias = diccionario.getReferencias();
+        diccionario.compacta();
+        Assert.assertTrue(diccionario.carga() > carga);
+        Assert.assertTrue(diccionario.carga() ==
+                          (double)total / calculaCapacidad(total));
+        Assert.assertTrue(diccionario.getReferencias() < referencias);
+        Assert.assertTrue(diccionario.getReferencias() ==
+                          calculaCapacidad(total) + total);
+        Assert.assertTrue(diccionario.getElementos() == total);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(diccionario.get(String.valueOf(i))
+                              .equals(String.valueOf(i)));
+        diccionario.limpia();
+        diccionario.agrega("a", "a");
+        Assert.assertTrue(diccionario.carga() == 1.0 / calculaCapacidad(total));
+        diccionario.limpia();
+        diccionario.compacta();
+        diccionario.agrega("a", "a");
+        Assert.assertTrue(diccionario.carga() == 1.0 / 64);
+    }
+
     /**
      * Prueba unitaria para {@link Diccionario#toString}.
      */
@@ -288,30 +446,145 @@ public class TestDiccionario {
         Diccionario<Integer, Integer> dicc =
             new Diccionario<Integer, Integer>();
         Assert.assertTrue(dicc.toString().equals("{}"));
-        int[] entradas = new int[total];
-        for (int i = 0; i < total; i++)
-            entradas[i] = -1;
+        boolean[] vistas = new boolean[total];
+        String s = "{ ";
         for (int i = 0; i < total; i++) {
             int n = random.nextInt(total);
             dicc.agrega(n, n);
-            entradas[n] = n;
-            String s = "{ ";
-            for (int j = 0; j < total; j++) {
-                if (entradas[j] == -1)
-                    continue;
-                s += String.format("'%d': '%d', ", j, j);
-            }
+            if (!vistas[n])
+                s += String.format("'%d': '%d', ", n, n);
+            vistas[n] = true;
             Assert.assertTrue(dicc.toString().equals(s + "}"));
         }
-        String s = "{ ";
-        for (int i = 0; i < total; i++) {
-            if (entradas[i] == -1)
-                continue;
-            s += String.format("'%d': '%d', ", i, i);
-        }
         Assert.assertTrue(dicc.toString().equals(s + "}"));
     }
 
+    /**
+     * Prueba unitaria para eliminar cada llave justo después de que el
+     * iterador la regresa.
+     */
+    @Test public void testEliminaAlIterar() {
+        Diccionario<Integer, Integer> d =
+            new Diccionario<Integer, Integer>();
+        for (int i = 0; i < total * 4; i++)
+            d.agrega(i, i);
+        Iterator<Integer> llaves = d.iteradorLlaves();
+        int c = 0;
+        while (llaves.hasNext()) {
+            int n = llaves.next();
+            Assert.assertTrue(n == c++);
+            d.elimina(n);
+        }
+        Assert.assertTrue(c == total * 4);
+        Assert.assertTrue(d.esVacia());
+    }
+
+    /**
+     * Prueba unitaria para el orden de los iteradores: las llaves se recorren
+     * en el orden en que se agregaron, aunque se eliminen llaves y el
+     * diccionario se redimensione.
+     */
+    @Test public void testOrdenDeInsercion() {
+        Diccionario<Integer, Integer> d =
+            new Diccionario<Integer, Integer>();
+        Lista<Integer> orden = new Lista<Integer>();
+        for (int i = 0; i < total * 20; i++) {
+            int n = random.nextInt(total * 4);
+            if (random.nextInt(3) != 0) {
+                if (!d.contiene(n))
+                    orden.agrega(n);
+                d.agrega(n, i);
+            } else if (d.contiene(n)) {
+                d.elimina(n);
+                orden.elimina(n);
+            }
+        }
+        if (random.nextBoolean())
+            d.compacta();
+        Iterator<Integer> llaves = d.iteradorLlaves();
+        for (Integer n : orden)
+            Assert.assertTrue(llaves.next().equals(n));
+        Assert.assertFalse(llaves.hasNext());
+        try {
+            llaves.next();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para el crecimiento del arreglo denso, que se copia poco
+     * a poco en varias inserciones: eliminar e iterar mientras se copia no
+     * pierde ni repite llaves, y un iterador creado antes sigue su recorrido.
+     */
+    @Test public void testCrecimientoDenso() {
+        Diccionario<Integer, Integer> d =
+            new Diccionario<Integer, Integer>();
+        Lista<Integer> orden = new Lista<Integer>();
+        Iterator<Integer> anterior = null;
+        for (int i = 0; i < total * 8; i++) {
+            d.agrega(i, i);
+            orden.agrega(i);
+            if (i % 5 == 0) {
+                d.elimina(i - i / 2);
+                orden.elimina(i - i / 2);
+            }
+            if (i == total)
+                anterior = d.iteradorLlaves();
+            Iterator<Integer> llaves = d.iteradorLlaves();
+            for (Integer n : orden)
+                Assert.assertTrue(llaves.next().equals(n));
+            Assert.assertFalse(llaves.hasNext());
+        }
+        int c = 0;
+        while (anterior.hasNext()) {
+            Assert.assertTrue(d.contiene(anterior.next()));
+            c++;
+        }
+        Assert.assertTrue(c <= total + 1);
+    }
+
+    /**
+     * Prueba unitaria para las dispersiones guardadas en las entradas: al
+     * crecer, con cualquier redimensionamiento, no se vuelve a llamar al
+     * dispersor, y las búsquedas llaman a equals sólo con las llaves de la
+     * misma dispersión.
+     */
+    @Test public void testDispersionesGuardadas() {
+        for (Redimensionamiento r : Redimensionamiento.values()) {
+            int[] dispersiones = { 0 };
+            Diccionario<Integer, Integer> d =
+                new Diccionario<Integer, Integer>(0, n -> {
+                    dispersiones[0]++;
+                    return n;
+                }, r);
+            int n = total * 40;
+            for (int i = 0; i < n; i++)
+                d.agrega(i, i);
+            Assert.assertTrue(dispersiones[0] == n);
+            for (int i = 0; i < n; i++)
+                Assert.assertTrue(d.get(i) == i);
+            Assert.assertTrue(dispersiones[0] == 2 * n);
+        }
+
+        /* Llaves en el mismo índice, con dispersiones distintas. */
+        int[] comparaciones = { 0 };
+        Diccionario<LlaveContada, Integer> d =
+            new Diccionario<LlaveContada, Integer>(0, l -> l.valor);
+        int n = Diccionario.UMBRAL_ARBOL;
+        for (int i = 0; i < n; i++)
+            d.agrega(new LlaveContada(i << 6, comparaciones), i);
+        Assert.assertTrue(d.colisionMaxima() == n - 1);
+        comparaciones[0] = 0;
+        for (int i = 0; i < n; i++)
+            Assert.assertFalse(d.contiene(new LlaveContada((i << 6) + 64 * n,
+                                                           comparaciones)));
+        Assert.assertTrue(comparaciones[0] == 0);
+        for (int i = 0; i < n; i++)
+            Assert.assertTrue(d.get(new LlaveContada(i << 6,
+                                                     comparaciones)) == i);
+        Assert.assertTrue(comparaciones[0] == n);
+    }
+
     /**
      * Prueba unitaria para {@link Diccionario#equals}.
      */
@@ -425,4 +698,170 @@ public class TestDiccionario {
             c++;
         Assert.assertTrue(c == 0);
     }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#Diccionario(int,Dispersor,
+     * Redimensionamiento)} con {@link Redimensionamiento#INCREMENTAL},
+     * comparando una secuencia aleatoria de operaciones con un diccionario que
+     * se redimensiona de golpe.
+     */
+    @Test public void testRedimensionamientoIncremental() {
+        Diccionario<Integer, Integer> incremental =
+            new Diccionario<Integer, Integer>(0, n -> n,
+                                              Redimensionamiento.INCREMENTAL);
+        Diccionario<Integer, Integer> completo =
+            new Diccionario<Integer, Integer>();
+        for (int i = 0; i < total * 100; i++) {
+            int n = random.nextInt(total * 20);
+            if (random.nextInt(4) != 0) {
+                incremental.agrega(n, i);
+                completo.agrega(n, i);
+            } else if (completo.contiene(n)) {
+                incremental.elimina(n);
+                completo.elimina(n);
+            } else {
+                try {
+                    incremental.elimina(n);
+                    Assert.fail();
+                } catch (NoSuchElementException nsee) {}
+            }
+            Assert.assertTrue(incremental.getElementos() ==
+                              completo.getElementos());
+            Assert.assertTrue(incremental.carga() <
+                              Diccionario.MAXIMA_CARGA);
+            Assert.assertTrue(incremental.contiene(n) == completo.contiene(n));
+            if (completo.contiene(n))
+                Assert.assertTrue(incremental.get(n).equals(completo.get(n)));
+        }
+        Assert.assertTrue(incremental.equals(completo));
+        int c = 0;
+        Iterator<Integer> iterador = incremental.iteradorLlaves();
+        while (iterador.hasNext()) {
+            Assert.assertTrue(completo.contiene(iterador.next()));
+            c++;
+        }
+        Assert.assertTrue(c == completo.getElementos());
+        Assert.assertTrue(incremental.colisiones() == completo.colisiones());
+    }
+
+    /**
+     * Prueba unitaria para las listas convertidas en árboles, con llaves
+     * comparables que chocan todas en la misma lista.
+     */
+    @Test public void testArboles() {
+        Diccionario<Integer, Integer> d =
+            new Diccionario<Integer, Integer>(total, n -> 7);
+        int n = total * 8;
+        for (int i = 0; i < n; i++) {
+            d.agrega(i, -i);
+            Assert.assertTrue(d.get(i) == -i);
+        }
+        Assert.assertTrue(d.getElementos() == n);
+        Assert.assertTrue(d.colisiones() == n - 1);
+        int limite = 2 * (32 - Integer.numberOfLeadingZeros(n + 1));
+        Assert.assertTrue(d.colisionMaxima() > 0);
+        Assert.assertTrue(d.colisionMaxima() <= limite);
+        for (int i = 0; i < n; i++)
+            Assert.assertTrue(d.get(i) == -i);
+        Assert.assertFalse(d.contiene(n));
+        for (int i = 0; i < n - 3; i++) {
+            d.elimina(i);
+            Assert.assertFalse(d.contiene(i));
+            Assert.assertTrue(d.contiene(i + 1));
+        }
+        Assert.assertTrue(d.colisionMaxima() == 2);
+        try {
+            d.elimina(0);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para las listas convertidas en árboles, con llaves que
+     * no son comparables y con dispersiones que a veces coinciden.
+     */
+    @Test public void testArbolesIncomparables() {
+        Diccionario<LlaveIncomparable, Integer> d =
+            new Diccionario<LlaveIncomparable, Integer>(
+                total, l -> l.valor % 3, Redimensionamiento.INCREMENTAL, 4);
+        Diccionario<Integer, Integer> referencia =
+            new Diccionario<Integer, Integer>();
+        for (int i = 0; i < total * 20; i++) {
+            int llave = random.nextInt(total * 2);
+            if (random.nextInt(3) != 0) {
+                d.agrega(new LlaveIncomparable(llave), i);
+                referencia.agrega(llave, i);
+            } else if (referencia.contiene(llave)) {
+                d.elimina(new LlaveIncomparable(llave));
+                referencia.elimina(llave);
+            }
+            Assert.assertTrue(d.getElementos() == referencia.getElementos());
+        }
+        for (int llave = 0; llave < total * 2; llave++) {
+            LlaveIncomparable l = new LlaveIncomparable(llave);
+            Assert.assertTrue(d.contiene(l) == referencia.contiene(llave));
+            if (referencia.contiene(llave))
+                Assert.assertTrue(d.get(l).equals(referencia.get(llave)));
+        }
+        int c = 0;
+        Iterator<LlaveIncomparable> iterador = d.iteradorLlaves();
+        while (iterador.hasNext()) {
+            Assert.assertTrue(referencia.contiene(iterador.next().valor));
+            c++;
+        }
+        Assert.assertTrue(c == referencia.getElementos());
+        try {
+            new Diccionario<Integer, Integer>(total, n -> n,
+                                              Redimensionamiento.COMPLETO, 1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /* Regresa una llave de la clase y con el valor dados. */
+    private static Object llave(int clase, int valor) {
+        switch (clase) {
+        case 0:  return Integer.valueOf(valor);
+        case 1:  return String.valueOf(valor);
+        default: return new LlaveIncomparable(valor);
+        }
+    }
+
+    /**
+     * Prueba unitaria para las listas convertidas en árboles, con llaves de
+     * clases distintas, comparables e incomparables, que chocan todas en la
+     * misma lista.
+     */
+    @Test public void testArbolesMezclados() {
+        Diccionario<Object, Integer> d =
+            new Diccionario<Object, Integer>(total, o -> 7,
+                                             Redimensionamiento.COMPLETO, 4);
+        Diccionario<String, Integer> referencia =
+            new Diccionario<String, Integer>();
+        for (int i = 0; i < total * 20; i++) {
+            int clase = random.nextInt(3), valor = random.nextInt(total);
+            String nombre = clase + ":" + valor;
+            if (random.nextInt(3) != 0) {
+                d.agrega(llave(clase, valor), i);
+                referencia.agrega(nombre, i);
+            } else if (referencia.contiene(nombre)) {
+                d.elimina(llave(clase, valor));
+                referencia.elimina(nombre);
+            } else {
+                try {
+                    d.elimina(llave(clase, valor));
+                    Assert.fail();
+                } catch (NoSuchElementException nsee) {}
+            }
+            Assert.assertTrue(d.getElementos() == referencia.getElementos());
+        }
+        for (int clase = 0; clase < 3; clase++) {
+            for (int valor = 0; valor < total; valor++) {
+                String nombre = clase + ":" + valor;
+                Object l = llave(clase, valor);
+                Assert.assertTrue(d.contiene(l) == referencia.contiene(nombre));
+                if (referencia.contiene(nombre))
+                    Assert.assertTrue(d.get(l).equals(referencia.get(nombre)));
+            }
+        }
+    }
 }
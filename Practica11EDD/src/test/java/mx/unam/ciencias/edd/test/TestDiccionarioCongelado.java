@@ -0,0 +1,193 @@
+package mx.unam.ciencias.edd.test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.AlgoritmoDispersor;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.DiccionarioCongelado;
+import mx.unam.ciencias.edd.Dispersor;
+import mx.unam.ciencias.edd.FabricaDispersores;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioCongelado}.
+ */
+public class TestDiccionarioCongelado {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /** Directorio temporal para los archivos de las pruebas. */
+    @Rule public TemporaryFolder carpeta = new TemporaryFolder();
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* El diccionario del que se congelan las copias. */
+    private Diccionario<String, Integer> diccionario;
+
+    /**
+     * Crea un diccionario con llaves aleatorias para cada prueba.
+     */
+    public TestDiccionarioCongelado() {
+        int N = 64;
+        random = new Random();
+        total = N + random.nextInt(N);
+        diccionario = new Diccionario<String, Integer>();
+        for (int i = 0; i < total * 20; i++)
+            diccionario.agrega(String.valueOf(random.nextInt()), i);
+    }
+
+    /* Valida que el diccionario congelado tenga exactamente las entradas del
+     * diccionario. */
+    private void valida(DiccionarioCongelado<String, Integer> congelado) {
+        Assert.assertTrue(congelado.getElementos() ==
+                          diccionario.getElementos());
+        Iterator<String> llaves = diccionario.iteradorLlaves();
+        while (llaves.hasNext()) {
+            String llave = llaves.next();
+            Assert.assertTrue(congelado.contiene(llave));
+            Assert.assertTrue(congelado.get(llave)
+                              .equals(diccionario.get(llave)));
+        }
+        int n = 0;
+        llaves = congelado.iteradorLlaves();
+        Iterator<Integer> valores = congelado.iterator();
+        while (llaves.hasNext()) {
+            String llave = llaves.next();
+            Assert.assertTrue(valores.next().equals(diccionario.get(llave)));
+            n++;
+        }
+        Assert.assertFalse(valores.hasNext());
+        Assert.assertTrue(n == diccionario.getElementos());
+        for (int i = 0; i < total; i++) {
+            String llave = "no" + random.nextInt();
+            Assert.assertFalse(congelado.contiene(llave));
+            try {
+                congelado.get(llave);
+                Assert.fail();
+            } catch (NoSuchElementException nsee) {}
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#congela}.
+     */
+    @Test public void testCongela() {
+        DiccionarioCongelado<String, Integer> congelado =
+            diccionario.congela();
+        valida(congelado);
+        Assert.assertFalse(congelado.contiene(null));
+        try {
+            congelado.get(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+
+        diccionario.agrega("nueva", -1);
+        Assert.assertFalse(congelado.contiene("nueva"));
+        Assert.assertTrue(congelado.equals(congelado));
+        Assert.assertFalse(congelado.equals(diccionario.congela()));
+
+        congelado = new Diccionario<String, Integer>().congela();
+        Assert.assertTrue(congelado.esVacia());
+        Assert.assertFalse(congelado.iteradorLlaves().hasNext());
+        Assert.assertFalse(congelado.contiene("a"));
+        Assert.assertTrue(congelado.toString().equals("{}"));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCongelado#DiccionarioCongelado}
+     * con llaves repetidas.
+     */
+    @Test public void testConstructor() {
+        String[] llaves = { "a", "b", "a", "c" };
+        Integer[] valores = { 1, 2, 3, 4 };
+        DiccionarioCongelado<String, Integer> congelado =
+            new DiccionarioCongelado<String, Integer>(llaves, valores,
+                                                      c -> c.hashCode());
+        Assert.assertTrue(congelado.getElementos() == 3);
+        Assert.assertTrue(congelado.get("a") == 3);
+        Assert.assertTrue(congelado.get("c") == 4);
+        try {
+            new DiccionarioCongelado<String, Integer>(llaves,
+                                                      new Integer[2],
+                                                      c -> c.hashCode());
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new DiccionarioCongelado<String, Integer>(llaves,
+                                                      new Integer[4],
+                                                      c -> c.hashCode());
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCongelado#getExcedentes}: con un
+     * dispersor que choca mucho, las llaves con una dispersión repetida se
+     * siguen encontrando.
+     */
+    @Test public void testExcedentes() {
+        DiccionarioCongelado<String, Integer> congelado =
+            diccionario.congela(c -> c.length());
+        Assert.assertTrue(congelado.getExcedentes() > 0);
+        valida(congelado);
+
+        congelado = diccionario.congela(
+            FabricaDispersores.dispersor64Cadena(
+                AlgoritmoDispersor.XXHASH64_STRING));
+        Assert.assertTrue(congelado.getExcedentes() == 0);
+        valida(congelado);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCongelado#bitsPorLlave}.
+     */
+    @Test public void testBitsPorLlave() {
+        for (int i = 0; i < 20000; i++)
+            diccionario.agrega("llave" + i, i);
+        DiccionarioCongelado<String, Integer> congelado =
+            diccionario.congela();
+        Assert.assertTrue(congelado.bitsPorLlave() < 5.0);
+        valida(congelado);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCongelado#guarda} y {@link
+     * DiccionarioCongelado#carga}.
+     */
+    @Test public void testGuardaCarga() throws IOException {
+        Dispersor<String> dispersor = c -> c.length();
+        DiccionarioCongelado<String, Integer> congelado =
+            diccionario.congela(dispersor);
+        Path archivo = carpeta.getRoot().toPath().resolve("congelado");
+        congelado.guarda(archivo);
+        DiccionarioCongelado<String, Integer> cargado =
+            DiccionarioCongelado.carga(archivo, dispersor);
+        valida(cargado);
+        Assert.assertTrue(cargado.equals(congelado));
+        Assert.assertTrue(cargado.getExcedentes() ==
+                          congelado.getExcedentes());
+
+        try {
+            DiccionarioCongelado.carga(archivo, c -> c.hashCode());
+            Assert.fail();
+        } catch (IOException ioe) {}
+
+        Path basura = carpeta.getRoot().toPath().resolve("basura");
+        Files.write(basura, new byte[16]);
+        try {
+            DiccionarioCongelado.carga(basura, dispersor);
+            Assert.fail();
+        } catch (IOException ioe) {}
+    }
+}
@@ -0,0 +1,210 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.AlgoritmoDispersor;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.DiccionarioCuco;
+import mx.unam.ciencias.edd.Dispersores;
+import mx.unam.ciencias.edd.FabricaDispersores;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioCuco}.
+ */
+public class TestDiccionarioCuco {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* El diccionario. */
+    private DiccionarioCuco<Integer, Integer> diccionario;
+
+    /**
+     * Crea un diccionario para cada prueba.
+     */
+    public TestDiccionarioCuco() {
+        int N = 64;
+        random = new Random();
+        total = N + random.nextInt(N);
+        diccionario = new DiccionarioCuco<Integer, Integer>(
+            n -> Dispersores.mezcla32(n), n -> (int)Dispersores.mezcla64(n));
+    }
+
+    /* Valida que el diccionario tenga exactamente las entradas de la
+     * referencia. */
+    private <K> void valida(DiccionarioCuco<K, Integer> diccionario,
+                            Diccionario<K, Integer> referencia) {
+        Assert.assertTrue(diccionario.getElementos() ==
+                          referencia.getElementos());
+        Assert.assertTrue(diccionario.carga() <=
+                          DiccionarioCuco.MAXIMA_CARGA);
+        Iterator<K> llaves = referencia.iteradorLlaves();
+        while (llaves.hasNext()) {
+            K llave = llaves.next();
+            Assert.assertTrue(diccionario.get(llave)
+                              .equals(referencia.get(llave)));
+        }
+        int n = 0;
+        llaves = diccionario.iteradorLlaves();
+        Iterator<Integer> valores = diccionario.iterator();
+        while (llaves.hasNext()) {
+            K llave = llaves.next();
+            Assert.assertTrue(valores.next().equals(referencia.get(llave)));
+            n++;
+        }
+        Assert.assertFalse(valores.hasNext());
+        Assert.assertTrue(n == referencia.getElementos());
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCuco#DiccionarioCuco}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(diccionario.esVacia());
+        Assert.assertTrue(diccionario.getElementos() == 0);
+        Assert.assertTrue(diccionario.getEscondidas() == 0);
+        Assert.assertTrue(diccionario.carga() == 0.0);
+        Assert.assertFalse(diccionario.iteradorLlaves().hasNext());
+        Assert.assertFalse(diccionario.iterator().hasNext());
+        Assert.assertTrue(diccionario.toString().equals("{}"));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCuco#agrega} y {@link
+     * DiccionarioCuco#get}.
+     */
+    @Test public void testAgregaGet() {
+        for (int i = 0; i < total * 40; i++) {
+            int llave = random.nextInt();
+            diccionario.agrega(llave, -i);
+            Assert.assertTrue(diccionario.contiene(llave));
+            Assert.assertTrue(diccionario.get(llave) == -i);
+            Assert.assertTrue(diccionario.carga() <=
+                              DiccionarioCuco.MAXIMA_CARGA);
+        }
+        diccionario.agrega(7, 1);
+        diccionario.agrega(7, 2);
+        Assert.assertTrue(diccionario.get(7) == 2);
+        try {
+            diccionario.agrega(null, 1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        Assert.assertFalse(diccionario.contiene(null));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCuco#carga}: con dos buenos
+     * dispersores, el arreglo se llena casi hasta la carga máxima antes de
+     * crecer.
+     */
+    @Test public void testCarga() {
+        DiccionarioCuco<String, Integer> cuco =
+            new DiccionarioCuco<String, Integer>(
+                FabricaDispersores.dispersorCadena(
+                    AlgoritmoDispersor.MURMUR3_STRING),
+                FabricaDispersores.dispersorCadena(
+                    AlgoritmoDispersor.XXHASH32_STRING));
+        double maxima = 0.0;
+        for (int i = 0; i < 1 << 14; i++) {
+            cuco.agrega("llave" + i, i);
+            maxima = Math.max(maxima, cuco.carga());
+        }
+        Assert.assertTrue(maxima > 0.9);
+        Assert.assertTrue(cuco.getEscondidas() <= 4);
+    }
+
+    /**
+     * Prueba unitaria para llaves con el mismo <code>hashCode</code>: con dos
+     * dispersores de cadenas de algoritmos distintos, se reparten por el
+     * arreglo en lugar de acabar en el escondite.
+     */
+    @Test public void testHashCodeIguales() {
+        DiccionarioCuco<String, Integer> cuco =
+            new DiccionarioCuco<String, Integer>(
+                FabricaDispersores.dispersorCadena(
+                    AlgoritmoDispersor.MURMUR3_STRING),
+                FabricaDispersores.dispersorCadena(
+                    AlgoritmoDispersor.XXHASH32_STRING));
+        int n = 1 << 10;
+        int hashCode = 0;
+        for (int i = 0; i < n; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int b = 0; b < 10; b++)
+                sb.append((i & (1 << b)) == 0 ? "Aa" : "BB");
+            String llave = sb.toString();
+            if (i == 0)
+                hashCode = llave.hashCode();
+            Assert.assertTrue(llave.hashCode() == hashCode);
+            cuco.agrega(llave, i);
+        }
+        Assert.assertTrue(cuco.getElementos() == n);
+        Assert.assertTrue(cuco.getEscondidas() <= 4);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCuco#elimina}, comparando una
+     * secuencia aleatoria de operaciones con un {@link Diccionario}.
+     */
+    @Test public void testElimina() {
+        Diccionario<Integer, Integer> referencia =
+            new Diccionario<Integer, Integer>();
+        for (int i = 0; i < total * 40; i++) {
+            int llave = random.nextInt(total * 8);
+            if (random.nextInt(3) > 0) {
+                diccionario.agrega(llave, i);
+                referencia.agrega(llave, i);
+            } else if (referencia.contiene(llave)) {
+                diccionario.elimina(llave);
+                referencia.elimina(llave);
+                Assert.assertFalse(diccionario.contiene(llave));
+            } else {
+                try {
+                    diccionario.elimina(llave);
+                    Assert.fail();
+                } catch (NoSuchElementException nsee) {}
+            }
+        }
+        valida(diccionario, referencia);
+        diccionario.limpia();
+        Assert.assertTrue(diccionario.esVacia());
+        Assert.assertFalse(diccionario.iteradorLlaves().hasNext());
+    }
+
+    /**
+     * Prueba unitaria para el escondite: con dispersores que chocan mucho,
+     * las llaves que no caben en sus cubetas van al escondite, que crece si
+     * hace falta, y salen de él cuando se libera una casilla.
+     */
+    @Test public void testEscondite() {
+        DiccionarioCuco<Integer, Integer> cuco =
+            new DiccionarioCuco<Integer, Integer>(n -> 0, n -> 0);
+        Diccionario<Integer, Integer> referencia =
+            new Diccionario<Integer, Integer>();
+        for (int i = 0; i < total; i++) {
+            cuco.agrega(i, -i);
+            referencia.agrega(i, -i);
+        }
+        Assert.assertTrue(cuco.getEscondidas() ==
+                          total - DiccionarioCuco.CUBETA);
+        valida(cuco, referencia);
+
+        for (int i = 0; i < total; i += 3) {
+            int escondidas = cuco.getEscondidas();
+            cuco.elimina(i);
+            referencia.elimina(i);
+            Assert.assertTrue(cuco.getEscondidas() == escondidas - 1);
+        }
+        valida(cuco, referencia);
+        Assert.assertTrue(cuco.equals(cuco));
+        Assert.assertFalse(cuco.equals(diccionario));
+    }
+}
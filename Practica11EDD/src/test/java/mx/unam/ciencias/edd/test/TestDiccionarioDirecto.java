@@ -0,0 +1,202 @@
+package mx.unam.ciencias.edd.test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.DiccionarioDirecto;
+import mx.unam.ciencias.edd.Dispersores;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioDirecto}.
+ */
+public class TestDiccionarioDirecto {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* El diccionario. */
+    private DiccionarioDirecto diccionario;
+
+    /**
+     * Crea un diccionario para cada prueba.
+     */
+    public TestDiccionarioDirecto() {
+        int N = 64;
+        random = new Random();
+        total = N + random.nextInt(N);
+        diccionario = new DiccionarioDirecto();
+    }
+
+    /* Regresa los bytes UTF-8 de la cadena. */
+    private static byte[] bytes(String cadena) {
+        return cadena.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /* Regresa la cadena de los bytes UTF-8. */
+    private static String cadena(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /* Regresa un valor aleatorio de hasta n caracteres. */
+    private String valor(int n) {
+        StringBuilder sb = new StringBuilder();
+        int m = random.nextInt(n + 1);
+        for (int i = 0; i < m; i++)
+            sb.append((char)('a' + random.nextInt(26)));
+        return sb.toString();
+    }
+
+    /* Valida que el diccionario tenga exactamente las entradas de la
+     * referencia. */
+    private void valida(Diccionario<String, String> referencia) {
+        Assert.assertTrue(diccionario.getElementos() ==
+                          referencia.getElementos());
+        Assert.assertTrue(diccionario.carga() <
+                          DiccionarioDirecto.MAXIMA_CARGA);
+        Iterator<String> llaves = referencia.iteradorLlaves();
+        while (llaves.hasNext()) {
+            String llave = llaves.next();
+            Assert.assertTrue(cadena(diccionario.get(bytes(llave)))
+                              .equals(referencia.get(llave)));
+        }
+        int n = 0;
+        Iterator<byte[]> directas = diccionario.iteradorLlaves();
+        Iterator<byte[]> valores = diccionario.iterator();
+        while (directas.hasNext()) {
+            String llave = cadena(directas.next());
+            Assert.assertTrue(cadena(valores.next())
+                              .equals(referencia.get(llave)));
+            n++;
+        }
+        Assert.assertFalse(valores.hasNext());
+        Assert.assertTrue(n == referencia.getElementos());
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioDirecto#DiccionarioDirecto}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(diccionario.esVacia());
+        Assert.assertTrue(diccionario.getElementos() == 0);
+        Assert.assertTrue(diccionario.getBasura() == 0);
+        Assert.assertTrue(diccionario.memoria() > 0);
+        Assert.assertFalse(diccionario.iteradorLlaves().hasNext());
+        Assert.assertFalse(diccionario.iterator().hasNext());
+        try {
+            new DiccionarioDirecto(Integer.MAX_VALUE);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioDirecto#agrega} y {@link
+     * DiccionarioDirecto#get}, con suficientes llaves para que crezcan el
+     * índice y las losas.
+     */
+    @Test public void testAgregaGet() {
+        for (int i = 0; i < total * 40; i++) {
+            byte[] llave = bytes("llave" + i);
+            byte[] valor = bytes(valor(40));
+            Assert.assertFalse(diccionario.contiene(llave));
+            diccionario.agrega(llave, valor);
+            Assert.assertTrue(diccionario.contiene(llave));
+            Assert.assertTrue(Arrays.equals(diccionario.get(llave), valor));
+            Assert.assertTrue(diccionario.getElementos() == i+1);
+            Assert.assertTrue(diccionario.carga() <
+                              DiccionarioDirecto.MAXIMA_CARGA);
+        }
+        byte[] llave = bytes("llave0");
+        byte[] valor = bytes("valor");
+        diccionario.agrega(llave, valor);
+        valor[0] = 'X';
+        Assert.assertTrue(cadena(diccionario.get(llave)).equals("valor"));
+        diccionario.get(llave)[0] = 'X';
+        Assert.assertTrue(cadena(diccionario.get(llave)).equals("valor"));
+        diccionario.agrega(new byte[0], new byte[0]);
+        Assert.assertTrue(diccionario.get(new byte[0]).length == 0);
+        try {
+            diccionario.get(bytes("no está"));
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            diccionario.agrega(null, valor);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        Assert.assertFalse(diccionario.contiene(null));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioDirecto#elimina}, comparando
+     * una secuencia aleatoria de operaciones con un {@link Diccionario}, con
+     * un dispersor malo para que haya muchas colisiones.
+     */
+    @Test public void testElimina() {
+        diccionario = new DiccionarioDirecto(b -> b.length);
+        Diccionario<String, String> referencia =
+            new Diccionario<String, String>();
+        for (int i = 0; i < total * 20; i++) {
+            String llave = String.valueOf(random.nextInt(total * 4));
+            if (random.nextInt(3) > 0) {
+                String valor = valor(20);
+                diccionario.agrega(bytes(llave), bytes(valor));
+                referencia.agrega(llave, valor);
+            } else if (referencia.contiene(llave)) {
+                diccionario.elimina(bytes(llave));
+                referencia.elimina(llave);
+                Assert.assertFalse(diccionario.contiene(bytes(llave)));
+            } else {
+                try {
+                    diccionario.elimina(bytes(llave));
+                    Assert.fail();
+                } catch (NoSuchElementException nsee) {}
+            }
+        }
+        valida(referencia);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioDirecto#compacta} y {@link
+     * DiccionarioDirecto#limpia}.
+     */
+    @Test public void testCompacta() {
+        diccionario = new DiccionarioDirecto(b -> Dispersores.dispersaDJB(b));
+        Diccionario<String, String> referencia =
+            new Diccionario<String, String>();
+        for (int i = 0; i < total * 10; i++) {
+            String llave = String.valueOf(i);
+            diccionario.agrega(bytes(llave), bytes(valor(10)));
+            String valor = valor(10) + "0123456789";
+            diccionario.agrega(bytes(llave), bytes(valor));
+            referencia.agrega(llave, valor);
+        }
+        for (int i = 0; i < total * 5; i++) {
+            diccionario.elimina(bytes(String.valueOf(i)));
+            referencia.elimina(String.valueOf(i));
+        }
+        Assert.assertTrue(diccionario.getBasura() > 0);
+        long memoria = diccionario.memoria();
+        diccionario.compacta();
+        Assert.assertTrue(diccionario.getBasura() == 0);
+        Assert.assertTrue(diccionario.memoria() < memoria);
+        valida(referencia);
+        diccionario.agrega(bytes("x"), bytes("y"));
+        referencia.agrega("x", "y");
+        valida(referencia);
+
+        diccionario.limpia();
+        Assert.assertTrue(diccionario.esVacia());
+        Assert.assertFalse(diccionario.iteradorLlaves().hasNext());
+        Assert.assertFalse(diccionario.contiene(bytes("x")));
+    }
+}
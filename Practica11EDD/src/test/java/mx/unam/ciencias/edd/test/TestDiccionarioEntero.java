@@ -0,0 +1,194 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.DiccionarioEntero;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioEntero}.
+ */
+public class TestDiccionarioEntero {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* El diccionario. */
+    private DiccionarioEntero diccionario;
+
+    /**
+     * Crea un diccionario para cada prueba.
+     */
+    public TestDiccionarioEntero() {
+        int N = 64;
+        random = new Random();
+        total = N + random.nextInt(N);
+        diccionario = new DiccionarioEntero(total);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioEntero#DiccionarioEntero}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(diccionario.esVacia());
+        Assert.assertTrue(diccionario.getElementos() == 0);
+        Assert.assertTrue(diccionario.carga() == 0.0);
+        Assert.assertTrue(diccionario.colisiones() == 0);
+        Assert.assertFalse(diccionario.iteradorLlaves().hasNext());
+        Assert.assertFalse(diccionario.iteradorValores().hasNext());
+        try {
+            new DiccionarioEntero(Integer.MAX_VALUE);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioEntero#agrega} y {@link
+     * DiccionarioEntero#get}.
+     */
+    @Test public void testAgregaGet() {
+        for (int i = 0; i < total * 4; i++) {
+            int llave = i * 1000;
+            Assert.assertFalse(diccionario.contiene(llave));
+            diccionario.agrega(llave, -llave);
+            Assert.assertTrue(diccionario.contiene(llave));
+            Assert.assertTrue(diccionario.get(llave) == -llave);
+            Assert.assertTrue(diccionario.getElementos() == i+1);
+            Assert.assertTrue(diccionario.carga() <
+                              DiccionarioEntero.MAXIMA_CARGA);
+        }
+        diccionario.agrega(0, 7);
+        Assert.assertTrue(diccionario.get(0) == 7);
+        Assert.assertTrue(diccionario.getElementos() == total * 4);
+        try {
+            diccionario.get(1);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioEntero#elimina}, comparando una
+     * secuencia aleatoria de operaciones con un {@link Diccionario}.
+     */
+    @Test public void testElimina() {
+        Diccionario<Integer, Integer> referencia =
+            new Diccionario<Integer, Integer>();
+        for (int i = 0; i < total * 50; i++) {
+            int llave = random.nextInt(total * 2) - total / 2;
+            if (random.nextBoolean()) {
+                diccionario.agrega(llave, i);
+                referencia.agrega(llave, i);
+            } else if (referencia.contiene(llave)) {
+                diccionario.elimina(llave);
+                referencia.elimina(llave);
+            } else {
+                try {
+                    diccionario.elimina(llave);
+                    Assert.fail();
+                } catch (NoSuchElementException nsee) {}
+            }
+            Assert.assertTrue(diccionario.getElementos() ==
+                              referencia.getElementos());
+        }
+        for (int llave = -total; llave < total * 2; llave++) {
+            Assert.assertTrue(diccionario.contiene(llave) ==
+                              referencia.contiene(llave));
+            if (referencia.contiene(llave))
+                Assert.assertTrue(diccionario.get(llave) ==
+                                  referencia.get(llave));
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioEntero#colisiones} y {@link
+     * DiccionarioEntero#colisionMaxima}.
+     */
+    @Test public void testColisiones() {
+        Assert.assertTrue(diccionario.colisionMaxima() == -1);
+        diccionario.agrega(0, 0);
+        Assert.assertTrue(diccionario.colisionMaxima() == 0);
+        diccionario.agrega(1, 1);
+        Assert.assertTrue(diccionario.colisiones() == 0);
+        Assert.assertTrue(diccionario.colisionMaxima() == 0);
+        for (int i = 2; i < total; i++)
+            diccionario.agrega(i, i);
+        Assert.assertTrue(diccionario.colisionMaxima() <=
+                          diccionario.colisiones());
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioEntero#limpia}.
+     */
+    @Test public void testLimpia() {
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(i, i);
+        Assert.assertTrue(diccionario.getElementos() == total);
+        diccionario.limpia();
+        Assert.assertTrue(diccionario.esVacia());
+        Assert.assertTrue(diccionario.carga() == 0.0);
+        Assert.assertFalse(diccionario.contiene(0));
+        Assert.assertFalse(diccionario.iteradorLlaves().hasNext());
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioEntero#equals}.
+     */
+    @Test public void testEquals() {
+        DiccionarioEntero d2 = new DiccionarioEntero();
+        Assert.assertTrue(diccionario.equals(d2));
+        for (int i = 0; i < total; i++) {
+            diccionario.agrega(i, i * 2);
+            d2.agrega(total - i - 1, (total - i - 1) * 2);
+        }
+        Assert.assertTrue(diccionario.equals(d2));
+        d2.agrega(0, 1);
+        Assert.assertFalse(diccionario.equals(d2));
+        d2.elimina(0);
+        Assert.assertFalse(diccionario.equals(d2));
+        Assert.assertFalse(diccionario.equals(null));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioEntero#toString}.
+     */
+    @Test public void testToString() {
+        Assert.assertTrue(diccionario.toString().equals("{}"));
+        diccionario.agrega(0, 3);
+        Assert.assertTrue(diccionario.toString().equals("{ '0': '3', }"));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioEntero#iteradorLlaves} y {@link
+     * DiccionarioEntero#iteradorValores}.
+     */
+    @Test public void testIteradores() {
+        boolean[] vistas = new boolean[total];
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(i, i + 1);
+        PrimitiveIterator.OfInt llaves = diccionario.iteradorLlaves();
+        PrimitiveIterator.OfInt valores = diccionario.iteradorValores();
+        int c = 0;
+        while (llaves.hasNext()) {
+            int llave = llaves.nextInt();
+            Assert.assertTrue(valores.nextInt() == llave + 1);
+            Assert.assertFalse(vistas[llave]);
+            vistas[llave] = true;
+            c++;
+        }
+        Assert.assertFalse(valores.hasNext());
+        Assert.assertTrue(c == total);
+        try {
+            llaves.nextInt();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+}
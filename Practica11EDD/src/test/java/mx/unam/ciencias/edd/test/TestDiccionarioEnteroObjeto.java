@@ -0,0 +1,136 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.DiccionarioEnteroObjeto;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioEnteroObjeto}.
+ */
+public class TestDiccionarioEnteroObjeto {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* El diccionario. */
+    private DiccionarioEnteroObjeto<String> diccionario;
+
+    /**
+     * Crea un diccionario para cada prueba.
+     */
+    public TestDiccionarioEnteroObjeto() {
+        int N = 64;
+        random = new Random();
+        total = N + random.nextInt(N);
+        diccionario = new DiccionarioEnteroObjeto<String>(total);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioEnteroObjeto#agrega} y {@link DiccionarioEnteroObjeto#get}.
+     */
+    @Test public void testAgregaGet() {
+        Assert.assertTrue(diccionario.esVacia());
+        for (int i = 0; i < total * 4; i++) {
+            int llave = i * 1000;
+            Assert.assertFalse(diccionario.contiene(llave));
+            diccionario.agrega(llave, String.valueOf(llave));
+            Assert.assertTrue(diccionario.contiene(llave));
+            Assert.assertTrue(diccionario.get(llave).equals(String.valueOf(llave)));
+            Assert.assertTrue(diccionario.getElementos() == i+1);
+            Assert.assertTrue(diccionario.carga() < DiccionarioEnteroObjeto.MAXIMA_CARGA);
+        }
+        try {
+            diccionario.get(1);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            diccionario.agrega(1, null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioEnteroObjeto#elimina}, comparando una secuencia
+     * aleatoria de operaciones con un {@link Diccionario}.
+     */
+    @Test public void testElimina() {
+        Diccionario<Integer, String> referencia =
+            new Diccionario<Integer, String>();
+        for (int i = 0; i < total * 50; i++) {
+            int llave = random.nextInt(total * 2) - total / 2;
+            String valor = String.valueOf(i);
+            if (random.nextBoolean()) {
+                diccionario.agrega(llave, valor);
+                referencia.agrega(llave, valor);
+            } else if (referencia.contiene(llave)) {
+                diccionario.elimina(llave);
+                referencia.elimina(llave);
+            } else {
+                try {
+                    diccionario.elimina(llave);
+                    Assert.fail();
+                } catch (NoSuchElementException nsee) {}
+            }
+            Assert.assertTrue(diccionario.getElementos() ==
+                              referencia.getElementos());
+        }
+        Iterator<Integer> iterador = referencia.iteradorLlaves();
+        while (iterador.hasNext()) {
+            int llave = iterador.next();
+            Assert.assertTrue(diccionario.get(llave).equals(referencia.get(llave)));
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioEnteroObjeto#equals}.
+     */
+    @Test public void testEquals() {
+        DiccionarioEnteroObjeto<String> d2 = new DiccionarioEnteroObjeto<String>();
+        Assert.assertTrue(diccionario.equals(d2));
+        for (int i = 0; i < total; i++) {
+            diccionario.agrega(i, String.valueOf(i));
+            d2.agrega(total - i - 1, String.valueOf(total - i - 1));
+        }
+        Assert.assertTrue(diccionario.equals(d2));
+        d2.agrega(0, "X");
+        Assert.assertFalse(diccionario.equals(d2));
+        diccionario.limpia();
+        Assert.assertTrue(diccionario.esVacia());
+        Assert.assertFalse(diccionario.equals(d2));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioEnteroObjeto#iteradorLlaves} y {@link
+     * DiccionarioEnteroObjeto#iterator}.
+     */
+    @Test public void testIteradores() {
+        boolean[] vistas = new boolean[total];
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(i, String.valueOf(i));
+        PrimitiveIterator.OfInt llaves = diccionario.iteradorLlaves();
+        Iterator<String> valores = diccionario.iterator();
+        int c = 0;
+        while (llaves.hasNext()) {
+            int llave = llaves.nextInt();
+            Assert.assertTrue(valores.next().equals(String.valueOf(llave)));
+            Assert.assertFalse(vistas[(int)llave]);
+            vistas[(int)llave] = true;
+            c++;
+        }
+        Assert.assertTrue(c == total);
+        for (String s : diccionario)
+            c--;
+        Assert.assertTrue(c == 0);
+    }
+}
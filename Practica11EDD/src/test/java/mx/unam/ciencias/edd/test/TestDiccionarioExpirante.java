@@ -0,0 +1,144 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.DiccionarioExpirante;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioExpirante}.
+ */
+public class TestDiccionarioExpirante {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* El tiempo del reloj de prueba. */
+    private long ahora;
+    /* El diccionario. */
+    private DiccionarioExpirante<Integer, Integer> diccionario;
+
+    /**
+     * Crea un diccionario con un reloj controlado para cada prueba.
+     */
+    public TestDiccionarioExpirante() {
+        int N = 64;
+        random = new Random();
+        total = N + random.nextInt(N);
+        ahora = random.nextInt(1 << 20);
+        diccionario =
+            new DiccionarioExpirante<Integer, Integer>(() -> ahora, 1);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioExpirante#agrega} y {@link
+     * DiccionarioExpirante#get}.
+     */
+    @Test public void testAgregaGet() {
+        diccionario.agrega(1, 10, 100);
+        diccionario.agrega(2, 20, 0);
+        Assert.assertTrue(diccionario.get(1) == 10);
+        Assert.assertTrue(diccionario.getVida(1) == 100);
+        Assert.assertFalse(diccionario.contiene(2));
+        ahora += 99;
+        Assert.assertTrue(diccionario.get(1) == 10);
+        diccionario.agrega(1, 11, 50);
+        ahora += 49;
+        Assert.assertTrue(diccionario.get(1) == 11);
+        ahora += 1;
+        Assert.assertFalse(diccionario.contiene(1));
+        try {
+            diccionario.get(1);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            diccionario.agrega(1, 1, -1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioExpirante#getElementos}: la
+     * rueda elimina las entradas vencidas sin que se busquen, comparando con
+     * un diccionario de vencimientos.
+     */
+    @Test public void testRueda() {
+        Diccionario<Integer, Long> vencimientos =
+            new Diccionario<Integer, Long>();
+        for (int i = 0; i < total * 50; i++) {
+            int llave = random.nextInt(total * 4);
+            int r = random.nextInt(10);
+            if (r < 5) {
+                long vida = random.nextInt(4) == 0 ?
+                    random.nextInt(1 << 22) : random.nextInt(200);
+                diccionario.agrega(llave, i, vida);
+                vencimientos.agrega(llave, ahora + vida);
+            } else if (r < 6 && diccionario.contiene(llave)) {
+                diccionario.elimina(llave);
+                vencimientos.elimina(llave);
+            } else {
+                ahora += random.nextInt(4) == 0 ?
+                    random.nextInt(1 << 16) : random.nextInt(20);
+            }
+            int vivas = 0;
+            for (int j = 0; j < total * 4; j++) {
+                if (vencimientos.contiene(j) && vencimientos.get(j) <= ahora)
+                    vencimientos.elimina(j);
+                if (vencimientos.contiene(j))
+                    vivas++;
+            }
+            Assert.assertTrue(diccionario.getElementos() == vivas);
+        }
+        for (int j = 0; j < total * 4; j++)
+            Assert.assertTrue(diccionario.contiene(j) ==
+                              vencimientos.contiene(j));
+        ahora += 1L << 23;
+        Assert.assertTrue(diccionario.esVacia());
+    }
+
+    /**
+     * Prueba unitaria para entradas que vencen después de una vuelta completa
+     * de la rueda, y para tics de más de un milisegundo.
+     */
+    @Test public void testVidasLargas() {
+        DiccionarioExpirante<Integer, Integer> d =
+            new DiccionarioExpirante<Integer, Integer>(() -> ahora, 10);
+        long vuelta = 10L << (6 * DiccionarioExpirante.NIVELES);
+        d.agrega(1, 1, vuelta * 3 + 50);
+        d.agrega(2, 2, 15);
+        ahora += 14;
+        Assert.assertTrue(d.contiene(2));
+        ahora += 1;
+        Assert.assertFalse(d.contiene(2));
+        for (int i = 0; i < 6; i++) {
+            ahora += vuelta / 2;
+            Assert.assertTrue(d.getElementos() == 1);
+        }
+        ahora += 34;
+        Assert.assertTrue(d.getElementos() == 1);
+        ahora += 10;
+        Assert.assertTrue(d.getElementos() == 0);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioExpirante#limpia}.
+     */
+    @Test public void testLimpia() {
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(i, i, 1000);
+        Assert.assertTrue(diccionario.getElementos() == total);
+        diccionario.limpia();
+        Assert.assertTrue(diccionario.esVacia());
+        diccionario.agrega(0, 0, 10);
+        ahora += 10;
+        Assert.assertTrue(diccionario.esVacia());
+    }
+}
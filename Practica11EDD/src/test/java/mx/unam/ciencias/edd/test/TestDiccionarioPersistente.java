@@ -0,0 +1,333 @@
+package mx.unam.ciencias.edd.test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.AlgoritmoDispersor;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.DiccionarioPersistente;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioPersistente}.
+ */
+public class TestDiccionarioPersistente {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /** Directorio temporal para los archivos de las pruebas. */
+    @Rule public TemporaryFolder carpeta = new TemporaryFolder();
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+
+    /**
+     * Crea un generador de números aleatorios para cada prueba.
+     */
+    public TestDiccionarioPersistente() {
+        int N = 64;
+        random = new Random();
+        total = N + random.nextInt(N);
+    }
+
+    /* Regresa una ruta nueva en el directorio temporal. */
+    private Path archivo() {
+        return carpeta.getRoot().toPath().resolve("d" + random.nextInt());
+    }
+
+    /* Regresa una cadena aleatoria de hasta n caracteres. */
+    private String cadena(int n) {
+        StringBuilder sb = new StringBuilder();
+        int m = random.nextInt(n + 1);
+        for (int i = 0; i < m; i++)
+            sb.append((char)('a' + random.nextInt(26)));
+        if (random.nextInt(8) == 0)
+            sb.append('ñ');
+        return sb.toString();
+    }
+
+    /* Valida que el diccionario tenga exactamente las entradas de la
+     * referencia. */
+    private void valida(DiccionarioPersistente diccionario,
+                        Diccionario<String, String> referencia) {
+        Assert.assertTrue(diccionario.getElementos() ==
+                          referencia.getElementos());
+        Iterator<String> llaves = referencia.iteradorLlaves();
+        while (llaves.hasNext()) {
+            String llave = llaves.next();
+            Assert.assertTrue(diccionario.get(llave)
+                              .equals(referencia.get(llave)));
+        }
+        int n = 0;
+        llaves = diccionario.iteradorLlaves();
+        while (llaves.hasNext()) {
+            Assert.assertTrue(referencia.contiene(llaves.next()));
+            n++;
+        }
+        Assert.assertTrue(n == referencia.getElementos());
+    }
+
+    /* Regresa los bytes de un archivo sin basura con las entradas de la
+     * referencia: el encabezado, las entradas, y un solo arreglo de cubetas
+     * con su encabezado de 8 bytes. */
+    private int bytesSinBasura(Diccionario<String, String> referencia) {
+        int bytes = DiccionarioPersistente.ENCABEZADO;
+        Iterator<String> llaves = referencia.iteradorLlaves();
+        while (llaves.hasNext()) {
+            String llave = llaves.next();
+            bytes += 24 + llave.getBytes(StandardCharsets.UTF_8).length +
+                referencia.get(llave).getBytes(StandardCharsets.UTF_8).length;
+        }
+        int cubetas = 64;
+        while (cubetas < referencia.getElementos() / 3 * 4 + 1)
+            cubetas *= 2;
+        return bytes + 8 + 4 * cubetas;
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioPersistente#agrega}, {@link
+     * DiccionarioPersistente#get} y {@link DiccionarioPersistente#elimina},
+     * comparando con un diccionario normal, con suficientes llaves para que
+     * crezcan el archivo y el arreglo de cubetas.
+     */
+    @Test public void testAgregaGetElimina() throws IOException {
+        Diccionario<String, String> referencia =
+            new Diccionario<String, String>();
+        try (DiccionarioPersistente diccionario =
+             new DiccionarioPersistente(archivo())) {
+            for (int i = 0; i < total * 40; i++) {
+                String llave = String.valueOf(random.nextInt(total * 20));
+                if (random.nextInt(4) > 0) {
+                    String valor = cadena(40);
+                    diccionario.agrega(llave, valor);
+                    referencia.agrega(llave, valor);
+                    Assert.assertTrue(diccionario.get(llave).equals(valor));
+                } else if (referencia.contiene(llave)) {
+                    diccionario.elimina(llave);
+                    referencia.elimina(llave);
+                    Assert.assertFalse(diccionario.contiene(llave));
+                } else {
+                    Assert.assertFalse(diccionario.contiene(llave));
+                    try {
+                        diccionario.elimina(llave);
+                        Assert.fail();
+                    } catch (NoSuchElementException nsee) {}
+                }
+            }
+            valida(diccionario, referencia);
+            Assert.assertTrue(diccionario.getBasura() > 0);
+            try {
+                diccionario.agrega(null, "");
+                Assert.fail();
+            } catch (IllegalArgumentException iae) {}
+        }
+    }
+
+    /**
+     * Prueba unitaria para volver a abrir un diccionario cerrado, con cada
+     * algoritmo de dispersión.
+     */
+    @Test public void testPersistencia() throws IOException {
+        for (AlgoritmoDispersor algoritmo : AlgoritmoDispersor.values()) {
+            Path ruta = archivo();
+            Diccionario<String, String> referencia =
+                new Diccionario<String, String>();
+            try (DiccionarioPersistente diccionario =
+                 new DiccionarioPersistente(ruta, algoritmo)) {
+                for (int i = 0; i < total * 4; i++) {
+                    String llave = cadena(20), valor = cadena(20);
+                    diccionario.agrega(llave, valor);
+                    referencia.agrega(llave, valor);
+                }
+            }
+            try (DiccionarioPersistente diccionario =
+                 new DiccionarioPersistente(ruta)) {
+                valida(diccionario, referencia);
+                diccionario.agrega("nueva", "entrada");
+                referencia.agrega("nueva", "entrada");
+            }
+            try (DiccionarioPersistente diccionario =
+                 new DiccionarioPersistente(ruta)) {
+                valida(diccionario, referencia);
+            }
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioPersistente#sincroniza}: un
+     * archivo modificado después de sincronizar no se puede abrir.
+     */
+    @Test public void testSincroniza() throws IOException {
+        Path ruta = archivo();
+        DiccionarioPersistente diccionario = new DiccionarioPersistente(ruta);
+        diccionario.agrega("a", "1");
+        diccionario.sincroniza();
+        new DiccionarioPersistente(ruta).close();
+        diccionario.agrega("b", "2");
+        try {
+            new DiccionarioPersistente(ruta);
+            Assert.fail();
+        } catch (IOException ioe) {}
+        diccionario.close();
+        try (DiccionarioPersistente otro = new DiccionarioPersistente(ruta)) {
+            Assert.assertTrue(otro.get("b").equals("2"));
+        }
+        try {
+            diccionario.get("a");
+            Assert.fail();
+        } catch (IllegalStateException ise) {}
+
+        Path basura = archivo();
+        Files.write(basura, new byte[DiccionarioPersistente.ENCABEZADO]);
+        try {
+            new DiccionarioPersistente(basura);
+            Assert.fail();
+        } catch (IOException ioe) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioPersistente#recupera}: una copia
+     * del archivo hecha sin sincronizar se recupera completa, y si una
+     * entrada posterior a la última sincronización quedó a medias, se
+     * recupera lo que había al sincronizar.
+     */
+    @Test public void testRecupera() throws IOException {
+        Path ruta = archivo();
+        Diccionario<String, String> sincronizado =
+            new Diccionario<String, String>();
+        Diccionario<String, String> completo =
+            new Diccionario<String, String>();
+        Path copia = archivo(), incompleta = archivo();
+        try (DiccionarioPersistente diccionario =
+             new DiccionarioPersistente(ruta)) {
+            for (int i = 0; i < total * 4; i++) {
+                String llave = String.valueOf(i), valor = cadena(20);
+                diccionario.agrega(llave, valor);
+                sincronizado.agrega(llave, valor);
+                completo.agrega(llave, valor);
+            }
+            diccionario.elimina("0");
+            sincronizado.elimina("0");
+            completo.elimina("0");
+            diccionario.sincroniza();
+            int fin = diccionario.getBytes();
+
+            diccionario.agrega("1", "reemplazo");
+            completo.agrega("1", "reemplazo");
+            for (int i = 0; i < total; i += 2) {
+                diccionario.elimina(String.valueOf(i + 2));
+                completo.elimina(String.valueOf(i + 2));
+            }
+            for (int i = 0; i < total * 4; i++) {
+                diccionario.agrega("nueva" + i, "v" + i);
+                completo.agrega("nueva" + i, "v" + i);
+            }
+            Files.copy(ruta, copia);
+            byte[] bytes = Files.readAllBytes(ruta);
+            bytes[fin + 30] ^= 1;
+            Files.write(incompleta, bytes);
+        }
+
+        try {
+            new DiccionarioPersistente(copia);
+            Assert.fail();
+        } catch (IOException ioe) {}
+        try (DiccionarioPersistente diccionario =
+             DiccionarioPersistente.recupera(copia)) {
+            valida(diccionario, completo);
+            Assert.assertTrue(diccionario.getBasura() == 0);
+            Assert.assertTrue(diccionario.getBytes() ==
+                              bytesSinBasura(completo));
+        }
+        try (DiccionarioPersistente diccionario =
+             new DiccionarioPersistente(copia)) {
+            valida(diccionario, completo);
+        }
+        try (DiccionarioPersistente diccionario =
+             DiccionarioPersistente.recupera(incompleta)) {
+            valida(diccionario, sincronizado);
+        }
+        try (DiccionarioPersistente diccionario =
+             DiccionarioPersistente.recupera(ruta)) {
+            valida(diccionario, completo);
+        }
+        try {
+            DiccionarioPersistente.recupera(archivo());
+            Assert.fail();
+        } catch (IOException ioe) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioPersistente#compacta} cuando no
+     * se puede escribir el archivo nuevo: el diccionario sigue abierto y
+     * como estaba.
+     */
+    @Test public void testCompactaFallida() throws IOException {
+        Path ruta = archivo();
+        Path bloqueo = ruta.resolveSibling(ruta.getFileName() + ".compacta");
+        Files.createDirectories(bloqueo.resolve("x"));
+        try (DiccionarioPersistente diccionario =
+             new DiccionarioPersistente(ruta)) {
+            for (int i = 0; i < total; i++)
+                diccionario.agrega(String.valueOf(i), String.valueOf(-i));
+            try {
+                diccionario.compacta();
+                Assert.fail();
+            } catch (IOException ioe) {}
+            Assert.assertTrue(diccionario.getElementos() == total);
+            Assert.assertTrue(diccionario.get("1").equals("-1"));
+            diccionario.agrega("x", "y");
+        }
+        try (DiccionarioPersistente diccionario =
+             new DiccionarioPersistente(ruta)) {
+            Assert.assertTrue(diccionario.get("x").equals("y"));
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioPersistente#compacta}.
+     */
+    @Test public void testCompacta() throws IOException {
+        Path ruta = archivo();
+        Diccionario<String, String> referencia =
+            new Diccionario<String, String>();
+        try (DiccionarioPersistente diccionario =
+             new DiccionarioPersistente(ruta,
+                                        AlgoritmoDispersor.SIPHASH13_STRING)) {
+            for (int i = 0; i < total * 10; i++) {
+                String llave = String.valueOf(i);
+                diccionario.agrega(llave, cadena(10));
+                diccionario.agrega(llave, cadena(10) + "0123456789");
+                referencia.agrega(llave, diccionario.get(llave));
+            }
+            for (int i = 0; i < total * 5; i++) {
+                diccionario.elimina(String.valueOf(i));
+                referencia.elimina(String.valueOf(i));
+            }
+            int bytes = diccionario.getBytes();
+            diccionario.compacta();
+            Assert.assertTrue(diccionario.getBasura() == 0);
+            Assert.assertTrue(diccionario.getBytes() < bytes / 2);
+            Assert.assertTrue(diccionario.getBytes() ==
+                              bytesSinBasura(referencia));
+            valida(diccionario, referencia);
+            diccionario.agrega("x", "y");
+            referencia.agrega("x", "y");
+        }
+        try (DiccionarioPersistente diccionario =
+             new DiccionarioPersistente(ruta)) {
+            valida(diccionario, referencia);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package mx.unam.ciencias.edd.test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import mx.unam.ciencias.edd.AlgoritmoDispersor;
+import mx.unam.ciencias.edd.Dispersor;
+import mx.unam.ciencias.edd.DispersorIncremental;
+import mx.unam.ciencias.edd.Dispersores;
+import mx.unam.ciencias.edd.FabricaDispersores;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la interfaz {@link DispersorIncremental}.
+ */
+public class TestDispersorIncremental {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Los algoritmos con versión incremental. */
+    private static final AlgoritmoDispersor[] ALGORITMOS = {
+        AlgoritmoDispersor.XOR_STRING,
+        AlgoritmoDispersor.BJ_STRING,
+        AlgoritmoDispersor.DJB_STRING
+    };
+
+    /* Generador de números aleatorios. */
+    private Random random;
+
+    /**
+     * Crea el generador de números aleatorios para cada prueba.
+     */
+    public TestDispersorIncremental() {
+        random = new Random();
+    }
+
+    /* Regresa un arreglo de bytes aleatorio. */
+    private byte[] arregloAleatorio() {
+        byte[] arreglo = new byte[random.nextInt(200)];
+        random.nextBytes(arreglo);
+        return arreglo;
+    }
+
+    /**
+     * Prueba unitaria para {@link DispersorIncremental#actualiza(byte[],int,
+     * int)}, partiendo las llaves en pedazos aleatorios.
+     */
+    @Test public void testActualizaArreglo() {
+        for (AlgoritmoDispersor algoritmo : ALGORITMOS) {
+            Dispersor<byte[]> dispersor =
+                FabricaDispersores.dispersorArreglo(algoritmo);
+            DispersorIncremental incremental =
+                FabricaDispersores.dispersorIncremental(algoritmo);
+            for (int r = 0; r < 200; r++) {
+                byte[] llave = arregloAleatorio();
+                int i = 0;
+                while (i < llave.length) {
+                    int n = random.nextInt(llave.length - i + 1);
+                    incremental.actualiza(llave, i, n);
+                    i += n;
+                }
+                Assert.assertTrue(incremental.termina() ==
+                                  dispersor.dispersa(llave));
+            }
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DispersorIncremental#actualiza(ByteBuffer)},
+     * con búferes en el montón y directos.
+     */
+    @Test public void testActualizaBufer() {
+        for (AlgoritmoDispersor algoritmo : ALGORITMOS) {
+            Dispersor<byte[]> dispersor =
+                FabricaDispersores.dispersorArreglo(algoritmo);
+            DispersorIncremental incremental =
+                FabricaDispersores.dispersorIncremental(algoritmo);
+            for (int r = 0; r < 200; r++) {
+                byte[] llave = arregloAleatorio();
+                ByteBuffer bufer = random.nextBoolean() ?
+                    ByteBuffer.allocate(llave.length + 8) :
+                    ByteBuffer.allocateDirect(llave.length + 8);
+                bufer.position(3);
+                bufer.put(llave);
+                int i = 0;
+                while (i < llave.length) {
+                    int n = random.nextInt(llave.length - i + 1);
+                    bufer.limit(3 + i + n);
+                    bufer.position(3 + i);
+                    incremental.actualiza(bufer);
+                    Assert.assertTrue(bufer.position() == 3 + i + n);
+                    i += n;
+                }
+                Assert.assertTrue(incremental.termina() ==
+                                  dispersor.dispersa(llave));
+            }
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DispersorIncremental#termina}: después de
+     * terminar, el dispersor empieza de nuevo.
+     */
+    @Test public void testTermina() {
+        for (AlgoritmoDispersor algoritmo : ALGORITMOS) {
+            DispersorIncremental incremental =
+                FabricaDispersores.dispersorIncremental(algoritmo);
+            byte[] llave = arregloAleatorio();
+            incremental.actualiza(llave, 0, llave.length);
+            int h = incremental.termina();
+            incremental.actualiza(llave, 0, llave.length);
+            Assert.assertTrue(incremental.termina() == h);
+        }
+        try {
+            FabricaDispersores.dispersorIncremental(
+                AlgoritmoDispersor.MURMUR3_STRING);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Dispersores#dispersaArchivo}.
+     */
+    @Test public void testDispersaArchivo() throws IOException {
+        byte[] contenido = new byte[100000 + random.nextInt(1000)];
+        random.nextBytes(contenido);
+        Path archivo = Files.createTempFile("dispersores", ".bin");
+        try {
+            Files.write(archivo, contenido);
+            for (AlgoritmoDispersor algoritmo : ALGORITMOS) {
+                Dispersor<byte[]> dispersor =
+                    FabricaDispersores.dispersorArreglo(algoritmo);
+                DispersorIncremental incremental =
+                    FabricaDispersores.dispersorIncremental(algoritmo);
+                Assert.assertTrue(Dispersores.dispersaArchivo(archivo,
+                                                              incremental) ==
+                                  dispersor.dispersa(contenido));
+            }
+        } finally {
+            Files.delete(archivo);
+        }
+    }
+}
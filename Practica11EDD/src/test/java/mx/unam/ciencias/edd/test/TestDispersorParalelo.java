@@ -0,0 +1,112 @@
+package mx.unam.ciencias.edd.test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import mx.unam.ciencias.edd.AlgoritmoDispersor;
+import mx.unam.ciencias.edd.DispersorParalelo;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DispersorParalelo}.
+ */
+public class TestDispersorParalelo {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Los algoritmos con versión incremental. */
+    private static final AlgoritmoDispersor[] ALGORITMOS = {
+        AlgoritmoDispersor.XOR_STRING,
+        AlgoritmoDispersor.BJ_STRING,
+        AlgoritmoDispersor.DJB_STRING
+    };
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Los datos a dispersar. */
+    private byte[] datos;
+
+    /**
+     * Crea los datos para cada prueba.
+     */
+    public TestDispersorParalelo() {
+        random = new Random();
+        datos = new byte[10000 + random.nextInt(10000)];
+        random.nextBytes(datos);
+    }
+
+    /**
+     * Prueba unitaria para {@link DispersorParalelo#dispersa(byte[],
+     * ForkJoinPool)}: el resultado no depende del número de hilos.
+     */
+    @Test public void testDispersaHilos() {
+        ForkJoinPool uno = new ForkJoinPool(1);
+        ForkJoinPool cuatro = new ForkJoinPool(4);
+        try {
+            for (AlgoritmoDispersor algoritmo : ALGORITMOS) {
+                DispersorParalelo dispersor =
+                    new DispersorParalelo(algoritmo, 1 + random.nextInt(1000));
+                int h = dispersor.dispersa(datos, uno);
+                Assert.assertTrue(dispersor.dispersa(datos, cuatro) == h);
+                Assert.assertTrue(dispersor.dispersa(datos) == h);
+            }
+        } finally {
+            uno.shutdown();
+            cuatro.shutdown();
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DispersorParalelo#dispersa(ByteBuffer)},
+     * que debe coincidir con la versión para arreglos sin mover la posición
+     * del búfer.
+     */
+    @Test public void testDispersaBufer() {
+        for (AlgoritmoDispersor algoritmo : ALGORITMOS) {
+            DispersorParalelo dispersor =
+                new DispersorParalelo(algoritmo, 1 + random.nextInt(1000));
+            int h = dispersor.dispersa(datos);
+            ByteBuffer[] buferes = {
+                ByteBuffer.allocate(datos.length + 5),
+                ByteBuffer.allocateDirect(datos.length + 5)
+            };
+            for (ByteBuffer bufer : buferes) {
+                bufer.position(5);
+                bufer.put(datos);
+                bufer.position(5);
+                Assert.assertTrue(dispersor.dispersa(bufer) == h);
+                Assert.assertTrue(bufer.position() == 5);
+            }
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DispersorParalelo#dispersa(byte[])}: cambiar
+     * un byte o el tamaño de los pedazos cambia la dispersión, y el arreglo
+     * vacío también se dispersa.
+     */
+    @Test public void testDispersa() {
+        DispersorParalelo dispersor =
+            new DispersorParalelo(AlgoritmoDispersor.BJ_STRING, 100);
+        int h = dispersor.dispersa(datos);
+        datos[random.nextInt(datos.length)] ^= 1;
+        Assert.assertFalse(dispersor.dispersa(datos) == h);
+        DispersorParalelo otro =
+            new DispersorParalelo(AlgoritmoDispersor.BJ_STRING, 101);
+        Assert.assertFalse(otro.dispersa(datos) == dispersor.dispersa(datos));
+        Assert.assertTrue(dispersor.dispersa(new byte[0]) ==
+                          dispersor.dispersa(new byte[0]));
+        try {
+            new DispersorParalelo(AlgoritmoDispersor.MURMUR3_STRING);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new DispersorParalelo(AlgoritmoDispersor.BJ_STRING, 0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+}
@@ -1,5 +1,6 @@
 package mx.unam.ciencias.edd.test;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Random;
 import mx.unam.ciencias.edd.Dispersores;
 import org.junit.Assert;
@@ -156,4 +157,225 @@ public class TestDispersores {
             Assert.assertTrue(RESULTADOS_DJB[i-1] == r);
         }
     }
+
+    /* Regresa los bytes UTF-8 de una cadena. */
+    private byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Prueba unitaria para {@link Dispersores#dispersaMurmur3}, con vectores
+     * de la implementación de referencia.
+     */
+    @Test public void testDispersaMurmur3() {
+        Assert.assertTrue(Dispersores.dispersaMurmur3(bytes("")) == 0);
+        Assert.assertTrue(Dispersores.dispersaMurmur3(bytes("hello")) ==
+                          0x248bfa47);
+        String zorro = "The quick brown fox jumps over the lazy dog";
+        Assert.assertTrue(Dispersores.dispersaMurmur3(bytes(zorro)) ==
+                          0x2e4ff723);
+    }
+
+    /**
+     * Prueba unitaria para {@link Dispersores#dispersaXXH32}, con vectores de
+     * la implementación de referencia.
+     */
+    @Test public void testDispersaXXH32() {
+        Assert.assertTrue(Dispersores.dispersaXXH32(bytes("")) == 0x02cc5d05);
+        Assert.assertTrue(Dispersores.dispersaXXH32(bytes("abc")) ==
+                          0x32d153ff);
+    }
+
+    /**
+     * Prueba unitaria para {@link Dispersores#dispersaXXH64}, con vectores de
+     * la implementación de referencia.
+     */
+    @Test public void testDispersaXXH64() {
+        Assert.assertTrue(Dispersores.dispersaXXH64(bytes("")) ==
+                          0xef46db3751d8e999L);
+        Assert.assertTrue(Dispersores.dispersaXXH64(bytes("abc")) ==
+                          0x44bc2cf5ad770999L);
+    }
+
+    /**
+     * Prueba unitaria para {@link Dispersores#dispersaWY}, con los vectores de
+     * la implementación de referencia (la semilla es el índice del vector).
+     */
+    @Test public void testDispersaWY() {
+        String[] mensajes = {
+            "", "a", "abc", "message digest", "abcdefghijklmnopqrstuvwxyz",
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789",
+            "1234567890123456789012345678901234567890" +
+            "1234567890123456789012345678901234567890"
+        };
+        long[] resultados = {
+            0x93228a4de0eec5a2L, 0xc5bac3db178713c4L, 0xa97f2f7b1d9b3314L,
+            0x786d1f1df3801df4L, 0xdca5a8138ad37c87L, 0xb9e734f117cfaf70L,
+            0x6cc5eab49a92d617L
+        };
+        for (int i = 0; i < mensajes.length; i++)
+            Assert.assertTrue(Dispersores.dispersaWY(bytes(mensajes[i]), i) ==
+                              resultados[i]);
+        Assert.assertTrue(Dispersores.dispersaWY(bytes("")) == resultados[0]);
+    }
+
+    /**
+     * Prueba unitaria para {@link Dispersores#dispersaSip24}, con los vectores
+     * del artículo de SipHash (llave 00 01 … 0f, mensajes 00 01 … n-1).
+     */
+    @Test public void testDispersaSip24() {
+        long k0 = 0x0706050403020100L;
+        long k1 = 0x0f0e0d0c0b0a0908L;
+        byte[] mensaje = new byte[15];
+        for (int i = 0; i < mensaje.length; i++)
+            mensaje[i] = (byte)i;
+        Assert.assertTrue(Dispersores.dispersaSip24(new byte[0], k0, k1) ==
+                          0x726fdb47dd0e0e31L);
+        Assert.assertTrue(Dispersores.dispersaSip24(mensaje, k0, k1) ==
+                          0xa129ca6149be45e5L);
+    }
+
+    /**
+     * Prueba unitaria para {@link Dispersores#dispersaSip13}: la llave
+     * secreta cambia la dispersión, y el número de rondas la distingue de
+     * SipHash-2-4.
+     */
+    @Test public void testDispersaSip13() {
+        Random random = new Random();
+        byte[] mensaje = new byte[random.nextInt(64)];
+        random.nextBytes(mensaje);
+        long k0 = random.nextLong();
+        long k1 = random.nextLong();
+        long h = Dispersores.dispersaSip13(mensaje, k0, k1);
+        Assert.assertTrue(Dispersores.dispersaSip13(mensaje, k0, k1) == h);
+        Assert.assertFalse(Dispersores.dispersaSip13(mensaje, k0 + 1, k1) == h);
+        Assert.assertFalse(Dispersores.dispersaSip24(mensaje, k0, k1) == h);
+    }
+
+    /**
+     * Prueba unitaria para {@link Dispersores#dispersaXOR64} y {@link
+     * Dispersores#dispersaDJB64}: plegar la primera a 32 bits da {@link
+     * Dispersores#dispersaXOR}, y los 32 bits bajos de la segunda dan {@link
+     * Dispersores#dispersaDJB}.
+     */
+    @Test public void testDispersa64() {
+        for (int i = 0; i < ARREGLO.length; i++) {
+            byte[] sub = subArreglo(i);
+            long xor = Dispersores.dispersaXOR64(sub);
+            Assert.assertTrue((int)(xor ^ (xor >>> 32)) ==
+                              Dispersores.dispersaXOR(sub));
+            Assert.assertTrue((int)Dispersores.dispersaDJB64(sub) ==
+                              Dispersores.dispersaDJB(sub));
+        }
+        Assert.assertFalse(Dispersores.dispersaBJ64(subArreglo(24)) ==
+                           Dispersores.dispersaBJ64(subArreglo(25)));
+    }
+
+    /**
+     * Prueba unitaria para {@link Dispersores#mezcla32} y {@link
+     * Dispersores#mezcla64}.
+     */
+    @Test public void testMezcla() {
+        Assert.assertTrue(Dispersores.mezcla32(0) == 0);
+        Assert.assertTrue(Dispersores.mezcla32(1) == 0x514e28b7);
+        Assert.assertTrue(Dispersores.mezcla64(0) == 0L);
+        Random random = new Random();
+        for (int i = 0; i < 1000; i++) {
+            int a = random.nextInt();
+            long b = random.nextLong();
+            Assert.assertFalse(Dispersores.mezcla32(a) ==
+                               Dispersores.mezcla32(a + 1));
+            Assert.assertFalse(Dispersores.mezcla64(b) ==
+                               Dispersores.mezcla64(b ^ (1L << 63)));
+        }
+    }
+
+    /* Regresa una cadena aleatoria con caracteres de uno a cuatro bytes en
+       UTF-8, y a veces sustitutos sin pareja. */
+    private String cadenaAleatoria(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int n = random.nextInt(40);
+        for (int i = 0; i < n; i++) {
+            switch (random.nextInt(5)) {
+            case 0: sb.append((char)random.nextInt(0x80)); break;
+            case 1: sb.append((char)(0x80 + random.nextInt(0x780))); break;
+            case 2: sb.append((char)(0x800 + random.nextInt(0xD000))); break;
+            case 3: sb.appendCodePoint(0x10000 + random.nextInt(0xFFFFF));
+                break;
+            default: sb.append((char)(0xD800 + random.nextInt(0x800)));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Prueba unitaria para {@link Dispersores#dispersaXOR(CharSequence)},
+     * {@link Dispersores#dispersaBJ(CharSequence)} y {@link
+     * Dispersores#dispersaDJB(CharSequence)} y los demás dispersores de
+     * secuencias, comparándolas con las versiones
+     * para arreglos de bytes sobre la codificación UTF-8.
+     */
+    @Test public void testDispersaSecuencia() {
+        Random random = new Random();
+        for (int i = 0; i < 1000; i++) {
+            String s = cadenaAleatoria(random);
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            Assert.assertTrue(Dispersores.dispersaXOR(s) ==
+                              Dispersores.dispersaXOR(bytes));
+            Assert.assertTrue(Dispersores.dispersaBJ(s) ==
+                              Dispersores.dispersaBJ(bytes));
+            Assert.assertTrue(Dispersores.dispersaDJB(s) ==
+                              Dispersores.dispersaDJB(bytes));
+            Assert.assertTrue(Dispersores.dispersaMurmur3(s) ==
+                              Dispersores.dispersaMurmur3(bytes));
+            Assert.assertTrue(Dispersores.dispersaXXH32(s) ==
+                              Dispersores.dispersaXXH32(bytes));
+            Assert.assertTrue(Dispersores.dispersaXXH64(s) ==
+                              Dispersores.dispersaXXH64(bytes));
+            Assert.assertTrue(Dispersores.dispersaWY(s) ==
+                              Dispersores.dispersaWY(bytes));
+            Assert.assertTrue(Dispersores.dispersaSip24(s, i, -i) ==
+                              Dispersores.dispersaSip24(bytes, i, -i));
+            Assert.assertTrue(Dispersores.dispersaSip13(s, i, -i) ==
+                              Dispersores.dispersaSip13(bytes, i, -i));
+            Assert.assertTrue(Dispersores.dispersaXOR64(s) ==
+                              Dispersores.dispersaXOR64(bytes));
+            Assert.assertTrue(Dispersores.dispersaBJ64(s) ==
+                              Dispersores.dispersaBJ64(bytes));
+            Assert.assertTrue(Dispersores.dispersaDJB64(s) ==
+                              Dispersores.dispersaDJB64(bytes));
+            StringBuilder sb = new StringBuilder(s);
+            Assert.assertTrue(Dispersores.dispersaBJ(sb) ==
+                              Dispersores.dispersaBJ(bytes));
+        }
+    }
+
+    /**
+     * Prueba unitaria para los dispersores de secuencias con cadenas más
+     * largas que el arreglo que se guarda por hilo, intercaladas con cadenas
+     * cortas.
+     */
+    @Test public void testDispersaSecuenciaLarga() {
+        Random random = new Random();
+        for (int i = 0; i < 8; i++) {
+            StringBuilder sb = new StringBuilder();
+            int n = (i % 2 == 0) ? 30000 + random.nextInt(30000) : 1;
+            while (sb.length() < n)
+                sb.append(cadenaAleatoria(random));
+            String s = sb.toString();
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            Assert.assertTrue(Dispersores.dispersaMurmur3(s) ==
+                              Dispersores.dispersaMurmur3(bytes));
+            Assert.assertTrue(Dispersores.dispersaXXH32(s) ==
+                              Dispersores.dispersaXXH32(bytes));
+            Assert.assertTrue(Dispersores.dispersaXXH64(s) ==
+                              Dispersores.dispersaXXH64(bytes));
+            Assert.assertTrue(Dispersores.dispersaWY(s) ==
+                              Dispersores.dispersaWY(bytes));
+            Assert.assertTrue(Dispersores.dispersaSip24(s, i, -i) ==
+                              Dispersores.dispersaSip24(bytes, i, -i));
+            Assert.assertTrue(Dispersores.dispersaSip13(s, i, -i) ==
+                              Dispersores.dispersaSip13(bytes, i, -i));
+        }
+    }
 }
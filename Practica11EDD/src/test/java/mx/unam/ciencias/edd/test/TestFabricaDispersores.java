@@ -1,9 +1,12 @@
 package mx.unam.ciencias.edd.test;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Random;
 import mx.unam.ciencias.edd.AlgoritmoDispersor;
+import mx.unam.ciencias.edd.Diccionario;
 import mx.unam.ciencias.edd.FabricaDispersores;
 import mx.unam.ciencias.edd.Dispersor;
+import mx.unam.ciencias.edd.Dispersor64;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -115,4 +118,152 @@ public class TestFabricaDispersores {
         for (String mensaje : MENSAJES)
             Assert.assertTrue(djb.dispersa(mensaje) == DISPERSORES_DJB[i++]);
     }
+
+    /**
+     * Prueba unitaria para {@link FabricaDispersores#dispersorArreglo}, que
+     * debe coincidir con {@link FabricaDispersores#dispersorCadena} sobre la
+     * codificación UTF-8 para todos los algoritmos sin llave secreta.
+     */
+    @Test public void testDispersorArreglo() {
+        for (AlgoritmoDispersor algoritmo : AlgoritmoDispersor.values()) {
+            if (algoritmo == AlgoritmoDispersor.SIPHASH24_STRING ||
+                algoritmo == AlgoritmoDispersor.SIPHASH13_STRING)
+                continue;
+            Dispersor<String> cadena =
+                FabricaDispersores.dispersorCadena(algoritmo);
+            Dispersor<byte[]> arreglo =
+                FabricaDispersores.dispersorArreglo(algoritmo);
+            for (String mensaje : MENSAJES) {
+                byte[] bytes = mensaje.getBytes(StandardCharsets.UTF_8);
+                Assert.assertTrue(cadena.dispersa(mensaje) ==
+                                  arreglo.dispersa(bytes));
+            }
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaDispersores#dispersorCadena} con
+     * SipHash: las llaves construidas para chocar con Daniel J. Bernstein no
+     * chocan, y cada dispersor usa una llave secreta distinta.
+     */
+    @Test public void testDispersorCadenaSipHash() {
+        Dispersor<String> djb =
+            FabricaDispersores.dispersorCadena(AlgoritmoDispersor.DJB_STRING);
+        Assert.assertTrue(djb.dispersa("aZaZaZ") == djb.dispersa("b9b9b9"));
+        Assert.assertTrue(djb.dispersa("aZaZaZ") == djb.dispersa("aZb9aZ"));
+        AlgoritmoDispersor[] algoritmos = {
+            AlgoritmoDispersor.SIPHASH24_STRING,
+            AlgoritmoDispersor.SIPHASH13_STRING
+        };
+        for (AlgoritmoDispersor algoritmo : algoritmos) {
+            Dispersor<String> sip =
+                FabricaDispersores.dispersorCadena(algoritmo);
+            Dispersor<String> otro =
+                FabricaDispersores.dispersorCadena(algoritmo);
+            Assert.assertFalse(sip.dispersa("aZaZaZ") ==
+                               sip.dispersa("b9b9b9"));
+            Assert.assertTrue(sip.dispersa("aZaZaZ") ==
+                              sip.dispersa("aZaZaZ"));
+            Assert.assertFalse(sip.dispersa("aZaZaZ") ==
+                               otro.dispersa("aZaZaZ"));
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaDispersores#dispersor64Cadena} y
+     * {@link FabricaDispersores#dispersor64Arreglo}.
+     */
+    @Test public void testDispersor64() {
+        AlgoritmoDispersor[] algoritmos = {
+            AlgoritmoDispersor.XOR_STRING,
+            AlgoritmoDispersor.BJ_STRING,
+            AlgoritmoDispersor.DJB_STRING,
+            AlgoritmoDispersor.XXHASH64_STRING,
+            AlgoritmoDispersor.WYHASH_STRING
+        };
+        for (AlgoritmoDispersor algoritmo : algoritmos) {
+            Dispersor64<String> cadena =
+                FabricaDispersores.dispersor64Cadena(algoritmo);
+            Dispersor64<byte[]> arreglo =
+                FabricaDispersores.dispersor64Arreglo(algoritmo);
+            for (String mensaje : MENSAJES) {
+                byte[] bytes = mensaje.getBytes(StandardCharsets.UTF_8);
+                long h = cadena.dispersa64(mensaje);
+                Assert.assertTrue(h == arreglo.dispersa64(bytes));
+                Assert.assertTrue(cadena.dispersa(mensaje) ==
+                                  (int)(h ^ (h >>> 32)));
+            }
+        }
+        Dispersor64<String> xxh64 = FabricaDispersores.dispersor64Cadena(
+            AlgoritmoDispersor.XXHASH64_STRING);
+        Dispersor<String> xxh = FabricaDispersores.dispersorCadena(
+            AlgoritmoDispersor.XXHASH64_STRING);
+        for (String mensaje : MENSAJES)
+            Assert.assertTrue(xxh64.dispersa(mensaje) ==
+                              xxh.dispersa(mensaje));
+        try {
+            FabricaDispersores.dispersor64Cadena(
+                AlgoritmoDispersor.MURMUR3_STRING);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaDispersores#dispersorEntero}: llaves
+     * que sólo difieren en sus bits altos quedan repartidas en un {@link
+     * Diccionario}, a diferencia de lo que pasa con <code>hashCode()</code>.
+     */
+    @Test public void testDispersorEntero() {
+        int n = 1000;
+        Diccionario<Integer, Integer> identidad =
+            new Diccionario<Integer, Integer>(n);
+        Diccionario<Integer, Integer> mezclado =
+            new Diccionario<Integer, Integer>(
+                n, FabricaDispersores.dispersorEntero());
+        for (int i = 0; i < n; i++) {
+            identidad.agrega(i << 16, i);
+            mezclado.agrega(i << 16, i);
+        }
+        for (int i = 0; i < n; i++)
+            Assert.assertTrue(mezclado.get(i << 16) == i);
+        /* Con la identidad todas las llaves caen en la misma lista, que se
+         * vuelve un árbol rojinegro: su altura está entre ⌊log₂ n⌋ y
+         * 2·log₂(n + 1). */
+        int bits = 32 - Integer.numberOfLeadingZeros(n + 1);
+        Assert.assertTrue(identidad.colisiones() == n - 1);
+        Assert.assertTrue(identidad.colisionMaxima() >= bits - 1);
+        Assert.assertTrue(identidad.colisionMaxima() <= 2 * bits);
+        Assert.assertTrue(mezclado.colisionMaxima() < 10);
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaDispersores#dispersorLargo}.
+     */
+    @Test public void testDispersorLargo() {
+        Dispersor64<Long> dispersor = FabricaDispersores.dispersorLargo();
+        Random random = new Random();
+        for (int i = 0; i < 100; i++) {
+            long l = random.nextLong();
+            long h = dispersor.dispersa64(l);
+            Assert.assertTrue(dispersor.dispersa(l) == (int)(h ^ (h >>> 32)));
+            Assert.assertFalse(dispersor.dispersa64(l + (1L << 40)) == h);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaDispersores#dispersorCompuesto}.
+     */
+    @Test public void testDispersorCompuesto() {
+        Dispersor<int[]> dispersor =
+            FabricaDispersores.dispersorCompuesto(p -> p[0], p -> p[1]);
+        Random random = new Random();
+        for (int i = 0; i < 100; i++) {
+            int x = random.nextInt(), y = x + 1 + random.nextInt(1000);
+            int h = dispersor.dispersa(new int[] { x, y });
+            Assert.assertTrue(dispersor.dispersa(new int[] { x, y }) == h);
+            Assert.assertFalse(dispersor.dispersa(new int[] { y, x }) == h);
+            Assert.assertFalse(dispersor.dispersa(new int[] { x, y + 1 }) ==
+                               h);
+        }
+    }
 }
@@ -0,0 +1,100 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Random;
+import mx.unam.ciencias.edd.AlgoritmoDispersor;
+import mx.unam.ciencias.edd.FabricaDispersores;
+import mx.unam.ciencias.edd.FiltroBloom;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link FiltroBloom}.
+ */
+public class TestFiltroBloom {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* El filtro. */
+    private FiltroBloom<String> filtro;
+
+    /**
+     * Crea un filtro para cada prueba.
+     */
+    public TestFiltroBloom() {
+        int N = 10000;
+        random = new Random();
+        total = N + random.nextInt(N);
+        filtro = new FiltroBloom<String>(
+            total, 0.01,
+            FabricaDispersores.dispersorCadena(
+                AlgoritmoDispersor.MURMUR3_STRING),
+            FabricaDispersores.dispersorCadena(
+                AlgoritmoDispersor.XXHASH32_STRING));
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloom#FiltroBloom}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(filtro.getElementos() == 0);
+        Assert.assertTrue(filtro.getFunciones() == 7);
+        Assert.assertTrue(filtro.getBits() >= 9 * total);
+        Assert.assertTrue(filtro.getBits() <= 10 * total);
+        Assert.assertTrue(filtro.probabilidad() == 0.0);
+        Assert.assertFalse(filtro.contiene("a"));
+        try {
+            new FiltroBloom<String>(0, 0.01, s -> 0, s -> 0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new FiltroBloom<String>(10, 1.0, s -> 0, s -> 0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloom#agrega} y {@link
+     * FiltroBloom#contiene}: no hay falsos negativos, y la proporción de
+     * falsos positivos es cercana a la pedida.
+     */
+    @Test public void testAgregaContiene() {
+        for (int i = 0; i < total; i++) {
+            filtro.agrega("elemento" + i);
+            Assert.assertTrue(filtro.contiene("elemento" + i));
+        }
+        Assert.assertTrue(filtro.getElementos() == total);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(filtro.contiene("elemento" + i));
+        int falsos = 0;
+        for (int i = 0; i < total * 10; i++)
+            if (filtro.contiene("otro" + i))
+                falsos++;
+        double medida = (double)falsos / (total * 10);
+        Assert.assertTrue(medida < 0.02);
+        Assert.assertTrue(Math.abs(filtro.probabilidad() - 0.01) < 0.002);
+        Assert.assertFalse(filtro.contiene(null));
+        try {
+            filtro.agrega(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloom#limpia}.
+     */
+    @Test public void testLimpia() {
+        for (int i = 0; i < total; i++)
+            filtro.agrega("elemento" + i);
+        filtro.limpia();
+        Assert.assertTrue(filtro.getElementos() == 0);
+        for (int i = 0; i < total; i++)
+            Assert.assertFalse(filtro.contiene("elemento" + i));
+    }
+}
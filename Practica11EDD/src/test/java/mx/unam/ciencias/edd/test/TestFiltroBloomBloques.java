@@ -0,0 +1,116 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Random;
+import mx.unam.ciencias.edd.AlgoritmoDispersor;
+import mx.unam.ciencias.edd.FabricaDispersores;
+import mx.unam.ciencias.edd.FiltroBloomBloques;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link FiltroBloomBloques}.
+ */
+public class TestFiltroBloomBloques {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* El filtro. */
+    private FiltroBloomBloques<String> filtro;
+
+    /**
+     * Crea un filtro para cada prueba.
+     */
+    public TestFiltroBloomBloques() {
+        int N = 10000;
+        random = new Random();
+        total = N + random.nextInt(N);
+        filtro = new FiltroBloomBloques<String>(
+            total, 0.01,
+            FabricaDispersores.dispersorCadena(
+                AlgoritmoDispersor.MURMUR3_STRING),
+            FabricaDispersores.dispersorCadena(
+                AlgoritmoDispersor.XXHASH32_STRING));
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloomBloques#FiltroBloomBloques}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(filtro.getFunciones() >= 6 &&
+                          filtro.getFunciones() <= 7);
+        Assert.assertTrue(filtro.getBits() % FiltroBloomBloques.BLOQUE == 0);
+        Assert.assertTrue(filtro.getBits() >= 9 * total);
+        Assert.assertFalse(filtro.contiene("a"));
+        FiltroBloomBloques<String> chico =
+            new FiltroBloomBloques<String>(1, 0.5, s -> 0, s -> 0);
+        Assert.assertTrue(chico.getBits() == FiltroBloomBloques.BLOQUE);
+        try {
+            new FiltroBloomBloques<String>(10, 0.0, s -> 0, s -> 0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloomBloques#agrega} y {@link
+     * FiltroBloomBloques#contiene}: no hay falsos negativos, y la proporción
+     * de falsos positivos queda cerca de la pedida.
+     */
+    @Test public void testAgregaContiene() {
+        for (int i = 0; i < total; i++) {
+            filtro.agrega("elemento" + i);
+            Assert.assertTrue(filtro.contiene("elemento" + i));
+        }
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(filtro.contiene("elemento" + i));
+        int falsos = 0;
+        for (int i = 0; i < total * 10; i++)
+            if (filtro.contiene("otro" + i))
+                falsos++;
+        Assert.assertTrue((double)falsos / (total * 10) < 0.015);
+        Assert.assertFalse(filtro.contiene(null));
+        try {
+            filtro.agrega(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloomBloques#agrega} y {@link
+     * FiltroBloomBloques#contiene} con una probabilidad pequeña: la
+     * proporción de falsos positivos queda cerca de la pedida, aunque los
+     * bloques no se llenen parejo.
+     */
+    @Test public void testProbabilidadPequena() {
+        FiltroBloomBloques<String> preciso = new FiltroBloomBloques<String>(
+            total, 0.001,
+            FabricaDispersores.dispersorCadena(
+                AlgoritmoDispersor.MURMUR3_STRING),
+            FabricaDispersores.dispersorCadena(
+                AlgoritmoDispersor.XXHASH32_STRING));
+        for (int i = 0; i < total; i++)
+            preciso.agrega("elemento" + i);
+        int falsos = 0;
+        for (int i = 0; i < total * 20; i++)
+            if (preciso.contiene("otro" + i))
+                falsos++;
+        Assert.assertTrue((double)falsos / (total * 20) < 0.0015);
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloomBloques#limpia}.
+     */
+    @Test public void testLimpia() {
+        for (int i = 0; i < total; i++)
+            filtro.agrega("elemento" + i);
+        filtro.limpia();
+        for (int i = 0; i < total; i++)
+            Assert.assertFalse(filtro.contiene("elemento" + i));
+    }
+}
@@ -0,0 +1,144 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.AlgoritmoDispersor;
+import mx.unam.ciencias.edd.FabricaDispersores;
+import mx.unam.ciencias.edd.FiltroCuco;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link FiltroCuco}.
+ */
+public class TestFiltroCuco {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* El filtro. */
+    private FiltroCuco<String> filtro;
+
+    /**
+     * Crea un filtro para cada prueba.
+     */
+    public TestFiltroCuco() {
+        int N = 10000;
+        random = new Random();
+        total = N + random.nextInt(N);
+        filtro = new FiltroCuco<String>(
+            total, 0.01,
+            FabricaDispersores.dispersorCadena(
+                AlgoritmoDispersor.MURMUR3_STRING),
+            FabricaDispersores.dispersorCadena(
+                AlgoritmoDispersor.XXHASH32_STRING));
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroCuco#FiltroCuco}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(filtro.getElementos() == 0);
+        Assert.assertTrue(filtro.getBitsHuella() == 10);
+        Assert.assertTrue(filtro.carga() == 0.0);
+        Assert.assertFalse(filtro.estaLleno());
+        Assert.assertFalse(filtro.contiene("a"));
+        FiltroCuco<String> fino =
+            new FiltroCuco<String>(10, 1e-9, s -> 0, s -> 0);
+        Assert.assertTrue(fino.getBitsHuella() == 32);
+        try {
+            new FiltroCuco<String>(-1, 0.01, s -> 0, s -> 0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroCuco#agrega} y {@link
+     * FiltroCuco#contiene}: no hay falsos negativos, y la proporción de
+     * falsos positivos es cercana a la pedida.
+     */
+    @Test public void testAgregaContiene() {
+        for (int i = 0; i < total; i++) {
+            filtro.agrega("elemento" + i);
+            Assert.assertTrue(filtro.contiene("elemento" + i));
+        }
+        Assert.assertTrue(filtro.getElementos() == total);
+        Assert.assertTrue(filtro.carga() <= 1.0);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(filtro.contiene("elemento" + i));
+        int falsos = 0;
+        for (int i = 0; i < total * 10; i++)
+            if (filtro.contiene("otro" + i))
+                falsos++;
+        Assert.assertTrue((double)falsos / (total * 10) < 0.02);
+        Assert.assertFalse(filtro.contiene(null));
+        try {
+            filtro.agrega(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroCuco#elimina}: los elementos
+     * eliminados desaparecen y los demás siguen.
+     */
+    @Test public void testElimina() {
+        for (int i = 0; i < total; i++)
+            filtro.agrega("elemento" + i);
+        for (int i = 0; i < total; i += 2)
+            filtro.elimina("elemento" + i);
+        Assert.assertTrue(filtro.getElementos() == total - (total + 1) / 2);
+        for (int i = 1; i < total; i += 2)
+            Assert.assertTrue(filtro.contiene("elemento" + i));
+        int quedan = 0;
+        for (int i = 0; i < total; i += 2)
+            if (filtro.contiene("elemento" + i))
+                quedan++;
+        Assert.assertTrue(quedan < total / 50);
+        filtro.agrega("repetido");
+        filtro.agrega("repetido");
+        filtro.elimina("repetido");
+        Assert.assertTrue(filtro.contiene("repetido"));
+        filtro.elimina("repetido");
+        try {
+            filtro.elimina(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        filtro.limpia();
+        Assert.assertTrue(filtro.getElementos() == 0);
+        try {
+            filtro.elimina("elemento1");
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para la víctima: con dispersores que chocan siempre,
+     * sólo caben 2·{@link FiltroCuco#CUBETA} huellas más la víctima, y
+     * después el filtro está lleno hasta que se elimina un elemento.
+     */
+    @Test public void testLleno() {
+        FiltroCuco<Integer> lleno =
+            new FiltroCuco<Integer>(1000, 0.01, n -> 0, n -> 0);
+        for (int i = 0; i <= 2 * FiltroCuco.CUBETA; i++)
+            lleno.agrega(i);
+        Assert.assertTrue(lleno.estaLleno());
+        Assert.assertTrue(lleno.getElementos() == 2 * FiltroCuco.CUBETA + 1);
+        try {
+            lleno.agrega(-1);
+            Assert.fail();
+        } catch (IllegalStateException ise) {}
+        Assert.assertTrue(lleno.contiene(12345));
+        lleno.elimina(0);
+        Assert.assertFalse(lleno.estaLleno());
+        Assert.assertTrue(lleno.getElementos() == 2 * FiltroCuco.CUBETA);
+        lleno.agrega(-1);
+        Assert.assertTrue(lleno.estaLleno());
+    }
+}
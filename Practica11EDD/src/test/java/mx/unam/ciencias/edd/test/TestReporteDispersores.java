@@ -0,0 +1,88 @@
+package mx.unam.ciencias.edd.test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import mx.unam.ciencias.edd.Conjunto;
+import mx.unam.ciencias.edd.ReporteDispersores;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link ReporteDispersores}.
+ */
+public class TestReporteDispersores {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /** Directorio temporal para los archivos de las pruebas. */
+    @Rule public TemporaryFolder carpeta = new TemporaryFolder();
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+
+    /**
+     * Crea un generador de números aleatorios para cada prueba.
+     */
+    public TestReporteDispersores() {
+        int N = 5000;
+        random = new Random();
+        total = N + random.nextInt(N);
+    }
+
+    /* Valida que las llaves sean n y distintas. */
+    private void validaDistintas(String[] llaves, int n) {
+        Assert.assertTrue(llaves.length == n);
+        Conjunto<String> distintas = new Conjunto<String>(n);
+        for (String llave : llaves)
+            distintas.agrega(llave);
+        Assert.assertTrue(distintas.getElementos() == n);
+    }
+
+    /**
+     * Prueba unitaria para {@link ReporteDispersores#corpus} con los corpus
+     * predeterminados: cada uno tiene exactamente las llaves pedidas, y son
+     * distintas.
+     */
+    @Test public void testCorpus() throws IOException {
+        for (String nombre : new String[] { "enteros", "uuids",
+                                            "urls", "palabras" })
+            validaDistintas(ReporteDispersores.corpus(nombre, total), total);
+        validaDistintas(ReporteDispersores.corpus("palabras", 100000), 100000);
+    }
+
+    /**
+     * Prueba unitaria para {@link ReporteDispersores#corpus} con un archivo:
+     * se toman los primeros renglones, o todos si hay menos de los pedidos.
+     */
+    @Test public void testCorpusArchivo() throws IOException {
+        Path ruta = carpeta.getRoot().toPath().resolve("llaves");
+        List<String> renglones = new ArrayList<String>();
+        for (int i = 0; i < total; i++)
+            renglones.add("llave" + random.nextInt() + "ñ");
+        Files.write(ruta, renglones, StandardCharsets.UTF_8);
+
+        int n = total / 2;
+        String[] llaves = ReporteDispersores.corpus(ruta.toString(), n);
+        Assert.assertTrue(llaves.length == n);
+        for (int i = 0; i < n; i++)
+            Assert.assertTrue(llaves[i].equals(renglones.get(i)));
+        llaves = ReporteDispersores.corpus(ruta.toString(), total * 2);
+        Assert.assertTrue(llaves.length == total);
+
+        try {
+            ReporteDispersores.corpus(ruta.toString() + "x", n);
+            Assert.fail();
+        } catch (IOException ioe) {}
+    }
+}